@@ -0,0 +1,82 @@
+package com.dfss.benchmarks;
+
+import com.dfss.benchmarks.entity.Product;
+import com.dfss.data.util.DataBaseOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>saveBatch / updateBatch 在不同批量下的耗时（每次调用写入 size 行）。</p>
+ *
+ * <p>saveBatch 每次调用都构造新的实体（主键在插入时分配），构造开销相对 JDBC 批处理可以忽略；
+ * 每轮迭代开始前清空 product 表，避免表持续增长影响后面的迭代。updateBatch 反复更新同一批行，每次修改 name。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchWriteBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<Product> existing;
+
+    private long round;
+
+
+
+    @Setup(Level.Iteration)
+    public void reset(DataLayer layer) {
+        layer.jdbc().execute("TRUNCATE TABLE product");
+        existing = products(size);
+        DataBaseOperation.saveBatch(existing);
+    }
+
+
+
+    @Benchmark
+    public List<Integer> saveBatch(DataLayer layer) {
+        return DataBaseOperation.saveBatch(products(size));
+    }
+
+
+
+    @Benchmark
+    public int[] updateBatch(DataLayer layer) {
+        String name = "product-" + (++round);
+        for (Product product : existing) {
+            product.setName(name);
+        }
+        return DataBaseOperation.updateBatch(existing);
+    }
+
+
+
+    private static List<Product> products(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product().setName("product-" + i).setDescription("benchmark product " + i));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,65 @@
+package com.dfss.benchmarks;
+
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+/**
+ * <p>基准测试使用的 Spring 容器：内嵌 H2（MySQL 模式）+ MyBatis-Plus + dfss-data 全部组件。</p>
+ *
+ * <p>不使用 Spring Boot 自动配置，容器只包含被测路径需要的 Bean，启动快且不会混入与数据层无关的开销；
+ * dfss-data 的拦截器（分表、分页、SQL 指标）按生产环境的默认配置注册。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Configuration
+@ComponentScan("com.dfss.data")
+@MapperScan("com.dfss.benchmarks.mapper")
+public class BenchmarkConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:dfss_bench;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(8);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+
+
+    @Bean
+    public MybatisSqlSessionFactoryBean sqlSessionFactory(
+            DataSource dataSource,
+            ObjectProvider<Interceptor> interceptors
+    ) {
+        MybatisSqlSessionFactoryBean factory = new MybatisSqlSessionFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPlugins(interceptors.orderedStream().toArray(Interceptor[]::new));
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.setBanner(false);
+        factory.setGlobalConfig(globalConfig);
+        return factory;
+    }
+
+
+
+    @Bean
+    public DataSourceTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+}
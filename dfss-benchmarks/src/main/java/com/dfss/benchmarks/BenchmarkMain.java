@@ -0,0 +1,40 @@
+package com.dfss.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>benchmarks.jar 的入口：参数原样交给 JMH，未指定结果格式时默认输出 JSON 到 {@code jmh-result.json}，
+ * 便于在评审中对比前后两次结果。</p>
+ *
+ * <pre>
+ * mvn -pl dfss-benchmarks -am package -DskipTests
+ * java -jar dfss-benchmarks/target/benchmarks.jar                     # 全部基准
+ * java -jar dfss-benchmarks/target/benchmarks.jar PageBenchmark -p pageNum=1,990
+ * java -jar dfss-benchmarks/target/benchmarks.jar -rff before.json    # 指定结果文件
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.addAll(List.of("-rf", "json"));
+        }
+        if (!options.contains("-rff")) {
+            options.addAll(List.of("-rff", "jmh-result.json"));
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
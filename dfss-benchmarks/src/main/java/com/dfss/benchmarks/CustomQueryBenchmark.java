@@ -0,0 +1,57 @@
+package com.dfss.benchmarks;
+
+import com.dfss.benchmarks.mapper.UserMapper;
+import com.dfss.benchmarks.vo.UserVO;
+import com.dfss.data.util.DataBaseOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>executeCustomQuery 按 Bean 名称与方法名反射调用 Mapper 的额外开销，以直接调用 Mapper 方法为基线。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomQueryBenchmark {
+
+    private UserMapper userMapper;
+
+
+
+    @Setup(Level.Trial)
+    public void lookup(DataLayer layer) {
+        userMapper = layer.bean(UserMapper.class);
+    }
+
+
+
+    @Benchmark
+    public List<UserVO> direct(DataLayer layer) {
+        return userMapper.selectVoByName("user-7");
+    }
+
+
+
+    @Benchmark
+    public List<UserVO> executeCustomQuery(DataLayer layer) {
+        return DataBaseOperation.executeCustomQuery("userMapper", "selectVoByName", "user-7");
+    }
+}
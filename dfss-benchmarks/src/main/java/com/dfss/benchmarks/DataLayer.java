@@ -0,0 +1,65 @@
+package com.dfss.benchmarks;
+
+import com.dfss.benchmarks.entity.User;
+import com.dfss.data.util.DataBaseOperation;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>每个 fork 启动一次的数据层：Spring 容器 + 预置 {@value #USERS} 个用户。</p>
+ *
+ * <p>用户名按 {@value #NAMES} 个取值循环，{@code name = user-7} 之类的条件查询每次返回
+ * {@value #USERS} / {@value #NAMES} 行。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@State(Scope.Benchmark)
+public class DataLayer {
+
+    public static final int USERS = 20_000;
+
+    public static final int NAMES = 200;
+
+    private AnnotationConfigApplicationContext context;
+
+
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User().setName("user-" + (i % NAMES)).setEmail("user" + i + "@example.com"));
+        }
+        DataBaseOperation.saveBatch(users);
+    }
+
+
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+
+
+    public JdbcTemplate jdbc() {
+        return new JdbcTemplate(context.getBean(DataSource.class));
+    }
+}
@@ -0,0 +1,46 @@
+package com.dfss.benchmarks;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dfss.benchmarks.entity.User;
+import com.dfss.benchmarks.vo.UserVO;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.util.MapperRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>实体 → Mapper 查找：命中是每个 DataBaseOperation 调用的固定开销；未命中走异常路径。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperLookupBenchmark {
+
+    @Benchmark
+    public BaseMapper<User> hit(DataLayer layer) {
+        return MapperRegistry.getMapper(User.class);
+    }
+
+
+
+    @Benchmark
+    public Object miss(DataLayer layer) {
+        try {
+            return MapperRegistry.getMapper(UserVO.class);
+        } catch (DataBaseOperationException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.dfss.benchmarks;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dfss.benchmarks.entity.User;
+import com.dfss.data.util.CountMode;
+import com.dfss.data.util.DataBaseOperation;
+import com.dfss.data.util.KeysetPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>浅分页与深分页：OFFSET 分页的耗时随页码线性增长，游标分页（pageByKeyset）从上一页最后一个主键 seek，
+ * 与页码无关。两者都不统计总数（{@link CountMode#SKIP}），只比较取页本身。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageBenchmark {
+
+    private static final long PAGE_SIZE = 20;
+
+    @Param({"1", "50", "500", "990"})
+    public long pageNum;
+
+    // 目标页之前最后一行的主键，游标分页从这里开始
+    private long boundary;
+
+
+
+    @Setup(Level.Trial)
+    public void locate(DataLayer layer) {
+        long offset = (pageNum - 1) * PAGE_SIZE;
+        boundary = offset == 0 ? 0L : layer.jdbc().queryForObject(
+                "SELECT id FROM `user` ORDER BY id LIMIT 1 OFFSET ?", Long.class, offset - 1);
+    }
+
+
+
+    @Benchmark
+    public IPage<User> offset(DataLayer layer) {
+        return DataBaseOperation.pageByWrapper(User.class,
+                DataBaseOperation.lambdaQuery(User.class).orderByAsc(User::getId),
+                pageNum, PAGE_SIZE, CountMode.SKIP);
+    }
+
+
+
+    @Benchmark
+    public KeysetPage<User> keyset(DataLayer layer) {
+        return DataBaseOperation.pageByKeyset(User.class,
+                DataBaseOperation.lambdaQuery(User.class).gt(User::getId, boundary),
+                null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.dfss.benchmarks;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dfss.benchmarks.entity.User;
+import com.dfss.benchmarks.vo.UserVO;
+import com.dfss.data.util.CountMode;
+import com.dfss.data.util.DataBaseOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>列表与分页查询的 VO 转换开销：以直接返回实体的 listEntity / pageEntity 为基线，
+ * 对比 list / page 的 VO 投影查询。条件 {@code name = user-7} 每次返回
+ * {@value DataLayer#USERS} / {@value DataLayer#NAMES} 行。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Benchmark
+    public List<User> listEntity(DataLayer layer) {
+        return DataBaseOperation.listEntity(new User().setName("user-7"));
+    }
+
+
+
+    @Benchmark
+    public List<UserVO> listVo(DataLayer layer) {
+        return DataBaseOperation.list(new User().setName("user-7"), UserVO.class);
+    }
+
+
+
+    @Benchmark
+    public IPage<User> pageEntity(DataLayer layer) {
+        return DataBaseOperation.pageEntity(new User().setName("user-7"), 1, 20, CountMode.EXACT);
+    }
+
+
+
+    @Benchmark
+    public IPage<UserVO> pageVo(DataLayer layer) {
+        return DataBaseOperation.page(new User().setName("user-7"), UserVO.class, 1, 20, CountMode.EXACT);
+    }
+}
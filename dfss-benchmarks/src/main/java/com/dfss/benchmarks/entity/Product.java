@@ -0,0 +1,23 @@
+package com.dfss.benchmarks.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 基准测试商品表，结构与 dfss-test-application 的 Product 一致，批量写入基准使用
+ */
+@Data
+@Accessors(chain = true)
+@TableName("product")
+public class Product {
+
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    private String name;
+
+    private String description;
+}
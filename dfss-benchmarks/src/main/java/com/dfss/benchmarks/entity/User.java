@@ -0,0 +1,23 @@
+package com.dfss.benchmarks.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 基准测试用户表，结构与 dfss-test-application 的 User 一致
+ */
+@Data
+@Accessors(chain = true)
+@TableName("user")
+public class User {
+
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    private String name;
+
+    private String email;
+}
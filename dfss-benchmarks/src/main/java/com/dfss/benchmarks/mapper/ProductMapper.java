@@ -0,0 +1,9 @@
+package com.dfss.benchmarks.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dfss.benchmarks.entity.Product;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ProductMapper extends BaseMapper<Product> {
+}
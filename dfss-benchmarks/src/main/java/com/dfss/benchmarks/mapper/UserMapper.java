@@ -0,0 +1,20 @@
+package com.dfss.benchmarks.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dfss.benchmarks.entity.User;
+import com.dfss.benchmarks.vo.UserVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+@Mapper
+public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * executeCustomQuery 基准使用的自定义查询
+     */
+    @Select("SELECT id, name FROM `user` WHERE name = #{name}")
+    List<UserVO> selectVoByName(@Param("name") String name);
+}
@@ -0,0 +1,14 @@
+package com.dfss.benchmarks.vo;
+
+import lombok.Data;
+
+/**
+ * 用户列表 VO，只包含实体的部分属性，用于衡量投影查询与属性拷贝的开销
+ */
+@Data
+public class UserVO {
+
+    private Long id;
+
+    private String name;
+}
@@ -0,0 +1,13 @@
+-- 与 dfss-test-application 的 User / Product 实体一致
+CREATE TABLE IF NOT EXISTS `user` (
+    id    BIGINT PRIMARY KEY,
+    name  VARCHAR(64),
+    email VARCHAR(128)
+);
+CREATE INDEX IF NOT EXISTS idx_user_name ON `user` (name);
+
+CREATE TABLE IF NOT EXISTS product (
+    id          BIGINT PRIMARY KEY,
+    name        VARCHAR(64),
+    description VARCHAR(255)
+);
@@ -12,6 +12,9 @@ import lombok.Getter;
  * throw new DataBaseOperationException(DataBaseErrorCode.MAPPER_NOT_FOUND, "自定义更详细的提示信息");
  * </pre>
  *
+ * <p>{@link #isExpected()} 为 true 的错误由调用方传参或过载保护导致、属于预期内的分支，抛出时不采集堆栈
+ * （{@code fillInStackTrace} 的开销与栈深成正比），日志中也不需要堆栈定位。</p>
+ *
  * @author shushun
  * @since 2025-06-02
  */
@@ -20,7 +23,7 @@ public enum DataBaseErrorCode {
     /**
      * 传入的实体或 DTO 对象为 null。
      */
-    INVALID_ENTITY("DB_OP_001", "实体或 DTO 对象不能为空。"),
+    INVALID_ENTITY("DB_OP_001", "实体或 DTO 对象不能为空。", true),
 
     /**
      * 没有在 mapperMap 中找到对应实体的 BaseMapper。
@@ -35,7 +38,32 @@ public enum DataBaseErrorCode {
     /**
      * 无法实例化目标实体类，通常是因为缺少无参构造函数或访问权限不足。
      */
-    ENTITY_INSTANTIATION_FAILED("DB_OP_004", "无法实例化目标实体，请确保实体具有公共无参构造函数。");
+    ENTITY_INSTANTIATION_FAILED("DB_OP_004", "无法实例化目标实体，请确保实体具有公共无参构造函数。"),
+
+    /**
+     * 获取连接、读取游标等底层 JDBC 访问失败。
+     */
+    SQL_EXECUTION_FAILED("DB_OP_005", "数据库访问失败，请检查数据源与 SQL 执行情况。"),
+
+    /**
+     * 分页参数不合法，例如续页 token 无法解析或 Wrapper 与分页方式冲突。
+     */
+    INVALID_PAGINATION("DB_OP_006", "分页参数无效，请检查分页条件与续页 token。", true),
+
+    /**
+     * 分表实体的查询无法在内存中归并，例如按表达式排序或分片键为空。
+     */
+    UNSUPPORTED_SHARD_QUERY("DB_OP_007", "分表查询不受支持，请检查分片键与排序条件。", true),
+
+    /**
+     * 当前数据库方言不支持该操作，例如 upsertBatch 只支持 MySQL / MariaDB 与 H2。
+     */
+    UNSUPPORTED_DIALECT("DB_OP_008", "当前数据库不支持该操作。"),
+
+    /**
+     * 准入控制排队超时，或剩余时间不足以在截止时间前完成调用。数据库变慢时会大量抛出，因此同样不采集堆栈。
+     */
+    ADMISSION_REJECTED("DB_OP_009", "数据库繁忙，请求未能在截止时间内获得执行许可。", true);
 
     /**
      * 错误码
@@ -51,10 +79,22 @@ public enum DataBaseErrorCode {
      *
      */
     private final String message;
+    /**
+     * 是否为预期内的错误
+     * -- GETTER --
+     * 为 true 时异常不采集堆栈。
+     *
+     */
+    private final boolean expected;
 
     DataBaseErrorCode(String code, String message) {
+        this(code, message, false);
+    }
+
+    DataBaseErrorCode(String code, String message, boolean expected) {
         this.code = code;
         this.message = message;
+        this.expected = expected;
     }
 
 }
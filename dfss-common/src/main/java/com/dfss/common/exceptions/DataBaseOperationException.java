@@ -19,6 +19,8 @@ import lombok.Getter;
  *   <li>{@code errorCode}：对应 {@link DataBaseErrorCode#getCode()}。</li>
  *   <li>{@code errorMessage}：优先使用构造函数传入的自定义消息，若为 null 则使用 {@link DataBaseErrorCode#getMessage()}。</li>
  * </ul>
+ * <p>错误码为预期内错误（{@link DataBaseErrorCode#isExpected()}）时不采集堆栈，{@link #getStackTrace()} 为空数组，
+ * {@link #isExpected()} 为 true。</p>
  *
  * @author shushun
  * @since 2025-06-02
@@ -32,15 +34,19 @@ public class DataBaseOperationException extends RuntimeException {
     /** 错误消息，优先使用自定义；否则使用枚举默认提示 */
     private final String errorMessage;
 
+    /** 是否为预期内的错误，对应 {@link DataBaseErrorCode#isExpected()} */
+    private final boolean expected;
+
     /**
      * 使用枚举指定错误类型，并使用其默认消息。
      *
      * @param errorCodeEnum 枚举项
      */
     public DataBaseOperationException(DataBaseErrorCode errorCodeEnum) {
-        super(errorCodeEnum.getMessage());
+        super(errorCodeEnum.getMessage(), null, true, !errorCodeEnum.isExpected());
         this.errorCode = errorCodeEnum.getCode();
         this.errorMessage = errorCodeEnum.getMessage();
+        this.expected = errorCodeEnum.isExpected();
     }
 
     /**
@@ -50,9 +56,10 @@ public class DataBaseOperationException extends RuntimeException {
      * @param customMessage 自定义错误提示，会覆盖枚举默认提示
      */
     public DataBaseOperationException(DataBaseErrorCode errorCodeEnum, String customMessage) {
-        super(customMessage);
+        super(customMessage, null, true, !errorCodeEnum.isExpected());
         this.errorCode = errorCodeEnum.getCode();
         this.errorMessage = customMessage;
+        this.expected = errorCodeEnum.isExpected();
     }
 
     /**
@@ -63,9 +70,10 @@ public class DataBaseOperationException extends RuntimeException {
      * @param cause         底层异常
      */
     public DataBaseOperationException(DataBaseErrorCode errorCodeEnum, Throwable cause) {
-        super(errorCodeEnum.getMessage(), cause);
+        super(errorCodeEnum.getMessage(), cause, true, !errorCodeEnum.isExpected());
         this.errorCode = errorCodeEnum.getCode();
         this.errorMessage = errorCodeEnum.getMessage();
+        this.expected = errorCodeEnum.isExpected();
     }
 
     /**
@@ -76,9 +84,10 @@ public class DataBaseOperationException extends RuntimeException {
      * @param cause         底层异常
      */
     public DataBaseOperationException(DataBaseErrorCode errorCodeEnum, String customMessage, Throwable cause) {
-        super(customMessage, cause);
+        super(customMessage, cause, true, !errorCodeEnum.isExpected());
         this.errorCode = errorCodeEnum.getCode();
         this.errorMessage = customMessage;
+        this.expected = errorCodeEnum.isExpected();
     }
 
 }
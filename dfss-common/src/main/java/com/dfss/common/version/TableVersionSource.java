@@ -0,0 +1,35 @@
+package com.dfss.common.version;
+
+/**
+ * <p>表版本来源：数据层提供“表内容是否变化”的廉价标记，Web 层据此生成 ETag / Last-Modified，
+ * 在条件请求命中时直接返回 304，不再查询与序列化。</p>
+ *
+ * <p>版本标记只要求“内容变化则标记一定变化”，不要求连续或可比较；实现需保证在多实例、重启之后不会把不同内容
+ * 对应到同一个标记。进程内计数器即使加上实例纪元也感知不到其他实例的写入，多实例部署应基于共享存储
+ * （如版本表、带索引的 {@code MAX(update_time)}）实现。</p>
+ *
+ * <p>容器中有多个实现时，需要用 {@code @Primary} 指定条件 GET 使用哪一个。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public interface TableVersionSource {
+
+    /**
+     * 表的当前版本标记，无法提供时返回 null（此时不生成版本 ETag）。
+     *
+     * @param table 表名，大小写与引号由实现自行规范化
+     */
+    String version(String table);
+
+
+
+    /**
+     * 表最后一次修改的时间（epoch 毫秒），未知时返回 -1。
+     * <p>只有跨实例可靠的来源（如带索引的 {@code MAX(update_time)}）才应返回；进程内计数器无法感知其他实例的写入，
+     * 据此生成 Last-Modified 会让客户端拿到过期数据。</p>
+     */
+    default long lastModified(String table) {
+        return -1L;
+    }
+}
@@ -0,0 +1,38 @@
+package com.dfss.data.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>为实体开启 {@code DataBaseOperation.getById} 的进程内缓存。</p>
+ *
+ * <p>适合极少变更的热点数据（字典、配置等）。缓存只感知通过 DataBaseOperation 的写入，
+ * 自定义 SQL 或其他服务直接修改数据库时，只能依赖 TTL 过期。</p>
+ *
+ * <pre>
+ * &#64;CacheableEntity(maximumSize = 2000, ttlSeconds = 600)
+ * &#64;TableName("sys_dict")
+ * public class Dict { ... }
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableEntity {
+
+    /**
+     * 最大缓存条数，小于 0 时使用 {@code dfss.data.entity-cache.maximum-size}
+     */
+    long maximumSize() default -1;
+
+    /**
+     * 写入后的存活秒数，小于 0 时使用 {@code dfss.data.entity-cache.ttl}
+     */
+    long ttlSeconds() default -1;
+}
@@ -0,0 +1,43 @@
+package com.dfss.data.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>声明实体按分片键水平拆分到多张物理表，由 {@code DataBaseOperation} 负责路由。</p>
+ *
+ * <p>物理表名为 {@code String.format(tableFormat, 逻辑表名, 分片序号)}，序号从 0 开始，需要预先建好全部物理表。
+ * 分片键默认是 {@code @TableId}；主键为 ASSIGN_ID / ASSIGN_UUID 时，插入前会先生成主键再据此选择分片。</p>
+ *
+ * <pre>
+ * &#64;ShardedEntity(tables = 8)
+ * &#64;TableName("user")          // 物理表 user_0 ... user_7
+ * public class User { ... }
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardedEntity {
+
+    /**
+     * 物理表数量
+     */
+    int tables();
+
+    /**
+     * 分片键属性名，为空时使用 {@code @TableId}
+     */
+    String key() default "";
+
+    /**
+     * 物理表名格式，参数依次为逻辑表名与分片序号
+     */
+    String tableFormat() default "%s_%d";
+}
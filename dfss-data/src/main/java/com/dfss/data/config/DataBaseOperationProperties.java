@@ -0,0 +1,486 @@
+package com.dfss.data.config;
+
+import com.dfss.data.routing.ReplicaBalance;
+import com.dfss.data.util.CountMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>DataBaseOperation 相关配置，统一使用 {@code dfss.data} 前缀。</p>
+ *
+ * <pre>
+ * dfss:
+ *   data:
+ *     batch-size: 1000
+ *     update-case-max-rows: 0
+ *     upsert-chunk-size: 500
+ *     stream-fetch-size: 1000
+ *     in-list-chunk-size: 1000
+ *     count-mode: exact
+ *     count-cache-ttl: 60s
+ *     count-cache-max-entries: 10000
+ *     tracked-table-version: false
+ *     entity-cache:
+ *       enabled: true
+ *       maximum-size: 10000
+ *       ttl: 5m
+ *       entities:
+ *         - com.example.entity.Dict
+ *     query-cache:
+ *       enabled: true
+ *       ttl: 10s
+ *       maximum-rows: 100000
+ *       maximum-entry-rows: 1000
+ *       tables: [dict, region]
+ *     async:
+ *       virtual-threads: true
+ *       max-concurrency: 10
+ *       queue-capacity: 1000
+ *     write-behind:
+ *       queue-capacity: 10000
+ *       batch-size: 500
+ *       flush-interval: 100ms
+ *       offer-timeout: 1s
+ *       shutdown-timeout: 30s
+ *     admission:
+ *       enabled: true
+ *       max-concurrency: 10
+ *       queue-timeout: 1s
+ *       classes:
+ *         batch:
+ *           max-concurrency: 2
+ *           queue-timeout: 10s
+ *           entities:
+ *             - com.example.entity.AuditLog
+ *     id-segment:
+ *       enabled: true
+ *       step: 1000
+ *       prefetch-ratio: 0.1
+ *       tables: [user, product]
+ *     metrics:
+ *       enabled: true
+ *       percentiles: [0.5, 0.99, 0.999]
+ *       slow-query-threshold: 500ms
+ *       slow-query-logs-per-second: 10
+ *     routing:
+ *       enabled: true
+ *       balance: weighted
+ *       sticky-window: 1s
+ *       replicas:
+ *         - name: replica-1
+ *           url: jdbc:mysql://replica-1:3306/dfss_db
+ *           username: reader
+ *           password: secret
+ *           weight: 2
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Data
+@ConfigurationProperties(prefix = "dfss.data")
+public class DataBaseOperationProperties {
+
+    /**
+     * 批量写入时每个分块的行数，达到该数量即 flush 一次 JDBC 批处理。
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 批量更新时，非空列相同且行数不超过该值的分组合并为一条 {@code UPDATE ... SET col = CASE id WHEN ...}；
+     * 小于等于 1 表示关闭合并，始终逐行走 JDBC 批处理。
+     */
+    private int updateCaseMaxRows = 0;
+
+    /**
+     * upsertBatch 每条多行语句包含的行数。每行占用“列数”个占位符，MySQL 单条语句最多 65535 个参数，
+     * 过大的分块还会受 max_allowed_packet 限制。
+     */
+    private int upsertChunkSize = 500;
+
+    /**
+     * stream 系列游标查询的 JDBC fetchSize；不配置时按数据库推断，MySQL 为 {@link Integer#MIN_VALUE}（逐行流式），
+     * 其余数据库为 1000。
+     */
+    private Integer streamFetchSize;
+
+    /**
+     * getByIds 每条 IN 查询最多包含的主键数。Oracle 的 IN 列表上限为 1000，SQL Server 单条语句最多 2100 个参数，
+     * MySQL 没有硬性上限但过长的 IN 会增大解析开销与 max_allowed_packet 压力。
+     */
+    private int inListChunkSize = 1000;
+
+    /**
+     * 分页查询默认的总数统计方式，单次调用可通过带 {@link CountMode} 参数的重载覆盖。
+     */
+    private CountMode countMode = CountMode.EXACT;
+
+    /**
+     * CACHED 模式下 COUNT 结果的缓存时间。
+     */
+    private Duration countCacheTtl = Duration.ofSeconds(60);
+
+    /**
+     * CACHED 模式下最多缓存的 COUNT 条目数，超过后先清理过期条目，仍超过则整体清空。
+     */
+    private int countCacheMaxEntries = 10000;
+
+    /**
+     * 是否把进程内的表写入版本注册为 {@link com.dfss.common.version.TableVersionSource}，供条件 GET 生成 ETag。
+     * 计数器感知不到其他实例的写入，只能在单实例部署时开启；多实例部署需要自行提供基于共享存储的实现。
+     */
+    private boolean trackedTableVersion = false;
+
+    /**
+     * getById 实体缓存配置。
+     */
+    private EntityCache entityCache = new EntityCache();
+
+    /**
+     * 查询结果缓存配置。
+     */
+    private QueryCache queryCache = new QueryCache();
+
+    /**
+     * AsyncDataBaseOperation 执行器配置。
+     */
+    private Async async = new Async();
+
+    /**
+     * insertAsync 写后缓冲配置。
+     */
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * DataBaseOperation 准入控制配置。
+     */
+    private Admission admission = new Admission();
+
+    /**
+     * 号段模式主键生成器配置。
+     */
+    private IdSegment idSegment = new IdSegment();
+
+    /**
+     * SQL 指标与慢查询日志配置。
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 读写分离配置。
+     */
+    private Routing routing = new Routing();
+
+
+
+    /**
+     * 实体缓存：标注了 {@link com.dfss.data.annotation.CacheableEntity} 或列在 {@link #entities} 中的实体启用。
+     */
+    @Data
+    public static class EntityCache {
+
+        /**
+         * 总开关，关闭后所有实体都直接查询数据库。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个实体默认的最大缓存条数。
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * 默认的写入后存活时间。
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * 无需修改实体代码即可启用缓存的实体全限定类名。
+         */
+        private List<String> entities = new ArrayList<>();
+    }
+
+
+
+    /**
+     * 查询结果缓存：以规范化 SQL 与参数值为键缓存查询结果，涉及的表发生写入后失效，
+     * 见 {@link com.dfss.data.plugin.QueryResultCacheInterceptor}。
+     */
+    @Data
+    public static class QueryCache {
+
+        /**
+         * 总开关，关闭时不注册拦截器。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 条目写入后的存活时间，兜底覆盖绕过 MyBatis 的写入。
+         */
+        private Duration ttl = Duration.ofSeconds(10);
+
+        /**
+         * 所有条目合计缓存的行数上限（每个条目按行数 + 1 计），超过后按访问频率淘汰。
+         */
+        private long maximumRows = 100000;
+
+        /**
+         * 返回行数超过该值的查询不缓存。
+         */
+        private int maximumEntryRows = 1000;
+
+        /**
+         * 只缓存涉及的表全部列在其中的查询，为空表示缓存所有查询。
+         */
+        private List<String> tables = new ArrayList<>();
+    }
+
+
+
+    /**
+     * 异步执行器：JDK 支持时使用虚拟线程，否则使用有界线程池；并发数不超过连接池大小。
+     */
+    @Data
+    public static class Async {
+
+        /**
+         * 是否优先使用虚拟线程（JDK 21+）。
+         */
+        private boolean virtualThreads = true;
+
+        /**
+         * 同时执行的数据库任务上限；不配置时取 HikariCP 的 maximumPoolSize，无法识别连接池时为 10。
+         */
+        private Integer maxConcurrency;
+
+        /**
+         * 退化为线程池时的等待队列长度，队列满后由提交线程自己执行。
+         */
+        private int queueCapacity = 1000;
+    }
+
+
+
+    /**
+     * 写后缓冲：insertAsync 提交的行按实体排队，攒批后在一个事务中写入。
+     */
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * 每个实体的队列长度上限。
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 每批最多写入的行数，队列攒够该行数即触发写入。
+         */
+        private int batchSize = 500;
+
+        /**
+         * 最早入队的一行最多等待的时间，到期后不足一批也会写入。
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+
+        /**
+         * 队列满时提交线程最多等待的时间，超时后在提交线程同步插入；0 表示不等待。
+         */
+        private Duration offerTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 应用关闭时等待队列写完的最长时间。
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+
+
+    /**
+     * 准入控制：限制同时执行的 DataBaseOperation 调用数，超出的调用排队等待，见 {@link com.dfss.data.util.DataBaseAdmission}。
+     */
+    @Data
+    public static class Admission {
+
+        /**
+         * 总开关，关闭时所有调用直接执行。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 默认类别同时执行的调用数上限；不配置时取 HikariCP 的 maximumPoolSize，无法识别连接池时为 10。
+         */
+        private Integer maxConcurrency;
+
+        /**
+         * 默认类别的最长排队时间，超时后抛出 ADMISSION_REJECTED。
+         */
+        private Duration queueTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 其他类别，键为类别名；各类别的许可相互独立，所有类别的并发上限之和不宜超过连接池大小。
+         */
+        private Map<String, AdmissionClass> classes = new LinkedHashMap<>();
+    }
+
+
+
+    /**
+     * 单个准入类别，未配置的项沿用默认类别。
+     */
+    @Data
+    public static class AdmissionClass {
+
+        /**
+         * 同时执行的调用数上限。
+         */
+        private Integer maxConcurrency;
+
+        /**
+         * 最长排队时间。
+         */
+        private Duration queueTimeout;
+
+        /**
+         * 归入该类别的实体全限定类名。
+         */
+        private List<String> entities = new ArrayList<>();
+    }
+
+
+
+    /**
+     * 号段模式主键生成器：开启后替换 MyBatis-Plus 的 ASSIGN_ID 生成器，见 {@link com.dfss.data.id.SegmentIdGenerator}。
+     */
+    @Data
+    public static class IdSegment {
+
+        /**
+         * 总开关，关闭时使用 MyBatis-Plus 默认的雪花算法。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 号段分配表名。
+         */
+        private String table = "dfss_id_segment";
+
+        /**
+         * 新建标签时每次租用的号数，已有标签以分配表中的 step 列为准。
+         */
+        private int step = 1000;
+
+        /**
+         * 当前号段消耗到该比例时在后台预取下一个号段。
+         */
+        private double prefetchRatio = 0.1;
+
+        /**
+         * 启动时分配表不存在则创建。
+         */
+        private boolean initializeSchema = true;
+
+        /**
+         * 使用号段的逻辑表名，为空表示所有 ASSIGN_ID 实体都使用号段。
+         */
+        private List<String> tables = new ArrayList<>();
+    }
+
+
+
+    /**
+     * SQL 指标：按实体、操作类型与 Mapper 语句记录耗时分位数、行数与错误数，通过 Micrometer 导出。
+     */
+    @Data
+    public static class Metrics {
+
+        /**
+         * 总开关，关闭后不注册拦截器。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 客户端计算的耗时分位数。
+         */
+        private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.99, 0.999));
+
+        /**
+         * 是否额外发布直方图桶，供 Prometheus 等后端跨实例聚合分位数（每条语句会多出几十个时间序列）。
+         */
+        private boolean percentileHistogram = false;
+
+        /**
+         * 慢查询阈值，耗时达到该值的语句记录 WARN 日志。
+         */
+        private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+        /**
+         * 每秒最多输出的慢查询日志条数，超出部分只计数，在下一条日志中汇总。
+         */
+        private int slowQueryLogsPerSecond = 10;
+    }
+
+
+
+    /**
+     * 读写分离：开启后查询走从库，写入走主库，写入后的粘滞窗口内当前线程的查询仍走主库。
+     */
+    @Data
+    public static class Routing {
+
+        /**
+         * 总开关；关闭时不创建路由数据源，所有访问都走 {@code spring.datasource}。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 从库负载均衡策略。
+         */
+        private ReplicaBalance balance = ReplicaBalance.WEIGHTED;
+
+        /**
+         * 写入后当前线程继续读主库的时间，应覆盖主从复制的常见延迟；0 表示不粘滞。
+         * 查询结果缓存也以它估计复制延迟：表在该时间内写入过，从库读到的结果不缓存。
+         */
+        private Duration stickyWindow = Duration.ofSeconds(1);
+
+        /**
+         * 从库列表，主库沿用 {@code spring.datasource} 配置。
+         */
+        private List<Replica> replicas = new ArrayList<>();
+    }
+
+
+
+    /**
+     * 单个从库的连接配置，未配置的用户名、密码、驱动沿用主库。
+     */
+    @Data
+    public static class Replica {
+
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        /**
+         * 权重，0 表示暂不参与读流量。
+         */
+        private int weight = 1;
+
+        /**
+         * 连接池大小，不配置时使用 HikariCP 默认值。
+         */
+        private Integer maximumPoolSize;
+    }
+}
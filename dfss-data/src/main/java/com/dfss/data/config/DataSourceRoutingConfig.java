@@ -0,0 +1,84 @@
+package com.dfss.data.config;
+
+import com.dfss.data.routing.DataSourceRouting;
+import com.dfss.data.routing.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>读写分离数据源配置，{@code dfss.data.routing.enabled=true} 时生效。</p>
+ *
+ * <p>主库按 {@code spring.datasource}（含 {@code spring.datasource.hikari}）构建，从库按
+ * {@code dfss.data.routing.replicas} 构建，二者组合为 {@link RoutingDataSource} 并作为唯一的 DataSource Bean，
+ * 替代 Spring Boot 自动配置的数据源，事务管理器与 MyBatis 都直接使用它。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Configuration
+@EnableConfigurationProperties({DataBaseOperationProperties.class, DataSourceProperties.class})
+@ConditionalOnProperty(prefix = "dfss.data.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @Primary
+    public RoutingDataSource routingDataSource(
+            DataSourceProperties dataSourceProperties,
+            DataBaseOperationProperties properties,
+            Environment environment
+    ) {
+        DataBaseOperationProperties.Routing routing = properties.getRouting();
+        DataSourceRouting.setStickyWindow(routing.getStickyWindow());
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (!StringUtils.hasText(primary.getPoolName())) {
+            primary.setPoolName("dfss-primary");
+        }
+
+        List<RoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (DataBaseOperationProperties.Replica replica : routing.getReplicas()) {
+            replicas.add(new RoutingDataSource.Replica(
+                    replica.getName(), replicaDataSource(replica, dataSourceProperties), replica.getWeight()));
+        }
+        return new RoutingDataSource(primary, replicas, routing.getBalance());
+    }
+
+
+
+    private static HikariDataSource replicaDataSource(
+            DataBaseOperationProperties.Replica replica,
+            DataSourceProperties primary
+    ) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("dfss-" + replica.getName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+        String driver = replica.getDriverClassName() != null
+                ? replica.getDriverClassName() : primary.getDriverClassName();
+        if (StringUtils.hasText(driver)) {
+            dataSource.setDriverClassName(driver);
+        }
+        if (replica.getMaximumPoolSize() != null) {
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        }
+        // 从库只读，驱动可据此做优化（如 MySQL Connector/J 的 readOnly 路由）
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
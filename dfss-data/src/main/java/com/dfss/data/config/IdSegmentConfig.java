@@ -0,0 +1,29 @@
+package com.dfss.data.config;
+
+import com.dfss.data.id.SegmentIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * <p>号段模式主键生成器配置，{@code dfss.data.id-segment.enabled=true} 时生效。</p>
+ *
+ * <p>MyBatis-Plus 自动配置会把容器中的 IdentifierGenerator Bean 设置到全局配置，ASSIGN_ID 实体的 insert、saveBatch、
+ * upsertBatch 以及分表插入前的主键生成都改为从号段发号。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Configuration
+@EnableConfigurationProperties(DataBaseOperationProperties.class)
+@ConditionalOnProperty(prefix = "dfss.data.id-segment", name = "enabled", havingValue = "true")
+public class IdSegmentConfig {
+
+    @Bean
+    public SegmentIdGenerator segmentIdGenerator(DataSource dataSource, DataBaseOperationProperties properties) {
+        return new SegmentIdGenerator(dataSource, properties.getIdSegment());
+    }
+}
@@ -1,21 +1,71 @@
 package com.dfss.data.config;
 
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.dfss.data.plugin.CountModePaginationInterceptor;
+import com.dfss.data.plugin.QueryResultCacheInterceptor;
+import com.dfss.data.plugin.ShardTableNameInterceptor;
+import com.dfss.data.plugin.SqlMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.time.Duration;
 
 @Configuration
+@EnableConfigurationProperties(DataBaseOperationProperties.class)
 public class MybatisPlusConfig {
     /**
-     * 注册 MyBatis-Plus 核心拦截器，并添加 PaginationInnerInterceptor，
+     * 注册 MyBatis-Plus 核心拦截器，并添加分页拦截器（PaginationInnerInterceptor 的子类，额外支持 COUNT 策略），
      * 这样 DataBaseOperation.selectPage(...) 才会自动生成 LIMIT 子句。
+     * 分表表名替换需要在分页之前执行，分页插件生成的 COUNT 才会落在同一张物理表上。
      */
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(DataBaseOperationProperties properties) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
-        // 如果你用的是 MySQL，就指定一个 MySQL 的分页拦截器
-        interceptor.addInnerInterceptor(new PaginationInnerInterceptor());
+        interceptor.addInnerInterceptor(new ShardTableNameInterceptor());
+        // 未指定 DbType 时按连接自动识别方言
+        interceptor.addInnerInterceptor(new CountModePaginationInterceptor(properties));
         return interceptor;
     }
+
+
+
+    /**
+     * SQL 指标拦截器（替代 StdOutImpl 逐条打印 SQL）。容器中有 MeterRegistry（引入 Actuator）时注册到该 Registry，
+     * 否则注册到 Micrometer 全局 Registry。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "dfss.data.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SqlMetricsInterceptor sqlMetricsInterceptor(
+            ObjectProvider<MeterRegistry> registry,
+            DataBaseOperationProperties properties
+    ) {
+        MeterRegistry meterRegistry = registry.getIfAvailable(() -> Metrics.globalRegistry);
+        return new SqlMetricsInterceptor(meterRegistry, properties.getMetrics());
+    }
+
+
+
+    /**
+     * 查询结果缓存拦截器。排在所有拦截器最前面，即包装链的最内层：分页与分表拦截器改写后的最终 SQL 才会作为缓存键，
+     * SQL 指标仍记录包括命中在内的每次调用。
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(prefix = "dfss.data.query-cache", name = "enabled", havingValue = "true")
+    public QueryResultCacheInterceptor queryResultCacheInterceptor(
+            ObjectProvider<MeterRegistry> registry,
+            DataBaseOperationProperties properties
+    ) {
+        MeterRegistry meterRegistry = registry.getIfAvailable(() -> Metrics.globalRegistry);
+        DataBaseOperationProperties.Routing routing = properties.getRouting();
+        Duration replicaLag = routing.isEnabled() ? routing.getStickyWindow() : Duration.ZERO;
+        return new QueryResultCacheInterceptor(meterRegistry, properties.getQueryCache(), replicaLag);
+    }
 }
@@ -0,0 +1,28 @@
+package com.dfss.data.config;
+
+import com.dfss.common.version.TableVersionSource;
+import com.dfss.data.util.TrackedTableVersionSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>进程内表版本来源配置，{@code dfss.data.tracked-table-version=true} 时生效。</p>
+ *
+ * <p>{@link TrackedTableVersionSource} 只能感知本实例经由 DataBaseOperation 的写入，多实例部署下其他实例写入后
+ * 本实例仍会按旧版本返回 304，因此默认不注册。容器中已有其他 {@link TableVersionSource} 时同样不注册。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "dfss.data", name = "tracked-table-version", havingValue = "true")
+public class TableVersionConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(TableVersionSource.class)
+    public TrackedTableVersionSource trackedTableVersionSource() {
+        return new TrackedTableVersionSource();
+    }
+}
@@ -0,0 +1,52 @@
+package com.dfss.data.id;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * <p>在 SQL 渲染之前为实体补齐主键：MyBatis-Plus 只在 insert 的参数处理阶段生成 ASSIGN_ID / ASSIGN_UUID 主键，
+ * 分表路由与多行 upsert 需要更早拿到主键值。</p>
+ *
+ * <p>主键按实体所在 SqlSessionFactory 的全局配置（{@code IdentifierGenerator}）生成，启用号段模式时同样从号段发号；
+ * 回填后 MyBatis-Plus 看到主键已有值便不会再次生成。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public final class EntityKeys {
+
+    private EntityKeys() {
+    }
+
+
+
+    /**
+     * 主键为空且为 ASSIGN_ID / ASSIGN_UUID 时生成主键并回填，其余情况不做任何事。
+     *
+     * @param configuration 实体所在 SqlSessionFactory 的 Configuration
+     * @return 回填后的主键值，仍为空时返回 null
+     */
+    public static Object assignIfAbsent(Configuration configuration, TableInfo tableInfo, Object entity) {
+        String keyProperty = tableInfo.getKeyProperty();
+        Object current = tableInfo.getPropertyValue(entity, keyProperty);
+        IdType idType = tableInfo.getIdType();
+        if (current != null || (idType != IdType.ASSIGN_ID && idType != IdType.ASSIGN_UUID)) {
+            return current;
+        }
+        IdentifierGenerator generator = GlobalConfigUtils.getGlobalConfig(configuration).getIdentifierGenerator();
+        Object value;
+        if (idType == IdType.ASSIGN_ID) {
+            Number id = generator.nextId(entity);
+            Class<?> keyType = tableInfo.getKeyType();
+            value = keyType == Integer.class || keyType == int.class ? id.intValue()
+                    : keyType == String.class ? id.toString() : id.longValue();
+        } else {
+            value = generator.nextUUID(entity);
+        }
+        tableInfo.setPropertyValue(entity, keyProperty, value);
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.dfss.data.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>一次租用得到的号段 {@code [start, end)}。</p>
+ *
+ * <p>发号只有一次 {@link AtomicLong#getAndIncrement()}；游标越过 end 之后的取值全部作废，由调用方切换号段。
+ * 游标恰好等于 {@link #prefetchAt} 的那一次调用负责触发预取，预取因此只会发起一次。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+final class Segment {
+
+    private final AtomicLong cursor;
+    private final long end;
+    private final long prefetchAt;
+
+
+
+    Segment(long start, long end, double prefetchRatio) {
+        this.cursor = new AtomicLong(start);
+        this.end = end;
+        this.prefetchAt = start + (long) ((end - start) * Math.min(Math.max(prefetchRatio, 0), 1));
+    }
+
+
+
+    /**
+     * 取下一个号，号段已用完时返回 -1。
+     */
+    long next() {
+        long id = cursor.getAndIncrement();
+        return id < end ? id : -1;
+    }
+
+
+
+    /**
+     * 该号是否是触发预取的位置。
+     */
+    boolean isPrefetchPoint(long id) {
+        return id == prefetchAt;
+    }
+}
@@ -0,0 +1,154 @@
+package com.dfss.data.id;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.routing.DataSourceRouting;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * <p>从号段分配表租用号段。</p>
+ *
+ * <pre>
+ * CREATE TABLE dfss_id_segment (
+ *     biz_tag     VARCHAR(128) NOT NULL PRIMARY KEY,  -- 逻辑表名
+ *     max_id      BIGINT       NOT NULL,              -- 已分配出去的最大号
+ *     step        INT          NOT NULL,              -- 每次租用的号数
+ *     update_time TIMESTAMP    NOT NULL
+ * )
+ * </pre>
+ *
+ * <p>每次租用在独立连接上执行 {@code UPDATE max_id = max_id + step} 与回读，提交后号段
+ * {@code (max_id - step, max_id]} 归当前进程所有；行锁保证多个实例不会拿到重叠的号段。
+ * 连接直接取自数据源，不参与调用线程上的事务。标签不存在时插入初始行，得到第一个号段 {@code [1, step]}；
+ * 迁移已有数据时可预先插入 {@code max_id} 为当前最大主键的行。修改某一行的 step 即可调整该表的租用粒度。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+final class SegmentAllocator {
+
+    private final DataSource dataSource;
+    private final String table;
+    private final int defaultStep;
+    private final double prefetchRatio;
+
+
+
+    SegmentAllocator(DataSource dataSource, String table, int defaultStep, double prefetchRatio) {
+        this.dataSource = dataSource;
+        this.table = table;
+        this.defaultStep = Math.max(defaultStep, 1);
+        this.prefetchRatio = prefetchRatio;
+    }
+
+
+
+    /**
+     * 分配表不存在时创建（MySQL 与 H2 通用的 DDL）。
+     */
+    void initializeSchema() {
+        DataSourceRouting.write(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + "biz_tag VARCHAR(128) NOT NULL PRIMARY KEY, "
+                        + "max_id BIGINT NOT NULL, "
+                        + "step INT NOT NULL, "
+                        + "update_time TIMESTAMP NOT NULL)");
+                return null;
+            } catch (SQLException ex) {
+                throw new DataBaseOperationException(
+                        DataBaseErrorCode.SQL_EXECUTION_FAILED, "无法创建号段分配表 " + table, ex);
+            }
+        });
+    }
+
+
+
+    /**
+     * 为 tag 租用下一个号段。
+     */
+    Segment lease(String tag) {
+        return DataSourceRouting.write(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    Segment segment = lease(connection, tag);
+                    connection.commit();
+                    return segment;
+                } catch (SQLException | RuntimeException ex) {
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException ex) {
+                throw new DataBaseOperationException(
+                        DataBaseErrorCode.SQL_EXECUTION_FAILED, "号段租用失败: " + tag, ex);
+            }
+        });
+    }
+
+
+
+    private Segment lease(Connection connection, String tag) throws SQLException {
+        if (advance(connection, tag) == 0 && !insertInitial(connection, tag)) {
+            // 其他实例抢先插入了初始行，改为正常租用
+            advance(connection, tag);
+        }
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT max_id, step FROM " + table + " WHERE biz_tag = ?")) {
+            select.setString(1, tag);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("号段分配表中没有 " + tag);
+                }
+                long max = rs.getLong(1);
+                int step = rs.getInt(2);
+                log.debug("租用号段 {} [{}, {}]", tag, max - step + 1, max);
+                return new Segment(max - step + 1, max + 1, prefetchRatio);
+            }
+        }
+    }
+
+
+
+    private int advance(Connection connection, String tag) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + table + " SET max_id = max_id + step, update_time = CURRENT_TIMESTAMP WHERE biz_tag = ?")) {
+            update.setString(1, tag);
+            return update.executeUpdate();
+        }
+    }
+
+
+
+    /**
+     * 插入初始行，主键冲突（并发插入）时返回 false。
+     */
+    private boolean insertInitial(Connection connection, String tag) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (biz_tag, max_id, step, update_time) VALUES (?, ?, ?, CURRENT_TIMESTAMP)")) {
+            insert.setString(1, tag);
+            insert.setLong(2, defaultStep);
+            insert.setInt(3, defaultStep);
+            insert.executeUpdate();
+            return true;
+        } catch (SQLException ex) {
+            // SQLState 23xxx：完整性约束冲突
+            if (ex.getSQLState() != null && ex.getSQLState().startsWith("23")) {
+                return false;
+            }
+            throw ex;
+        }
+    }
+}
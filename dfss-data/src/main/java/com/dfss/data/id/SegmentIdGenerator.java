@@ -0,0 +1,192 @@
+package com.dfss.data.id;
+
+import com.baomidou.mybatisplus.core.incrementer.DefaultIdentifierGenerator;
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.data.config.DataBaseOperationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * <p>号段模式的主键生成器，替代 MyBatis-Plus 默认的雪花算法（{@code IdType.ASSIGN_ID}）。</p>
+ *
+ * <p>每个逻辑表（分表实体取 {@code @TableName}，各分片共用一个号段序列）从分配表租用一段连续的号，
+ * 生成的主键在单个进程内严格递增、在所有实例间唯一，不依赖 worker id，适合按主键范围分区的表：</p>
+ * <ul>
+ *   <li>发号：当前号段上一次 {@code getAndIncrement}，不加锁；</li>
+ *   <li>双缓冲：当前号段消耗到 {@code prefetch-ratio} 时在后台线程租用下一个号段，用完后直接切换，
+ *   insert/saveBatch 不会等待数据库；只有首次使用或预取还没返回时才在调用线程上同步租用；</li>
+ *   <li>{@code tables} 不为空时只有列出的表使用号段，其余实体仍使用雪花算法。</li>
+ * </ul>
+ * <p>进程重启后未用完的号段会被丢弃，主键会出现空洞，但不会重复。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+public class SegmentIdGenerator implements IdentifierGenerator, DisposableBean {
+
+    private final SegmentAllocator allocator;
+    private final Set<String> tables;
+    private final IdentifierGenerator fallback = DefaultIdentifierGenerator.getInstance();
+
+    // 逻辑表名 -> 号段缓冲
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+    // 实体类型 -> 逻辑表名，不使用号段的实体为空串
+    private final Map<Class<?>, String> tags = new ConcurrentHashMap<>();
+
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dfss-id-segment");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+
+
+    public SegmentIdGenerator(DataSource dataSource, DataBaseOperationProperties.IdSegment config) {
+        this.allocator = new SegmentAllocator(
+                dataSource, config.getTable(), config.getStep(), config.getPrefetchRatio());
+        this.tables = config.getTables().stream().map(SegmentIdGenerator::normalize).collect(Collectors.toSet());
+        if (config.isInitializeSchema()) {
+            allocator.initializeSchema();
+        }
+        // 列出的表在启动时就预取第一个号段，首次插入不必同步等待
+        for (String table : tables) {
+            buffer(table).prefetch();
+        }
+    }
+
+
+
+    @Override
+    public Number nextId(Object entity) {
+        String tag = entity == null ? "" : tags.computeIfAbsent(entity.getClass(), this::tag);
+        if (tag.isEmpty()) {
+            return fallback.nextId(entity);
+        }
+        return buffer(tag).next();
+    }
+
+
+
+    @Override
+    public void destroy() {
+        prefetcher.shutdownNow();
+    }
+
+
+
+    private Buffer buffer(String tag) {
+        Buffer buffer = buffers.get(tag);
+        return buffer != null ? buffer : buffers.computeIfAbsent(tag, Buffer::new);
+    }
+
+
+
+    private String tag(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null) {
+            return "";
+        }
+        String table = normalize(tableInfo.getTableName());
+        return tables.isEmpty() || tables.contains(table) ? table : "";
+    }
+
+
+
+    /**
+     * 去掉引号并转为小写，{@code `user`} 与 {@code USER} 视为同一张表。
+     */
+    private static String normalize(String table) {
+        String bare = table;
+        if (bare.length() > 2 && (bare.charAt(0) == '`' || bare.charAt(0) == '"')) {
+            bare = bare.substring(1, bare.length() - 1);
+        }
+        return bare.toLowerCase(Locale.ROOT);
+    }
+
+
+
+    /**
+     * 单个逻辑表的双缓冲：current 供发号，next 是正在预取或已取回的下一个号段。
+     */
+    private final class Buffer {
+
+        private final String tag;
+        private volatile Segment current;
+        private final AtomicReference<CompletableFuture<Segment>> next = new AtomicReference<>();
+
+        Buffer(String tag) {
+            this.tag = tag;
+        }
+
+        long next() {
+            while (true) {
+                Segment segment = current;
+                if (segment != null) {
+                    long id = segment.next();
+                    if (id >= 0) {
+                        if (segment.isPrefetchPoint(id)) {
+                            prefetch();
+                        }
+                        return id;
+                    }
+                }
+                advance(segment);
+            }
+        }
+
+        void prefetch() {
+            CompletableFuture<Segment> future = new CompletableFuture<>();
+            if (!next.compareAndSet(null, future)) {
+                return;
+            }
+            try {
+                prefetcher.execute(() -> {
+                    try {
+                        future.complete(allocator.lease(tag));
+                    } catch (Throwable ex) {
+                        log.warn("预取号段失败，号段用完时将同步租用: {} {}", tag, ex.toString());
+                        future.completeExceptionally(ex);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                // 预取线程已关闭
+                next.compareAndSet(future, null);
+            }
+        }
+
+        /**
+         * 号段用完（或尚未初始化）时切换到下一个号段；只有切换线程持锁，其余线程在锁上等待后重试。
+         */
+        private synchronized void advance(Segment exhausted) {
+            if (current != exhausted) {
+                return;
+            }
+            CompletableFuture<Segment> future = next.getAndSet(null);
+            Segment segment = null;
+            if (future != null) {
+                try {
+                    segment = future.join();
+                } catch (CompletionException ex) {
+                    // 预取失败已记录日志，下面同步重试
+                }
+            }
+            current = segment != null ? segment : allocator.lease(tag);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.dfss.data.plugin;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.ParameterUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.baomidou.mybatisplus.extension.toolkit.JdbcUtils;
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.util.CountMode;
+import com.dfss.data.util.CountModePage;
+import com.dfss.data.util.TableChangeTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>支持 {@link CountMode} 的分页拦截器，替代默认的 {@link PaginationInnerInterceptor}。</p>
+ *
+ * <p>普通 {@link IPage} 与 EXACT/SKIP 模式完全沿用父类逻辑（SKIP 的 searchCount 为 false，父类不会执行 COUNT）；
+ * 额外处理两种模式：</p>
+ * <ul>
+ *   <li>ESTIMATED：在当前连接上对查询语句执行 EXPLAIN，以估算行数作为 total，不支持的数据库退化为精确 COUNT。</li>
+ *   <li>CACHED：以 MyBatis {@link CacheKey}（语句 + SQL + 参数值）为键缓存精确 COUNT，TTL 到期或
+ *   {@link TableChangeTracker} 中表版本变化后失效。</li>
+ * </ul>
+ * <p>这两种模式下 total 不再严格准确，因此不会因为 total 为 0 或页码越界而跳过记录查询。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+public class CountModePaginationInterceptor extends PaginationInnerInterceptor {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
+    private final DataBaseOperationProperties properties;
+
+    private final Map<CacheKey, CachedCount> counts = new ConcurrentHashMap<>();
+
+    // MyBatis Configuration -> 数据库类型，EXPLAIN 语法按库区分
+    private final Map<Configuration, DbType> dbTypes = new ConcurrentHashMap<>();
+
+
+
+    public CountModePaginationInterceptor(DataBaseOperationProperties properties) {
+        this.properties = properties;
+    }
+
+
+
+    // InnerInterceptor 以原始类型声明 ResultHandler，改为 ResultHandler<?> 会与父类方法擦除后冲突而无法覆盖
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean willDoQuery(
+            Executor executor,
+            MappedStatement ms,
+            Object parameter,
+            RowBounds rowBounds,
+            ResultHandler resultHandler,
+            BoundSql boundSql
+    ) throws SQLException {
+        IPage<?> page = ParameterUtils.findPage(parameter).orElse(null);
+        if (!(page instanceof CountModePage<?> countPage)) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        if (countPage.getCountMode() == CountMode.ESTIMATED) {
+            Long estimate = estimate(executor, ms, parameter, boundSql);
+            if (estimate != null) {
+                page.setTotal(estimate);
+                return true;
+            }
+        } else if (countPage.getCountMode() == CountMode.CACHED) {
+            return cachedCount(countPage, executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+    }
+
+
+
+    private boolean cachedCount(
+            CountModePage<?> page,
+            Executor executor,
+            MappedStatement ms,
+            Object parameter,
+            RowBounds rowBounds,
+            ResultHandler<?> resultHandler,
+            BoundSql boundSql
+    ) throws SQLException {
+        CacheKey key = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql);
+        // 先读版本再 COUNT：COUNT 期间发生的写入会让这条缓存在下一次读取时失效
+        long version = TableChangeTracker.version(page.getTable());
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.version() == version && now - cached.expiresAt() < 0) {
+            page.setTotal(cached.total());
+            return true;
+        }
+        super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        if (counts.size() >= properties.getCountCacheMaxEntries()) {
+            counts.values().removeIf(entry -> now - entry.expiresAt() >= 0);
+            if (counts.size() >= properties.getCountCacheMaxEntries()) {
+                counts.clear();
+            }
+        }
+        counts.put(key, new CachedCount(page.getTotal(), version, now + properties.getCountCacheTtl().toNanos()));
+        return true;
+    }
+
+
+
+    /**
+     * 执行计划估算的行数，数据库不支持或 EXPLAIN 失败时返回 null。
+     */
+    private Long estimate(Executor executor, MappedStatement ms, Object parameter, BoundSql boundSql) {
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            DbType dbType = dbTypes.computeIfAbsent(ms.getConfiguration(), k -> dbType(connection));
+            String explain = switch (dbType) {
+                case MYSQL, MARIADB -> "EXPLAIN " + boundSql.getSql();
+                case POSTGRE_SQL -> "EXPLAIN (FORMAT JSON) " + boundSql.getSql();
+                default -> null;
+            };
+            if (explain == null) {
+                return null;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(explain)) {
+                ms.getLang().createParameterHandler(ms, parameter, boundSql).setParameters(statement);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    if (dbType == DbType.POSTGRE_SQL) {
+                        Matcher matcher = PLAN_ROWS.matcher(rs.getString(1));
+                        return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+                    }
+                    // 以驱动表的扫描行数 × 过滤比例作为估算
+                    return Math.round(rs.getLong("rows") * rs.getDouble("filtered") / 100);
+                }
+            }
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("执行计划估算失败，退化为精确 COUNT: {}", ex.toString());
+            return null;
+        }
+    }
+
+
+
+    private static DbType dbType(Connection connection) {
+        try {
+            return JdbcUtils.getDbType(connection.getMetaData().getURL());
+        } catch (SQLException ex) {
+            return DbType.OTHER;
+        }
+    }
+
+
+
+    private record CachedCount(long total, long version, long expiresAt) {
+    }
+}
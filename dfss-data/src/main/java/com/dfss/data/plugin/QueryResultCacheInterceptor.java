@@ -0,0 +1,500 @@
+package com.dfss.data.plugin;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.parser.JsqlParserGlobal;
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.routing.DataSourceRouting;
+import com.dfss.data.sharding.ShardContext;
+import com.dfss.data.util.BeanCopierRegistry;
+import com.dfss.data.util.TableChangeTracker;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * <p>查询结果缓存：短时间内 SQL 与参数值完全相同的查询直接返回缓存的结果快照，适合
+ * listByWrapper/pageByWrapper 这类被反复执行的字典、配置查询。</p>
+ *
+ * <ul>
+ *   <li>键：Mapper 语句、规范化 SQL（合并空白）、各占位符绑定的参数值与 RowBounds。注册在分页与分表拦截器之内，
+ *   看到的是带 LIMIT 的最终 SQL 与物理表名，分页的 COUNT 与记录查询各自缓存；</li>
+ *   <li>失效：用 JSqlParser 解析查询与写入语句涉及的表（按 SQL 缓存解析结果），写入经由 {@link TableChangeTracker}
+ *   递增表版本，条目记录查询执行前各表的版本，命中时版本变化即视为失效。处于事务中时，事务结束后会再递增一次版本。
+ *   无法解析表名的写入使全部条目失效；执行器 flush/commit 后再递增一次，覆盖 BATCH 执行器延迟执行的语句；</li>
+ *   <li>从库：读写分离时，表在 {@code replicaLag}（粘滞窗口）内发生过写入则不缓存从库读到的结果——从库可能尚未复制
+ *   这次写入，结果却会以写入后的版本缓存下来；主库读（含粘滞窗口内的读）照常缓存；</li>
+ *   <li>快照：缓存与返回的都是浅拷贝（实体经 {@link BeanCopierRegistry} 拷贝，Map 拷贝为新 Map），调用方修改结果不会污染缓存；</li>
+ *   <li>边界：所有条目合计行数与单条结果行数都有上限，条目写入后 {@code ttl} 到期，兜底绕过 MyBatis 的写入；</li>
+ *   <li>不缓存：事务中的查询（可能读到未提交的数据）、带 ResultHandler 或游标的查询、存储过程、
+ *   {@code flushCache=true} 的语句与 {@code FOR UPDATE} 等加锁读。</li>
+ * </ul>
+ * <p>指标：{@code dfss.db.query-cache.requests}（{@code result} 为 hit/miss）、{@code dfss.db.query-cache.hit-ratio}、
+ * {@code dfss.db.query-cache.size}、{@code dfss.db.query-cache.rows} 与 {@code dfss.db.query-cache.evictions}。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class})
+})
+public final class QueryResultCacheInterceptor implements Interceptor {
+
+    // 代表“任意表”的版本，无法解析表名的写入递增它，每个条目都依赖它
+    private static final String ANY_TABLE = "*";
+
+    // BaseMapper 注入的写方法只写 Mapper 对应实体的表，不必渲染与解析 SQL
+    private static final Set<String> ENTITY_WRITES = Set.of(
+            "insert", "deleteById", "deleteByMap", "delete", "deleteByIds", "deleteBatchIds", "updateById", "update");
+
+    // 当前线程上一次 flush/commit 之后的写入涉及的表
+    private static final ThreadLocal<Set<String>> PENDING = new ThreadLocal<>();
+
+    private final Cache<Key, Entry> cache;
+    private final int maximumEntryRows;
+
+    // 从库复制延迟的估计，为 0 表示没有从库
+    private final Duration replicaLag;
+
+    // 允许缓存的表（已规范化），为空表示全部
+    private final Set<String> allowed;
+
+    // 规范化 SQL -> 涉及的表，无法解析时为 empty
+    private final Cache<String, Optional<Set<String>>> parsed = Caffeine.newBuilder().maximumSize(4096).build();
+
+    // Mapper 命名空间 -> 实体表名，没有实体的命名空间为 empty
+    private final Map<String, Optional<String>> namespaces = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+
+
+    /**
+     * @param replicaLag 从库复制延迟的估计（取读写分离的粘滞窗口），未启用读写分离时为 {@link Duration#ZERO}
+     */
+    public QueryResultCacheInterceptor(MeterRegistry registry, DataBaseOperationProperties.QueryCache config,
+                                       Duration replicaLag) {
+        this.maximumEntryRows = config.getMaximumEntryRows();
+        this.replicaLag = replicaLag;
+        this.allowed = config.getTables().stream()
+                .map(QueryResultCacheInterceptor::normalizeTable)
+                .collect(Collectors.toUnmodifiableSet());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaximumRows())
+                .weigher((Key key, Entry entry) -> entry.rows().size() + 1)
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        FunctionCounter.builder("dfss.db.query-cache.requests", hits, LongAdder::doubleValue)
+                .description("查询结果缓存的请求数")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("dfss.db.query-cache.requests", misses, LongAdder::doubleValue)
+                .description("查询结果缓存的请求数")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("dfss.db.query-cache.hit-ratio", this, QueryResultCacheInterceptor::hitRatio)
+                .description("查询结果缓存的命中率（启动以来）")
+                .register(registry);
+        Gauge.builder("dfss.db.query-cache.size", cache, Cache::estimatedSize)
+                .description("缓存的条目数")
+                .register(registry);
+        Gauge.builder("dfss.db.query-cache.rows", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .description("缓存的行数（每个条目额外计 1）")
+                .register(registry);
+        FunctionCounter.builder("dfss.db.query-cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("因容量或 TTL 淘汰的条目数")
+                .register(registry);
+    }
+
+
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        if (args == null || args.length <= 1) {
+            // flushStatements() / commit(boolean)：BATCH 执行器的语句此时才真正执行
+            try {
+                return invocation.proceed();
+            } finally {
+                Set<String> pending = PENDING.get();
+                if (pending != null) {
+                    PENDING.remove();
+                    pending.forEach(TableChangeTracker::touch);
+                }
+            }
+        }
+        MappedStatement ms = (MappedStatement) args[0];
+        if (args.length == 2) {
+            try {
+                return invocation.proceed();
+            } finally {
+                // 执行之后再递增版本：执行前递增的话，并发的查询可能以新版本缓存写入前的数据。
+                // 事务中由 TableChangeTracker 在事务结束后再递增（Spring 管理的事务不会调用执行器的 commit）；
+                // 事务外同一次 flush/commit 之前对同一张表的多次写入只递增一次，flush/commit 后统一再递增
+                touchAfterUpdate(writeTables(ms, args[1]));
+            }
+        }
+        return query(invocation, ms, args);
+    }
+
+
+
+    /**
+     * 启动以来的命中率，尚无请求时为 0。
+     */
+    public double hitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+
+
+    /**
+     * 清空所有条目。
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+
+
+    private static void touchAfterUpdate(Set<String> tables) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            tables.forEach(TableChangeTracker::touch);
+            return;
+        }
+        Set<String> pending = PENDING.get();
+        if (pending == null) {
+            pending = new HashSet<>();
+            PENDING.set(pending);
+        }
+        for (String table : tables) {
+            if (pending.add(table)) {
+                TableChangeTracker.touch(table);
+            }
+        }
+    }
+
+
+
+    private Object query(Invocation invocation, MappedStatement ms, Object[] args) throws Throwable {
+        Object parameter = args[1];
+        RowBounds rowBounds = (RowBounds) args[2];
+        if (args[3] != null
+                || ms.isFlushCacheRequired()
+                || ms.getStatementType() == StatementType.CALLABLE
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+        String sql = normalizeSql(boundSql.getSql());
+        Set<String> tables = queryTables(sql);
+        if (tables == null || isLocking(sql)) {
+            return invocation.proceed();
+        }
+        Key key = new Key(ms.getId(), sql, parameters(ms, parameter, boundSql), rowBounds.getOffset(),
+                rowBounds.getLimit());
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            if (entry.isCurrent()) {
+                hits.increment();
+                return entry.copy();
+            }
+            cache.invalidate(key);
+        }
+        misses.increment();
+        // 版本必须在执行前读取：执行期间发生的写入会让这次的结果在下次命中时被判为过期
+        String[] names = tables.toArray(String[]::new);
+        long[] versions = new long[names.length];
+        for (int i = 0; i < names.length; i++) {
+            versions[i] = TableChangeTracker.version(names[i]);
+        }
+        Object result = invocation.proceed();
+        if (result instanceof List<?> rows && rows.size() <= maximumEntryRows && !mayLag(names)) {
+            try {
+                cache.put(key, new Entry(names, versions, snapshot(rows)));
+            } catch (RuntimeException ex) {
+                // 结果对象无法拷贝（没有无参构造器等），不缓存
+                log.debug("查询结果无法缓存: {} {}", ms.getId(), ex.toString());
+            }
+        }
+        return result;
+    }
+
+
+
+    /**
+     * 本次查询是否走从库，且涉及的表在复制延迟内发生过写入（从库读到的可能是写入前的数据）。
+     */
+    private boolean mayLag(String[] tables) {
+        if (replicaLag.isZero()
+                || DataSourceRouting.currentRoute() != DataSourceRouting.Route.REPLICA
+                || DataSourceRouting.isSticky()) {
+            return false;
+        }
+        for (String table : tables) {
+            if (TableChangeTracker.changedWithin(table, replicaLag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+
+    /**
+     * 查询涉及的表（分表的物理表名换回逻辑表名，并加上 {@link #ANY_TABLE}）；无法解析或包含不允许缓存的表时返回 null。
+     */
+    private Set<String> queryTables(String sql) {
+        Set<String> tables = parse(sql).orElse(null);
+        if (tables == null) {
+            return null;
+        }
+        String logical = ShardContext.logicalTable();
+        String physical = logical == null ? null : normalizeTable(ShardContext.resolve(sql, logical));
+        Set<String> result = new HashSet<>(tables.size() + 1);
+        for (String table : tables) {
+            if (table.equals(physical)) {
+                table = normalizeTable(logical);
+            }
+            if (!allowed.isEmpty() && !allowed.contains(table)) {
+                return null;
+            }
+            result.add(table);
+        }
+        result.add(ANY_TABLE);
+        return result;
+    }
+
+
+
+    /**
+     * 写入语句涉及的表，无法解析时为 {@link #ANY_TABLE}。
+     */
+    private Set<String> writeTables(MappedStatement ms, Object parameter) {
+        String id = ms.getId();
+        int dot = id.lastIndexOf('.');
+        if (dot > 0 && ENTITY_WRITES.contains(id.substring(dot + 1))) {
+            Optional<String> table = namespaces.computeIfAbsent(id.substring(0, dot), this::entityTable);
+            if (table.isPresent()) {
+                return Set.of(table.get());
+            }
+        }
+        try {
+            return parse(normalizeSql(ms.getBoundSql(parameter).getSql())).orElse(Set.of(ANY_TABLE));
+        } catch (RuntimeException ex) {
+            return Set.of(ANY_TABLE);
+        }
+    }
+
+
+
+    private Optional<String> entityTable(String namespace) {
+        for (TableInfo tableInfo : TableInfoHelper.getTableInfos()) {
+            if (namespace.equals(tableInfo.getCurrentNamespace())) {
+                return Optional.of(normalizeTable(tableInfo.getTableName()));
+            }
+        }
+        return Optional.empty();
+    }
+
+
+
+    private Optional<Set<String>> parse(String sql) {
+        return parsed.get(sql, s -> {
+            try {
+                Set<String> tables = new TablesNamesFinder<>().getTables(JsqlParserGlobal.parse(s));
+                return Optional.of(tables.stream()
+                        .map(QueryResultCacheInterceptor::normalizeTable)
+                        .collect(Collectors.toUnmodifiableSet()));
+            } catch (JSQLParserException | RuntimeException ex) {
+                log.debug("无法解析 SQL 中的表名: {}", ex.toString());
+                return Optional.empty();
+            }
+        });
+    }
+
+
+
+    /**
+     * 按 MyBatis 设置参数的方式取出每个占位符绑定的值（与 {@code BaseExecutor#createCacheKey} 相同）。
+     */
+    private static List<Object> parameters(MappedStatement ms, Object parameter, BoundSql boundSql) {
+        Configuration configuration = ms.getConfiguration();
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = new ArrayList<>(mappings.size());
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameter == null) {
+                values.add(null);
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                values.add(parameter);
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameter);
+                }
+                values.add(metaObject.getValue(property));
+            }
+        }
+        return values;
+    }
+
+
+
+    private static List<Object> snapshot(List<?> rows) {
+        List<Object> copies = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            copies.add(copy(row));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+
+
+    private static Object copy(Object row) {
+        if (row == null || row instanceof String || row instanceof Number || row instanceof Boolean
+                || row instanceof Character || row instanceof Enum<?> || row instanceof Temporal) {
+            return row;
+        }
+        if (row instanceof Map<?, ?> map) {
+            return new LinkedHashMap<>(map);
+        }
+        if (row instanceof Date date) {
+            return date.clone();
+        }
+        return BeanCopierRegistry.copy(row, row.getClass());
+    }
+
+
+
+    private static boolean isLocking(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        return lower.contains(" for update") || lower.contains(" for share") || lower.contains(" lock in share mode");
+    }
+
+
+
+    /**
+     * 合并连续空白，使只有换行、缩进不同的 SQL 命中同一条目。
+     */
+    private static String normalizeSql(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = builder.length() > 0;
+            } else {
+                if (space) {
+                    builder.append(' ');
+                    space = false;
+                }
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+
+
+    /**
+     * 去掉标识符引号与库名前缀并统一小写。
+     */
+    private static String normalizeTable(String table) {
+        StringBuilder builder = new StringBuilder(table.length());
+        for (int i = 0; i < table.length(); i++) {
+            char c = table.charAt(i);
+            if (c == '.') {
+                builder.setLength(0);
+            } else if (c != '`' && c != '"' && c != '[' && c != ']') {
+                builder.append(c);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+
+
+    private record Key(String statementId, String sql, List<Object> parameters, int offset, int limit) {
+    }
+
+
+
+    /**
+     * 缓存条目：结果快照与执行前各表的版本。
+     */
+    private record Entry(String[] tables, long[] versions, List<Object> rows) {
+
+        boolean isCurrent() {
+            for (int i = 0; i < tables.length; i++) {
+                if (TableChangeTracker.version(tables[i]) != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        List<Object> copy() {
+            List<Object> copies = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                copies.add(QueryResultCacheInterceptor.copy(row));
+            }
+            return copies;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dfss.data.plugin;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.DynamicTableNameInnerInterceptor;
+import com.dfss.data.sharding.ShardContext;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.SqlCommandType;
+
+import java.sql.Connection;
+
+/**
+ * <p>分表表名替换：在 {@link ShardContext} 中执行的语句把逻辑表名替换为当前分片的物理表名。</p>
+ *
+ * <p>不在分片上下文中的语句直接跳过，不做表名解析，对未分表的实体没有额外开销。
+ * 需要注册在分页拦截器之前，COUNT 语句才会基于替换后的 SQL 生成。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public class ShardTableNameInterceptor extends DynamicTableNameInnerInterceptor {
+
+    public ShardTableNameInterceptor() {
+        super(ShardContext::resolve);
+    }
+
+
+
+    @Override
+    public void beforePrepare(StatementHandler sh, Connection connection, Integer transactionTimeout) {
+        if (!ShardContext.isActive()) {
+            return;
+        }
+        PluginUtils.MPStatementHandler mpSh = PluginUtils.mpStatementHandler(sh);
+        if (mpSh.mappedStatement().getSqlCommandType() == SqlCommandType.SELECT) {
+            // 游标查询（selectCursor）不经过 beforeQuery，在这里替换；普通查询此时已是物理表名，再次替换不会改变 SQL
+            PluginUtils.MPBoundSql mpBs = mpSh.mPBoundSql();
+            mpBs.sql(changeTable(mpBs.sql()));
+        } else {
+            super.beforePrepare(sh, connection, transactionTimeout);
+        }
+    }
+
+
+
+    @Override
+    public String changeTable(String sql) {
+        return ShardContext.isActive() ? super.changeTable(sql) : sql;
+    }
+}
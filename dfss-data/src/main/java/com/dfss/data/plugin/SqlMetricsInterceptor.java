@@ -0,0 +1,213 @@
+package com.dfss.data.plugin;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.data.config.DataBaseOperationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>SQL 指标拦截器，替代 {@code StdOutImpl} 逐条打印 SQL：只记录聚合指标，慢查询才输出日志。</p>
+ *
+ * <p>每条 Mapper 语句（{@code MappedStatement#getId()}）对应一组 Micrometer 指标，标签为
+ * {@code entity}（Mapper 对应的实体，无法识别时为 none）、{@code operation}（select/insert/update/delete）与
+ * {@code statement}，后端可按任意维度聚合：</p>
+ * <ul>
+ *   <li>{@code dfss.db.statement}：成功执行的耗时，发布 {@code dfss.data.metrics.percentiles} 分位数；</li>
+ *   <li>{@code dfss.db.statement.rows}：查询返回的行数或写入影响的行数；</li>
+ *   <li>{@code dfss.db.statement.errors}：执行失败次数，额外带 {@code exception} 标签；</li>
+ *   <li>{@code dfss.db.statement.slow}：达到慢查询阈值的次数（包括被限流没有输出日志的）。</li>
+ * </ul>
+ * <p>指标对象按语句缓存，热路径上只有一次 Map 查找与两次 {@code System.nanoTime()}；慢查询日志每秒限量输出，
+ * 不记录参数值。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry registry;
+    private final DataBaseOperationProperties.Metrics config;
+    private final long slowNanos;
+
+    // 语句 id -> 指标
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    // 慢查询日志限流：当前秒、本秒已输出条数、被丢弃的条数
+    private final AtomicLong logSecond = new AtomicLong();
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+
+
+    public SqlMetricsInterceptor(MeterRegistry registry, DataBaseOperationProperties.Metrics config) {
+        this.registry = registry;
+        this.config = config;
+        this.slowNanos = config.getSlowQueryThreshold().toNanos();
+    }
+
+
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        StatementMeters statement = meters.computeIfAbsent(ms.getId(), id -> register(ms));
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable ex) {
+            statement.error(registry, unwrap(ex));
+            throw ex;
+        }
+        long elapsed = System.nanoTime() - start;
+        statement.timer().record(elapsed, TimeUnit.NANOSECONDS);
+        long rows = rows(result);
+        if (rows >= 0) {
+            statement.rows().record(rows);
+        }
+        if (elapsed >= slowNanos) {
+            statement.slow().increment();
+            logSlow(ms, args, elapsed, rows);
+        }
+        return result;
+    }
+
+
+
+    private StatementMeters register(MappedStatement ms) {
+        Tags tags = Tags.of(
+                "entity", entity(ms),
+                "operation", ms.getSqlCommandType().name().toLowerCase(),
+                "statement", ms.getId()
+        );
+        Timer timer = Timer.builder("dfss.db.statement")
+                .description("Mapper 语句执行耗时")
+                .tags(tags)
+                .publishPercentiles(config.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray())
+                .publishPercentileHistogram(config.isPercentileHistogram())
+                .register(registry);
+        DistributionSummary rows = DistributionSummary.builder("dfss.db.statement.rows")
+                .description("查询返回行数或写入影响行数")
+                .baseUnit("rows")
+                .tags(tags)
+                .register(registry);
+        Counter slow = Counter.builder("dfss.db.statement.slow")
+                .description("达到慢查询阈值的次数")
+                .tags(tags)
+                .register(registry);
+        return new StatementMeters(tags, timer, rows, slow, new ConcurrentHashMap<>());
+    }
+
+
+
+    /**
+     * 语句所属 Mapper 对应的实体简单类名，自定义 Mapper 没有实体时为 none。
+     */
+    private static String entity(MappedStatement ms) {
+        String id = ms.getId();
+        String namespace = id.substring(0, Math.max(id.lastIndexOf('.'), 0));
+        for (TableInfo tableInfo : TableInfoHelper.getTableInfos()) {
+            if (namespace.equals(tableInfo.getCurrentNamespace())) {
+                return tableInfo.getEntityType().getSimpleName();
+            }
+        }
+        return "none";
+    }
+
+
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> list) {
+            return list.size();
+        }
+        // BATCH 执行器的 update 返回负数占位值，不计入
+        if (result instanceof Integer count && count >= 0) {
+            return count;
+        }
+        return -1;
+    }
+
+
+
+    private void logSlow(MappedStatement ms, Object[] args, long elapsed, long rows) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long current = logSecond.get();
+        if (current != second && logSecond.compareAndSet(current, second)) {
+            logged.set(0);
+        }
+        if (logged.incrementAndGet() > config.getSlowQueryLogsPerSecond()) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(args[1]);
+        long dropped = suppressed.getAndSet(0);
+        log.warn("慢 SQL {} 耗时 {} ms，行数 {}{}：{}",
+                ms.getId(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                rows,
+                dropped > 0 ? "（此前 " + dropped + " 条慢 SQL 日志被限流）" : "",
+                boundSql.getSql().replaceAll("\\s+", " "));
+    }
+
+
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof InvocationTargetException ite && ite.getTargetException() != null
+                ? ite.getTargetException() : ex;
+    }
+
+
+
+    /**
+     * 单条语句的指标，错误计数按异常类型懒加载。
+     */
+    private record StatementMeters(
+            Tags tags,
+            Timer timer,
+            DistributionSummary rows,
+            Counter slow,
+            Map<Class<?>, Counter> errors
+    ) {
+
+        void error(MeterRegistry registry, Throwable ex) {
+            errors.computeIfAbsent(ex.getClass(), type -> Counter.builder("dfss.db.statement.errors")
+                    .description("Mapper 语句执行失败次数")
+                    .tags(tags)
+                    .tag("exception", type.getSimpleName())
+                    .register(registry)).increment();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.dfss.data.routing;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * <p>读写分离的路由上下文（线程级）。</p>
+ *
+ * <p>DataBaseOperation 的查询方法包在 {@link #read(Supplier)} 中，写方法包在 {@link #write(Supplier)} 中，
+ * {@link RoutingDataSource} 据此选择主库或从库；没有任何标记的访问（自定义 SQL、事务开始时获取连接等）一律走主库。</p>
+ * <ul>
+ *   <li>写入后当前线程在 {@code dfss.data.routing.sticky-window} 内的读请求仍走主库，保证读到自己刚写入的数据；</li>
+ *   <li>{@link #primary(Supplier)} 可强制一段代码读主库，嵌套在其中的 read 不会改回从库；</li>
+ *   <li>{@link #propagate(Runnable)} 把路由与粘滞状态带到其他线程（AsyncDataBaseOperation 的工作线程已自动处理）。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public final class DataSourceRouting {
+
+    /**
+     * 路由目标
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    // 粘滞主库的截止时间（System.nanoTime），0 表示没有；数组在提交方与 propagate 出去的任务之间共享
+    private static final ThreadLocal<long[]> STICKY_UNTIL = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static volatile long stickyWindowNanos = Duration.ofSeconds(1).toNanos();
+
+    private DataSourceRouting() {
+    }
+
+
+
+    /**
+     * 以从库路由执行读操作（处于粘滞窗口或外层已指定主库时仍走主库）。
+     */
+    public static <T> T read(Supplier<T> action) {
+        return with(ROUTE.get() == Route.PRIMARY ? Route.PRIMARY : Route.REPLICA, action);
+    }
+
+
+
+    /**
+     * 以主库路由执行写操作，结束后开启当前线程的粘滞窗口。
+     */
+    public static <T> T write(Supplier<T> action) {
+        try {
+            return with(Route.PRIMARY, action);
+        } finally {
+            markWrite();
+        }
+    }
+
+
+
+    /**
+     * 强制主库执行（如刚写入就需要读到最新数据的跨请求场景）。
+     */
+    public static <T> T primary(Supplier<T> action) {
+        return with(Route.PRIMARY, action);
+    }
+
+
+
+    /**
+     * 标记当前线程刚刚写入，开始粘滞窗口。
+     */
+    public static void markWrite() {
+        STICKY_UNTIL.get()[0] = System.nanoTime() + stickyWindowNanos;
+    }
+
+
+
+    /**
+     * 当前线程是否仍处于写后粘滞窗口内。
+     */
+    public static boolean isSticky() {
+        long until = STICKY_UNTIL.get()[0];
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+
+
+
+    /**
+     * 当前线程的路由，未标记时为 null（即主库）。
+     */
+    public static Route currentRoute() {
+        return ROUTE.get();
+    }
+
+
+
+    /**
+     * 捕获当前线程的路由与粘滞状态，返回在其他线程中以该状态执行 task 的 Runnable。
+     * 粘滞状态是共享的：task 中的写入同样会让当前线程之后的读请求走主库。
+     */
+    public static Runnable propagate(Runnable task) {
+        Route route = ROUTE.get();
+        long[] sticky = STICKY_UNTIL.get();
+        return () -> {
+            Route previousRoute = ROUTE.get();
+            long[] previousSticky = STICKY_UNTIL.get();
+            ROUTE.set(route);
+            STICKY_UNTIL.set(sticky);
+            try {
+                task.run();
+            } finally {
+                STICKY_UNTIL.set(previousSticky);
+                restore(previousRoute);
+            }
+        };
+    }
+
+
+
+    /**
+     * 设置写后粘滞窗口，由 DataSourceRoutingConfig 按配置调用。
+     */
+    public static void setStickyWindow(Duration window) {
+        stickyWindowNanos = window.toNanos();
+    }
+
+
+
+    /**
+     * 清除当前线程的路由与粘滞状态。
+     */
+    static void reset() {
+        ROUTE.remove();
+        STICKY_UNTIL.remove();
+    }
+
+
+
+    private static <T> T with(Route route, Supplier<T> action) {
+        Route previous = ROUTE.get();
+        ROUTE.set(route);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+
+
+    private static void restore(Route previous) {
+        if (previous == null) {
+            ROUTE.remove();
+        } else {
+            ROUTE.set(previous);
+        }
+    }
+}
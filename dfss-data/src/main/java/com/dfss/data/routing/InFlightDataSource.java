@@ -0,0 +1,70 @@
+package com.dfss.data.routing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>统计已借出未归还连接数的 DataSource 包装，供 {@link ReplicaBalance#LEAST_IN_FLIGHT} 选择最空闲的从库。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+class InFlightDataSource extends DelegatingDataSource {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+
+
+    InFlightDataSource(DataSource target) {
+        super(target);
+    }
+
+
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+
+
+    private Connection track(Connection connection) {
+        inFlight.incrementAndGet();
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    // 重复 close 只计一次
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        inFlight.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                }
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.dfss.data.routing;
+
+/**
+ * <p>从库负载均衡策略。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public enum ReplicaBalance {
+
+    /**
+     * 按权重随机。
+     */
+    WEIGHTED,
+
+    /**
+     * 选择借出连接数 / 权重最小的从库，适合各从库响应时间差异较大的场景。
+     */
+    LEAST_IN_FLIGHT
+}
@@ -0,0 +1,191 @@
+package com.dfss.data.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>读写分离数据源：按 {@link DataSourceRouting} 的路由把连接请求分发到主库或某个从库。</p>
+ * <ul>
+ *   <li>只有路由为 REPLICA 且当前线程不在写后粘滞窗口内时才走从库，其余一律走主库；</li>
+ *   <li>从库按 {@link ReplicaBalance} 选择，权重为 0 的从库不参与读流量（可用于临时摘除）；</li>
+ *   <li>从库获取连接失败时记录告警并退回主库，读请求不会因为单个从库故障而失败。</li>
+ * </ul>
+ * <p>注意：Spring 事务在开始时就获取连接，事务内的读写都落在主库，这与读写一致性的要求相符。</p>
+ * <p>主库与从库连接池归本数据源所有（它们不是单独的 Bean），{@link #close()} 时逐个关闭，
+ * 作为 {@code @Bean} 注册时由容器在关闭时调用。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+public final class RoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    /**
+     * 从库定义。
+     *
+     * @param name       从库名称，同时作为路由 key
+     * @param dataSource 从库连接池
+     * @param weight     权重，0 表示不参与读流量
+     */
+    public record Replica(String name, DataSource dataSource, int weight) {
+    }
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    // 主库与各从库的原始连接池，关闭时使用
+    private final List<DataSource> pools = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<InFlightDataSource> replicas = new ArrayList<>();
+    private final int[] weights;
+    private final int totalWeight;
+    private final ReplicaBalance balance;
+
+
+
+    public RoutingDataSource(DataSource primary, List<Replica> replicas, ReplicaBalance balance) {
+        this.primary = primary;
+        this.balance = balance;
+        this.weights = new int[replicas.size()];
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        pools.add(primary);
+        int total = 0;
+        for (Replica replica : replicas) {
+            if (PRIMARY.equals(replica.name()) || targets.containsKey(replica.name())) {
+                throw new IllegalArgumentException("从库名称重复: " + replica.name());
+            }
+            InFlightDataSource tracked = new InFlightDataSource(replica.dataSource());
+            weights[this.replicas.size()] = Math.max(replica.weight(), 0);
+            total += weights[this.replicas.size()];
+            this.names.add(replica.name());
+            this.replicas.add(tracked);
+            this.pools.add(replica.dataSource());
+            targets.put(replica.name(), tracked);
+        }
+        this.totalWeight = total;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+
+
+    /**
+     * 主库连接池。
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+
+
+    /**
+     * 关闭主库与所有从库的连接池；单个连接池关闭失败只记录告警，不影响其余连接池。
+     */
+    @Override
+    public void close() {
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("关闭连接池失败: {}", ex.toString());
+                }
+            }
+        }
+    }
+
+
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return target.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException ex) {
+            log.warn("从库获取连接失败，本次读请求退回主库: {}", ex.toString());
+            return primary.getConnection();
+        }
+    }
+
+
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return target.getConnection(username, password);
+        }
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException ex) {
+            log.warn("从库获取连接失败，本次读请求退回主库: {}", ex.toString());
+            return primary.getConnection(username, password);
+        }
+    }
+
+
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (totalWeight == 0
+                || DataSourceRouting.currentRoute() != DataSourceRouting.Route.REPLICA
+                || DataSourceRouting.isSticky()) {
+            return PRIMARY;
+        }
+        int index = balance == ReplicaBalance.LEAST_IN_FLIGHT ? leastInFlight() : weighted();
+        return names.get(index);
+    }
+
+    //==================== 负载均衡 ====================
+
+
+
+    private int weighted() {
+        int point = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < weights.length; i++) {
+            point -= weights[i];
+            if (point < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+
+
+    private int leastInFlight() {
+        int best = -1;
+        double bestLoad = Double.MAX_VALUE;
+        int ties = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == 0) {
+                continue;
+            }
+            double load = (double) replicas.get(i).inFlight() / weights[i];
+            if (load < bestLoad) {
+                best = i;
+                bestLoad = load;
+                ties = 1;
+            } else if (load == bestLoad && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                // 负载相同的从库之间等概率选择（蓄水池抽样），避免总是压在第一个上
+                best = i;
+            }
+        }
+        return best;
+    }
+}
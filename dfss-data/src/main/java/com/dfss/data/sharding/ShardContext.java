@@ -0,0 +1,79 @@
+package com.dfss.data.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>当前线程正在访问的分片，由 {@link com.dfss.data.plugin.ShardTableNameInterceptor} 读取并把 SQL 中的逻辑表名
+ * 替换为物理表名。</p>
+ *
+ * <p>只有 DataBaseOperation 内部在执行单个分片的语句时才会设置；未设置时 SQL 保持原样，
+ * 因此直接使用 Mapper 或自定义 SQL 访问分表实体时需要自行指定物理表。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public final class ShardContext {
+
+    private record Target(ShardRule rule, int shard) {
+    }
+
+    private static final ThreadLocal<Target> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+
+
+    /**
+     * 在指定分片上执行 action。
+     */
+    public static <T> T on(ShardRule rule, int shard, Supplier<T> action) {
+        Target previous = CURRENT.get();
+        CURRENT.set(new Target(rule, shard));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+
+
+    /**
+     * 当前线程是否处于某个分片上下文中。
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+
+
+    /**
+     * 当前分片上下文的逻辑表名，不在分片上下文中时为 null。
+     */
+    public static String logicalTable() {
+        Target target = CURRENT.get();
+        return target == null ? null : target.rule().logicalTable();
+    }
+
+
+
+    /**
+     * 把 SQL 中出现的表名解析为物理表名，与当前分片的逻辑表名不同（忽略大小写与引号）时原样返回。
+     */
+    public static String resolve(String sql, String tableName) {
+        Target target = CURRENT.get();
+        if (target == null) {
+            return tableName;
+        }
+        String bare = tableName;
+        if (bare.length() > 2 && (bare.charAt(0) == '`' || bare.charAt(0) == '"')) {
+            bare = bare.substring(1, bare.length() - 1);
+        }
+        return bare.equalsIgnoreCase(target.rule().logicalTable()) ? target.rule().table(target.shard()) : tableName;
+    }
+}
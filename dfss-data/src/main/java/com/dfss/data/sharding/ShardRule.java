@@ -0,0 +1,175 @@
+package com.dfss.data.sharding;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.annotation.ShardedEntity;
+import com.dfss.data.id.EntityKeys;
+import org.apache.ibatis.session.Configuration;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>{@link ShardedEntity} 解析后的分片规则。</p>
+ *
+ * <p>分片序号为 {@code mix(键值) mod 表数}。雪花 ID 的低位是同一毫秒内的序列号，低并发下几乎总是 0，直接取模会让
+ * 大部分数据落在同一张表上；这里先用 MurmurHash3 的 fmix64 打散全部 64 位再取模。整数键按数值计算（Long 与 Integer
+ * 形式的同一主键落在同一分片），其余类型使用 {@code hashCode()}（String 的 hashCode 由规范固定，跨 JVM 稳定）。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public final class ShardRule {
+
+    // 实体类 -> 分片规则；未分片的实体缓存为 Optional.empty()
+    private static final Map<Class<?>, Optional<ShardRule>> RULES = new ConcurrentHashMap<>();
+
+    private final TableInfo tableInfo;
+    private final String keyProperty;
+    private final boolean primaryKey;
+    private final String[] tables;
+
+
+
+    private ShardRule(TableInfo tableInfo, String keyProperty, boolean primaryKey, String[] tables) {
+        this.tableInfo = tableInfo;
+        this.keyProperty = keyProperty;
+        this.primaryKey = primaryKey;
+        this.tables = tables;
+    }
+
+
+
+    /**
+     * 实体的分片规则，未标注 {@link ShardedEntity} 时返回 null。
+     */
+    public static ShardRule of(Class<?> entityClass) {
+        return RULES.computeIfAbsent(entityClass, k -> Optional.ofNullable(build(k))).orElse(null);
+    }
+
+
+
+    /**
+     * 分片数量。
+     */
+    public int shards() {
+        return tables.length;
+    }
+
+
+
+    /**
+     * 逻辑表名（{@code @TableName}）。
+     */
+    public String logicalTable() {
+        return tableInfo.getTableName();
+    }
+
+
+
+    /**
+     * 分片序号对应的物理表名。
+     */
+    public String table(int shard) {
+        return tables[shard];
+    }
+
+
+
+    /**
+     * 分片键是否就是主键；是时按主键的单行操作只访问一个分片，否则需要广播到所有分片。
+     */
+    public boolean isPrimaryKey() {
+        return primaryKey;
+    }
+
+
+
+    /**
+     * 按分片键的值计算分片序号。
+     */
+    public int shardOf(Object keyValue) {
+        if (keyValue == null) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "分表实体 " + tableInfo.getEntityType().getName() + " 的分片键 " + keyProperty + " 不能为空"
+            );
+        }
+        long hash = keyValue instanceof Long || keyValue instanceof Integer || keyValue instanceof Short
+                || keyValue instanceof Byte || keyValue instanceof BigInteger
+                ? ((Number) keyValue).longValue() : keyValue.hashCode();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb53fe1a85ec3L;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) tables.length);
+    }
+
+
+
+    /**
+     * 实体所在的分片；分片键为空时返回 -1（调用方需要广播）。
+     */
+    public int shardOfEntity(Object entity) {
+        Object keyValue = tableInfo.getPropertyValue(entity, keyProperty);
+        return keyValue == null ? -1 : shardOf(keyValue);
+    }
+
+
+
+    /**
+     * 插入前确定分片：分片键是 ASSIGN_ID / ASSIGN_UUID 主键且尚未赋值时，先按 MyBatis-Plus 的全局配置生成主键并回填，
+     * 插入时 MyBatis-Plus 看到主键已有值便不会再次生成。
+     *
+     * @param configuration 实体 Mapper 所在 SqlSessionFactory 的 Configuration，用于取得主键生成器
+     */
+    public int shardForInsert(Configuration configuration, Object entity) {
+        Object keyValue = primaryKey
+                ? EntityKeys.assignIfAbsent(configuration, tableInfo, entity)
+                : tableInfo.getPropertyValue(entity, keyProperty);
+        return shardOf(keyValue);
+    }
+
+
+
+    private static ShardRule build(Class<?> entityClass) {
+        ShardedEntity sharded = entityClass.getAnnotation(ShardedEntity.class);
+        if (sharded == null) {
+            return null;
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null || sharded.tables() < 1) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "分表实体 " + entityClass.getName() + " 未注册到 MyBatis-Plus 或分表数量小于 1"
+            );
+        }
+        String keyProperty = sharded.key().isEmpty() ? tableInfo.getKeyProperty() : sharded.key();
+        boolean primaryKey = keyProperty != null && keyProperty.equals(tableInfo.getKeyProperty());
+        if (primaryKey && tableInfo.getIdType() == IdType.AUTO) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "分表实体 " + entityClass.getName() + " 的主键是自增的，插入前无法确定分片，请改用 ASSIGN_ID"
+            );
+        }
+        if (!primaryKey && tableInfo.getFieldList().stream()
+                .map(TableFieldInfo::getProperty).noneMatch(p -> p.equals(keyProperty))) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "分片键 " + keyProperty + " 不是实体 " + entityClass.getName() + " 的数据库列"
+            );
+        }
+        String[] tables = new String[sharded.tables()];
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = String.format(sharded.tableFormat(), tableInfo.getTableName(), i);
+        }
+        return new ShardRule(tableInfo, keyProperty, primaryKey, tables);
+    }
+}
@@ -0,0 +1,418 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.dfss.data.config.DataBaseOperationProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>{@link DataBaseOperation} 的异步门面，每个方法在 {@link DataBaseExecutor} 中执行对应的同步方法并返回
+ * {@link CompletableFuture}，用于并行发起互不依赖的查询：</p>
+ *
+ * <pre>
+ * CompletableFuture&lt;User&gt; user = AsyncDataBaseOperation.getById(User.class, userId);
+ * CompletableFuture&lt;List&lt;Product&gt;&gt; products = AsyncDataBaseOperation.listByWrapper(Product.class, wrapper);
+ * CompletableFuture.allOf(user, products).join();
+ * </pre>
+ *
+ * <p>任务在工作线程上运行，不参与调用方的事务：需要在同一事务中完成的写操作请使用同步方法。
+ * 同时执行的任务数不超过连接池大小，MDC 会传递到工作线程。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Component
+public class AsyncDataBaseOperation implements DisposableBean {
+
+    public AsyncDataBaseOperation(
+            DataBaseOperationProperties properties,
+            ObjectProvider<DataSource> dataSource,
+            ObjectProvider<TaskDecorator> decorators
+    ) {
+        DataBaseExecutor.configure(
+                properties.getAsync(),
+                dataSource.getIfUnique(),
+                decorators.orderedStream().toList()
+        );
+    }
+
+
+
+    @Override
+    public void destroy() {
+        DataBaseExecutor.shutdown();
+    }
+
+    //==================== 公共 CRUD ====================
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#insert}
+     */
+    public static <E> CompletableFuture<Integer> insert(E entity) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.insert(entity));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#insertByDto}
+     */
+    public static <D, E> CompletableFuture<Integer> insertByDto(D dto, Class<E> entityClass) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.insertByDto(dto, entityClass));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#deleteById}
+     */
+    public static <E> CompletableFuture<Integer> deleteById(Class<E> entityClass, Serializable id) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.deleteById(entityClass, id));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#updateById}
+     */
+    public static <E> CompletableFuture<Integer> updateById(E entity) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.updateById(entity));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#updateByDto}
+     */
+    public static <D, E> CompletableFuture<Integer> updateByDto(D dto, Class<E> entityClass) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.updateByDto(dto, entityClass));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#getById}
+     */
+    public static <E> CompletableFuture<E> getById(Class<E> entityClass, Serializable id) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.getById(entityClass, id));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#getByIds}
+     */
+    public static <E> CompletableFuture<MultiGetResult<E>> getByIds(
+            Class<E> entityClass,
+            Collection<? extends Serializable> ids
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.getByIds(entityClass, ids));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#getByIds}
+     */
+    public static <E, V> CompletableFuture<MultiGetResult<V>> getByIds(
+            Class<E> entityClass,
+            Collection<? extends Serializable> ids,
+            Class<V> voClass
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.getByIds(entityClass, ids, voClass));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#getOne}
+     */
+    public static <E, V> CompletableFuture<V> getOne(E entity, Class<V> voClass) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.getOne(entity, voClass));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#getOneByDto}
+     */
+    public static <D, E, V> CompletableFuture<V> getOneByDto(D dto, Class<E> entityClass, Class<V> voClass) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.getOneByDto(dto, entityClass, voClass));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#listEntity}
+     */
+    public static <E> CompletableFuture<List<E>> listEntity(E entity) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.listEntity(entity));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#list}
+     */
+    public static <E, V> CompletableFuture<List<V>> list(E entity, Class<V> voClass) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.list(entity, voClass));
+    }
+
+    //==================== Wrapper 方式的动态查询/更新 ====================
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#listByWrapper}
+     */
+    public static <E> CompletableFuture<List<E>> listByWrapper(Class<E> entityClass, Wrapper<E> wrapper) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.listByWrapper(entityClass, wrapper));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#updateByWrapper}
+     */
+    public static <E> CompletableFuture<Integer> updateByWrapper(Class<E> entityClass, LambdaUpdateWrapper<E> wrapper) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.updateByWrapper(entityClass, wrapper));
+    }
+
+    //==================== 分页操作 ====================
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageEntity}
+     */
+    public static <E> CompletableFuture<IPage<E>> pageEntity(E entity, long pageNum, long pageSize) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.pageEntity(entity, pageNum, pageSize));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageEntity}
+     */
+    public static <E> CompletableFuture<IPage<E>> pageEntity(
+            E entity,
+            long pageNum,
+            long pageSize,
+            CountMode countMode
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.pageEntity(entity, pageNum, pageSize, countMode));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#page}
+     */
+    public static <E, V> CompletableFuture<IPage<V>> page(E entity, Class<V> voClass, long pageNum, long pageSize) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.page(entity, voClass, pageNum, pageSize));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#page}
+     */
+    public static <E, V> CompletableFuture<IPage<V>> page(
+            E entity,
+            Class<V> voClass,
+            long pageNum,
+            long pageSize,
+            CountMode countMode
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.page(entity, voClass, pageNum, pageSize, countMode));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageByWrapper}
+     */
+    public static <E> CompletableFuture<IPage<E>> pageByWrapper(
+            Class<E> entityClass,
+            Wrapper<E> wrapper,
+            long pageNum,
+            long pageSize
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.pageByWrapper(entityClass, wrapper, pageNum, pageSize));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageByWrapper}
+     */
+    public static <E> CompletableFuture<IPage<E>> pageByWrapper(
+            Class<E> entityClass,
+            Wrapper<E> wrapper,
+            long pageNum,
+            long pageSize,
+            CountMode countMode
+    ) {
+        return DataBaseExecutor.supply(
+                () -> DataBaseOperation.pageByWrapper(entityClass, wrapper, pageNum, pageSize, countMode));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageByWrapper}
+     */
+    public static <E, V> CompletableFuture<IPage<V>> pageByWrapper(
+            Class<E> entityClass,
+            Wrapper<E> wrapper,
+            Class<V> voClass,
+            long pageNum,
+            long pageSize
+    ) {
+        return DataBaseExecutor.supply(
+                () -> DataBaseOperation.pageByWrapper(entityClass, wrapper, voClass, pageNum, pageSize));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageByWrapper}
+     */
+    public static <E, V> CompletableFuture<IPage<V>> pageByWrapper(
+            Class<E> entityClass,
+            Wrapper<E> wrapper,
+            Class<V> voClass,
+            long pageNum,
+            long pageSize,
+            CountMode countMode
+    ) {
+        return DataBaseExecutor.supply(
+                () -> DataBaseOperation.pageByWrapper(entityClass, wrapper, voClass, pageNum, pageSize, countMode));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageByKeyset}
+     */
+    public static <E> CompletableFuture<KeysetPage<E>> pageByKeyset(
+            Class<E> entityClass,
+            AbstractWrapper<E, ?, ?> wrapper,
+            String token,
+            long pageSize
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.pageByKeyset(entityClass, wrapper, token, pageSize));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageByKeyset}
+     */
+    public static <E> CompletableFuture<KeysetPage<E>> pageByKeyset(
+            Class<E> entityClass,
+            AbstractWrapper<E, ?, ?> wrapper,
+            SFunction<E, ?> key,
+            String token,
+            long pageSize
+    ) {
+        return DataBaseExecutor.supply(
+                () -> DataBaseOperation.pageByKeyset(entityClass, wrapper, key, token, pageSize));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#pageByKeyset}
+     */
+    public static <E, V> CompletableFuture<KeysetPage<V>> pageByKeyset(
+            Class<E> entityClass,
+            AbstractWrapper<E, ?, ?> wrapper,
+            Class<V> voClass,
+            String token,
+            long pageSize
+    ) {
+        return DataBaseExecutor.supply(
+                () -> DataBaseOperation.pageByKeyset(entityClass, wrapper, voClass, token, pageSize));
+    }
+
+    //==================== 批量操作 ====================
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#saveBatch}
+     */
+    public static <E> CompletableFuture<List<Integer>> saveBatch(List<E> entities) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.saveBatch(entities));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#saveBatch}
+     */
+    public static <E> CompletableFuture<List<Integer>> saveBatch(List<E> entities, int batchSize) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.saveBatch(entities, batchSize));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#updateBatch}
+     */
+    public static <E> CompletableFuture<int[]> updateBatch(List<E> entities) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.updateBatch(entities));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#updateBatch}
+     */
+    public static <E> CompletableFuture<int[]> updateBatch(List<E> entities, int batchSize) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.updateBatch(entities, batchSize));
+    }
+
+    //==================== 自定义 SQL 查询 ====================
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#executeCustomQuery}
+     */
+    public static <V> CompletableFuture<List<V>> executeCustomQuery(
+            String mapperBeanName,
+            String methodName,
+            Object... args
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.executeCustomQuery(mapperBeanName, methodName, args));
+    }
+
+
+
+    /**
+     * 异步执行 {@link DataBaseOperation#executeCustomUpdate}
+     */
+    public static CompletableFuture<Integer> executeCustomUpdate(
+            String mapperBeanName,
+            String methodName,
+            Object... args
+    ) {
+        return DataBaseExecutor.supply(() -> DataBaseOperation.executeCustomUpdate(mapperBeanName, methodName, args));
+    }
+}
@@ -0,0 +1,276 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.core.batch.BatchMethod;
+import com.baomidou.mybatisplus.core.batch.MybatisBatch;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.MapperProxyMetadata;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.MybatisUtils;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>基于 MyBatis {@link ExecutorType#BATCH} 会话的批量语句执行器，供 DataBaseOperation 的批量写入使用。</p>
+ *
+ * <p>MyBatis-Plus 的 insert/updateById 是动态 SQL（{@code <if test="xxx != null">}），非空列不同的实体会生成不同的 SQL，
+ * 而 BatchExecutor 只有在相邻两条 SQL 完全相同时才会复用同一个 PreparedStatement。</p>
+ * <p>因此每个分块内先按“非空列集合”分组，再按组连续提交，保证同组实体共用一条预编译语句、走一次 JDBC 批处理。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+final class BatchStatementExecutor {
+
+    private BatchStatementExecutor() {
+    }
+
+
+
+    /**
+     * 分块执行批量语句，并按入参顺序返回每一行的影响行数。
+     *
+     * @param mapper    实体对应的 BaseMapper（Spring 注入的代理对象）
+     * @param entities  待处理实体
+     * @param batchSize 分块大小，每个分块 flush 一次
+     * @param method    选择要执行的 MyBatis-Plus 语句，例如 {@code MybatisBatch.Method::insert}
+     * @return 与 entities 一一对应的影响行数（驱动未返回时为 {@link Statement#SUCCESS_NO_INFO}）
+     */
+    static <E> int[] execute(
+            BaseMapper<E> mapper,
+            List<E> entities,
+            int batchSize,
+            Function<MybatisBatch.Method<E>, BatchMethod<E>> method
+    ) {
+        return execute(mapper, entities, batchSize, method, 0);
+    }
+
+
+
+    /**
+     * 分块执行 updateById 批处理。caseWhenMaxRows 大于 1 时，行数不超过该值的分组会被合并成一条
+     * {@code UPDATE ... SET col = CASE id WHEN ... END WHERE id IN (...)}，这些行的影响行数只能按整组推断。
+     *
+     * @return 与 entities 一一对应的影响行数
+     */
+    static <E> int[] executeUpdate(BaseMapper<E> mapper, List<E> entities, int batchSize, int caseWhenMaxRows) {
+        return execute(mapper, entities, batchSize, MybatisBatch.Method::updateById, caseWhenMaxRows);
+    }
+
+
+
+    private static <E> int[] execute(
+            BaseMapper<E> mapper,
+            List<E> entities,
+            int batchSize,
+            Function<MybatisBatch.Method<E>, BatchMethod<E>> method,
+            int caseWhenMaxRows
+    ) {
+        if (batchSize <= 0) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "批处理大小必须大于 0");
+        }
+        int[] counts = new int[entities.size()];
+        if (entities.isEmpty()) {
+            return counts;
+        }
+        MapperProxyMetadata proxy = MybatisUtils.getMapperProxy(mapper);
+        SqlSessionFactory factory = MybatisUtils.getSqlSessionFactory(proxy.getSqlSession());
+        MybatisBatch.Method<E> methods = new MybatisBatch.Method<>(proxy.getMapperInterface());
+        BatchMethod<E> batchMethod = method.apply(methods);
+        BatchMethod<Wrapper<E>> wrapperUpdate = methods.update(Function.identity());
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entities.get(0).getClass());
+        // 乐观锁、自动填充与逻辑删除依赖 updateById 的逐行处理，不能合并成 CASE 语句
+        boolean collapsible = caseWhenMaxRows > 1
+                && tableInfo.havePK()
+                && !tableInfo.isWithVersion()
+                && !tableInfo.isWithUpdateFill()
+                && !tableInfo.isWithLogicDelete();
+
+        // Spring 事务中会复用当前连接且不会自行提交，调用方（DataBaseOperation）在事务外调用时会开启本地事务
+        try (SqlSession session = factory.openSession(ExecutorType.BATCH, false)) {
+            for (int from = 0; from < entities.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, entities.size());
+                // 每个 slot 对应一次 session.update，单行 slot 或合并后的 CASE 分组
+                List<int[]> slots = new ArrayList<>();
+                Map<BitSet, List<Integer>> groups = groupByColumns(tableInfo, entities, from, to);
+                for (Map.Entry<BitSet, List<Integer>> entry : groups.entrySet()) {
+                    List<Integer> group = entry.getValue();
+                    if (collapsible && group.size() > 1 && group.size() <= caseWhenMaxRows
+                            && caseWhenColumns(tableInfo, entry.getKey())) {
+                        Wrapper<E> wrapper = caseWhenWrapper(tableInfo, entities, group);
+                        session.update(wrapperUpdate.getStatementId(),
+                                wrapperUpdate.getParameterConvert().convert(wrapper));
+                        slots.add(group.stream().mapToInt(Integer::intValue).toArray());
+                        continue;
+                    }
+                    for (int index : group) {
+                        Object parameter = batchMethod.getParameterConvert().convert(entities.get(index));
+                        session.update(batchMethod.getStatementId(), parameter);
+                        slots.add(new int[]{index});
+                    }
+                }
+                int cursor = 0;
+                for (BatchResult result : session.flushStatements()) {
+                    for (int count : result.getUpdateCounts()) {
+                        spread(counts, slots.get(cursor++), count);
+                    }
+                }
+            }
+            session.commit();
+        }
+        return counts;
+    }
+
+
+
+    /**
+     * 按 batchSize 把逐行影响行数切分为执行分块，汇总每个分块的行数；
+     * 驱动返回 {@link Statement#SUCCESS_NO_INFO}（如 rewriteBatchedStatements 模式）的行按成功一行计。
+     */
+    static List<Integer> chunkCounts(int[] counts, int batchSize) {
+        List<Integer> chunks = new ArrayList<>((counts.length + batchSize - 1) / batchSize);
+        for (int from = 0; from < counts.length; from += batchSize) {
+            int rows = 0;
+            for (int i = from; i < Math.min(from + batchSize, counts.length); i++) {
+                rows += counts[i] == Statement.SUCCESS_NO_INFO ? 1 : counts[i];
+            }
+            chunks.add(rows);
+        }
+        return chunks;
+    }
+
+
+
+    /**
+     * 把一次语句执行的影响行数回填到对应的行；合并分组只能在“全部命中/全部未命中”时精确回填。
+     */
+    private static void spread(int[] counts, int[] slot, int count) {
+        if (slot.length == 1) {
+            counts[slot[0]] = count;
+            return;
+        }
+        int perRow = count == slot.length ? 1 : count == 0 ? 0 : Statement.SUCCESS_NO_INFO;
+        for (int index : slot) {
+            counts[index] = perRow;
+        }
+    }
+
+
+
+    /**
+     * 该列集合能否合并为 CASE 语句：CASE 分支直接绑定属性值，只有与 updateById 生成的 SET 完全等价的列才能合并。
+     * 指定了 typeHandler/jdbcType、{@code update} 模板或非 NOT_NULL 更新策略的列需要走 updateById。
+     */
+    static boolean caseWhenColumns(TableInfo tableInfo, BitSet columns) {
+        if (columns.isEmpty()) {
+            return false;
+        }
+        List<TableFieldInfo> fields = tableInfo.getFieldList();
+        for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+            TableFieldInfo field = fields.get(i);
+            if (field.getTypeHandler() != null
+                    || field.getJdbcType() != null
+                    || field.getUpdateStrategy() != FieldStrategy.NOT_NULL
+                    || StringUtils.isNotBlank(field.getUpdate())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+
+    /**
+     * 为同一列集合的一组实体构造 {@code SET col = CASE key WHEN ? THEN ? ... ELSE col END WHERE key IN (...)}。
+     */
+    private static <E> Wrapper<E> caseWhenWrapper(TableInfo tableInfo, List<E> entities, List<Integer> group) {
+        String keyColumn = tableInfo.getKeyColumn();
+        List<Object> ids = new ArrayList<>(group.size());
+        for (int index : group) {
+            ids.add(keyValue(tableInfo, entities.get(index), index));
+        }
+        UpdateWrapper<E> wrapper = new UpdateWrapper<>();
+        E sample = entities.get(group.get(0));
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (tableInfo.getPropertyValue(sample, field.getProperty()) == null) {
+                continue;
+            }
+            StringBuilder sql = new StringBuilder(field.getColumn()).append(" = CASE ").append(keyColumn);
+            Object[] params = new Object[group.size() * 2];
+            for (int i = 0; i < group.size(); i++) {
+                sql.append(" WHEN {").append(i * 2).append("} THEN {").append(i * 2 + 1).append('}');
+                params[i * 2] = ids.get(i);
+                params[i * 2 + 1] = tableInfo.getPropertyValue(entities.get(group.get(i)), field.getProperty());
+            }
+            sql.append(" ELSE ").append(field.getColumn()).append(" END");
+            wrapper.setSql(sql.toString(), params);
+        }
+        wrapper.in(keyColumn, ids);
+        return wrapper;
+    }
+
+
+
+    private static Object keyValue(TableInfo tableInfo, Object entity, int index) {
+        Object id = tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty());
+        if (id == null) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "批量更新实体主键不能为空，下标: " + index);
+        }
+        return id;
+    }
+
+
+
+    /**
+     * 把 [from, to) 区间内的实体按非空列集合分组（保持首次出现顺序），值为原始下标。
+     */
+    private static <E> Map<BitSet, List<Integer>> groupByColumns(
+            TableInfo tableInfo,
+            List<E> entities,
+            int from,
+            int to
+    ) {
+        Map<BitSet, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            E entity = entities.get(i);
+            if (entity == null) {
+                throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "批量列表中存在空实体，下标: " + i);
+            }
+            groups.computeIfAbsent(nonNullColumns(tableInfo, entity), k -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+
+
+    /**
+     * 计算实体的非空列集合（不含主键），位序与 {@link TableInfo#getFieldList()} 一致。
+     */
+    static BitSet nonNullColumns(TableInfo tableInfo, Object entity) {
+        List<TableFieldInfo> fields = tableInfo.getFieldList();
+        BitSet columns = new BitSet(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            if (tableInfo.getPropertyValue(entity, fields.get(i).getProperty()) != null) {
+                columns.set(i);
+            }
+        }
+        return columns;
+    }
+}
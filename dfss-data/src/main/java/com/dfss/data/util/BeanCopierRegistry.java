@@ -0,0 +1,319 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.beans.Introspector;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>Bean 属性拷贝器注册表，用于替代逐行调用的 {@link BeanUtils#copyProperties(Object, Object)}。</p>
+ *
+ * <p>每个 (源类型, 目标类型) 组合只解析一次 getter/setter，并通过 {@link LambdaMetafactory} 生成
+ * {@link Function}/{@link BiConsumer} 直接调用访问器；目标类型的无参构造同样生成为 {@link Supplier} 缓存。</p>
+ * <ul>
+ *   <li>setter 只要求“set 前缀 + 单参数”，返回 this 的链式 setter（如 {@code User.setName}）同样支持。</li>
+ *   <li>属性按名称匹配，类型按 {@link ClassUtils#isAssignable(Class, Class)} 判断，与 BeanUtils 一致。</li>
+ *   <li>无法生成 lambda 的访问器退化为 {@link MethodHandle} 调用；整个类型无法解析时退化为 BeanUtils。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+public final class BeanCopierRegistry {
+
+    /**
+     * 单个 (源类型, 目标类型) 的属性拷贝器。
+     */
+    @FunctionalInterface
+    public interface BeanCopier {
+        void copy(Object source, Object target);
+    }
+
+    // 源类型 -> (目标类型 -> 拷贝器)，两级 Map 避免每次查找都创建组合 key
+    private static final Map<Class<?>, Map<Class<?>, BeanCopier>> COPIERS = new ConcurrentHashMap<>();
+
+    // 目标类型 -> 无参构造
+    private static final Map<Class<?>, Supplier<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    // 访问器 lambda 按 Method 复用，同一个 getter 参与多个组合时不会重复生成类
+    private static final Map<Method, Function<Object, Object>> GETTERS = new ConcurrentHashMap<>();
+    private static final Map<Method, BiConsumer<Object, Object>> SETTERS = new ConcurrentHashMap<>();
+
+    private BeanCopierRegistry() {
+    }
+
+
+
+    /**
+     * 实例化 targetClass 并拷贝 source 的同名属性。
+     */
+    public static <T> T copy(Object source, Class<T> targetClass) {
+        T target = constructor(targetClass).get();
+        getCopier(source.getClass(), targetClass).copy(source, target);
+        return target;
+    }
+
+
+
+    /**
+     * 把 source 的同名属性拷贝到已有的 target 上。
+     */
+    public static void copyProperties(Object source, Object target) {
+        getCopier(source.getClass(), target.getClass()).copy(source, target);
+    }
+
+
+
+    /**
+     * 批量转换，同一源类型只查找一次拷贝器。
+     */
+    public static <S, T> List<T> copyList(List<S> sources, Class<T> targetClass) {
+        List<T> result = new ArrayList<>(sources.size());
+        Supplier<T> constructor = constructor(targetClass);
+        Class<?> lastType = null;
+        BeanCopier copier = null;
+        for (S source : sources) {
+            if (source == null) {
+                result.add(null);
+                continue;
+            }
+            if (source.getClass() != lastType) {
+                lastType = source.getClass();
+                copier = getCopier(lastType, targetClass);
+            }
+            T target = constructor.get();
+            copier.copy(source, target);
+            result.add(target);
+        }
+        return result;
+    }
+
+
+
+    /**
+     * 获取 (sourceClass, targetClass) 对应的拷贝器，首次调用时构建。
+     */
+    public static BeanCopier getCopier(Class<?> sourceClass, Class<?> targetClass) {
+        return COPIERS.computeIfAbsent(sourceClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(targetClass, k -> buildCopier(sourceClass, targetClass));
+    }
+
+
+
+    /**
+     * 获取 targetClass 的无参构造器，实例化失败时抛出 {@link DataBaseErrorCode#ENTITY_INSTANTIATION_FAILED}。
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Supplier<T> constructor(Class<T> targetClass) {
+        if (targetClass == null) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "目标类不能为空");
+        }
+        return (Supplier<T>) CONSTRUCTORS.computeIfAbsent(targetClass, BeanCopierRegistry::buildConstructor);
+    }
+
+    //==================== 构建 ====================
+
+
+
+    private static BeanCopier buildCopier(Class<?> sourceClass, Class<?> targetClass) {
+        try {
+            Map<String, Method> getters = readMethods(sourceClass);
+            List<BeanCopier> properties = new ArrayList<>();
+            for (Method setter : targetClass.getMethods()) {
+                if (!isSetter(setter)) {
+                    continue;
+                }
+                Method getter = getters.get(propertyName(setter.getName(), 3));
+                if (getter == null
+                        || !ClassUtils.isAssignable(setter.getParameterTypes()[0], getter.getReturnType())) {
+                    continue;
+                }
+                properties.add(propertyCopier(getter, setter));
+            }
+            BeanCopier[] copiers = properties.toArray(new BeanCopier[0]);
+            return (source, target) -> {
+                for (BeanCopier copier : copiers) {
+                    copier.copy(source, target);
+                }
+            };
+        } catch (Throwable ex) {
+            log.warn("无法为 {} -> {} 生成属性拷贝器，退化为 BeanUtils.copyProperties: {}",
+                    sourceClass.getName(), targetClass.getName(), ex.toString());
+            return BeanUtils::copyProperties;
+        }
+    }
+
+
+
+    private static BeanCopier propertyCopier(Method getter, Method setter) throws Throwable {
+        Function<Object, Object> read;
+        BiConsumer<Object, Object> write;
+        try {
+            read = GETTERS.get(getter);
+            if (read == null) {
+                read = lambdaGetter(getter);
+                GETTERS.putIfAbsent(getter, read);
+            }
+            write = SETTERS.get(setter);
+            if (write == null) {
+                write = lambdaSetter(setter);
+                SETTERS.putIfAbsent(setter, write);
+            }
+        } catch (Throwable ex) {
+            // 跨类加载器、非公开类型等无法生成 lambda 的场景，退化为 MethodHandle
+            MethodHandle getterHandle = MethodHandles.publicLookup().unreflect(getter)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            MethodHandle setterHandle = MethodHandles.publicLookup().unreflect(setter)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            read = source -> invoke(getterHandle, source);
+            write = (target, value) -> invoke(setterHandle, target, value);
+        }
+        boolean primitive = setter.getParameterTypes()[0].isPrimitive();
+        Function<Object, Object> reader = read;
+        BiConsumer<Object, Object> writer = write;
+        return (source, target) -> {
+            Object value = reader.apply(source);
+            // null 无法写入基本类型属性，直接跳过
+            if (value != null || !primitive) {
+                writer.accept(target, value);
+            }
+        };
+    }
+
+
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> lambdaGetter(Method getter) throws Throwable {
+        Class<?> owner = getter.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflect(getter);
+        CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(getter.getReturnType()), owner)
+        );
+        return (Function<Object, Object>) site.getTarget().invoke();
+    }
+
+
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> lambdaSetter(Method setter) throws Throwable {
+        Class<?> owner = setter.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflect(setter);
+        Class<?> valueType = ClassUtils.resolvePrimitiveIfNecessary(setter.getParameterTypes()[0]);
+        // 链式 setter 的返回值在 void 的 accept 中被丢弃
+        CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "accept",
+                MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class),
+                handle,
+                MethodType.methodType(void.class, owner, valueType)
+        );
+        return (BiConsumer<Object, Object>) site.getTarget().invoke();
+    }
+
+
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<?> buildConstructor(Class<?> targetClass) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup());
+            MethodHandle handle = lookup.findConstructor(targetClass, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(targetClass)
+            );
+            return (Supplier<Object>) site.getTarget().invoke();
+        } catch (Throwable ex) {
+            // 抽象类、无无参构造等情况：保留反射实例化，失败时按调用报错
+            return () -> {
+                try {
+                    return targetClass.getDeclaredConstructor().newInstance();
+                } catch (Exception e) {
+                    throw new DataBaseOperationException(
+                            DataBaseErrorCode.ENTITY_INSTANTIATION_FAILED,
+                            "无法实例化 " + targetClass.getName(), e
+                    );
+                }
+            };
+        }
+    }
+
+    //==================== 反射辅助 ====================
+
+
+
+    private static Map<String, Method> readMethods(Class<?> type) {
+        Map<String, Method> getters = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())
+                    || method.isBridge() || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = method.getName();
+            if (name.startsWith("get") && name.length() > 3 && method.getReturnType() != void.class) {
+                getters.putIfAbsent(propertyName(name, 3), method);
+            } else if (name.startsWith("is") && name.length() > 2 && method.getReturnType() == boolean.class) {
+                getters.putIfAbsent(propertyName(name, 2), method);
+            }
+        }
+        return getters;
+    }
+
+
+
+    private static boolean isSetter(Method method) {
+        return method.getName().startsWith("set")
+                && method.getName().length() > 3
+                && method.getParameterCount() == 1
+                && !method.isBridge()
+                && !Modifier.isStatic(method.getModifiers());
+    }
+
+
+
+    private static String propertyName(String methodName, int prefixLength) {
+        return Introspector.decapitalize(methodName.substring(prefixLength));
+    }
+
+
+
+    private static Object invoke(MethodHandle handle, Object... args) {
+        try {
+            return handle.invokeWithArguments(args);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
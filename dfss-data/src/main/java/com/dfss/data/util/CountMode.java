@@ -0,0 +1,31 @@
+package com.dfss.data.util;
+
+/**
+ * <p>分页查询的总数统计方式。全局默认值见 {@code dfss.data.count-mode}，也可以在单次分页调用时指定。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public enum CountMode {
+
+    /**
+     * 精确 COUNT，与 MyBatis-Plus 默认行为一致。
+     */
+    EXACT,
+
+    /**
+     * 不执行 COUNT，多取一行判断是否有下一页；total 为下限（offset + 本页行数，有下一页时再加 1），
+     * {@link com.baomidou.mybatisplus.extension.plugins.pagination.Page#hasNext()} 仍然可用。
+     */
+    SKIP,
+
+    /**
+     * 使用执行计划的行数估算（MySQL/MariaDB EXPLAIN、PostgreSQL EXPLAIN），其他数据库退化为精确 COUNT。
+     */
+    ESTIMATED,
+
+    /**
+     * 精确 COUNT 结果按查询条件缓存，TTL 到期或 DataBaseOperation 写入同一张表后失效。
+     */
+    CACHED
+}
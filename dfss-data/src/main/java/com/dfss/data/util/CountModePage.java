@@ -0,0 +1,70 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>携带 {@link CountMode} 的分页参数，由 {@link com.dfss.data.plugin.CountModePaginationInterceptor} 识别。</p>
+ *
+ * <p>SKIP 模式下查询时 size 为 pageSize + 1、关闭 COUNT，offset 仍按 pageSize 计算；查询完成后由 {@link #complete()}
+ * 裁掉多取的一行并还原 size。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Getter
+public class CountModePage<T> extends Page<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CountMode countMode;
+
+    /**
+     * 查询的实体表名，CACHED 模式按表失效缓存
+     */
+    private final String table;
+
+    private final long pageSize;
+
+
+
+    public CountModePage(long current, long pageSize, CountMode countMode, String table) {
+        super(current, countMode == CountMode.SKIP ? pageSize + 1 : pageSize, countMode != CountMode.SKIP);
+        this.countMode = countMode;
+        this.table = table;
+        this.pageSize = pageSize;
+    }
+
+
+
+    @Override
+    public long offset() {
+        long current = getCurrent();
+        return current <= 1L ? 0L : Math.max((current - 1) * pageSize, 0L);
+    }
+
+
+
+    /**
+     * 查询完成后按统计方式修正记录与总数。
+     */
+    CountModePage<T> complete() {
+        long fetched = offset() + getRecords().size();
+        if (countMode == CountMode.SKIP) {
+            List<T> rows = getRecords();
+            boolean hasNext = rows.size() > pageSize;
+            if (hasNext) {
+                setRecords(new ArrayList<>(rows.subList(0, (int) pageSize)));
+            }
+            setSize(pageSize);
+            setTotal(offset() + getRecords().size() + (hasNext ? 1 : 0));
+        } else if (countMode == CountMode.ESTIMATED && getTotal() < fetched) {
+            // 估算值可能偏小，至少覆盖已经读到的行
+            setTotal(fetched);
+        }
+        return this;
+    }
+}
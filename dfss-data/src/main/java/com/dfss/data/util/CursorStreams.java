@@ -0,0 +1,154 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>把 MyBatis {@link Cursor} 包装为 {@link Stream}，用于大结果集的常量内存读取。</p>
+ *
+ * <p>游标需要在整个读取期间占用连接，因此不走 SqlSessionTemplate（调用结束即关闭会话），而是单独打开一个
+ * SqlSession：在 Spring 事务中会复用事务连接，否则从连接池借出一个连接。会话在以下任一时机关闭并归还连接：</p>
+ * <ul>
+ *   <li>游标读取完毕；</li>
+ *   <li>调用方关闭 Stream（推荐使用 try-with-resources）；</li>
+ *   <li>Stream（及其 Iterator）未关闭就被丢弃，由 {@link Cleaner} 在其被回收后兜底关闭。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+final class CursorStreams {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private CursorStreams() {
+    }
+
+
+
+    /**
+     * 打开游标并返回逐行转换后的 Stream。
+     *
+     * @param factory     Mapper 所属的 SqlSessionFactory
+     * @param statementId 游标查询语句 id（见 {@link DerivedStatements#cursorStatement}）
+     * @param parameter   语句参数
+     * @param converter   每行的转换函数（实体 → VO 等）
+     */
+    static <T, R> Stream<R> open(
+            SqlSessionFactory factory,
+            String statementId,
+            Object parameter,
+            Function<? super T, ? extends R> converter
+    ) {
+        SqlSession session = factory.openSession();
+        Cursor<T> cursor;
+        try {
+            cursor = session.selectCursor(statementId, parameter);
+        } catch (RuntimeException ex) {
+            session.close();
+            throw ex;
+        }
+        CursorResource resource = new CursorResource(session, cursor);
+        CursorIterator<T, R> iterator = new CursorIterator<>(resource, cursor.iterator(), converter);
+        // 注册在迭代器上而不是 Stream 上：调用方可能只保留 stream.iterator()，此时 Stream 本身在读取途中就不可达了，
+        // 而迭代器始终被 Stream 与其 Iterator 适配器引用，只有二者都被丢弃后才会触发
+        CLEANER.register(iterator, resource);
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(resource);
+    }
+
+
+
+    /**
+     * 逐行读取游标并转换。读完后立即关闭游标；未读完就被关闭（调用方关闭了 Stream）时继续读取会抛出异常，
+     * 而不是当作读取完毕，避免静默地只处理了部分数据。
+     */
+    private static final class CursorIterator<T, R> implements Iterator<R> {
+
+        private final CursorResource resource;
+        private final Iterator<T> rows;
+        private final Function<? super T, ? extends R> converter;
+        private boolean exhausted;
+
+        CursorIterator(CursorResource resource, Iterator<T> rows, Function<? super T, ? extends R> converter) {
+            this.resource = resource;
+            this.rows = rows;
+            this.converter = converter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (exhausted) {
+                return false;
+            }
+            if (resource.isClosed()) {
+                throw new IllegalStateException("游标已关闭，结果尚未读取完毕");
+            }
+            if (rows.hasNext()) {
+                return true;
+            }
+            exhausted = true;
+            // 读完立即归还连接，不必等待调用方 close
+            resource.run();
+            return false;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return converter.apply(rows.next());
+        }
+    }
+
+
+
+    /**
+     * 游标与会话的关闭动作，可重复调用。不能持有迭代器或 Stream 的引用，否则 Cleaner 永远不会触发。
+     */
+    private static final class CursorResource implements Runnable {
+
+        private final SqlSession session;
+        private final Cursor<?> cursor;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        CursorResource(SqlSession session, Cursor<?> cursor) {
+            this.session = session;
+            this.cursor = cursor;
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        @Override
+        public void run() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                cursor.close();
+            } catch (IOException ex) {
+                throw new DataBaseOperationException(DataBaseErrorCode.SQL_EXECUTION_FAILED, "关闭游标失败", ex);
+            } finally {
+                session.close();
+            }
+        }
+    }
+}
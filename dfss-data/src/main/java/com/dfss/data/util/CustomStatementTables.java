@@ -0,0 +1,132 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.metadata.MapperProxyMetadata;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.MybatisUtils;
+import com.baomidou.mybatisplus.extension.parser.JsqlParserGlobal;
+import com.dfss.data.sharding.ShardRule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.context.ApplicationContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * <p>executeCustomUpdate 写入的表：按 Mapper 方法对应的语句与实参渲染 SQL，再用 JSqlParser 解析表名（按 SQL 缓存）。</p>
+ *
+ * <p>解析结果用于递增 {@link TableChangeTracker} 的表版本与失效实体缓存。找不到语句（如 default 方法）或无法解析 SQL 时
+ * 返回 null，调用方按“可能写入了任意表”处理。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+final class CustomStatementTables {
+
+    // 规范化 SQL -> 涉及的表，无法解析时为 empty
+    private static final Cache<String, Optional<Set<String>>> PARSED = Caffeine.newBuilder().maximumSize(4096).build();
+
+    private CustomStatementTables() {
+    }
+
+
+
+    /**
+     * 调用 Mapper Bean 的 methodName(args) 会写入的表（已规范化），无法确定时返回 null。
+     */
+    static Set<String> of(ApplicationContext context, String beanName, String methodName, Object[] args) {
+        try {
+            Object[] actual = args == null ? new Object[0] : args;
+            Method method = MapperInvokerRegistry.method(context, beanName, methodName, actual);
+            MapperProxyMetadata proxy = MybatisUtils.getMapperProxy(context.getBean(beanName));
+            Configuration configuration = MybatisUtils.getSqlSessionFactory(proxy.getSqlSession()).getConfiguration();
+            String id = proxy.getMapperInterface().getName() + "." + methodName;
+            if (!configuration.hasStatement(id)) {
+                id = method.getDeclaringClass().getName() + "." + methodName;
+            }
+            MappedStatement ms = configuration.getMappedStatement(id);
+            Object parameter = new ParamNameResolver(configuration, method).getNamedParams(actual);
+            return parse(ms.getBoundSql(parameter).getSql()).orElse(null);
+        } catch (RuntimeException ex) {
+            log.debug("无法确定自定义更新写入的表: {}.{} {}", beanName, methodName, ex.toString());
+            return null;
+        }
+    }
+
+
+
+    /**
+     * tables 涉及的实体（分表实体按物理表名匹配）；tables 为 null 时返回全部实体。
+     */
+    static List<TableInfo> entities(Set<String> tables) {
+        List<TableInfo> entities = new ArrayList<>();
+        for (TableInfo tableInfo : TableInfoHelper.getTableInfos()) {
+            if (tables == null || tables.contains(normalize(tableInfo.getTableName()))
+                    || writesShard(tables, ShardRule.of(tableInfo.getEntityType()))) {
+                entities.add(tableInfo);
+            }
+        }
+        return entities;
+    }
+
+
+
+    private static boolean writesShard(Set<String> tables, ShardRule rule) {
+        if (rule == null) {
+            return false;
+        }
+        for (int shard = 0; shard < rule.shards(); shard++) {
+            if (tables.contains(normalize(rule.table(shard)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+
+    private static Optional<Set<String>> parse(String sql) {
+        return PARSED.get(sql, s -> {
+            try {
+                Set<String> tables = new TablesNamesFinder<>().getTables(JsqlParserGlobal.parse(s));
+                return Optional.of(tables.stream()
+                        .map(CustomStatementTables::normalize)
+                        .collect(Collectors.toUnmodifiableSet()));
+            } catch (JSQLParserException | RuntimeException ex) {
+                log.debug("无法解析 SQL 中的表名: {}", ex.toString());
+                return Optional.empty();
+            }
+        });
+    }
+
+
+
+    /**
+     * 去掉标识符引号与库名前缀并统一小写。
+     */
+    static String normalize(String table) {
+        StringBuilder builder = new StringBuilder(table.length());
+        for (int i = 0; i < table.length(); i++) {
+            char c = table.charAt(i);
+            if (c == '.') {
+                builder.setLength(0);
+            } else if (c != '`' && c != '"' && c != '[' && c != ']') {
+                builder.append(c);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+}
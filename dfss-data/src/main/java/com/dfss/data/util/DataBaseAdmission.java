@@ -0,0 +1,389 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.config.DataBaseOperationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>DataBaseOperation 的准入控制：数据库变慢时，让超出并发上限的调用在公平队列中等待有限的时间，
+ * 而不是全部涌进连接池、各自等到 {@code connectionTimeout} 才失败。</p>
+ *
+ * <ul>
+ *   <li>类别：每个类别一个公平信号量，实体按 {@code dfss.data.admission.classes.*.entities} 归类，
+ *   其余实体与自定义 SQL 属于 {@value #DEFAULT_CLASS}；{@link #withPriority} 可为一段代码指定类别，优先于实体归类；</li>
+ *   <li>截止时间：{@link #withDeadline} 为一段代码设置截止时间，嵌套时取较早的一个。排队时间不超过类别的
+ *   {@code queue-timeout}，也不超过“截止时间 - 该类别近期的平均执行耗时”（没有新样本时每秒减半）；
+ *   剩余时间已不足以执行时直接拒绝，
+ *   都抛出 {@link DataBaseErrorCode#ADMISSION_REJECTED}；</li>
+ *   <li>已获得许可的线程再次进入 DataBaseOperation（insertByDto → insert 等）直接执行；处于事务中的调用已经占用连接，
+ *   也直接执行，避免持有连接排队；</li>
+ *   <li>指标：{@code dfss.db.admission.wait}（排队耗时，{@code outcome} 为 admitted/timeout/deadline）、
+ *   {@code dfss.db.admission.execution}（获得许可后的执行耗时），以及各类别的 in-flight 与排队数。</li>
+ * </ul>
+ * <p>一次调用内部的并行扇出（分表查询、getByIds 分块）只占一个许可，扇出的并发由 {@link DataBaseExecutor} 限制；
+ * 返回 {@code Stream} 的方法只在打开游标时排队。</p>
+ *
+ * <pre>
+ * List&lt;Order&gt; orders = DataBaseAdmission.withDeadline(Duration.ofMillis(300),
+ *         () -&gt; DataBaseOperation.listByWrapper(Order.class, wrapper));
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+@Component
+public class DataBaseAdmission implements DisposableBean {
+
+    /**
+     * 未归类实体与自定义 SQL 所属的类别
+     */
+    public static final String DEFAULT_CLASS = "default";
+
+    private static volatile State state;
+
+    // 当前线程是否已获得许可
+    private static final ThreadLocal<Boolean> ADMITTED = new ThreadLocal<>();
+
+    // 当前线程的截止时间（System.nanoTime）与指定的类别
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+    private static final ThreadLocal<String> PRIORITY = new ThreadLocal<>();
+
+    // 平均执行耗时在没有新样本时的半衰期
+    private static final long AVERAGE_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+
+
+    public DataBaseAdmission(
+            DataBaseOperationProperties properties,
+            ObjectProvider<DataSource> dataSource,
+            ObjectProvider<MeterRegistry> registry
+    ) {
+        configure(
+                properties.getAdmission(),
+                dataSource.getIfUnique(),
+                registry.getIfAvailable(() -> Metrics.globalRegistry),
+                properties.getMetrics().getPercentiles()
+        );
+    }
+
+
+
+    @Override
+    public void destroy() {
+        configure(new DataBaseOperationProperties.Admission(), null, null, List.of());
+    }
+
+
+
+    /**
+     * 在 timeout 之后到期的截止时间内执行 action，外层已有更早的截止时间时沿用外层的。
+     */
+    public static <T> T withDeadline(Duration timeout, Supplier<T> action) {
+        Long previous = DEADLINE.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        DEADLINE.set(previous != null && previous - deadline < 0 ? previous : deadline);
+        try {
+            return action.get();
+        } finally {
+            restore(DEADLINE, previous);
+        }
+    }
+
+
+
+    /**
+     * 以指定类别执行 action，未配置的类别按默认类别处理。
+     */
+    public static <T> T withPriority(String priorityClass, Supplier<T> action) {
+        String previous = PRIORITY.get();
+        PRIORITY.set(priorityClass);
+        try {
+            return action.get();
+        } finally {
+            restore(PRIORITY, previous);
+        }
+    }
+
+
+
+    /**
+     * 捕获当前线程的截止时间与类别，返回在其他线程中以该状态执行 task 的 Runnable。
+     */
+    public static Runnable propagate(Runnable task) {
+        Long deadline = DEADLINE.get();
+        String priority = PRIORITY.get();
+        if (deadline == null && priority == null) {
+            return task;
+        }
+        return () -> {
+            Long previousDeadline = DEADLINE.get();
+            String previousPriority = PRIORITY.get();
+            DEADLINE.set(deadline);
+            PRIORITY.set(priority);
+            try {
+                task.run();
+            } finally {
+                restore(DEADLINE, previousDeadline);
+                restore(PRIORITY, previousPriority);
+            }
+        };
+    }
+
+
+
+    /**
+     * 按配置重建各类别，已在排队的调用仍按旧的信号量获得许可。
+     */
+    static synchronized void configure(
+            DataBaseOperationProperties.Admission config,
+            DataSource dataSource,
+            MeterRegistry registry,
+            List<Double> percentiles
+    ) {
+        State previous = state;
+        state = config.isEnabled() ? new State(config, dataSource, registry, percentiles) : null;
+        if (previous != null) {
+            previous.unregister();
+        }
+        if (state != null) {
+            log.info("数据库准入控制已开启：{}", state.describe());
+        }
+    }
+
+
+
+    /**
+     * 获得 entityClass 所属类别的许可后执行 action。
+     */
+    static <T> T admit(Class<?> entityClass, Supplier<T> action) {
+        State current = state;
+        if (current == null || ADMITTED.get() != null
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        Lane lane = current.lane(entityClass);
+        lane.acquire(entityClass);
+        ADMITTED.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            ADMITTED.remove();
+            lane.release(System.nanoTime() - start);
+        }
+    }
+
+
+
+    private static <V> void restore(ThreadLocal<V> local, V previous) {
+        if (previous == null) {
+            local.remove();
+        } else {
+            local.set(previous);
+        }
+    }
+
+
+
+    /**
+     * 一次配置对应的全部类别
+     */
+    private static final class State {
+
+        private final Lane defaultLane;
+
+        // 类别名 -> 类别
+        private final Map<String, Lane> lanes = new HashMap<>();
+
+        // 实体全限定类名 -> 类别
+        private final Map<String, Lane> entities = new HashMap<>();
+
+        private final MeterRegistry registry;
+
+        State(
+                DataBaseOperationProperties.Admission config,
+                DataSource dataSource,
+                MeterRegistry registry,
+                List<Double> percentiles
+        ) {
+            this.registry = registry;
+            double[] quantiles = percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+            int concurrency = config.getMaxConcurrency() != null && config.getMaxConcurrency() > 0
+                    ? config.getMaxConcurrency() : DataBaseExecutor.poolSize(dataSource);
+            this.defaultLane = new Lane(DEFAULT_CLASS, concurrency, config.getQueueTimeout(), registry, quantiles);
+            lanes.put(DEFAULT_CLASS, defaultLane);
+            config.getClasses().forEach((name, c) -> {
+                Lane lane = new Lane(
+                        name,
+                        c.getMaxConcurrency() != null && c.getMaxConcurrency() > 0
+                                ? c.getMaxConcurrency() : concurrency,
+                        c.getQueueTimeout() != null ? c.getQueueTimeout() : config.getQueueTimeout(),
+                        registry,
+                        quantiles
+                );
+                lanes.put(name, lane);
+                c.getEntities().forEach(entity -> entities.put(entity, lane));
+            });
+        }
+
+        Lane lane(Class<?> entityClass) {
+            String priority = PRIORITY.get();
+            if (priority != null) {
+                return lanes.getOrDefault(priority, defaultLane);
+            }
+            return entityClass == null ? defaultLane : entities.getOrDefault(entityClass.getName(), defaultLane);
+        }
+
+        void unregister() {
+            lanes.values().forEach(lane -> lane.meters().forEach(registry::remove));
+        }
+
+        String describe() {
+            return lanes.values().stream()
+                    .map(lane -> lane.name + " 并发 " + lane.maxConcurrency
+                            + " 排队 " + TimeUnit.NANOSECONDS.toMillis(lane.queueTimeoutNanos) + " ms")
+                    .toList()
+                    .toString();
+        }
+    }
+
+
+
+    /**
+     * 单个类别：公平信号量、近期平均执行耗时与指标。
+     */
+    private static final class Lane {
+
+        private final String name;
+        private final int maxConcurrency;
+        private final long queueTimeoutNanos;
+        private final Semaphore permits;
+
+        // 执行耗时的指数移动平均（权重 1/8）与最近一次样本的时间；并发更新可能丢失个别样本，只用于估算
+        private volatile long averageNanos;
+        private volatile long sampledAt;
+
+        private final Timer admitted;
+        private final Timer timedOut;
+        private final Timer expired;
+        private final Timer execution;
+        private final Gauge inFlight;
+        private final Gauge queued;
+
+        Lane(String name, int maxConcurrency, Duration queueTimeout, MeterRegistry registry, double[] percentiles) {
+            this.name = name;
+            this.maxConcurrency = Math.max(maxConcurrency, 1);
+            this.queueTimeoutNanos = Math.max(queueTimeout.toNanos(), 0);
+            this.permits = new Semaphore(this.maxConcurrency, true);
+            this.admitted = waitTimer(registry, percentiles, "admitted");
+            this.timedOut = waitTimer(registry, percentiles, "timeout");
+            this.expired = waitTimer(registry, percentiles, "deadline");
+            this.execution = Timer.builder("dfss.db.admission.execution")
+                    .description("获得准入许可后的执行耗时")
+                    .tag("class", name)
+                    .publishPercentiles(percentiles)
+                    .register(registry);
+            this.inFlight = Gauge.builder("dfss.db.admission.in-flight", permits,
+                            p -> this.maxConcurrency - p.availablePermits())
+                    .description("正在执行的调用数")
+                    .tag("class", name)
+                    .register(registry);
+            this.queued = Gauge.builder("dfss.db.admission.queued", permits, Semaphore::getQueueLength)
+                    .description("正在排队的调用数")
+                    .tag("class", name)
+                    .register(registry);
+        }
+
+        List<Meter> meters() {
+            return List.of(admitted, timedOut, expired, execution, inFlight, queued);
+        }
+
+        private Timer waitTimer(MeterRegistry registry, double[] percentiles, String outcome) {
+            return Timer.builder("dfss.db.admission.wait")
+                    .description("等待准入许可的耗时")
+                    .tags("class", name, "outcome", outcome)
+                    .publishPercentiles(percentiles)
+                    .register(registry);
+        }
+
+        void acquire(Class<?> entityClass) {
+            long start = System.nanoTime();
+            long budget = queueTimeoutNanos;
+            Long deadline = DEADLINE.get();
+            if (deadline != null) {
+                long remaining = deadline - start;
+                long average = average(start);
+                if (remaining <= 0 || remaining < average) {
+                    expired.record(0, TimeUnit.NANOSECONDS);
+                    throw reject(entityClass, "距截止时间 " + TimeUnit.NANOSECONDS.toMillis(remaining)
+                            + " ms，不足以执行（近期平均耗时 " + TimeUnit.NANOSECONDS.toMillis(average) + " ms）");
+                }
+                budget = Math.min(budget, remaining - average);
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(budget, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw reject(entityClass, "排队时线程被中断");
+            }
+            long waited = System.nanoTime() - start;
+            if (!acquired) {
+                boolean byDeadline = budget < queueTimeoutNanos;
+                (byDeadline ? expired : timedOut).record(waited, TimeUnit.NANOSECONDS);
+                throw reject(entityClass, "排队 " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms 未获得许可"
+                        + (byDeadline ? "（截止时间）" : "") + "，并发上限 " + maxConcurrency);
+            }
+            admitted.record(waited, TimeUnit.NANOSECONDS);
+        }
+
+        void release(long elapsedNanos) {
+            permits.release();
+            execution.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            long now = System.nanoTime();
+            long average = average(now);
+            averageNanos = average == 0 ? elapsedNanos : average + (elapsedNanos - average) / 8;
+            sampledAt = now;
+        }
+
+
+
+        /**
+         * now 时的平均执行耗时估算：距最近一次样本每过一个半衰期减半。只带截止时间的调用被提前拒绝后不会产生新样本，
+         * 不衰减的话，一段慢查询之后的平均值会一直拒绝这些调用。
+         */
+        long average(long now) {
+            long average = averageNanos;
+            long age = now - sampledAt;
+            if (average == 0 || age <= 0) {
+                return average;
+            }
+            return (long) (average * Math.pow(0.5, (double) age / AVERAGE_HALF_LIFE_NANOS));
+        }
+
+        private DataBaseOperationException reject(Class<?> entityClass, String reason) {
+            return new DataBaseOperationException(DataBaseErrorCode.ADMISSION_REJECTED, "类别 " + name
+                    + (entityClass == null ? "" : "（" + entityClass.getSimpleName() + "）") + " " + reason);
+        }
+    }
+}
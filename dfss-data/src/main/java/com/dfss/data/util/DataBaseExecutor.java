@@ -0,0 +1,223 @@
+package com.dfss.data.util;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.routing.DataSourceRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * <p>异步数据库任务的执行器，供 {@link AsyncDataBaseOperation} 与内部的并行查询使用。</p>
+ *
+ * <ul>
+ *   <li>JDK 提供 {@code Executors.newVirtualThreadPerTaskExecutor()}（通过反射探测，编译目标仍为 19）时使用虚拟线程，
+ *   否则退化为与并发上限等大的有界线程池。</li>
+ *   <li>任务在执行前获取信号量，许可数默认等于连接池大小，扇出再多也不会把连接池占满后排队超时。</li>
+ *   <li>提交时的 MDC、读写分离路由（含写后粘滞窗口）与准入控制的截止时间会复制到工作线程，
+ *   容器中的 {@link TaskDecorator} Bean 依次包装任务；工作线程不继承调用方的事务，每个任务在自己的连接上自动提交。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+final class DataBaseExecutor {
+
+    private static final int DEFAULT_CONCURRENCY = 10;
+
+    private static volatile State state;
+
+    // 当前线程是否是正在执行任务的工作线程
+    private static final ThreadLocal<Boolean> WORKER = new ThreadLocal<>();
+
+    private DataBaseExecutor() {
+    }
+
+
+
+    /**
+     * 按配置创建执行器，已有的执行器会被关闭（已提交的任务继续执行完）。
+     */
+    static synchronized void configure(
+            DataBaseOperationProperties.Async async,
+            DataSource dataSource,
+            List<TaskDecorator> decorators
+    ) {
+        int concurrency = async.getMaxConcurrency() != null && async.getMaxConcurrency() > 0
+                ? async.getMaxConcurrency() : poolSize(dataSource);
+        TaskDecorator decorator = runnable -> {
+            Runnable decorated = runnable;
+            for (TaskDecorator d : decorators) {
+                decorated = d.decorate(decorated);
+            }
+            return decorated;
+        };
+        ExecutorService executor = async.isVirtualThreads() ? virtualThreadExecutor() : null;
+        boolean virtual = executor != null;
+        if (executor == null) {
+            executor = boundedPool(concurrency, async.getQueueCapacity());
+        }
+        State previous = state;
+        state = new State(executor, new Semaphore(concurrency), decorator);
+        if (previous != null) {
+            previous.executor().shutdown();
+        }
+        log.info("数据库异步执行器已创建：{}，并发上限 {}", virtual ? "虚拟线程" : "有界线程池", concurrency);
+    }
+
+
+
+    /**
+     * 在执行器中运行 task，返回其结果的 Future。
+     */
+    static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        if (WORKER.get() != null) {
+            // 任务内部再次扇出（如异步调用分表查询）时直接在当前线程执行，避免占着许可等待新的许可而互相卡死
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (Throwable ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+        State current = state();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Runnable job = DataSourceRouting.propagate(DataBaseAdmission.propagate(() -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setMdc(mdc);
+            try {
+                current.permits().acquire();
+                WORKER.set(Boolean.TRUE);
+                try {
+                    future.complete(task.get());
+                } finally {
+                    WORKER.remove();
+                    current.permits().release();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(ex);
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                setMdc(previous);
+            }
+        }));
+        try {
+            current.executor().execute(current.decorator().decorate(job));
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+
+
+    static synchronized void shutdown() {
+        State current = state;
+        state = null;
+        if (current != null) {
+            current.executor().shutdown();
+        }
+    }
+
+
+
+    private static State state() {
+        State current = state;
+        if (current == null) {
+            // 未经 Spring 配置（或已关闭后）调用，使用默认配置
+            synchronized (DataBaseExecutor.class) {
+                if (state == null) {
+                    configure(new DataBaseOperationProperties.Async(), null, List.of());
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+
+
+    /**
+     * HikariCP 的 maximumPoolSize，无法识别连接池时为默认并发数。
+     */
+    static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ex) {
+            log.debug("无法识别连接池大小: {}", ex.toString());
+        }
+        return DEFAULT_CONCURRENCY;
+    }
+
+
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // JDK 19/20 未开启预览特性时同样会失败
+            return null;
+        }
+    }
+
+
+
+    private static ExecutorService boundedPool(int size, int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "dfss-db-async-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                size, size, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(queueCapacity, 1)),
+                factory,
+                (runnable, executor) -> {
+                    // 队列满时由提交线程执行，形成背压；已关闭时拒绝，由 supply 转为异常完成的 Future
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("数据库异步执行器已关闭");
+                    }
+                    runnable.run();
+                }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+
+
+    private static void setMdc(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+
+
+    private record State(ExecutorService executor, Semaphore permits, TaskDecorator decorator) {
+    }
+}
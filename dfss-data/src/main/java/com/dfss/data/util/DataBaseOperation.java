@@ -1,28 +1,58 @@
 package com.dfss.data.util;
 
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.batch.MybatisBatch;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dfss.common.code.DataBaseErrorCode;
 import com.dfss.common.exceptions.DataBaseOperationException;
-import org.springframework.aop.support.AopUtils;
-import org.springframework.beans.BeanUtils;
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.routing.DataSourceRouting;
+import com.dfss.data.sharding.ShardContext;
+import com.dfss.data.sharding.ShardRule;
+import org.apache.ibatis.exceptions.TooManyResultsException;
+import org.apache.ibatis.session.Configuration;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.sql.DataSource;
 import java.io.Serializable;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
- * <p>通用数据操作工具（静态门面 + Spring 上下文注入 + Mapper 缓存）。</p>
+ * <p>通用数据操作工具（静态门面 + Spring 上下文注入 + 启动期构建的 Mapper 索引）。</p>
  *
  * <p>该类利用 MyBatis-Plus 的 BaseMapper 完成常用的增删改查、分页、批量操作，</p>
  * <p>并支持:</p>
@@ -31,9 +61,22 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>传入 DTO 自动转换后做操作。</li>
  *   <li>根据实体或 Wrapper 做复杂条件查询、更新。</li>
  *   <li>统一抛出 {@link DataBaseOperationException}，结合 {@link DataBaseErrorCode} 进行错误分类。</li>
- *   <li>事务控制：新增了 @Transactional 注解，方便在批量操作中自动回滚。</li>
- *   <li>批量插入/更新：提供 saveBatch、updateBatch 等方法（循环调用 BaseMapper）。</li>
+ *   <li>事务控制：saveBatch、updateBatch 在事务外调用时开启本地事务，任一分块失败整批回滚。</li>
+ *   <li>批量插入/更新：saveBatch、updateBatch 使用 MyBatis BATCH 执行器分块提交 JDBC 批处理。</li>
+ *   <li>写后插入：insertAsync 汇集各线程的插入，按批量大小或等待时间触发，在一个事务中批量写入。</li>
+ *   <li>批量 upsert：upsertBatch 按方言生成多行 {@code INSERT ... ON DUPLICATE KEY UPDATE} / {@code MERGE INTO}，
+ *   一次往返写入一个分块，替代“先查询再插入或更新”。</li>
  *   <li>支持自定义 SQL 查询：返回 Map 或自定义 VO/DTO 列表。</li>
+ *   <li>getByIds 多主键查询：去重、分块 IN 查询并行执行，按入参顺序返回并列出不存在的主键。</li>
+ *   <li>getById 实体缓存：通过 {@link com.dfss.data.annotation.CacheableEntity} 或配置按实体开启，写入时自动失效。</li>
+ *   <li>分页总数统计方式：精确、跳过（size + 1 判断下一页）、执行计划估算、带 TTL 的缓存，见 {@link CountMode}。</li>
+ *   <li>游标分页：pageByKeyset 按主键或指定唯一键 seek，深分页不再扫描并丢弃前面的行。</li>
+ *   <li>大结果集流式读取：stream 系列方法基于 MyBatis Cursor，内存占用与行数无关。</li>
+ *   <li>水平分表：标注 {@link com.dfss.data.annotation.ShardedEntity} 的实体按分片键路由单行操作，
+ *   条件查询与分页在各分片并行执行后归并，见 {@link ShardedQueries}。</li>
+ *   <li>读写分离：开启 {@code dfss.data.routing} 后查询走从库、写入走主库，写后粘滞窗口内读主库，见 {@link DataSourceRouting}。</li>
+ *   <li>准入控制：开启 {@code dfss.data.admission} 后按实体或类别限制同时执行的调用数，超出的调用在截止时间内排队，
+ *   见 {@link DataBaseAdmission}。</li>
  * </ul>
  *
  * @author shushun
@@ -41,17 +84,28 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 @Component
 public class DataBaseOperation implements ApplicationContextAware {
-    // Spring 上下文，用于获取所有 BaseMapper Bean
+    // Spring 上下文，用于获取自定义 Mapper Bean
     private static ApplicationContext context;
 
-    // 缓存：实体类 -> 对应的 BaseMapper Bean
-    private static final Map<Class<?>, BaseMapper<?>> mapperCache = new ConcurrentHashMap<>();
+    // dfss.data.* 配置（批处理大小等）
+    private static DataBaseOperationProperties properties = new DataBaseOperationProperties();
+
+    // 数据源 -> 批量写入在事务外执行时使用的本地事务管理器
+    private static final Map<DataSource, DataSourceTransactionManager> BATCH_TRANSACTIONS = new ConcurrentHashMap<>();
+
+
+
+    public DataBaseOperation(DataBaseOperationProperties properties) {
+        DataBaseOperation.properties = properties;
+        EntityCacheRegistry.configure(properties.getEntityCache());
+    }
 
 
 
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) {
         DataBaseOperation.context = applicationContext;
+        MapperInvokerRegistry.clear();
     }
 
     //==================== 私有辅助方法 ====================
@@ -59,74 +113,49 @@ public class DataBaseOperation implements ApplicationContextAware {
 
 
     /**
-     * 从 Spring 容器中查找并缓存 BaseMapper<E>
+     * 从启动时构建的 {@link MapperRegistry} 索引中获取 BaseMapper<E>
      */
-    @SuppressWarnings("unchecked")
     private static <E> BaseMapper<E> getMapper(Class<E> entityClass) {
-        if (entityClass == null) {
-            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "实体类不能为空");
-        }
-        BaseMapper<?> cached = mapperCache.get(entityClass);
-        if (cached != null) {
-            return (BaseMapper<E>) cached;
-        }
+        return MapperRegistry.getMapper(entityClass);
+    }
 
-        BaseMapper<?> found = null;
-        for (BaseMapper<?> mapperBean : context.getBeansOfType(BaseMapper.class).values()) {
-            Class<?> target = AopUtils.getTargetClass(mapperBean);
-            for (Class<?> iface : target.getInterfaces()) {
-                if (!BaseMapper.class.isAssignableFrom(iface)) {
-                    continue;
-                }
-                for (Type superType : iface.getGenericInterfaces()) {
-                    if (!(superType instanceof ParameterizedType pt)) {
-                        continue;
-                    }
-                    if (!BaseMapper.class.equals(pt.getRawType())) {
-                        continue;
-                    }
-                    Type[] args = pt.getActualTypeArguments();
-                    if (args.length != 1 || !(args[0] instanceof Class<?> mappedEntity)) {
-                        continue;
-                    }
-                    if (!entityClass.equals(mappedEntity)) {
-                        continue;
-                    }
-                    if (found != null) {
-                        throw new DataBaseOperationException(
-                                DataBaseErrorCode.DUPLICATE_MAPPER,
-                                "实体 " + entityClass.getName() + " 存在多个 Mapper"
-                        );
-                    }
-                    found = mapperBean;
-                }
-            }
-        }
 
-        if (found == null) {
-            throw new DataBaseOperationException(
-                    DataBaseErrorCode.MAPPER_NOT_FOUND,
-                    "未找到实体 " + entityClass.getName() + " 对应的 Mapper"
-            );
-        }
-        mapperCache.put(entityClass, found);
-        return (BaseMapper<E>) found;
+
+    private static <T> T newInstance(Class<T> clazz) {
+        return BeanCopierRegistry.constructor(clazz).get();
     }
 
 
 
-    private static <T> T newInstance(Class<T> clazz) {
-        if (clazz == null) {
-            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "目标类不能为空");
-        }
-        try {
-            return clazz.getDeclaredConstructor().newInstance();
-        } catch (Exception ex) {
+    /**
+     * 实例化目标类型并拷贝同名属性（拷贝器按类型对缓存，见 {@link BeanCopierRegistry}）
+     */
+    private static <T> T convert(Object source, Class<T> targetClass) {
+        T target = newInstance(targetClass);
+        BeanCopierRegistry.copyProperties(source, target);
+        return target;
+    }
+
+
+
+    /**
+     * Mapper 所在 SqlSessionFactory 的 Configuration
+     */
+    private static Configuration configuration(BaseMapper<?> mapper) {
+        return DerivedStatements.sqlSessionFactory(mapper).getConfiguration();
+    }
+
+
+
+    private static TableInfo getTableInfo(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null) {
             throw new DataBaseOperationException(
-                    DataBaseErrorCode.ENTITY_INSTANTIATION_FAILED,
-                    "无法实例化 " + clazz.getName(), ex
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "实体 " + entityClass.getName() + " 未注册到 MyBatis-Plus"
             );
         }
+        return tableInfo;
     }
 
 
@@ -144,6 +173,168 @@ public class DataBaseOperation implements ApplicationContextAware {
         return (Class<E>) entity.getClass();
     }
 
+    //==================== 准入与读写路由 ====================
+
+
+
+    /**
+     * 获得准入许可（见 {@link DataBaseAdmission}）后以从库路由执行查询。
+     */
+    private static <T> T read(Class<?> entityClass, Supplier<T> action) {
+        return DataBaseAdmission.admit(entityClass, () -> DataSourceRouting.read(action));
+    }
+
+
+
+    /**
+     * 获得准入许可后以主库路由执行写操作。
+     */
+    private static <T> T write(Class<?> entityClass, Supplier<T> action) {
+        return DataBaseAdmission.admit(entityClass, () -> DataSourceRouting.write(action));
+    }
+
+
+
+    /**
+     * 以主库路由执行批量写入，不在事务中时开启一个本地事务：连接池默认自动提交，
+     * 否则前面已 flush 的分块在后面的分块失败时无法回滚，分表实体的各分片也会各自提交。
+     */
+    private static <T> T writeAtomically(Class<?> entityClass, BaseMapper<?> mapper, Supplier<T> action) {
+        return write(entityClass, () -> {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return action.get();
+            }
+            DataSource dataSource = configuration(mapper).getEnvironment().getDataSource();
+            DataSourceTransactionManager manager =
+                    BATCH_TRANSACTIONS.computeIfAbsent(dataSource, DataSourceTransactionManager::new);
+            return new TransactionTemplate(manager).execute(status -> action.get());
+        });
+    }
+
+    //==================== 分表路由 ====================
+
+
+
+    /**
+     * 主键所在的分片；未分表或分片键不是主键时返回 -1。
+     */
+    private static int shardOfId(ShardRule rule, Class<?> entityClass, Serializable id) {
+        if (rule == null || !rule.isPrimaryKey()) {
+            return -1;
+        }
+        return rule.shardOf(EntityCacheRegistry.normalizeId(entityClass, id));
+    }
+
+
+
+    /**
+     * 执行单行写操作：未分表的实体直接执行；shard 小于 0（分片未知）时广播到所有分片并累加影响行数。
+     */
+    private static int writeShard(ShardRule rule, int shard, Supplier<Integer> action) {
+        if (rule == null) {
+            return action.get();
+        }
+        return shard >= 0 ? ShardContext.on(rule, shard, action) : ShardedQueries.sum(rule, action);
+    }
+
+
+
+    /**
+     * 执行单行读操作：shard 小于 0 时在所有分片上查询，取唯一的结果。
+     */
+    private static <E> E readOne(ShardRule rule, int shard, Supplier<E> action) {
+        if (rule == null) {
+            return action.get();
+        }
+        if (shard >= 0) {
+            return ShardContext.on(rule, shard, action);
+        }
+        List<E> found = ShardedQueries.scatter(rule, action).stream().filter(Objects::nonNull).toList();
+        if (found.size() > 1) {
+            throw new TooManyResultsException(
+                    "Expected one result (or null) to be returned by selectOne(), but found: " + found.size());
+        }
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+
+
+    /**
+     * 执行列表查询：分表实体在所有分片上执行，并按 order 归并（为 null 时按分片顺序拼接）。
+     */
+    private static <T> List<T> readAll(ShardRule rule, Comparator<? super T> order, Supplier<List<T>> action) {
+        if (rule == null) {
+            return action.get();
+        }
+        return ShardedQueries.merge(ShardedQueries.scatter(rule, action), order, Long.MAX_VALUE);
+    }
+
+
+
+    /**
+     * 执行分页查询：分表实体把 LIMIT 下推到各分片后归并，见 {@link ShardedQueries#page}。
+     *
+     * @param query 在给定的分页参数上执行查询
+     */
+    private static <T> IPage<T> readPage(
+            Class<?> entityClass,
+            long pageNum,
+            long pageSize,
+            CountMode countMode,
+            Comparator<? super T> order,
+            Function<Page<T>, IPage<T>> query
+    ) {
+        ShardRule rule = ShardRule.of(entityClass);
+        if (rule == null) {
+            return complete(query.apply(newPage(entityClass, pageNum, pageSize, countMode)));
+        }
+        return ShardedQueries.page(rule, pageNum, pageSize, order,
+                limit -> complete(query.apply(newPage(entityClass, 1, limit, countMode))));
+    }
+
+
+
+    /**
+     * 分表实体按分片分组执行批量语句，返回与入参顺序一致的逐行结果。
+     */
+    private static <E> int[] batchByShard(
+            ShardRule rule,
+            List<E> entities,
+            ToIntFunction<E> shardOf,
+            Function<List<E>, int[]> batch
+    ) {
+        if (rule == null) {
+            return batch.apply(entities);
+        }
+        int[] counts = new int[entities.size()];
+        groupByShard(entities, shardOf).forEach((shard, indexes) -> {
+            List<E> group = indexes.stream().map(entities::get).toList();
+            int[] groupCounts = ShardContext.on(rule, shard, () -> batch.apply(group));
+            for (int i = 0; i < groupCounts.length; i++) {
+                counts[indexes.get(i)] = groupCounts[i];
+            }
+        });
+        return counts;
+    }
+
+
+
+    /**
+     * 按分片序号（升序）对批量写入的实体分组，值为原始下标。
+     */
+    private static <E> Map<Integer, List<Integer>> groupByShard(List<E> entities, ToIntFunction<E> shardOf) {
+        Map<Integer, List<Integer>> groups = new TreeMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            int shard = shardOf.applyAsInt(entities.get(i));
+            if (shard < 0) {
+                throw new DataBaseOperationException(
+                        DataBaseErrorCode.UNSUPPORTED_SHARD_QUERY, "分表实体批量写入时分片键不能为空");
+            }
+            groups.computeIfAbsent(shard, k -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
     //==================== 公共 CRUD ====================
 
 
@@ -154,7 +345,28 @@ public class DataBaseOperation implements ApplicationContextAware {
     public static <E> int insert(E entity) {
         checkNull(entity, "插入实体不能为空");
         BaseMapper<E> mapper = getMapper(getEntityClass(entity));
-        return mapper.insert(entity);
+        ShardRule rule = ShardRule.of(getEntityClass(entity));
+        int shard = rule == null ? -1 : rule.shardForInsert(configuration(mapper), entity);
+        int rows = write(getEntityClass(entity), () -> writeShard(rule, shard, () -> mapper.insert(entity)));
+        TableChangeTracker.touch(getEntityClass(entity));
+        return rows;
+    }
+
+
+
+    /**
+     * 写后插入：实体进入按实体类型划分的有界队列，由后台线程攒批后在一个事务中写入，适合审计、事件等
+     * 调用方不需要立即读到的行。批量大小、等待时间与队列长度见 {@code dfss.data.write-behind}。
+     *
+     * <p>写入发生在后台线程，不参与调用方的事务；ASSIGN_ID 主键在写入时才回填到实体。队列满时最多等待
+     * {@code offer-timeout}，仍然满则在当前线程同步插入。返回的 Future 在后台线程上完成，
+     * 后续处理较重时请使用 {@code thenApplyAsync} 等方法，避免拖慢写入线程。</p>
+     *
+     * @return 该行写入后的影响行数，写入失败时以异常完成
+     */
+    public static <E> CompletableFuture<Integer> insertAsync(E entity) {
+        checkNull(entity, "插入实体不能为空");
+        return WriteBehindQueue.submit(entity);
     }
 
 
@@ -164,9 +376,7 @@ public class DataBaseOperation implements ApplicationContextAware {
      */
     public static <D, E> int insertByDto(D dto, Class<E> entityClass) {
         checkNull(dto, "插入 DTO 不能为空");
-        E entity = newInstance(entityClass);
-        BeanUtils.copyProperties(dto, entity);
-        return insert(entity);
+        return insert(convert(dto, entityClass));
     }
 
 
@@ -178,7 +388,12 @@ public class DataBaseOperation implements ApplicationContextAware {
         checkNull(entityClass, "实体类型不能为空");
         checkNull(id, "主键 ID 不能为空");
         BaseMapper<E> mapper = getMapper(entityClass);
-        return mapper.deleteById(id);
+        ShardRule rule = ShardRule.of(entityClass);
+        int shard = shardOfId(rule, entityClass, id);
+        int rows = write(entityClass, () -> writeShard(rule, shard, () -> mapper.deleteById(id)));
+        TableChangeTracker.touch(entityClass);
+        EntityCacheRegistry.invalidate(entityClass, id);
+        return rows;
     }
 
 
@@ -189,7 +404,12 @@ public class DataBaseOperation implements ApplicationContextAware {
     public static <E> int updateById(E entity) {
         checkNull(entity, "更新实体不能为空");
         BaseMapper<E> mapper = getMapper(getEntityClass(entity));
-        return mapper.updateById(entity);
+        ShardRule rule = ShardRule.of(getEntityClass(entity));
+        int shard = rule == null ? -1 : rule.shardOfEntity(entity);
+        int rows = write(getEntityClass(entity), () -> writeShard(rule, shard, () -> mapper.updateById(entity)));
+        TableChangeTracker.touch(getEntityClass(entity));
+        EntityCacheRegistry.invalidateEntities(getEntityClass(entity), List.of(entity));
+        return rows;
     }
 
 
@@ -199,21 +419,138 @@ public class DataBaseOperation implements ApplicationContextAware {
      */
     public static <D, E> int updateByDto(D dto, Class<E> entityClass) {
         checkNull(dto, "更新 DTO 不能为空");
-        E entity = newInstance(entityClass);
-        BeanUtils.copyProperties(dto, entity);
-        return updateById(entity);
+        return updateById(convert(dto, entityClass));
     }
 
 
 
     /**
-     * 按主键查询实体
+     * 按主键查询实体。实体启用了缓存（见 {@link EntityCacheRegistry}）时优先读缓存，返回的是缓存对象的副本。
      */
     public static <E> E getById(Class<E> entityClass, Serializable id) {
         checkNull(entityClass, "实体类型不能为空");
         checkNull(id, "主键 ID 不能为空");
         BaseMapper<E> mapper = getMapper(entityClass);
-        return mapper.selectById(id);
+        ShardRule rule = ShardRule.of(entityClass);
+        int shard = shardOfId(rule, entityClass, id);
+        // 缓存命中不占用许可，只有回源查询排队
+        return DataSourceRouting.read(() -> EntityCacheRegistry.get(entityClass, id,
+                key -> DataBaseAdmission.admit(entityClass, () -> readOne(rule, shard, () -> mapper.selectById(key)))));
+    }
+
+
+
+    /**
+     * 按主键批量查询，替代循环调用 getById。主键去重后按 {@code dfss.data.in-list-chunk-size} 拆成多条 IN 查询，
+     * 多个分块在 {@link AsyncDataBaseOperation} 的执行器上并行执行（处于事务中时在当前线程顺序执行，以便读到本事务的写入）。
+     * 启用了实体缓存的实体先读缓存，只查询未命中的主键。
+     *
+     * @return 按入参顺序排列的记录，以及不存在的主键
+     */
+    public static <E> MultiGetResult<E> getByIds(Class<E> entityClass, Collection<? extends Serializable> ids) {
+        checkNull(entityClass, "实体类型不能为空");
+        checkNull(ids, "主键集合不能为空");
+        BaseMapper<E> mapper = getMapper(entityClass);
+        TableInfo tableInfo = getTableInfo(entityClass);
+        // 归一化主键 -> 入参中第一次出现的原始主键，LinkedHashMap 保持入参顺序
+        Map<Object, Serializable> requested = new LinkedHashMap<>();
+        for (Serializable id : ids) {
+            checkNull(id, "主键 ID 不能为空");
+            requested.putIfAbsent(EntityCacheRegistry.normalizeId(entityClass, id), id);
+        }
+        Map<Object, E> found = requested.isEmpty() ? Map.of() : DataSourceRouting.read(() -> EntityCacheRegistry.getAll(
+                entityClass, requested.keySet(),
+                missing -> DataBaseAdmission.admit(entityClass, () -> selectByIds(mapper, tableInfo, missing))));
+
+        List<E> records = new ArrayList<>(found.size());
+        Map<Serializable, E> recordMap = new LinkedHashMap<>();
+        List<Serializable> missingIds = new ArrayList<>();
+        requested.forEach((key, id) -> {
+            E record = found.get(key);
+            if (record == null) {
+                missingIds.add(id);
+            } else {
+                records.add(record);
+                recordMap.put(id, record);
+            }
+        });
+        return new MultiGetResult<>(records, recordMap, missingIds);
+    }
+
+
+
+    /**
+     * 按主键批量查询并转换为 VO
+     */
+    public static <E, V> MultiGetResult<V> getByIds(
+            Class<E> entityClass,
+            Collection<? extends Serializable> ids,
+            Class<V> voClass
+    ) {
+        checkNull(voClass, "VO 类型不能为空");
+        MultiGetResult<E> result = getByIds(entityClass, ids);
+        Map<Serializable, V> recordMap = new LinkedHashMap<>();
+        result.getRecordMap().forEach((id, record) -> recordMap.put(id, convert(record, voClass)));
+        return new MultiGetResult<>(new ArrayList<>(recordMap.values()), recordMap, result.getMissingIds());
+    }
+
+
+
+    private static <E> Map<Object, E> selectByIds(BaseMapper<E> mapper, TableInfo tableInfo, Set<Object> ids) {
+        // 分表实体按主键所在分片分组（分片键不是主键时每个分片都查一遍），每组再按 IN 列表上限拆块
+        ShardRule rule = ShardRule.of(tableInfo.getEntityType());
+        Map<Integer, List<Object>> groups = new TreeMap<>();
+        for (Object id : ids) {
+            if (rule != null && rule.isPrimaryKey()) {
+                groups.computeIfAbsent(rule.shardOf(id), k -> new ArrayList<>()).add(id);
+            } else {
+                groups.computeIfAbsent(-1, k -> new ArrayList<>()).add(id);
+            }
+        }
+        List<Supplier<List<E>>> chunks = new ArrayList<>();
+        int chunkSize = Math.max(properties.getInListChunkSize(), 1);
+        groups.forEach((shard, group) -> {
+            for (int from = 0; from < group.size(); from += chunkSize) {
+                List<Serializable> chunk = new ArrayList<>();
+                for (Object id : group.subList(from, Math.min(from + chunkSize, group.size()))) {
+                    chunk.add((Serializable) id);
+                }
+                if (rule == null) {
+                    chunks.add(() -> mapper.selectByIds(chunk));
+                } else if (shard >= 0) {
+                    chunks.add(() -> ShardContext.on(rule, shard, () -> mapper.selectByIds(chunk)));
+                } else {
+                    for (int i = 0; i < rule.shards(); i++) {
+                        int target = i;
+                        chunks.add(() -> ShardContext.on(rule, target, () -> mapper.selectByIds(chunk)));
+                    }
+                }
+            }
+        });
+
+        List<E> rows = new ArrayList<>(ids.size());
+        if (chunks.size() == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            chunks.forEach(c -> rows.addAll(c.get()));
+        } else {
+            List<CompletableFuture<List<E>>> futures = new ArrayList<>(chunks.size());
+            chunks.forEach(c -> futures.add(DataBaseExecutor.supply(c)));
+            try {
+                futures.forEach(future -> rows.addAll(future.join()));
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+
+        Class<?> entityClass = tableInfo.getEntityType();
+        Map<Object, E> result = new HashMap<>(rows.size() * 2);
+        for (E row : rows) {
+            Object id = tableInfo.getPropertyValue(row, tableInfo.getKeyProperty());
+            result.put(EntityCacheRegistry.normalizeId(entityClass, id), row);
+        }
+        return result;
     }
 
 
@@ -224,15 +561,14 @@ public class DataBaseOperation implements ApplicationContextAware {
     public static <E, V> V getOne(E entity, Class<V> voClass) {
         checkNull(entity, "查询实体不能为空");
         BaseMapper<E> mapper = getMapper(getEntityClass(entity));
+        ShardRule rule = ShardRule.of(getEntityClass(entity));
         LambdaQueryWrapper<E> wrapper = new LambdaQueryWrapper<>();
         wrapper.setEntity(entity);
-        E result = mapper.selectOne(wrapper);
+        E result = read(getEntityClass(entity), () -> readOne(rule, -1, () -> mapper.selectOne(wrapper)));
         if (result == null) {
             return null;
         }
-        V vo = newInstance(voClass);
-        BeanUtils.copyProperties(result, vo);
-        return vo;
+        return convert(result, voClass);
     }
 
 
@@ -242,9 +578,7 @@ public class DataBaseOperation implements ApplicationContextAware {
      */
     public static <D, E, V> V getOneByDto(D dto, Class<E> entityClass, Class<V> voClass) {
         checkNull(dto, "查询 DTO 不能为空");
-        E entity = newInstance(entityClass);
-        BeanUtils.copyProperties(dto, entity);
-        return getOne(entity, voClass);
+        return getOne(convert(dto, entityClass), voClass);
     }
 
 
@@ -255,23 +589,38 @@ public class DataBaseOperation implements ApplicationContextAware {
     public static <E> List<E> listEntity(E entity) {
         checkNull(entity, "查询实体不能为空");
         BaseMapper<E> mapper = getMapper(getEntityClass(entity));
+        ShardRule rule = ShardRule.of(getEntityClass(entity));
         LambdaQueryWrapper<E> wrapper = new LambdaQueryWrapper<>();
         wrapper.setEntity(entity);
-        return mapper.selectList(wrapper);
+        return read(getEntityClass(entity), () -> readAll(rule, null, () -> mapper.selectList(wrapper)));
     }
 
 
 
     /**
-     * 按实体条件查询并转换为 VO 列表
+     * 按实体条件查询并转换为 VO 列表。只查询 VO 需要的列，结果集直接映射为 VO（见 {@link DerivedStatements}）。
      */
     public static <E, V> List<V> list(E entity, Class<V> voClass) {
-        List<E> list = listEntity(entity);
-        return list.stream().map(e -> {
-            V vo = newInstance(voClass);
-            BeanUtils.copyProperties(e, vo);
-            return vo;
-        }).toList();
+        checkNull(entity, "查询实体不能为空");
+        checkNull(voClass, "VO 类型不能为空");
+        Class<E> entityClass = getEntityClass(entity);
+        DerivedStatements.Projection projection =
+                DerivedStatements.projection(getMapper(entityClass), entityClass, voClass);
+        if (projection == null) {
+            return BeanCopierRegistry.copyList(listEntity(entity), voClass);
+        }
+        ShardRule rule = ShardRule.of(entityClass);
+        QueryWrapper<E> wrapper = projectionWrapper(entity, projection);
+        return read(entityClass, () -> readAll(rule, null, () -> projection.selectList(wrapper, null)));
+    }
+
+
+
+    private static <E> QueryWrapper<E> projectionWrapper(E entity, DerivedStatements.Projection projection) {
+        QueryWrapper<E> wrapper = new QueryWrapper<>();
+        wrapper.setEntity(entity);
+        wrapper.select(projection.columns());
+        return wrapper;
     }
 
     //==================== Wrapper 方式的动态查询/更新 ====================
@@ -285,7 +634,94 @@ public class DataBaseOperation implements ApplicationContextAware {
         checkNull(entityClass, "实体类型不能为空");
         checkNull(wrapper, "查询 Wrapper 不能为空");
         BaseMapper<E> mapper = getMapper(entityClass);
-        return mapper.selectList(wrapper);
+        ShardRule rule = ShardRule.of(entityClass);
+        Comparator<E> order = rule == null ? null : ShardedQueries.order(getTableInfo(entityClass), wrapper);
+        return read(entityClass, () -> readAll(rule, order, () -> mapper.selectList(wrapper)));
+    }
+
+
+
+    /**
+     * 按 Wrapper 条件流式读取实体，逐行交给 consumer 处理，内存占用与结果行数无关。
+     * 读取期间占用一个连接；MySQL 流式模式下，consumer 中不要在同一事务里执行其他 SQL。
+     *
+     * @return 处理的行数
+     */
+    public static <E> long stream(Class<E> entityClass, Wrapper<E> wrapper, Consumer<? super E> consumer) {
+        checkNull(consumer, "消费者不能为空");
+        // 整个读取过程占用一个准入许可，与占用的连接对应
+        return DataBaseAdmission.admit(entityClass, () -> {
+            try (Stream<E> rows = stream(entityClass, wrapper)) {
+                long[] count = new long[1];
+                rows.forEach(row -> {
+                    consumer.accept(row);
+                    count[0]++;
+                });
+                return count[0];
+            }
+        });
+    }
+
+
+
+    /**
+     * 按 Wrapper 条件流式读取，并把每行转换为 VO 后交给 consumer 处理。
+     *
+     * @return 处理的行数
+     */
+    public static <E, V> long stream(
+            Class<E> entityClass,
+            Wrapper<E> wrapper,
+            Class<V> voClass,
+            Consumer<? super V> consumer
+    ) {
+        checkNull(voClass, "VO 类型不能为空");
+        checkNull(consumer, "消费者不能为空");
+        return stream(entityClass, wrapper, (E row) -> consumer.accept(convert(row, voClass)));
+    }
+
+
+
+    /**
+     * 按 Wrapper 条件打开基于 MyBatis Cursor 的实体流。fetchSize 取 {@code dfss.data.stream-fetch-size}，
+     * 未配置时 MySQL 使用逐行流式模式。
+     *
+     * <p>返回的 Stream 必须关闭（推荐 try-with-resources），读取完毕或被丢弃回收时也会自动释放连接。</p>
+     */
+    public static <E> Stream<E> stream(Class<E> entityClass, Wrapper<E> wrapper) {
+        return openStream(entityClass, wrapper, Function.identity());
+    }
+
+
+
+    /**
+     * 按 Wrapper 条件打开实体流，并逐行转换为 VO。
+     */
+    public static <E, V> Stream<V> stream(Class<E> entityClass, Wrapper<E> wrapper, Class<V> voClass) {
+        checkNull(voClass, "VO 类型不能为空");
+        return openStream(entityClass, wrapper, row -> convert(row, voClass));
+    }
+
+
+
+    private static <E, R> Stream<R> openStream(Class<E> entityClass, Wrapper<E> wrapper, Function<E, R> converter) {
+        checkNull(entityClass, "实体类型不能为空");
+        checkNull(wrapper, "查询 Wrapper 不能为空");
+        BaseMapper<E> mapper = getMapper(entityClass);
+        String statementId = DerivedStatements.cursorStatement(mapper, properties.getStreamFetchSize());
+        // 游标在打开时即获取连接，之后逐行读取都在该连接上
+        Supplier<Stream<R>> open = () -> read(entityClass, () -> CursorStreams.open(
+                DerivedStatements.sqlSessionFactory(mapper),
+                statementId,
+                DerivedStatements.parameter(wrapper, null),
+                converter
+        ));
+        ShardRule rule = ShardRule.of(entityClass);
+        if (rule == null) {
+            return open.get();
+        }
+        // 分表实体逐个分片打开游标，前一个分片读完并关闭后才打开下一个，同一时刻只占用一个连接
+        return IntStream.range(0, rule.shards()).boxed().flatMap(shard -> ShardContext.on(rule, shard, open));
     }
 
 
@@ -297,7 +733,11 @@ public class DataBaseOperation implements ApplicationContextAware {
         checkNull(entityClass, "实体类型不能为空");
         checkNull(wrapper, "更新 Wrapper 不能为空");
         BaseMapper<E> mapper = getMapper(entityClass);
-        return mapper.update(null, wrapper);
+        ShardRule rule = ShardRule.of(entityClass);
+        int rows = write(entityClass, () -> writeShard(rule, -1, () -> mapper.update(null, wrapper)));
+        TableChangeTracker.touch(entityClass);
+        EntityCacheRegistry.invalidateAll(entityClass);
+        return rows;
     }
 
     //==================== 分页操作 ====================
@@ -305,35 +745,63 @@ public class DataBaseOperation implements ApplicationContextAware {
 
 
     /**
-     * 分页查询实体列表，返回 IPage<E>
+     * 分页查询实体列表，返回 IPage<E>，总数按 {@code dfss.data.count-mode} 统计
      */
     public static <E> IPage<E> pageEntity(E entity, long pageNum, long pageSize) {
+        return pageEntity(entity, pageNum, pageSize, properties.getCountMode());
+    }
+
+
+
+    /**
+     * 分页查询实体列表（指定总数统计方式）
+     */
+    public static <E> IPage<E> pageEntity(E entity, long pageNum, long pageSize, CountMode countMode) {
         checkNull(entity, "分页查询实体不能为空");
-        BaseMapper<E> mapper = getMapper(getEntityClass(entity));
-        Page<E> page = new Page<>(pageNum, pageSize);
+        Class<E> entityClass = getEntityClass(entity);
+        BaseMapper<E> mapper = getMapper(entityClass);
         LambdaQueryWrapper<E> wrapper = new LambdaQueryWrapper<>();
         wrapper.setEntity(entity);
-        return mapper.selectPage(page, wrapper);
+        return read(entityClass, () -> readPage(
+                entityClass, pageNum, pageSize, countMode, null, page -> mapper.selectPage(page, wrapper)));
     }
 
 
 
     /**
-     * 分页查询并转换为 VO，返回 IPage<V>
+     * 分页查询并转换为 VO，返回 IPage<V>。与 {@link #list(Object, Class)} 一样按 VO 属性投影查询列。
      */
     public static <E, V> IPage<V> page(E entity, Class<V> voClass, long pageNum, long pageSize) {
-        IPage<E> pageE = pageEntity(entity, pageNum, pageSize);
-        return getPage(voClass, pageE);
+        return page(entity, voClass, pageNum, pageSize, properties.getCountMode());
+    }
+
+
+
+    /**
+     * 分页查询并转换为 VO（指定总数统计方式）
+     */
+    public static <E, V> IPage<V> page(E entity, Class<V> voClass, long pageNum, long pageSize, CountMode countMode) {
+        checkNull(entity, "分页查询实体不能为空");
+        checkNull(voClass, "VO 类型不能为空");
+        Class<E> entityClass = getEntityClass(entity);
+        DerivedStatements.Projection projection =
+                DerivedStatements.projection(getMapper(entityClass), entityClass, voClass);
+        if (projection == null) {
+            return getPage(voClass, pageEntity(entity, pageNum, pageSize, countMode));
+        }
+        QueryWrapper<E> wrapper = projectionWrapper(entity, projection);
+        Function<Page<V>, IPage<V>> query = page -> {
+            page.setRecords(projection.selectList(wrapper, page));
+            return page;
+        };
+        return read(entityClass, () -> readPage(entityClass, pageNum, pageSize, countMode, null, query));
     }
 
 
 
     private static <E, V> Page<V> getPage(Class<V> voClass, IPage<E> pageE) {
-        List<V> voList = pageE.getRecords().stream().map(e -> {
-            V vo = newInstance(voClass);
-            BeanUtils.copyProperties(e, vo);
-            return vo;
-        }).toList();
+        checkNull(voClass, "VO 类型不能为空");
+        List<V> voList = BeanCopierRegistry.copyList(pageE.getRecords(), voClass);
         Page<V> pageV = new Page<>(pageE.getCurrent(), pageE.getSize(), pageE.getTotal());
         pageV.setRecords(voList);
         return pageV;
@@ -342,14 +810,49 @@ public class DataBaseOperation implements ApplicationContextAware {
 
 
     /**
-     * 按 Wrapper 分页查询实体列表
+     * EXACT 使用普通 Page，其余模式使用 {@link CountModePage} 交给分页拦截器处理
+     */
+    private static <T> Page<T> newPage(Class<?> entityClass, long pageNum, long pageSize, CountMode countMode) {
+        if (countMode == null || countMode == CountMode.EXACT) {
+            return new Page<>(pageNum, pageSize);
+        }
+        return new CountModePage<>(pageNum, pageSize, countMode, getTableInfo(entityClass).getTableName());
+    }
+
+
+
+    private static <T> IPage<T> complete(IPage<T> page) {
+        return page instanceof CountModePage<T> countModePage ? countModePage.complete() : page;
+    }
+
+
+
+    /**
+     * 按 Wrapper 分页查询实体列表，总数按 {@code dfss.data.count-mode} 统计
      */
     public static <E> IPage<E> pageByWrapper(Class<E> entityClass, Wrapper<E> wrapper, long pageNum, long pageSize) {
+        return pageByWrapper(entityClass, wrapper, pageNum, pageSize, properties.getCountMode());
+    }
+
+
+
+    /**
+     * 按 Wrapper 分页查询实体列表（指定总数统计方式）
+     */
+    public static <E> IPage<E> pageByWrapper(
+            Class<E> entityClass,
+            Wrapper<E> wrapper,
+            long pageNum,
+            long pageSize,
+            CountMode countMode
+    ) {
         checkNull(entityClass, "实体类型不能为空");
         checkNull(wrapper, "查询 Wrapper 不能为空");
         BaseMapper<E> mapper = getMapper(entityClass);
-        Page<E> page = new Page<>(pageNum, pageSize);
-        return mapper.selectPage(page, wrapper);
+        Comparator<E> order = ShardRule.of(entityClass) == null
+                ? null : ShardedQueries.order(getTableInfo(entityClass), wrapper);
+        return read(entityClass, () -> readPage(
+                entityClass, pageNum, pageSize, countMode, order, page -> mapper.selectPage(page, wrapper)));
     }
 
 
@@ -364,34 +867,280 @@ public class DataBaseOperation implements ApplicationContextAware {
             long pageNum,
             long pageSize
     ) {
-        IPage<E> pageE = pageByWrapper(entityClass, wrapper, pageNum, pageSize);
+        return pageByWrapper(entityClass, wrapper, voClass, pageNum, pageSize, properties.getCountMode());
+    }
+
+
+
+    /**
+     * 按 Wrapper 分页查询并转换为 VO（指定总数统计方式）
+     */
+    public static <E, V> IPage<V> pageByWrapper(
+            Class<E> entityClass,
+            Wrapper<E> wrapper,
+            Class<V> voClass,
+            long pageNum,
+            long pageSize,
+            CountMode countMode
+    ) {
+        IPage<E> pageE = pageByWrapper(entityClass, wrapper, pageNum, pageSize, countMode);
         return getPage(voClass, pageE);
     }
 
+
+
+
+    /**
+     * 按主键（{@code @TableId}）做游标分页：{@code WHERE id > 上一页最后的 id ORDER BY id LIMIT pageSize}，
+     * 不执行 COUNT，也不跳过前面的行，任意一页的代价都与第一页相同。
+     *
+     * <p>wrapper 的条件整体加上括号后与 seek 条件 AND，wrapper 本身不会被修改；
+     * 其中不能包含 ORDER BY / GROUP BY / HAVING，也不能使用 last()。</p>
+     *
+     * @param token 上一页返回的 {@link KeysetPage#getNextToken()}，为空时查询第一页
+     */
+    public static <E> KeysetPage<E> pageByKeyset(
+            Class<E> entityClass,
+            AbstractWrapper<E, ?, ?> wrapper,
+            String token,
+            long pageSize
+    ) {
+        checkNull(entityClass, "实体类型不能为空");
+        return seekPage(entityClass, wrapper, KeysetKey.primaryKey(entityClass), token, pageSize);
+    }
+
+
+
+    /**
+     * 按调用方指定的键做游标分页，该键需要唯一且非空（如创建时间 + 主键不满足时请使用主键）。
+     */
+    public static <E> KeysetPage<E> pageByKeyset(
+            Class<E> entityClass,
+            AbstractWrapper<E, ?, ?> wrapper,
+            SFunction<E, ?> key,
+            String token,
+            long pageSize
+    ) {
+        checkNull(entityClass, "实体类型不能为空");
+        checkNull(key, "排序键不能为空");
+        return seekPage(entityClass, wrapper, KeysetKey.of(entityClass, key), token, pageSize);
+    }
+
+
+
+    /**
+     * 按主键做游标分页并转换为 VO
+     */
+    public static <E, V> KeysetPage<V> pageByKeyset(
+            Class<E> entityClass,
+            AbstractWrapper<E, ?, ?> wrapper,
+            Class<V> voClass,
+            String token,
+            long pageSize
+    ) {
+        checkNull(voClass, "VO 类型不能为空");
+        KeysetPage<E> pageE = pageByKeyset(entityClass, wrapper, token, pageSize);
+        return new KeysetPage<>(BeanCopierRegistry.copyList(pageE.getRecords(), voClass), pageE.getNextToken());
+    }
+
+
+
+    private static <E> KeysetPage<E> seekPage(
+            Class<E> entityClass,
+            AbstractWrapper<E, ?, ?> wrapper,
+            KeysetKey key,
+            String token,
+            long pageSize
+    ) {
+        checkNull(wrapper, "查询 Wrapper 不能为空");
+        if (pageSize < 1) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_PAGINATION, "每页条数必须大于 0");
+        }
+        if (!wrapper.getExpression().getOrderBy().isEmpty()
+                || !wrapper.getExpression().getGroupBy().isEmpty()
+                || !wrapper.getExpression().getHaving().isEmpty()) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_PAGINATION,
+                    "游标分页固定按 " + key.column() + " 排序，Wrapper 中不能包含 ORDER BY / GROUP BY / HAVING"
+            );
+        }
+        if (!wrapper.getSqlSegment().equals(wrapper.getExpression().getSqlSegment())) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_PAGINATION,
+                    "游标分页的 LIMIT 与排序由框架生成，Wrapper 中不能使用 last()"
+            );
+        }
+        QueryWrapper<E> seek = key.seek(wrapper, token == null || token.isEmpty() ? null : key.decode(token));
+        // 多取一行判断是否还有下一页；LIMIT 由分页插件按方言生成，不查总数。分表实体每个分片各取一页后按键归并
+        BaseMapper<E> mapper = getMapper(entityClass);
+        ShardRule rule = ShardRule.of(entityClass);
+        Comparator<E> order = rule == null ? null : ShardedQueries.ascending(key.tableInfo(), key.property());
+        List<E> rows = read(entityClass, () -> readAll(rule, order,
+                () -> mapper.selectPage(new Page<E>(1, pageSize + 1, false), seek).getRecords()));
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<E> records = new ArrayList<>(rows.subList(0, (int) pageSize));
+        return new KeysetPage<>(records, key.encode(records.get(records.size() - 1)));
+    }
+
     //==================== 批量操作 ====================
 
 
 
     /**
-     * 批量插入（循环调用 insert）。推荐行数少时使用；若数据量大，建议使用 Service.saveBatch 或自定义 SQL。
+     * 批量插入，按 {@code dfss.data.batch-size} 分块执行 JDBC 批处理。
+     * ASSIGN_ID 等主键会在执行前由 MyBatis-Plus 生成并回填到实体中。
+     *
+     * @return 每个分块实际插入的行数
+     */
+    public static <E> List<Integer> saveBatch(List<E> entities) {
+        return saveBatch(entities, properties.getBatchSize());
+    }
+
+
+
+    /**
+     * 批量插入（指定分块大小）。整批复用同一个 BATCH 会话，每 batchSize 行 flush 一次；
+     * MySQL 驱动开启 rewriteBatchedStatements=true 后，每次 flush 会被改写为多行 VALUES。
+     * 不在事务中时整批（含分表实体的全部分片）在一个本地事务中执行。
+     *
+     * @return 按执行顺序每个分块实际插入的行数；分表实体先按分片序号分组，每个分片各自分块，
+     * 驱动只返回 SUCCESS_NO_INFO 的行按成功一行计
      */
-    public static <E> void saveBatch(List<E> entities) {
+    public static <E> List<Integer> saveBatch(List<E> entities, int batchSize) {
         checkNull(entities, "批量插入列表不能为空");
-        for (E e : entities) {
-            insert(e);
+        if (entities.isEmpty()) {
+            return List.of();
         }
+        checkNull(entities.get(0), "批量插入实体不能为空");
+        BaseMapper<E> mapper = getMapper(getEntityClass(entities.get(0)));
+        ShardRule rule = ShardRule.of(getEntityClass(entities.get(0)));
+        // 分表实体按分片（升序）分组后各自分块，分块行数按实际执行的顺序收集
+        List<Integer> chunkCounts = new ArrayList<>();
+        writeAtomically(getEntityClass(entities.get(0)), mapper, () -> batchByShard(
+                rule, entities, e -> rule.shardForInsert(configuration(mapper), e), group -> {
+                    int[] counts = BatchStatementExecutor.execute(
+                            mapper, group, batchSize, MybatisBatch.Method::insert);
+                    chunkCounts.addAll(BatchStatementExecutor.chunkCounts(counts, batchSize));
+                    return counts;
+                }));
+        TableChangeTracker.touch(getEntityClass(entities.get(0)));
+        return chunkCounts;
     }
 
 
 
     /**
-     * 批量更新（循环调用 updateById）。建议每次更新字段固定，或改为使用 Wrapper 方式。
+     * 批量更新（按主键），按 {@code dfss.data.batch-size} 分块执行 JDBC 批处理。
+     *
+     * @return 与入参一一对应的影响行数，0 表示该行未命中
      */
-    public static <E> void updateBatch(List<E> entities) {
+    public static <E> int[] updateBatch(List<E> entities) {
+        return updateBatch(entities, properties.getBatchSize());
+    }
+
+
+
+    /**
+     * 批量更新（指定分块大小）。非空列相同的实体共用一条预编译语句；
+     * 若配置了 {@code dfss.data.update-case-max-rows}，小分组会合并成一条 CASE WHEN 更新，
+     * 这些行的影响行数在无法逐行确定时为 {@link Statement#SUCCESS_NO_INFO}。
+     *
+     * @return 与入参一一对应的影响行数，0 表示该行未命中
+     */
+    public static <E> int[] updateBatch(List<E> entities, int batchSize) {
         checkNull(entities, "批量更新列表不能为空");
-        for (E e : entities) {
-            updateById(e);
+        if (entities.isEmpty()) {
+            return new int[0];
         }
+        checkNull(entities.get(0), "批量更新实体不能为空");
+        BaseMapper<E> mapper = getMapper(getEntityClass(entities.get(0)));
+        ShardRule rule = ShardRule.of(getEntityClass(entities.get(0)));
+        int[] counts = writeAtomically(getEntityClass(entities.get(0)), mapper, () -> batchByShard(
+                rule, entities, e -> rule.shardOfEntity(e),
+                group -> BatchStatementExecutor.executeUpdate(
+                        mapper, group, batchSize, properties.getUpdateCaseMaxRows())));
+        TableChangeTracker.touch(getEntityClass(entities.get(0)));
+        EntityCacheRegistry.invalidateEntities(getEntityClass(entities.get(0)), entities);
+        return counts;
+    }
+
+
+
+
+    /**
+     * 批量插入或更新（按主键），按 {@code dfss.data.upsert-chunk-size} 分块，每个分块生成多行语句：
+     * MySQL / MariaDB 为 {@code INSERT ... ON DUPLICATE KEY UPDATE}，H2 为 {@code MERGE INTO ... USING}。
+     * 已存在的行更新除主键、仅插入时填充（{@code FieldFill.INSERT}）以外的全部非空列。
+     *
+     * @return 每个分块插入与更新的行数
+     */
+    public static <E> UpsertResult upsertBatch(List<E> entities) {
+        return upsertBatch(entities, properties.getUpsertChunkSize());
+    }
+
+
+
+    /**
+     * 批量插入或更新（指定分块大小）。
+     *
+     * @return 每个分块插入与更新的行数
+     */
+    public static <E> UpsertResult upsertBatch(List<E> entities, int chunkSize) {
+        return upsert(entities, chunkSize, List.of());
+    }
+
+
+
+    /**
+     * 批量插入或更新（指定分块大小与冲突时更新的列）。未列出的列只在插入新行时写入，例如只刷新计数与更新时间：
+     * {@code upsertBatch(stats, 500, List.of(Stat::getCount, Stat::getUpdateTime))}。
+     *
+     * <p>实体中为 null 的列不参与插入与更新；非空列集合不同的实体在同一分块内拆成多条语句，与 saveBatch 相同。
+     * ASSIGN_ID / ASSIGN_UUID 主键在执行前生成并回填；MySQL 自增主键为空时由数据库生成，不会回填到实体。
+     * MySQL 的冲突判断包括所有唯一键，H2 只按主键匹配，主键不能为空。</p>
+     *
+     * @param updateColumns 冲突时更新的列，为空时与 {@link #upsertBatch(List, int)} 相同
+     * @return 每个分块插入与更新的行数，统计方式见 {@link UpsertResult}
+     */
+    public static <E> UpsertResult upsertBatch(
+            List<E> entities,
+            int chunkSize,
+            List<SFunction<E, ?>> updateColumns
+    ) {
+        checkNull(updateColumns, "冲突时更新的列不能为 null");
+        return upsert(entities, chunkSize, List.copyOf(updateColumns));
+    }
+
+
+
+    private static <E> UpsertResult upsert(List<E> entities, int chunkSize, List<SFunction<E, ?>> updateColumns) {
+        checkNull(entities, "批量写入列表不能为空");
+        if (entities.isEmpty()) {
+            return new UpsertResult(List.of());
+        }
+        checkNull(entities.get(0), "批量写入实体不能为空");
+        Class<E> entityClass = getEntityClass(entities.get(0));
+        BaseMapper<E> mapper = getMapper(entityClass);
+        BitSet updatable = UpsertStatementExecutor.updatableColumns(getTableInfo(entityClass), updateColumns);
+        ShardRule rule = ShardRule.of(entityClass);
+        List<UpsertResult.Chunk> chunks = write(entityClass, () -> {
+            if (rule == null) {
+                return UpsertStatementExecutor.execute(mapper, entities, chunkSize, updatable);
+            }
+            List<UpsertResult.Chunk> all = new ArrayList<>();
+            Configuration configuration = configuration(mapper);
+            groupByShard(entities, e -> rule.shardForInsert(configuration, e)).forEach((shard, indexes) -> {
+                List<E> group = indexes.stream().map(entities::get).toList();
+                all.addAll(ShardContext.on(rule, shard,
+                        () -> UpsertStatementExecutor.execute(mapper, group, chunkSize, updatable)));
+            });
+            return all;
+        });
+        TableChangeTracker.touch(entityClass);
+        EntityCacheRegistry.invalidateEntities(entityClass, entities);
+        return new UpsertResult(chunks);
     }
 
     //==================== 自定义 SQL 查询 ====================
@@ -403,6 +1152,8 @@ public class DataBaseOperation implements ApplicationContextAware {
      * 需要在对应的 Mapper 中定义一个方法，例如：
      * List<VO> customQuery(@Param("param") String param);
      * 然后通过 DataBaseOperation.executeCustomQuery("com.xxx.mapper.XxxMapper", "customQuery", param);
+     *
+     * <p>方法按实参做重载匹配（支持 null、基本类型与子类实参），解析结果缓存在 {@link MapperInvokerRegistry} 中。</p>
      */
     @SuppressWarnings("unchecked")
     public static <V> List<V> executeCustomQuery(
@@ -410,25 +1161,18 @@ public class DataBaseOperation implements ApplicationContextAware {
             String methodName,
             Object... args
     ) {
-        Object mapperBean = context.getBean(mapperBeanName);
-        try {
-            // 通过反射调用 Mapper 中自定义的方法
-            java.lang.reflect.Method method = mapperBean.getClass().getMethod(methodName,
-                    java.util.Arrays.stream(args)
-                            .map(Object::getClass)
-                            .toArray(Class<?>[]::new));
-            return (List<V>) method.invoke(mapperBean, args);
-        } catch (NoSuchMethodException e) {
-            throw new DataBaseOperationException(
-                    DataBaseErrorCode.INVALID_ENTITY,
-                    "Mapper 方法未找到: " + methodName, e
-            );
-        } catch (Exception e) {
-            throw new DataBaseOperationException(
-                    DataBaseErrorCode.ENTITY_INSTANTIATION_FAILED,
-                    "执行自定义查询出错: " + methodName, e
-            );
-        }
+        return DataBaseAdmission.admit(null, () -> {
+            try {
+                return (List<V>) MapperInvokerRegistry.invoke(context, mapperBeanName, methodName, args);
+            } catch (DataBaseOperationException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new DataBaseOperationException(
+                        DataBaseErrorCode.ENTITY_INSTANTIATION_FAILED,
+                        "执行自定义查询出错: " + methodName, e
+                );
+            }
+        });
     }
 
 
@@ -436,25 +1180,42 @@ public class DataBaseOperation implements ApplicationContextAware {
     /**
      * 执行自定义更新/删除 SQL（Mapper 中需定义对应方法）。
      * 例如：int customUpdate(@Param("param") String param);
+     *
+     * <p>执行后按渲染出的 SQL 解析写入的表，递增其版本并失效对应实体的缓存，无法解析时视为写入了全部实体表。</p>
      */
     public static int executeCustomUpdate(String mapperBeanName, String methodName, Object... args) {
-        Object mapperBean = context.getBean(mapperBeanName);
-        try {
-            java.lang.reflect.Method method = mapperBean.getClass().getMethod(methodName,
-                    java.util.Arrays.stream(args)
-                            .map(Object::getClass)
-                            .toArray(Class<?>[]::new));
-            return (int) method.invoke(mapperBean, args);
-        } catch (NoSuchMethodException e) {
-            throw new DataBaseOperationException(
-                    DataBaseErrorCode.INVALID_ENTITY,
-                    "Mapper 更新方法未找到: " + methodName, e
-            );
-        } catch (Exception e) {
-            throw new DataBaseOperationException(
-                    DataBaseErrorCode.ENTITY_INSTANTIATION_FAILED,
-                    "执行自定义更新出错: " + methodName, e
-            );
+        return DataBaseAdmission.admit(null, () -> {
+            try {
+                return (int) MapperInvokerRegistry.invoke(context, mapperBeanName, methodName, args);
+            } catch (DataBaseOperationException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new DataBaseOperationException(
+                        DataBaseErrorCode.ENTITY_INSTANTIATION_FAILED,
+                        "执行自定义更新出错: " + methodName, e
+                );
+            } finally {
+                // 自定义 SQL 本身走默认路由（主库），这里只开启写后粘滞窗口
+                DataSourceRouting.markWrite();
+                touchCustomUpdate(mapperBeanName, methodName, args);
+            }
+        });
+    }
+
+
+
+    /**
+     * 递增自定义更新写入的表的版本（CACHED 计数、查询缓存与 ETag 据此失效），并使对应实体的缓存整体失效；
+     * 无法确定写入的表时按写入了全部实体表处理。
+     */
+    private static void touchCustomUpdate(String mapperBeanName, String methodName, Object[] args) {
+        Set<String> tables = CustomStatementTables.of(context, mapperBeanName, methodName, args);
+        if (tables != null) {
+            tables.forEach(TableChangeTracker::touch);
+        }
+        for (TableInfo tableInfo : CustomStatementTables.entities(tables)) {
+            TableChangeTracker.touch(tableInfo.getEntityType());
+            EntityCacheRegistry.invalidateAll(tableInfo.getEntityType());
         }
     }
 
@@ -0,0 +1,218 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.MapperProxyMetadata;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.core.toolkit.MybatisUtils;
+import com.baomidou.mybatisplus.extension.toolkit.JdbcUtils;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>基于 BaseMapper#selectList 派生的 MappedStatement。</p>
+ *
+ * <p>派生语句复用 selectList 的 SqlSource（条件、逻辑删除、分页拦截都保持一致），只替换结果映射或 JDBC 参数：</p>
+ * <ul>
+ *   <li>VO 投影：结果映射替换为以 VO 为类型的自动映射，查询列通过 Wrapper 的 sqlSelect 限定为“实体列 ∩ VO 可写属性”，
+ *   结果集直接映射为 VO，不再经过中间实体。VO 与实体没有公共属性，或需要的列配置了自定义 TypeHandler
+ *   （VO 自动映射无法复用）时返回 null，由调用方退回到“查询实体 + 属性拷贝”。</li>
+ *   <li>游标查询：保留实体结果映射，设置 fetchSize 与 FORWARD_ONLY，供 {@link CursorStreams} 流式读取。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+final class DerivedStatements {
+
+    /**
+     * 一个 (Mapper, VO) 组合的投影信息。
+     *
+     * @param statementId 派生的 MappedStatement id
+     * @param columns     需要查询的列（已包含 {@code column AS property} 别名）
+     * @param sqlSession  Mapper 使用的 SqlSession（Spring 环境下为 SqlSessionTemplate）
+     */
+    record Projection(String statementId, List<String> columns, SqlSession sqlSession) {
+
+        /**
+         * 按 BaseMapper#selectList 的参数约定执行查询，page 不为空时由分页拦截器追加 LIMIT 与 COUNT。
+         */
+        <V> List<V> selectList(Object wrapper, Object page) {
+            return sqlSession.selectList(statementId, parameter(wrapper, page));
+        }
+    }
+
+    // 无法投影的组合也缓存下来，避免重复判断
+    private static final Projection UNSUPPORTED = new Projection(null, List.of(), null);
+
+    // Mapper 接口 -> (VO 类型 -> 投影)
+    private static final Map<Class<?>, Map<Class<?>, Projection>> PROJECTIONS = new ConcurrentHashMap<>();
+
+    // Mapper 接口 -> 游标语句 id
+    private static final Map<Class<?>, String> CURSORS = new ConcurrentHashMap<>();
+
+    // MyBatis Configuration -> 自动推断的流式 fetchSize
+    private static final Map<Configuration, Integer> FETCH_SIZES = new ConcurrentHashMap<>();
+
+    private DerivedStatements() {
+    }
+
+
+
+    /**
+     * 按 BaseMapper#selectList 的参数约定组装参数（{@code ew}，可选 {@code page}）。
+     */
+    static MapperMethod.ParamMap<Object> parameter(Object wrapper, Object page) {
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        if (page != null) {
+            param.put("page", page);
+        }
+        param.put(Constants.WRAPPER, wrapper);
+        return param;
+    }
+
+
+
+    /**
+     * 获取 (mapper, voClass) 的投影，不支持投影时返回 null。
+     */
+    static Projection projection(BaseMapper<?> mapper, Class<?> entityClass, Class<?> voClass) {
+        MapperProxyMetadata proxy = MybatisUtils.getMapperProxy(mapper);
+        Projection projection = PROJECTIONS
+                .computeIfAbsent(proxy.getMapperInterface(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(voClass, k -> buildProjection(proxy, entityClass, voClass));
+        return projection == UNSUPPORTED ? null : projection;
+    }
+
+
+
+    /**
+     * 获取 mapper 的游标查询语句 id（实体结果映射 + 流式 fetchSize + FORWARD_ONLY）。
+     *
+     * @param fetchSize 为 null 时按数据库类型推断：MySQL/MariaDB 使用 {@link Integer#MIN_VALUE} 逐行流式读取，其余为 1000
+     */
+    static String cursorStatement(BaseMapper<?> mapper, Integer fetchSize) {
+        MapperProxyMetadata proxy = MybatisUtils.getMapperProxy(mapper);
+        return CURSORS.computeIfAbsent(proxy.getMapperInterface(), mapperInterface -> {
+            Configuration configuration = proxy.getSqlSession().getConfiguration();
+            String namespace = mapperInterface.getName();
+            String statementId = namespace + ".selectList_cursor";
+            MappedStatement base = configuration.getMappedStatement(namespace + ".selectList");
+            int size = fetchSize != null ? fetchSize : FETCH_SIZES.computeIfAbsent(configuration,
+                    DerivedStatements::defaultStreamFetchSize);
+            register(configuration, statementId, base, base.getResultMaps(), size, ResultSetType.FORWARD_ONLY);
+            return statementId;
+        });
+    }
+
+
+
+    /**
+     * Mapper 所属的 SqlSessionFactory，用于打开独立于 SqlSessionTemplate 的会话。
+     */
+    static SqlSessionFactory sqlSessionFactory(BaseMapper<?> mapper) {
+        return MybatisUtils.getSqlSessionFactory(MybatisUtils.getMapperProxy(mapper).getSqlSession());
+    }
+
+
+
+    private static Projection buildProjection(MapperProxyMetadata proxy, Class<?> entityClass, Class<?> voClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null) {
+            return UNSUPPORTED;
+        }
+        // 派生语句注册到 Mapper 实际使用的 Configuration 中，与 cursorStatement 相同
+        Configuration configuration = proxy.getSqlSession().getConfiguration();
+        Reflector voReflector = configuration.getReflectorFactory().findForClass(voClass);
+        Set<String> writable = Set.of(voReflector.getSetablePropertyNames());
+
+        List<String> columns = new ArrayList<>();
+        if (tableInfo.havePK() && writable.contains(tableInfo.getKeyProperty())) {
+            columns.add(tableInfo.getKeySqlSelect());
+        }
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (!field.isSelect() || !writable.contains(field.getProperty())) {
+                continue;
+            }
+            if (field.getTypeHandler() != null) {
+                return UNSUPPORTED;
+            }
+            columns.add(field.getSqlSelect());
+        }
+        if (columns.isEmpty()) {
+            return UNSUPPORTED;
+        }
+
+        String namespace = proxy.getMapperInterface().getName();
+        String statementId = namespace + ".selectList_" + voClass.getName().replace('.', '_');
+        MappedStatement base = configuration.getMappedStatement(namespace + ".selectList");
+        ResultMap resultMap = new ResultMap.Builder(
+                configuration, statementId + "-Inline", voClass, new ArrayList<>(), true).build();
+        register(configuration, statementId, base, List.of(resultMap), base.getFetchSize(), base.getResultSetType());
+        return new Projection(statementId, List.copyOf(columns), proxy.getSqlSession());
+    }
+
+
+
+    private static void register(
+            Configuration configuration,
+            String statementId,
+            MappedStatement base,
+            List<ResultMap> resultMaps,
+            Integer fetchSize,
+            ResultSetType resultSetType
+    ) {
+        synchronized (configuration) {
+            if (configuration.hasStatement(statementId, false)) {
+                return;
+            }
+            configuration.addMappedStatement(new MappedStatement.Builder(
+                    configuration, statementId, base.getSqlSource(), SqlCommandType.SELECT)
+                    .resource(base.getResource())
+                    .databaseId(base.getDatabaseId())
+                    .lang(base.getLang())
+                    .statementType(base.getStatementType())
+                    .timeout(base.getTimeout())
+                    .fetchSize(fetchSize)
+                    .resultSetType(resultSetType)
+                    .resultMaps(resultMaps)
+                    .keyGenerator(NoKeyGenerator.INSTANCE)
+                    .flushCacheRequired(false)
+                    .useCache(false)
+                    .build());
+        }
+    }
+
+
+
+    private static Integer defaultStreamFetchSize(Configuration configuration) {
+        try (Connection connection = configuration.getEnvironment().getDataSource().getConnection()) {
+            DbType dbType = JdbcUtils.getDbType(connection.getMetaData().getURL());
+            // MySQL 驱动只有 fetchSize = Integer.MIN_VALUE 时才逐行读取，否则会把整个结果集读入内存
+            return dbType == DbType.MYSQL || dbType == DbType.MARIADB ? Integer.MIN_VALUE : 1000;
+        } catch (SQLException ex) {
+            throw new DataBaseOperationException(DataBaseErrorCode.SQL_EXECUTION_FAILED, "无法识别数据库类型", ex);
+        }
+    }
+}
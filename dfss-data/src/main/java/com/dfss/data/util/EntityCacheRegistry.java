@@ -0,0 +1,224 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.data.annotation.CacheableEntity;
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * <p>{@code DataBaseOperation.getById} 的按实体进程内缓存，键为 (实体类型, 主键)。</p>
+ *
+ * <p>实体标注 {@link CacheableEntity} 或列在 {@code dfss.data.entity-cache.entities} 中时启用，每个实体一个独立的
+ * Caffeine 缓存：按条数与写入后 TTL 限制大小，淘汰策略为 W-TinyLFU（兼顾访问频率与新近度）。</p>
+ * <ul>
+ *   <li>缓存中保存查询得到的实体，返回给调用方的是浅拷贝，调用方修改返回值不会污染缓存。</li>
+ *   <li>DataBaseOperation 的按主键写入失效对应条目，按 Wrapper 更新失效整个实体缓存；处于事务中时事务结束后再失效一次，
+ *   避免其他线程在提交前把旧数据重新加载进缓存。</li>
+ *   <li>事务中的读取绕过缓存：可能读到本事务未提交的写入，放进共享缓存会被其他线程读到，回滚后仍然残留。</li>
+ *   <li>主键按实体的主键类型归一化，{@code getById(User.class, 1)} 与 {@code getById(User.class, 1L)} 命中同一条目。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+public final class EntityCacheRegistry {
+
+    private static final ConversionService CONVERSION = DefaultConversionService.getSharedInstance();
+
+    // 实体类型 -> 缓存；Optional.empty() 表示该实体未启用缓存
+    private static final Map<Class<?>, Optional<Cache<Object, Object>>> CACHES = new ConcurrentHashMap<>();
+
+    private static volatile DataBaseOperationProperties.EntityCache config =
+            new DataBaseOperationProperties.EntityCache();
+
+    private EntityCacheRegistry() {
+    }
+
+
+
+    /**
+     * 应用配置，已创建的缓存全部丢弃。
+     */
+    static void configure(DataBaseOperationProperties.EntityCache entityCache) {
+        config = entityCache;
+        CACHES.clear();
+    }
+
+
+
+    /**
+     * 按主键读取实体：命中缓存时返回副本，未命中时通过 loader 查询并放入缓存。未启用缓存的实体直接调用 loader。
+     * 处于事务中时既不读也不写缓存，本事务未提交的写入不会被其他线程读到。
+     */
+    static <E> E get(Class<E> entityClass, Serializable id, Function<Serializable, E> loader) {
+        Cache<Object, Object> cache = cache(entityClass);
+        if (cache == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.apply(id);
+        }
+        // 查询不到的主键 loader 返回 null，Caffeine 不会缓存 null
+        Object cached = cache.get(normalizeId(entityClass, id), k -> loader.apply(id));
+        return cached == null ? null : BeanCopierRegistry.copy(cached, entityClass);
+    }
+
+
+
+    /**
+     * 按主键批量读取：已缓存的直接返回副本，其余交给 loader 一次性查询并放入缓存。未启用缓存的实体或处于事务中时
+     * 直接调用 loader。
+     *
+     * @param ids    已归一化的主键
+     * @param loader 按主键集合查询，返回 归一化主键 -> 实体，查不到的主键不出现在结果中
+     */
+    static <E> Map<Object, E> getAll(
+            Class<E> entityClass,
+            Collection<Object> ids,
+            Function<Set<Object>, Map<Object, E>> loader
+    ) {
+        Cache<Object, Object> cache = cache(entityClass);
+        if (cache == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.apply(new LinkedHashSet<>(ids));
+        }
+        Map<Object, Object> cached = cache.getAll(ids, missing -> loader.apply(new LinkedHashSet<>(missing)));
+        Map<Object, E> copies = new HashMap<>(cached.size() * 2);
+        cached.forEach((id, entity) -> copies.put(id, BeanCopierRegistry.copy(entity, entityClass)));
+        return copies;
+    }
+
+
+
+    /**
+     * 失效单个主键。
+     */
+    static void invalidate(Class<?> entityClass, Object id) {
+        Cache<Object, Object> cache = cache(entityClass);
+        if (cache == null || id == null) {
+            return;
+        }
+        Object key = normalizeId(entityClass, id);
+        cache.invalidate(key);
+        TableChangeTracker.afterCompletion(() -> cache.invalidate(key));
+    }
+
+
+
+    /**
+     * 按实体上的主键值失效。
+     */
+    static void invalidateEntities(Class<?> entityClass, Collection<?> entities) {
+        Cache<Object, Object> cache = cache(entityClass);
+        if (cache == null) {
+            return;
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        List<Object> keys = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            Object id = entity == null ? null : tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty());
+            if (id != null) {
+                keys.add(normalizeId(entityClass, id));
+            }
+        }
+        cache.invalidateAll(keys);
+        TableChangeTracker.afterCompletion(() -> cache.invalidateAll(keys));
+    }
+
+
+
+    /**
+     * 失效实体的全部缓存，用于无法确定影响主键的更新（如按 Wrapper 更新）。
+     */
+    public static void invalidateAll(Class<?> entityClass) {
+        Cache<Object, Object> cache = cache(entityClass);
+        if (cache == null) {
+            return;
+        }
+        cache.invalidateAll();
+        TableChangeTracker.afterCompletion(cache::invalidateAll);
+    }
+
+
+
+    /**
+     * 已启用缓存的实体的命中/未命中/淘汰统计。
+     */
+    public static Map<Class<?>, CacheStats> stats() {
+        Map<Class<?>, CacheStats> stats = new LinkedHashMap<>();
+        CACHES.forEach((entityClass, cache) -> cache.ifPresent(c -> stats.put(entityClass, c.stats())));
+        return stats;
+    }
+
+
+
+    /**
+     * 单个实体的缓存统计，未启用缓存时返回 null。
+     */
+    public static CacheStats stats(Class<?> entityClass) {
+        Cache<Object, Object> cache = cache(entityClass);
+        return cache == null ? null : cache.stats();
+    }
+
+
+
+    private static Cache<Object, Object> cache(Class<?> entityClass) {
+        return CACHES.computeIfAbsent(entityClass, EntityCacheRegistry::build).orElse(null);
+    }
+
+
+
+    private static Optional<Cache<Object, Object>> build(Class<?> entityClass) {
+        DataBaseOperationProperties.EntityCache current = config;
+        CacheableEntity annotation = entityClass.getAnnotation(CacheableEntity.class);
+        if (!current.isEnabled() || (annotation == null && !current.getEntities().contains(entityClass.getName()))) {
+            return Optional.empty();
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null || !tableInfo.havePK()) {
+            log.warn("实体 {} 没有 @TableId，无法启用主键缓存", entityClass.getName());
+            return Optional.empty();
+        }
+        long maximumSize = annotation != null && annotation.maximumSize() >= 0
+                ? annotation.maximumSize() : current.getMaximumSize();
+        Duration ttl = annotation != null && annotation.ttlSeconds() >= 0
+                ? Duration.ofSeconds(annotation.ttlSeconds()) : current.getTtl();
+        log.info("实体 {} 启用主键缓存，maximumSize={}, ttl={}", entityClass.getName(), maximumSize, ttl);
+        return Optional.of(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+
+
+
+    /**
+     * 把主键转换为实体的主键类型，用作缓存键与多主键查询的去重键。
+     */
+    static Object normalizeId(Class<?> entityClass, Object id) {
+        Class<?> keyType = TableInfoHelper.getTableInfo(entityClass).getKeyType();
+        if (keyType != null && !keyType.isInstance(id) && CONVERSION.canConvert(id.getClass(), keyType)) {
+            return CONVERSION.convert(id, keyType);
+        }
+        return id;
+    }
+}
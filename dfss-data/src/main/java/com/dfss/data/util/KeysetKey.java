@@ -0,0 +1,160 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.LambdaUtils;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * <p>游标分页使用的排序键：默认是实体的 {@code @TableId}，也可以是调用方指定的唯一、非空列。</p>
+ *
+ * <p>续页 token 为 {@code 列名 + 换行 + 键值} 的 URL 安全 Base64，解析时校验列名，避免把一个键的 token 用在另一个键上；
+ * 键值按属性类型通过 {@link ConversionService} 还原，适用于数值、字符串等可与字符串互转的类型。</p>
+ *
+ * @param tableInfo 实体表信息
+ * @param column    键对应的列名
+ * @param property  键对应的属性名
+ * @param type      键的属性类型
+ * @author shushun
+ * @since 2025-06-02
+ */
+record KeysetKey(TableInfo tableInfo, String column, String property, Class<?> type) {
+
+    private static final ConversionService CONVERSION = DefaultConversionService.getSharedInstance();
+
+    // seek 键值在新 Wrapper 中的参数名；apply("{0}") 生成的 MPGENVAL1 会与调用方 Wrapper 拷贝过来的参数重名
+    private static final String SEEK_PARAM = "keysetSeek";
+
+
+
+    /**
+     * 以实体的 {@code @TableId} 作为排序键。
+     */
+    static KeysetKey primaryKey(Class<?> entityClass) {
+        TableInfo tableInfo = tableInfo(entityClass);
+        if (!tableInfo.havePK()) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_PAGINATION,
+                    "实体 " + entityClass.getName() + " 没有 @TableId，请指定游标分页的排序键"
+            );
+        }
+        return new KeysetKey(tableInfo, tableInfo.getKeyColumn(), tableInfo.getKeyProperty(), tableInfo.getKeyType());
+    }
+
+
+
+    /**
+     * 以调用方指定的属性作为排序键，该列需要唯一且非空，否则翻页会漏行或重复。
+     */
+    static <E> KeysetKey of(Class<E> entityClass, SFunction<E, ?> key) {
+        TableInfo tableInfo = tableInfo(entityClass);
+        String property = PropertyNamer.methodToProperty(LambdaUtils.extract(key).getImplMethodName());
+        if (tableInfo.havePK() && property.equals(tableInfo.getKeyProperty())) {
+            return primaryKey(entityClass);
+        }
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (field.getProperty().equals(property)) {
+                return new KeysetKey(tableInfo, field.getColumn(), property, field.getPropertyType());
+            }
+        }
+        throw new DataBaseOperationException(
+                DataBaseErrorCode.INVALID_PAGINATION,
+                "属性 " + property + " 不是实体 " + entityClass.getName() + " 的数据库列"
+        );
+    }
+
+
+
+    /**
+     * 构造本页的查询：调用方的条件整体作为一个括号分组，再与 seek 条件 AND 并按键升序，
+     * 避免调用方条件中的 OR 绕过 seek；调用方的 Wrapper 不会被修改。
+     *
+     * @param after 上一页最后一行的键值，为 null 时查询第一页
+     */
+    <E> QueryWrapper<E> seek(AbstractWrapper<E, ?, ?> wrapper, Object after) {
+        QueryWrapper<E> seek = new QueryWrapper<>(wrapper.getEntity());
+        seek.setEntityClass(wrapper.getEntityClass());
+        if (StringUtils.isNotBlank(wrapper.getSqlSelect())) {
+            seek.select(wrapper.getSqlSelect());
+        }
+        // 调用方条件中的占位符引用的是 ew.paramNameValuePairs 中的参数，原样拷贝过来
+        seek.getParamNameValuePairs().putAll(wrapper.getParamNameValuePairs());
+        String where = wrapper.getExpression().getNormal().getSqlSegment();
+        if (StringUtils.isNotBlank(where)) {
+            seek.and(nested -> nested.apply(where));
+        }
+        if (after != null) {
+            seek.getParamNameValuePairs().put(SEEK_PARAM, after);
+            seek.apply(column + " > #{" + seek.getParamAlias() + ".paramNameValuePairs." + SEEK_PARAM + "}");
+        }
+        return seek.orderByAsc(column);
+    }
+
+
+
+    /**
+     * 把 token 还原为上一页最后一行的键值。
+     */
+    Object decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_PAGINATION, "续页 token 格式错误", ex);
+        }
+        int separator = raw.indexOf('\n');
+        if (separator < 0 || !raw.substring(0, separator).equals(column)) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_PAGINATION,
+                    "续页 token 与排序键 " + column + " 不匹配"
+            );
+        }
+        try {
+            return CONVERSION.convert(raw.substring(separator + 1), type);
+        } catch (RuntimeException ex) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_PAGINATION, "续页 token 键值无法解析", ex);
+        }
+    }
+
+
+
+    /**
+     * 以 entity 的键值生成下一页的 token。
+     */
+    String encode(Object entity) {
+        Object value = tableInfo.getPropertyValue(entity, property);
+        if (value == null) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_PAGINATION,
+                    "游标分页的排序键 " + property + " 存在空值，无法继续翻页"
+            );
+        }
+        String raw = column + '\n' + CONVERSION.convert(value, String.class);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+
+    private static TableInfo tableInfo(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "实体 " + entityClass.getName() + " 未注册到 MyBatis-Plus"
+            );
+        }
+        return tableInfo;
+    }
+}
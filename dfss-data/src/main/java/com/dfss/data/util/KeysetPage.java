@@ -0,0 +1,44 @@
+package com.dfss.data.util;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * <p>游标（keyset）分页结果。</p>
+ *
+ * <p>与 {@link com.baomidou.mybatisplus.core.metadata.IPage} 不同，这里没有页码和总数：调用方把 {@link #getNextToken()}
+ * 原样传回下一次查询即可继续翻页，token 为 null 表示已经没有更多数据。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Getter
+public class KeysetPage<T> {
+
+    /**
+     * 当前页记录
+     */
+    private final List<T> records;
+
+    /**
+     * 下一页的续页 token，没有下一页时为 null
+     */
+    private final String nextToken;
+
+
+
+    public KeysetPage(List<T> records, String nextToken) {
+        this.records = records;
+        this.nextToken = nextToken;
+    }
+
+
+
+    /**
+     * 是否还有下一页
+     */
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
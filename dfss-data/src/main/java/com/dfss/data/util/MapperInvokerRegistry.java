@@ -0,0 +1,208 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * <p>executeCustomQuery / executeCustomUpdate 使用的 Mapper 方法调用器缓存。</p>
+ *
+ * <p>每个 (Mapper Bean 名, 方法名, 实参类型) 组合只解析一次：查找 Bean，按实参做重载匹配，把选中的方法绑定到 Bean 上
+ * 生成 {@link MethodHandle} 并缓存，之后的调用只剩一次 {@code invokeExact}。</p>
+ * <p>重载匹配规则与 Java 编译期一致的部分：</p>
+ * <ul>
+ *   <li>null 实参可以匹配任意非基本类型参数；</li>
+ *   <li>包装类型实参可以匹配对应的基本类型参数（{@code Integer → int}），子类实参可以匹配父类/接口参数；</li>
+ *   <li>存在多个候选时选择参数类型最具体的一个，无法分出先后时报错而不是随机选择。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+final class MapperInvokerRegistry {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final Map<InvokerKey, Invoker> INVOKERS = new ConcurrentHashMap<>();
+
+    private MapperInvokerRegistry() {
+    }
+
+
+
+    /**
+     * 调用 Mapper Bean 上与实参匹配的方法。
+     */
+    static Object invoke(
+            ApplicationContext context,
+            String beanName,
+            String methodName,
+            Object[] args
+    ) throws Throwable {
+        Object[] actual = args == null ? new Object[0] : args;
+        return invoker(context, beanName, methodName, actual).handle().invokeExact(actual);
+    }
+
+
+
+    /**
+     * 按与 {@link #invoke} 相同的规则解析出的 Mapper 方法。
+     */
+    static Method method(ApplicationContext context, String beanName, String methodName, Object[] args) {
+        return invoker(context, beanName, methodName, args).method();
+    }
+
+
+
+    /**
+     * 容器刷新后丢弃已绑定的调用器（它们持有旧容器中的 Bean）。
+     */
+    static void clear() {
+        INVOKERS.clear();
+    }
+
+
+
+    private static Invoker invoker(ApplicationContext context, String beanName, String methodName, Object[] args) {
+        Class<?>[] argTypes = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            argTypes[i] = args[i] == null ? null : args[i].getClass();
+        }
+        InvokerKey key = new InvokerKey(beanName, methodName, Arrays.asList(argTypes));
+        Invoker invoker = INVOKERS.get(key);
+        if (invoker == null) {
+            invoker = INVOKERS.computeIfAbsent(key, k -> bind(context.getBean(beanName), methodName, argTypes));
+        }
+        return invoker;
+    }
+
+
+
+    private static Invoker bind(Object bean, String methodName, Class<?>[] argTypes) {
+        Method method = resolve(bean.getClass(), methodName, argTypes);
+        try {
+            return new Invoker(MethodHandles.publicLookup().unreflect(method)
+                    .bindTo(bean)
+                    .asSpreader(Object[].class, argTypes.length)
+                    .asType(INVOKER_TYPE), method);
+        } catch (IllegalAccessException e) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "Mapper 方法不可访问: " + method, e
+            );
+        }
+    }
+
+
+
+    private static Method resolve(Class<?> beanClass, String methodName, Class<?>[] argTypes) {
+        List<Method> applicable = new ArrayList<>();
+        for (Method method : candidates(beanClass)) {
+            if (method.getName().equals(methodName) && isApplicable(method.getParameterTypes(), argTypes)) {
+                applicable.add(method);
+            }
+        }
+        if (applicable.isEmpty()) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "Mapper 方法未找到: " + methodName + describe(argTypes)
+            );
+        }
+        Method best = null;
+        for (Method candidate : applicable) {
+            boolean mostSpecific = applicable.stream()
+                    .allMatch(other -> isApplicable(other.getParameterTypes(), candidate.getParameterTypes()));
+            if (mostSpecific) {
+                if (best != null) {
+                    best = null;
+                    break;
+                }
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "Mapper 方法调用存在歧义: " + methodName + describe(argTypes) + " 可匹配 " + applicable
+            );
+        }
+        return best;
+    }
+
+
+
+    /**
+     * Mapper Bean 通常是 JDK 代理，代理类所在的动态模块不对外开放，因此从其接口上查找方法。
+     * 同一签名只保留第一次出现的方法（子接口覆盖父接口）。
+     */
+    private static List<Method> candidates(Class<?> beanClass) {
+        Class<?>[] types = Proxy.isProxyClass(beanClass)
+                ? ClassUtils.getAllInterfacesForClass(beanClass)
+                : new Class<?>[]{beanClass};
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> type : types) {
+            if (!Modifier.isPublic(type.getModifiers())) {
+                continue;
+            }
+            for (Method method : type.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers()) && !method.isBridge()) {
+                    methods.putIfAbsent(method.getName() + Arrays.toString(method.getParameterTypes()), method);
+                }
+            }
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+
+
+    /**
+     * argTypes 中的每个类型（null 表示 null 实参）能否传给 paramTypes。
+     */
+    private static boolean isApplicable(Class<?>[] paramTypes, Class<?>[] argTypes) {
+        if (paramTypes.length != argTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < paramTypes.length; i++) {
+            boolean assignable = argTypes[i] == null
+                    ? !paramTypes[i].isPrimitive()
+                    : ClassUtils.isAssignable(paramTypes[i], argTypes[i]);
+            if (!assignable) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+
+    private static String describe(Class<?>[] argTypes) {
+        return Arrays.stream(argTypes)
+                .map(type -> type == null ? "null" : type.getSimpleName())
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+
+
+    private record InvokerKey(String beanName, String methodName, List<Class<?>> argTypes) {
+    }
+
+
+
+    private record Invoker(MethodHandle handle, Method method) {
+    }
+}
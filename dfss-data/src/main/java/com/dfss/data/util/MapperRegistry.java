@@ -0,0 +1,160 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>实体类 → BaseMapper 的只读索引。</p>
+ *
+ * <p>容器刷新完成（{@link ContextRefreshedEvent}）时一次性扫描所有 BaseMapper Bean，构建不可变 Map 并通过 volatile
+ * 字段发布，之后的查找只是一次普通的 HashMap 探测，不再有扫描和并发写入。</p>
+ * <p>同一实体存在多个 Mapper（{@link DataBaseErrorCode#DUPLICATE_MAPPER}），或已注册到 MyBatis-Plus 的实体找不到
+ * Mapper Bean（{@link DataBaseErrorCode#MAPPER_NOT_FOUND}）时，直接在启动阶段抛出异常。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+@Component
+public class MapperRegistry implements ApplicationContextAware, ApplicationListener<ContextRefreshedEvent> {
+
+    private static ApplicationContext context;
+
+    // 实体类 -> BaseMapper Bean；null 表示尚未构建
+    private static volatile Map<Class<?>, BaseMapper<?>> index;
+
+
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        MapperRegistry.context = applicationContext;
+    }
+
+
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        // 忽略子容器的刷新事件
+        if (event.getApplicationContext() != context) {
+            return;
+        }
+        rebuild();
+    }
+
+
+
+    /**
+     * 按实体类查找对应的 BaseMapper。
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> BaseMapper<E> getMapper(Class<E> entityClass) {
+        if (entityClass == null) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "实体类不能为空");
+        }
+        Map<Class<?>, BaseMapper<?>> current = index;
+        if (current == null) {
+            // 容器刷新完成之前（例如其他 Bean 初始化期间）被调用，提前构建一次；并发调用只有第一个线程构建
+            synchronized (MapperRegistry.class) {
+                current = index;
+                if (current == null) {
+                    current = rebuild();
+                }
+            }
+        }
+        BaseMapper<?> mapper = current.get(entityClass);
+        if (mapper == null) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.MAPPER_NOT_FOUND,
+                    "未找到实体 " + entityClass.getName() + " 对应的 Mapper"
+            );
+        }
+        return (BaseMapper<E>) mapper;
+    }
+
+
+
+    /**
+     * 当前索引中的所有实体类型。
+     */
+    public static Iterable<Class<?>> entityClasses() {
+        Map<Class<?>, BaseMapper<?>> current = index;
+        return current == null ? List.of() : current.keySet();
+    }
+
+
+
+    private static synchronized Map<Class<?>, BaseMapper<?>> rebuild() {
+        if (context == null) {
+            throw new DataBaseOperationException(DataBaseErrorCode.MAPPER_NOT_FOUND, "Spring 上下文尚未初始化");
+        }
+        Map<Class<?>, BaseMapper<?>> built = new HashMap<>();
+        Map<Class<?>, String> beanNames = new HashMap<>();
+        List<String> problems = new ArrayList<>();
+
+        for (String beanName : context.getBeanNamesForType(BaseMapper.class)) {
+            BaseMapper<?> mapperBean = context.getBean(beanName, BaseMapper.class);
+            Class<?> entityClass = ResolvableType.forClass(AopUtils.getTargetClass(mapperBean))
+                    .as(BaseMapper.class)
+                    .resolveGeneric(0);
+            if (entityClass == null) {
+                // 泛型未指定的通用 Mapper，无法确定实体，跳过
+                continue;
+            }
+            String previous = beanNames.putIfAbsent(entityClass, beanName);
+            if (previous != null) {
+                problems.add("[" + DataBaseErrorCode.DUPLICATE_MAPPER.getCode() + "] 实体 " + entityClass.getName()
+                        + " 存在多个 Mapper: " + previous + ", " + beanName);
+                continue;
+            }
+            built.put(entityClass, mapperBean);
+        }
+
+        // TableInfoHelper 是 JVM 级别的全局缓存，只校验 Mapper 注册在当前容器 SqlSessionFactory 中的实体
+        Set<String> namespaces = new HashSet<>();
+        for (SqlSessionFactory factory : context.getBeansOfType(SqlSessionFactory.class).values()) {
+            for (Class<?> mapperInterface : factory.getConfiguration().getMapperRegistry().getMappers()) {
+                namespaces.add(mapperInterface.getName());
+            }
+        }
+        for (TableInfo tableInfo : TableInfoHelper.getTableInfos()) {
+            if (namespaces.contains(tableInfo.getCurrentNamespace())
+                    && !built.containsKey(tableInfo.getEntityType())) {
+                problems.add("[" + DataBaseErrorCode.MAPPER_NOT_FOUND.getCode() + "] 未找到实体 "
+                        + tableInfo.getEntityType().getName() + " 对应的 Mapper Bean");
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            boolean duplicate = problems.stream()
+                    .anyMatch(p -> p.contains(DataBaseErrorCode.DUPLICATE_MAPPER.getCode()));
+            throw new DataBaseOperationException(
+                    duplicate ? DataBaseErrorCode.DUPLICATE_MAPPER : DataBaseErrorCode.MAPPER_NOT_FOUND,
+                    "Mapper 映射校验失败: " + String.join("; ", problems)
+            );
+        }
+
+        Map<Class<?>, BaseMapper<?>> published = Map.copyOf(built);
+        index = published;
+        log.info("Mapper 索引构建完成，共 {} 个实体", published.size());
+        return published;
+    }
+}
@@ -0,0 +1,52 @@
+package com.dfss.data.util;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>{@code DataBaseOperation.getByIds} 的查询结果。</p>
+ *
+ * <p>入参中的主键先去重（{@code 1} 与 {@code 1L} 视为同一个主键），{@link #getRecords()} 与 {@link #getRecordMap()}
+ * 按主键在入参中第一次出现的顺序排列；数据库中不存在的主键按同样的顺序列在 {@link #getMissingIds()} 中。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Getter
+public class MultiGetResult<T> {
+
+    /**
+     * 查到的记录，按入参顺序
+     */
+    private final List<T> records;
+
+    /**
+     * 入参主键 -> 记录，按入参顺序，只包含查到的主键
+     */
+    private final Map<Serializable, T> recordMap;
+
+    /**
+     * 未查到的主键，按入参顺序
+     */
+    private final List<Serializable> missingIds;
+
+
+
+    public MultiGetResult(List<T> records, Map<Serializable, T> recordMap, List<Serializable> missingIds) {
+        this.records = records;
+        this.recordMap = recordMap;
+        this.missingIds = missingIds;
+    }
+
+
+
+    /**
+     * 是否所有主键都查到了记录
+     */
+    public boolean isComplete() {
+        return missingIds.isEmpty();
+    }
+}
@@ -0,0 +1,214 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.sharding.ShardContext;
+import com.dfss.data.sharding.ShardRule;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>分表实体的 scatter-gather：同一条语句在每个分片上执行一次，再在内存中合并。</p>
+ * <ul>
+ *   <li>多个分片在 {@link DataBaseExecutor} 上并行执行；处于事务中时在当前线程顺序执行，以便读到本事务的写入。</li>
+ *   <li>各分片的结果已按 Wrapper 的 ORDER BY 排好序，合并时做 k 路归并；没有 ORDER BY 时按分片顺序拼接。
+ *   归并在 Java 中比较属性值，字符串按 {@link String#compareTo} 排序，与数据库排序规则不同时顺序可能不一致。</li>
+ *   <li>第 n 页（每页 s 条）下推到每个分片为 {@code LIMIT n * s}，合并后跳过前 {@code (n - 1) * s} 条；
+ *   深分页代价随页码增长，大翻页请使用游标分页。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+final class ShardedQueries {
+
+    private ShardedQueries() {
+    }
+
+
+
+    /**
+     * 在每个分片上执行 action，按分片序号返回结果。
+     */
+    static <T> List<T> scatter(ShardRule rule, Supplier<T> action) {
+        List<T> results = new ArrayList<>(rule.shards());
+        if (rule.shards() == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            for (int shard = 0; shard < rule.shards(); shard++) {
+                results.add(ShardContext.on(rule, shard, action));
+            }
+            return results;
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(rule.shards());
+        for (int shard = 0; shard < rule.shards(); shard++) {
+            int target = shard;
+            futures.add(DataBaseExecutor.supply(() -> ShardContext.on(rule, target, action)));
+        }
+        try {
+            futures.forEach(future -> results.add(future.join()));
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+
+
+    /**
+     * 各分片写操作影响行数之和。
+     */
+    static int sum(ShardRule rule, Supplier<Integer> action) {
+        return scatter(rule, action).stream().mapToInt(Integer::intValue).sum();
+    }
+
+
+
+    /**
+     * 分片分页：每个分片查询前 {@code pageNum * pageSize} 行，归并后截取目标页，总数为各分片总数之和。
+     *
+     * @param shardPage 按给定行数在当前分片上执行第 1 页查询（含总数统计），返回已完成的分页结果
+     */
+    static <T> IPage<T> page(
+            ShardRule rule,
+            long pageNum,
+            long pageSize,
+            Comparator<? super T> order,
+            Function<Long, IPage<T>> shardPage
+    ) {
+        long current = Math.max(pageNum, 1);
+        long offset = (current - 1) * pageSize;
+        long limit = offset + pageSize;
+        List<IPage<T>> pages = scatter(rule, () -> shardPage.apply(limit));
+        List<List<T>> parts = new ArrayList<>(pages.size());
+        long total = 0;
+        for (IPage<T> page : pages) {
+            parts.add(page.getRecords());
+            total += page.getTotal();
+        }
+        List<T> merged = merge(parts, order, limit);
+        Page<T> result = new Page<>(current, pageSize, total);
+        result.setRecords(offset >= merged.size()
+                ? new ArrayList<>() : new ArrayList<>(merged.subList((int) offset, merged.size())));
+        return result;
+    }
+
+
+
+    /**
+     * 合并各分片已排好序的结果，最多取 limit 条。
+     */
+    static <T> List<T> merge(List<List<T>> parts, Comparator<? super T> order, long limit) {
+        long available = 0;
+        for (List<T> part : parts) {
+            available += part.size();
+        }
+        int size = (int) Math.min(available, limit);
+        List<T> merged = new ArrayList<>(size);
+        if (order == null) {
+            for (List<T> part : parts) {
+                for (T row : part) {
+                    if (merged.size() == size) {
+                        return merged;
+                    }
+                    merged.add(row);
+                }
+            }
+            return merged;
+        }
+        // 堆中是 {分片下标, 行下标}，比较各分片当前行；相等时按分片序号，保证结果稳定
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> {
+            int c = order.compare(parts.get(a[0]).get(a[1]), parts.get(b[0]).get(b[1]));
+            return c != 0 ? c : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        while (merged.size() < size) {
+            int[] head = heads.poll();
+            List<T> part = parts.get(head[0]);
+            merged.add(part.get(head[1]));
+            if (++head[1] < part.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+
+
+    /**
+     * 把 Wrapper 的 ORDER BY 转为实体比较器，没有 ORDER BY 时返回 null。只支持按实体列排序，NULL 的位置与 MySQL 一致
+     * （升序在前、降序在后）。
+     */
+    static <E> Comparator<E> order(TableInfo tableInfo, Wrapper<E> wrapper) {
+        String segment = wrapper.getExpression().getOrderBy().getSqlSegment().trim();
+        if (segment.isEmpty()) {
+            return null;
+        }
+        Comparator<E> order = null;
+        for (String item : segment.replaceFirst("(?i)^ORDER\\s+BY\\s+", "").split(",")) {
+            String[] tokens = item.trim().split("\\s+");
+            boolean descending = tokens.length > 1 && "DESC".equalsIgnoreCase(tokens[tokens.length - 1]);
+            if (tokens.length > 2 || tokens.length == 2 && !descending && !"ASC".equalsIgnoreCase(tokens[1])) {
+                throw unsupportedOrder(item);
+            }
+            Comparator<E> next = ascending(tableInfo, property(tableInfo, tokens[0], item));
+            next = descending ? next.reversed() : next;
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order;
+    }
+
+
+
+    /**
+     * 按实体属性升序比较，NULL 在前。
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Comparator<E> ascending(TableInfo tableInfo, String property) {
+        Comparator<Object> values = Comparator.nullsFirst((a, b) -> ((Comparable<Object>) a).compareTo(b));
+        return Comparator.comparing(row -> tableInfo.getPropertyValue(row, property), values);
+    }
+
+
+
+    private static String property(TableInfo tableInfo, String column, String item) {
+        String bare = column.replace("`", "").replace("\"", "");
+        if (tableInfo.havePK()
+                && (bare.equalsIgnoreCase(tableInfo.getKeyColumn()) || bare.equals(tableInfo.getKeyProperty()))) {
+            return tableInfo.getKeyProperty();
+        }
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (bare.equalsIgnoreCase(field.getColumn()) || bare.equals(field.getProperty())) {
+                return field.getProperty();
+            }
+        }
+        throw unsupportedOrder(item);
+    }
+
+
+
+    private static DataBaseOperationException unsupportedOrder(String item) {
+        return new DataBaseOperationException(
+                DataBaseErrorCode.UNSUPPORTED_SHARD_QUERY,
+                "分表查询只能按实体列排序，无法在内存中归并: " + item.trim()
+        );
+    }
+}
@@ -0,0 +1,116 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>按表记录写入版本号，供各类查询缓存判断缓存是否仍然有效。</p>
+ *
+ * <p>DataBaseOperation 的写方法在执行后调用 {@link #touch(Class)}，executeCustomUpdate 按 SQL 中解析出的表调用
+ * {@link #touch(String)}。处于事务中时，事务结束后会再递增一次版本，
+ * 避免其他线程在提交前读到旧数据并以新版本号写入缓存。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public final class TableChangeTracker {
+
+    // 规范化表名 -> 写入版本号
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    // 规范化表名 -> 最近一次递增版本的时间（System.nanoTime）
+    private static final Map<String, Long> CHANGED_AT = new ConcurrentHashMap<>();
+
+    private TableChangeTracker() {
+    }
+
+
+
+    /**
+     * 当前表的写入版本号，从未写入过为 0。
+     */
+    public static long version(String table) {
+        AtomicLong version = VERSIONS.get(normalize(table));
+        return version == null ? 0L : version.get();
+    }
+
+
+
+    /**
+     * 表在最近 window 内是否递增过版本（事务结束后的递增同样计入）。
+     */
+    public static boolean changedWithin(String table, Duration window) {
+        Long changedAt = CHANGED_AT.get(normalize(table));
+        return changedAt != null && System.nanoTime() - changedAt < window.toNanos();
+    }
+
+
+
+    /**
+     * 标记实体对应的表发生了写入。
+     */
+    public static void touch(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo != null) {
+            touch(tableInfo.getTableName());
+        }
+    }
+
+
+
+    /**
+     * 标记表发生了写入。
+     */
+    public static void touch(String table) {
+        String key = normalize(table);
+        increment(key);
+        afterCompletion(() -> increment(key));
+    }
+
+
+
+    /**
+     * 处于事务中时，在事务结束（提交或回滚）后执行 action；不在事务中则什么也不做。
+     */
+    static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+
+
+    private static void increment(String key) {
+        VERSIONS.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        CHANGED_AT.put(key, System.nanoTime());
+    }
+
+
+
+    /**
+     * 去掉标识符引号并统一小写，使 {@code `user`}、{@code "USER"} 与 {@code user} 视为同一张表。
+     */
+    static String normalize(String table) {
+        StringBuilder builder = new StringBuilder(table.length());
+        for (int i = 0; i < table.length(); i++) {
+            char c = table.charAt(i);
+            if (c != '`' && c != '"' && c != '[' && c != ']') {
+                builder.append(c);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+}
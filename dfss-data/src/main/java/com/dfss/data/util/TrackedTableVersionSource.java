@@ -0,0 +1,30 @@
+package com.dfss.data.util;
+
+import com.dfss.common.version.TableVersionSource;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>基于 {@link TableChangeTracker} 的表版本来源：版本标记为“实例纪元.写入版本号”。</p>
+ *
+ * <p>写入版本号只在本进程内递增，前缀一个每次启动随机生成的纪元，重启后计数归零也不会与重启前的 ETag 重合。
+ * 但计数器感知不到其他实例的写入：多实例部署下，其他实例写入后本实例的版本不变，持有本实例 ETag 的客户端
+ * 会继续收到 304 并使用过期数据。因此只适用于单实例部署，由 {@code dfss.data.tracked-table-version=true} 开启，
+ * 见 {@link com.dfss.data.config.TableVersionConfig}。同样只能感知经由 DataBaseOperation 的写入
+ * （executeCustomUpdate 按解析出的表递增），绕过它直接写表的场景需要自行提供 {@link TableVersionSource}。不提供 Last-Modified。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+public class TrackedTableVersionSource implements TableVersionSource {
+
+    private final String epoch = Long.toHexString(System.currentTimeMillis())
+            + Integer.toHexString(ThreadLocalRandom.current().nextInt());
+
+
+
+    @Override
+    public String version(String table) {
+        return epoch + '.' + TableChangeTracker.version(table);
+    }
+}
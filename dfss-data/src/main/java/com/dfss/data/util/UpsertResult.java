@@ -0,0 +1,62 @@
+package com.dfss.data.util;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * <p>{@code DataBaseOperation.upsertBatch} 的执行结果，按分块列出写入的行数、插入与更新的行数。</p>
+ *
+ * <p>插入/更新的拆分方式取决于方言：</p>
+ * <ul>
+ *   <li>MySQL / MariaDB：按驱动返回的影响行数推算，{@code ON DUPLICATE KEY UPDATE} 新插入的行计 1、被更新的行计 2。
+ *   Connector/J 默认（{@code useAffectedRows=false}）下，值没有变化的已有行计 1，会被算作插入；</li>
+ *   <li>H2：{@code MERGE} 只返回合计行数，执行前在同一连接上按主键统计已存在的行数。</li>
+ * </ul>
+ * <p>分表实体先按分片分组，再在每个分片内分块，{@link #getChunks()} 按分片序号、分块顺序排列。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Getter
+public class UpsertResult {
+
+    /**
+     * 单个分块的结果
+     *
+     * @param rows     分块内的行数
+     * @param inserted 新插入的行数
+     * @param updated  按主键或唯一键命中并更新的行数
+     */
+    public record Chunk(int rows, int inserted, int updated) {
+    }
+
+    /**
+     * 各分块的结果
+     */
+    private final List<Chunk> chunks;
+
+
+
+    public UpsertResult(List<Chunk> chunks) {
+        this.chunks = chunks;
+    }
+
+
+
+    /**
+     * 新插入的总行数
+     */
+    public int getInserted() {
+        return chunks.stream().mapToInt(Chunk::inserted).sum();
+    }
+
+
+
+    /**
+     * 更新的总行数
+     */
+    public int getUpdated() {
+        return chunks.stream().mapToInt(Chunk::updated).sum();
+    }
+}
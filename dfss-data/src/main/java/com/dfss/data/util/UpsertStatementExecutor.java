@@ -0,0 +1,409 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.MapperProxyMetadata;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.core.toolkit.LambdaUtils;
+import com.baomidou.mybatisplus.core.toolkit.MybatisUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.toolkit.JdbcUtils;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.id.EntityKeys;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>批量插入或更新的执行器，供 {@code DataBaseOperation.upsertBatch} 使用。</p>
+ *
+ * <p>每个分块内的实体先按“非空列集合”分组（与 {@link BatchStatementExecutor} 相同，null 值不会覆盖已有列），
+ * 每组渲染成一条多行语句，通过按 Mapper 派生的 {@code upsertBatch_rendered} MappedStatement 执行，分表表名替换与 SQL 指标
+ * 拦截器照常生效：</p>
+ * <ul>
+ *   <li>MySQL / MariaDB：{@code INSERT INTO t (...) VALUES (...), (...) ON DUPLICATE KEY UPDATE c = VALUES(c)}，
+ *   冲突按主键或任意唯一键判断；</li>
+ *   <li>H2：{@code MERGE INTO t USING (VALUES ...) s (...) ON t.id = s.id WHEN MATCHED THEN UPDATE ...
+ *   WHEN NOT MATCHED THEN INSERT ...}，按主键匹配。</li>
+ * </ul>
+ * <p>主键为空的 ASSIGN_ID / ASSIGN_UUID 实体在渲染前生成主键并回填，配置了 MetaObjectHandler 时执行插入填充。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+final class UpsertStatementExecutor {
+
+    enum Dialect { MYSQL, H2 }
+
+    /**
+     * 派生语句的参数：渲染好的 SQL 与按占位符顺序排列的参数值（以 additionalParameter 的形式绑定）。
+     */
+    record Rendered(String sql, List<ParameterMapping> mappings, List<Object> values) {
+    }
+
+    /**
+     * 直接返回 {@link Rendered} 中 SQL 的 SqlSource。
+     */
+    private record RenderedSqlSource(Configuration configuration) implements SqlSource {
+
+        @Override
+        public BoundSql getBoundSql(Object parameterObject) {
+            Rendered rendered = (Rendered) parameterObject;
+            BoundSql boundSql = new BoundSql(configuration, rendered.sql(), rendered.mappings(), parameterObject);
+            for (int i = 0; i < rendered.values().size(); i++) {
+                boundSql.setAdditionalParameter(rendered.mappings().get(i).getProperty(), rendered.values().get(i));
+            }
+            return boundSql;
+        }
+    }
+
+    // Mapper 接口 -> upsert 语句 id
+    private static final Map<Class<?>, String> STATEMENTS = new ConcurrentHashMap<>();
+
+    // MyBatis Configuration -> 方言
+    private static final Map<Configuration, Dialect> DIALECTS = new ConcurrentHashMap<>();
+
+    private UpsertStatementExecutor() {
+    }
+
+
+
+    /**
+     * 冲突时需要更新的列，位序与 {@link TableInfo#getFieldList()} 一致。
+     *
+     * @param columns 调用方指定的属性；为空时取除“仅插入时填充”与 {@code updateStrategy = NEVER} 以外的全部列
+     */
+    static <E> BitSet updatableColumns(TableInfo tableInfo, List<SFunction<E, ?>> columns) {
+        List<TableFieldInfo> fields = tableInfo.getFieldList();
+        BitSet updatable = new BitSet(fields.size());
+        if (columns.isEmpty()) {
+            for (int i = 0; i < fields.size(); i++) {
+                TableFieldInfo field = fields.get(i);
+                if (field.getFieldFill() != FieldFill.INSERT && field.getUpdateStrategy() != FieldStrategy.NEVER) {
+                    updatable.set(i);
+                }
+            }
+            return updatable;
+        }
+        for (SFunction<E, ?> column : columns) {
+            String property = PropertyNamer.methodToProperty(LambdaUtils.extract(column).getImplMethodName());
+            int index = -1;
+            for (int i = 0; i < fields.size() && index < 0; i++) {
+                if (fields.get(i).getProperty().equals(property)) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                throw new DataBaseOperationException(
+                        DataBaseErrorCode.INVALID_ENTITY,
+                        "属性 " + property + " 不是实体 " + tableInfo.getEntityType().getName() + " 的非主键数据库列"
+                );
+            }
+            updatable.set(index);
+        }
+        return updatable;
+    }
+
+
+
+    /**
+     * 分块执行 upsert，每个分块内的所有语句执行完后统计一次插入/更新行数。
+     *
+     * @param updatable 冲突时更新的列，见 {@link #updatableColumns}
+     * @return 每个分块的结果
+     */
+    static <E> List<UpsertResult.Chunk> execute(
+            BaseMapper<E> mapper,
+            List<E> entities,
+            int chunkSize,
+            BitSet updatable
+    ) {
+        if (chunkSize <= 0) {
+            throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "upsert 分块大小必须大于 0");
+        }
+        List<UpsertResult.Chunk> chunks = new ArrayList<>((entities.size() + chunkSize - 1) / chunkSize);
+        if (entities.isEmpty()) {
+            return chunks;
+        }
+        MapperProxyMetadata proxy = MybatisUtils.getMapperProxy(mapper);
+        SqlSessionFactory factory = MybatisUtils.getSqlSessionFactory(proxy.getSqlSession());
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entities.get(0).getClass());
+        if (!tableInfo.havePK()) {
+            throw new DataBaseOperationException(
+                    DataBaseErrorCode.INVALID_ENTITY,
+                    "实体 " + tableInfo.getEntityType().getName() + " 没有 @TableId，无法按主键 upsert"
+            );
+        }
+        Configuration configuration = factory.getConfiguration();
+        String namespace = proxy.getMapperInterface().getName();
+        String statementId = statement(proxy.getMapperInterface(), configuration);
+
+        // 与 saveBatch 相同：Spring 事务中复用当前连接且不会自行提交，非事务场景下全部分块成功后统一提交；
+        // REUSE 执行器让行数与列集合相同的分块复用同一个 PreparedStatement
+        try (SqlSession session = factory.openSession(ExecutorType.REUSE, false)) {
+            Dialect dialect = DIALECTS.computeIfAbsent(configuration, k -> dialect(session));
+            for (int from = 0; from < entities.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, entities.size());
+                Map<BitSet, List<E>> groups = groupByColumns(configuration, tableInfo, entities, from, to, dialect);
+                int rows = to - from;
+                int existing = dialect == Dialect.H2
+                        ? countExisting(session, namespace, tableInfo, entities, from, to) : 0;
+                int affected = 0;
+                for (Map.Entry<BitSet, List<E>> group : groups.entrySet()) {
+                    Rendered rendered = render(
+                            configuration, dialect, tableInfo, group.getKey(), updatable, group.getValue());
+                    affected += session.update(statementId, rendered);
+                }
+                int inserted;
+                int updated;
+                if (dialect == Dialect.H2) {
+                    // MERGE 返回插入与更新的合计
+                    inserted = rows - existing;
+                    updated = clamp(affected - inserted, rows);
+                } else {
+                    // ON DUPLICATE KEY UPDATE：插入计 1，更新计 2
+                    updated = clamp(affected - rows, rows);
+                    inserted = rows - updated;
+                }
+                chunks.add(new UpsertResult.Chunk(rows, inserted, updated));
+            }
+            session.commit();
+        }
+        return chunks;
+    }
+
+
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+
+
+    /**
+     * 把 [from, to) 区间内的实体按写入列集合分组（保持首次出现顺序）；分组前补齐主键与插入填充。
+     */
+    private static <E> Map<BitSet, List<E>> groupByColumns(
+            Configuration configuration,
+            TableInfo tableInfo,
+            List<E> entities,
+            int from,
+            int to,
+            Dialect dialect
+    ) {
+        List<TableFieldInfo> fields = tableInfo.getFieldList();
+        Map<BitSet, List<E>> groups = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            E entity = entities.get(i);
+            if (entity == null) {
+                throw new DataBaseOperationException(DataBaseErrorCode.INVALID_ENTITY, "批量列表中存在空实体，下标: " + i);
+            }
+            prepare(configuration, tableInfo, entity);
+            if (dialect == Dialect.H2 && tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty()) == null) {
+                throw new DataBaseOperationException(
+                        DataBaseErrorCode.INVALID_ENTITY, "H2 的 MERGE 按主键匹配，upsert 实体主键不能为空，下标: " + i);
+            }
+            BitSet columns = BatchStatementExecutor.nonNullColumns(tableInfo, entity);
+            for (int c = columns.nextSetBit(0); c >= 0; c = columns.nextSetBit(c + 1)) {
+                if (fields.get(c).getInsertStrategy() == FieldStrategy.NEVER) {
+                    columns.clear(c);
+                }
+            }
+            groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(entity);
+        }
+        return groups;
+    }
+
+
+
+    /**
+     * 补齐 MyBatis-Plus insert 在参数处理阶段才做的事：生成 ASSIGN_ID / ASSIGN_UUID 主键、执行插入填充。
+     */
+    private static void prepare(Configuration configuration, TableInfo tableInfo, Object entity) {
+        EntityKeys.assignIfAbsent(configuration, tableInfo, entity);
+        if (tableInfo.isWithInsertFill()) {
+            GlobalConfigUtils.getMetaObjectHandler(configuration).ifPresent(
+                    handler -> handler.insertFill(configuration.newMetaObject(entity)));
+        }
+    }
+
+
+
+    /**
+     * 分块内已存在的主键数，在 upsert 之前于同一连接上执行。
+     */
+    private static <E> int countExisting(
+            SqlSession session,
+            String namespace,
+            TableInfo tableInfo,
+            List<E> entities,
+            int from,
+            int to
+    ) {
+        List<Object> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(tableInfo.getPropertyValue(entities.get(i), tableInfo.getKeyProperty()));
+        }
+        QueryWrapper<E> wrapper = new QueryWrapper<E>().in(tableInfo.getKeyColumn(), ids);
+        Long count = session.selectOne(namespace + ".selectCount", DerivedStatements.parameter(wrapper, null));
+        return count == null ? 0 : count.intValue();
+    }
+
+
+
+    /**
+     * 渲染一组列集合相同的实体。主键列总在第一位；没有可更新的列时，MySQL 写入 {@code key = key}，
+     * H2 省略 WHEN MATCHED，已存在的行保持不变。
+     */
+    static Rendered render(
+            Configuration configuration,
+            Dialect dialect,
+            TableInfo tableInfo,
+            BitSet columns,
+            BitSet updatable,
+            List<?> rows
+    ) {
+        List<TableFieldInfo> fields = tableInfo.getFieldList();
+        String key = tableInfo.getKeyColumn();
+        List<String> names = new ArrayList<>(columns.cardinality() + 1);
+        List<String> updates = new ArrayList<>();
+        names.add(key);
+        for (int c = columns.nextSetBit(0); c >= 0; c = columns.nextSetBit(c + 1)) {
+            names.add(fields.get(c).getColumn());
+            if (updatable.get(c)) {
+                updates.add(fields.get(c).getColumn());
+            }
+        }
+
+        int width = names.size();
+        List<ParameterMapping> mappings = new ArrayList<>(rows.size() * width);
+        List<Object> values = new ArrayList<>(rows.size() * width);
+        StringBuilder tuples = new StringBuilder(rows.size() * (width * 3 + 4));
+        for (Object row : rows) {
+            tuples.append(tuples.isEmpty() ? "(" : ", (");
+            mappings.add(new ParameterMapping.Builder(
+                    configuration, "p" + values.size(), tableInfo.getKeyType()).build());
+            values.add(tableInfo.getPropertyValue(row, tableInfo.getKeyProperty()));
+            tuples.append('?');
+            for (int c = columns.nextSetBit(0); c >= 0; c = columns.nextSetBit(c + 1)) {
+                mappings.add(mapping(configuration, fields.get(c), "p" + values.size()));
+                values.add(tableInfo.getPropertyValue(row, fields.get(c).getProperty()));
+                tuples.append(", ?");
+            }
+            tuples.append(')');
+        }
+
+        String columnList = String.join(", ", names);
+        StringBuilder sql = new StringBuilder(tuples.length() + 64 + width * 32);
+        if (dialect == Dialect.MYSQL) {
+            sql.append("INSERT INTO ").append(tableInfo.getTableName())
+                    .append(" (").append(columnList).append(") VALUES ").append(tuples)
+                    .append(" ON DUPLICATE KEY UPDATE ");
+            if (updates.isEmpty()) {
+                sql.append(key).append(" = ").append(key);
+            }
+            for (int i = 0; i < updates.size(); i++) {
+                String column = updates.get(i);
+                sql.append(i == 0 ? "" : ", ").append(column).append(" = VALUES(").append(column).append(')');
+            }
+        } else {
+            sql.append("MERGE INTO ").append(tableInfo.getTableName()).append(" t USING (VALUES ").append(tuples)
+                    .append(") s (").append(columnList).append(") ON t.").append(key).append(" = s.").append(key);
+            for (int i = 0; i < updates.size(); i++) {
+                String column = updates.get(i);
+                sql.append(i == 0 ? " WHEN MATCHED THEN UPDATE SET " : ", ")
+                        .append(column).append(" = s.").append(column);
+            }
+            sql.append(" WHEN NOT MATCHED THEN INSERT (").append(columnList).append(") VALUES (");
+            for (int i = 0; i < names.size(); i++) {
+                sql.append(i == 0 ? "s." : ", s.").append(names.get(i));
+            }
+            sql.append(')');
+        }
+        return new Rendered(sql.toString(), mappings, values);
+    }
+
+
+
+    private static ParameterMapping mapping(Configuration configuration, TableFieldInfo field, String property) {
+        ParameterMapping.Builder builder =
+                new ParameterMapping.Builder(configuration, property, field.getPropertyType());
+        if (field.getJdbcType() != null) {
+            builder.jdbcType(field.getJdbcType());
+        }
+        if (field.getTypeHandler() != null) {
+            builder.typeHandler(configuration.getTypeHandlerRegistry()
+                    .getInstance(field.getPropertyType(), field.getTypeHandler()));
+        }
+        return builder.build();
+    }
+
+
+
+    /**
+     * 获取 Mapper 的 upsert 语句 id，首次使用时注册。语句名带有 {@code _rendered} 后缀，不会与 Mapper 中自定义的
+     * {@code upsertBatch} 方法冲突；同名语句已存在但不是由这里注册的，直接报错而不是执行别人的 SQL。
+     */
+    static String statement(Class<?> mapperInterface, Configuration configuration) {
+        return STATEMENTS.computeIfAbsent(mapperInterface, k -> {
+            String statementId = k.getName() + ".upsertBatch_rendered";
+            synchronized (configuration) {
+                if (!configuration.hasStatement(statementId, false)) {
+                    configuration.addMappedStatement(new MappedStatement.Builder(
+                            configuration, statementId, new RenderedSqlSource(configuration), SqlCommandType.INSERT)
+                            .keyGenerator(NoKeyGenerator.INSTANCE)
+                            .flushCacheRequired(true)
+                            .useCache(false)
+                            .build());
+                } else if (!(configuration.getMappedStatement(statementId, false).getSqlSource()
+                        instanceof RenderedSqlSource)) {
+                    throw new DataBaseOperationException(
+                            DataBaseErrorCode.MAPPER_NOT_FOUND,
+                            "Mapper " + k.getName() + " 已定义语句 " + statementId + "，与 upsertBatch 派生的语句重名"
+                    );
+                }
+            }
+            return statementId;
+        });
+    }
+
+
+
+    private static Dialect dialect(SqlSession session) {
+        DbType dbType;
+        try {
+            dbType = JdbcUtils.getDbType(session.getConnection().getMetaData().getURL());
+        } catch (SQLException ex) {
+            throw new DataBaseOperationException(DataBaseErrorCode.SQL_EXECUTION_FAILED, "无法识别数据库类型", ex);
+        }
+        return switch (dbType) {
+            case MYSQL, MARIADB -> Dialect.MYSQL;
+            case H2 -> Dialect.H2;
+            default -> throw new DataBaseOperationException(
+                    DataBaseErrorCode.UNSUPPORTED_DIALECT, "upsertBatch 暂不支持数据库 " + dbType.getDb());
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.dfss.data.util;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>按 {@code dfss.data.write-behind} 配置创建 {@link WriteBehindQueue}，并在应用关闭时写完队列。
+ * 容器中有唯一的事务管理器时，每批写入在一个新事务中执行。</p>
+ *
+ * <p>关闭放在 {@link SmartLifecycle#stop()} 而不是销毁回调中：所有 Lifecycle 停止之后才开始销毁单例，
+ * 此时数据源与 Mapper 都还可用；阶段值低于 Web 服务器的优雅停机，请求线程都结束后才写最后一批。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Component
+public class WriteBehindLifecycle implements SmartLifecycle {
+
+    private final WriteBehindQueue queue;
+    private final long shutdownTimeoutMillis;
+    private volatile boolean running;
+
+
+
+    public WriteBehindLifecycle(
+            DataBaseOperationProperties properties,
+            ObjectProvider<PlatformTransactionManager> transactionManager
+    ) {
+        TransactionTemplate transaction = null;
+        PlatformTransactionManager manager = transactionManager.getIfUnique();
+        if (manager != null) {
+            transaction = new TransactionTemplate(manager);
+            // 后台线程上没有外层事务，显式声明以免受默认传播行为配置的影响
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+        this.queue = WriteBehindQueue.configure(properties.getWriteBehind(), transaction);
+        this.shutdownTimeoutMillis = properties.getWriteBehind().getShutdownTimeout().toMillis();
+    }
+
+
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+
+
+    @Override
+    public void stop() {
+        queue.shutdown(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+        running = false;
+    }
+
+
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+
+
+    /**
+     * Web 服务器优雅停机为 {@code DEFAULT_PHASE - 1024}，停止顺序按阶段值从高到低。
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
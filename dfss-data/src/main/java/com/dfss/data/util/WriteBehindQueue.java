@@ -0,0 +1,290 @@
+package com.dfss.data.util;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>{@code DataBaseOperation.insertAsync} 的写后缓冲：各线程提交的插入按实体类型进入有界队列，
+ * 由一个后台线程攒批后在一个事务中通过 saveBatch 写入，一批只有一次提交（MySQL 上只有一次 redo log 刷盘）。</p>
+ *
+ * <ul>
+ *   <li>队列：{@link ConcurrentLinkedQueue} 加上 CAS 预占的长度计数，入队与出队都不加锁；</li>
+ *   <li>触发：某个实体的队列攒够 {@code batch-size} 行，或最早的一行已等待 {@code flush-interval}；</li>
+ *   <li>背压：队列满时提交线程最多等待 {@code offer-timeout}，仍然满则在当前线程同步插入，不丢数据；</li>
+ *   <li>结果：每行对应一个 Future，批量写入失败时整批回滚，再逐行插入，只有出错的行以异常完成；</li>
+ *   <li>关闭：{@link #close} 之后的提交直接同步插入，后台线程写完队列中的全部数据后退出。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+final class WriteBehindQueue {
+
+    // 队列满时提交线程每次让出 CPU 的时间
+    private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static volatile WriteBehindQueue current;
+
+    private final int capacity;
+    private final int batchSize;
+    private final long intervalNanos;
+    private final long offerTimeoutNanos;
+    private final Thread flusher;
+
+    // 每批写入所在的事务；容器中没有唯一的事务管理器时为 null，saveBatch 的每条语句各自提交
+    private final TransactionTemplate transaction;
+
+    // 实体类型 -> 缓冲
+    private final Map<Class<?>, Buffer> buffers = new ConcurrentHashMap<>();
+
+    // 已通过关闭检查、尚未入队的提交数；关闭时等它归零，保证不会有数据在最后一次写入之后入队
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    private volatile boolean closed;
+
+
+
+    private WriteBehindQueue(DataBaseOperationProperties.WriteBehind config, TransactionTemplate transaction) {
+        this.transaction = transaction;
+        this.capacity = Math.max(config.getQueueCapacity(), 1);
+        this.batchSize = Math.max(config.getBatchSize(), 1);
+        this.intervalNanos = config.getFlushInterval().toNanos();
+        this.offerTimeoutNanos = config.getOfferTimeout().toNanos();
+        this.flusher = new Thread(this::run, "dfss-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+
+
+    /**
+     * 按配置创建缓冲并设为当前实例，已有的实例会被关闭（队列中的数据继续写完）。
+     */
+    static synchronized WriteBehindQueue configure(
+            DataBaseOperationProperties.WriteBehind config,
+            TransactionTemplate transaction
+    ) {
+        WriteBehindQueue previous = current;
+        current = new WriteBehindQueue(config, transaction);
+        if (previous != null) {
+            previous.close();
+        }
+        return current;
+    }
+
+
+
+    /**
+     * 提交一行插入，返回该行的影响行数。当前实例已关闭时同步插入。
+     */
+    static <E> CompletableFuture<Integer> submit(E entity) {
+        WriteBehindQueue queue = current;
+        if (queue == null) {
+            // 从未配置过（未经 Spring 启动）时使用默认配置
+            synchronized (WriteBehindQueue.class) {
+                if (current == null) {
+                    configure(new DataBaseOperationProperties.WriteBehind(), null);
+                }
+                queue = current;
+            }
+        }
+        return queue.offer(entity);
+    }
+
+
+
+    /**
+     * 停止接收新的数据并等待后台线程写完队列，超时后未写入的行保持未完成。
+     * 关闭后的实例仍保留为当前实例，之后的提交同步插入；若清空当前实例，下一次提交会按默认配置再创建一个
+     * 没有人负责写完的队列，应用退出时其中的数据就会丢失。
+     *
+     * @return 是否在超时前写完
+     */
+    boolean shutdown(long timeout, TimeUnit unit) {
+        close();
+        try {
+            flusher.join(Math.max(unit.toMillis(timeout), 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.warn("写后缓冲在 {} ms 内未写完，仍有 {} 行未写入", unit.toMillis(timeout), pending());
+            return false;
+        }
+        return true;
+    }
+
+
+
+    private void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+    }
+
+
+
+    private <E> CompletableFuture<Integer> offer(E entity) {
+        submitting.incrementAndGet();
+        try {
+            if (closed) {
+                return insertNow(entity);
+            }
+            Buffer buffer = buffers.computeIfAbsent(entity.getClass(), k -> new Buffer());
+            int size = buffer.reserve(capacity);
+            if (size < 0) {
+                LockSupport.unpark(flusher);
+                long deadline = System.nanoTime() + offerTimeoutNanos;
+                while (size < 0 && !closed && System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(this, BACKOFF_NANOS);
+                    size = buffer.reserve(capacity);
+                }
+                if (size < 0) {
+                    // 背压：等待超时后由提交线程自己写入
+                    return insertNow(entity);
+                }
+            }
+            Pending pending = new Pending(entity, new CompletableFuture<>(), System.nanoTime());
+            buffer.queue.offer(pending);
+            if (size % batchSize == 0) {
+                LockSupport.unpark(flusher);
+            }
+            return pending.future();
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+
+
+    private void run() {
+        while (true) {
+            boolean closing = closed;
+            long now = System.nanoTime();
+            long wait = intervalNanos;
+            boolean more = false;
+            for (Buffer buffer : buffers.values()) {
+                Pending head = buffer.queue.peek();
+                if (head == null) {
+                    continue;
+                }
+                long age = now - head.enqueuedAt();
+                if (closing || buffer.size.get() >= batchSize || age >= intervalNanos) {
+                    // 每轮每个实体只写一批，避免某个实体持续满载时饿死其他实体
+                    flush(buffer);
+                    more |= buffer.size.get() >= batchSize;
+                } else {
+                    wait = Math.min(wait, intervalNanos - age);
+                }
+            }
+            if (closing && submitting.get() == 0 && pending() == 0) {
+                return;
+            }
+            if (!more) {
+                LockSupport.parkNanos(this, closing ? BACKOFF_NANOS : wait);
+            }
+        }
+    }
+
+
+
+    private void flush(Buffer buffer) {
+        List<Pending> batch = new ArrayList<>(Math.min(batchSize, buffer.size.get()));
+        Pending pending;
+        while (batch.size() < batchSize && (pending = buffer.queue.poll()) != null) {
+            batch.add(pending);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        buffer.size.addAndGet(-batch.size());
+        List<Object> entities = batch.stream().map(Pending::entity).toList();
+        try {
+            if (transaction == null) {
+                DataBaseOperation.saveBatch(entities, entities.size());
+            } else {
+                transaction.executeWithoutResult(status -> DataBaseOperation.saveBatch(entities, entities.size()));
+            }
+            for (Pending p : batch) {
+                p.future().complete(1);
+            }
+        } catch (Throwable ex) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(ex);
+                return;
+            }
+            // 整批已回滚（没有 TransactionTemplate 时 saveBatch 自行开启本地事务，分表实体的各分片也一同回滚），
+            // 逐行重试，只让出错的行失败
+            log.warn("写后缓冲批量写入 {} 行失败，改为逐行写入: {}", batch.size(), ex.toString());
+            for (Pending p : batch) {
+                try {
+                    p.future().complete(DataBaseOperation.insert(p.entity()));
+                } catch (Throwable rowEx) {
+                    p.future().completeExceptionally(rowEx);
+                }
+            }
+        }
+    }
+
+
+
+    private static <E> CompletableFuture<Integer> insertNow(E entity) {
+        try {
+            return CompletableFuture.completedFuture(DataBaseOperation.insert(entity));
+        } catch (Throwable ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+
+
+    private int pending() {
+        int total = 0;
+        for (Buffer buffer : buffers.values()) {
+            total += buffer.size.get();
+        }
+        return total;
+    }
+
+
+
+    /**
+     * 单个实体类型的队列，size 在入队前预占，可能暂时大于队列中的实际元素数。
+     */
+    private static final class Buffer {
+
+        private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * 预占一个位置，返回预占后的长度；队列已满时返回 -1。
+         */
+        int reserve(int capacity) {
+            while (true) {
+                int current = size.get();
+                if (current >= capacity) {
+                    return -1;
+                }
+                if (size.compareAndSet(current, current + 1)) {
+                    return current + 1;
+                }
+            }
+        }
+    }
+
+
+
+    private record Pending(Object entity, CompletableFuture<Integer> future, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.dfss.data.config;
+
+import com.dfss.common.version.TableVersionSource;
+import com.dfss.data.util.TrackedTableVersionSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 进程内表版本来源只在显式开启且没有其他来源时注册。
+ */
+class TableVersionConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(TableVersionConfig.class);
+
+
+
+    @Test
+    void notRegisteredByDefault() {
+        runner.run(context -> assertThat(context).doesNotHaveBean(TableVersionSource.class));
+    }
+
+
+
+    @Test
+    void registeredWhenEnabled() {
+        runner.withPropertyValues("dfss.data.tracked-table-version=true")
+                .run(context -> assertThat(context).hasSingleBean(TrackedTableVersionSource.class));
+    }
+
+
+
+    @Test
+    void backsOffWhenAnotherSourceExists() {
+        runner.withPropertyValues("dfss.data.tracked-table-version=true")
+                .withBean("shared", TableVersionSource.class, () -> table -> "shared")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(TableVersionSource.class);
+                    assertThat(context).doesNotHaveBean(TrackedTableVersionSource.class);
+                });
+    }
+}
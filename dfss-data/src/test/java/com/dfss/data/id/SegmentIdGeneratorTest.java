@@ -0,0 +1,205 @@
+package com.dfss.data.id;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.support.Dict;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 号段发号测试：号段边界与预取点、租用互不重叠、跨号段切换、后台预取，以及未列出的实体回退到雪花算法。
+ * 每个用例使用独立的分配表，互不影响。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class SegmentIdGeneratorTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+
+
+    @Test
+    void segmentIssuesRangeAndMarksPrefetchPointOnce() {
+        Segment segment = new Segment(11, 21, 0.3);
+
+        List<Long> ids = new ArrayList<>();
+        int prefetchPoints = 0;
+        for (long id = segment.next(); id >= 0; id = segment.next()) {
+            ids.add(id);
+            prefetchPoints += segment.isPrefetchPoint(id) ? 1 : 0;
+        }
+
+        assertEquals(LongStream.range(11, 21).boxed().toList(), ids);
+        assertEquals(1, prefetchPoints);
+        assertTrue(segment.isPrefetchPoint(14));
+        assertEquals(-1, segment.next());
+    }
+
+
+
+    @Test
+    void leasesNeverOverlapAcrossAllocators() {
+        SegmentAllocator first = allocator("seg_lease", 10);
+        SegmentAllocator second = allocator("seg_lease", 10);
+        first.initializeSchema();
+
+        assertEquals(List.of(1L, 10L), bounds(first.lease("t")));
+        assertEquals(List.of(11L, 20L), bounds(second.lease("t")));
+        assertEquals(List.of(21L, 30L), bounds(first.lease("t")));
+
+        // 迁移已有数据：预先插入的 max_id 之后继续发号，step 以表中为准
+        jdbc.update("INSERT INTO seg_lease (biz_tag, max_id, step, update_time) VALUES ('m', 500, 5, NOW())");
+        assertEquals(List.of(501L, 505L), bounds(first.lease("m")));
+    }
+
+
+
+    @Test
+    void idsStayContiguousAcrossSegmentRollover() {
+        SegmentIdGenerator generator = generator("seg_rollover", 10, 0.1, List.of("user"));
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                ids.add(generator.nextId(new User()).longValue());
+            }
+
+            assertEquals(LongStream.rangeClosed(1, 25).boxed().toList(), ids);
+            assertTrue(maxId("seg_rollover", "user") >= 30);
+        } finally {
+            generator.destroy();
+        }
+    }
+
+
+
+    @Test
+    void nextSegmentIsPrefetchedInBackground() throws InterruptedException {
+        SegmentIdGenerator generator = generator("seg_prefetch", 10, 0.5, List.of("user"));
+        try {
+            // 启动时预取第一个号段
+            awaitMaxId("seg_prefetch", 10);
+            for (int i = 0; i < 5; i++) {
+                generator.nextId(new User());
+            }
+            assertEquals(10, maxId("seg_prefetch", "user"));
+
+            // 第 6 个号（start + 10 * 0.5）触发预取，号段用完之前下一个号段已经租好
+            assertEquals(6L, generator.nextId(new User()).longValue());
+            awaitMaxId("seg_prefetch", 20);
+            for (long expected = 7; expected <= 12; expected++) {
+                assertEquals(expected, generator.nextId(new User()).longValue());
+            }
+        } finally {
+            generator.destroy();
+        }
+    }
+
+
+
+    @Test
+    void unlistedEntityFallsBackToSnowflake() {
+        SegmentIdGenerator generator = generator("seg_fallback", 10, 0.1, List.of("user"));
+        try {
+            assertTrue(generator.nextId(new Dict()).longValue() > 1_000_000_000L);
+            assertEquals(1L, generator.nextId(new User()).longValue());
+        } finally {
+            generator.destroy();
+        }
+    }
+
+
+
+    @Test
+    void concurrentCallersNeverReceiveDuplicates() throws Exception {
+        SegmentIdGenerator generator = generator("seg_concurrent", 50, 0.2, List.of());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        ids.add(generator.nextId(new User()).longValue());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(4000, ids.size());
+            assertTrue(ids.stream().allMatch(id -> id >= 1 && id <= maxId("seg_concurrent", "user")));
+        } finally {
+            pool.shutdownNow();
+            generator.destroy();
+        }
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private SegmentAllocator allocator(String table, int step) {
+        return new SegmentAllocator(dataSource, table, step, 0.1);
+    }
+
+
+
+    private SegmentIdGenerator generator(String table, int step, double prefetchRatio, List<String> tables) {
+        DataBaseOperationProperties.IdSegment config = new DataBaseOperationProperties.IdSegment();
+        config.setTable(table);
+        config.setStep(step);
+        config.setPrefetchRatio(prefetchRatio);
+        config.setTables(tables);
+        return new SegmentIdGenerator(dataSource, config);
+    }
+
+
+
+    private static List<Long> bounds(Segment segment) {
+        long first = segment.next();
+        long last = first;
+        for (long id = first; id >= 0; id = segment.next()) {
+            last = id;
+        }
+        return List.of(first, last);
+    }
+
+
+
+    private long maxId(String table, String tag) {
+        Long max = jdbc.queryForObject("SELECT max_id FROM " + table + " WHERE biz_tag = ?", Long.class, tag);
+        return max == null ? 0 : max;
+    }
+
+
+
+    private void awaitMaxId(String table, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE max_id >= ?", Integer.class, expected) == 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, maxId(table, "user"));
+    }
+}
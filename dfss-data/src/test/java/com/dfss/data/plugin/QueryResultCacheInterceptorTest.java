@@ -0,0 +1,164 @@
+package com.dfss.data.plugin;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.routing.DataSourceRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * 查询结果缓存测试：命中返回副本、写入涉及的表后失效，以及从库在复制延迟内读到的结果不缓存。
+ */
+class QueryResultCacheInterceptorTest {
+
+    private final Configuration configuration = new Configuration();
+
+    private final AtomicInteger executed = new AtomicInteger();
+
+    private volatile String label = "v1";
+
+    private final Executor executor = (Executor) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{Executor.class}, (proxy, method, args) -> {
+                if (method.getName().equals("query")) {
+                    executed.incrementAndGet();
+                    return List.of(Map.of("label", label));
+                }
+                return method.getName().equals("update") ? 1 : null;
+            });
+
+
+
+    @Test
+    void hitReturnsCopyAndWriteInvalidates() throws Throwable {
+        QueryResultCacheInterceptor interceptor = interceptor(Duration.ZERO);
+        MappedStatement select = select("qc_hit");
+
+        List<?> first = query(interceptor, select);
+        List<?> second = query(interceptor, select);
+        assertEquals(1, executed.get());
+        assertEquals(first, second);
+        assertNotSame(first.get(0), second.get(0));
+
+        // 写入其他表不影响条目
+        write(interceptor, "qc_other");
+        query(interceptor, select);
+        assertEquals(1, executed.get());
+
+        label = "v2";
+        write(interceptor, "qc_hit");
+        assertEquals(List.of(Map.of("label", "v2")), query(interceptor, select));
+        assertEquals(2, executed.get());
+        query(interceptor, select);
+        assertEquals(2, executed.get());
+    }
+
+
+
+    @Test
+    void replicaReadWithinLagIsNotCached() throws Throwable {
+        QueryResultCacheInterceptor interceptor = interceptor(Duration.ofMinutes(1));
+        MappedStatement select = select("qc_lag");
+        write(interceptor, "qc_lag");
+
+        // 其他线程刚写入过，从库读到的可能是写入前的数据，不能以写入后的版本缓存
+        onReplica(interceptor, select);
+        onReplica(interceptor, select);
+        assertEquals(2, executed.get());
+
+        // 主库读照常缓存，之后的从库读可以命中
+        query(interceptor, select);
+        onReplica(interceptor, select);
+        assertEquals(3, executed.get());
+    }
+
+
+
+    @Test
+    void replicaReadIsCachedWithoutRouting() throws Throwable {
+        QueryResultCacheInterceptor interceptor = interceptor(Duration.ZERO);
+        MappedStatement select = select("qc_no_routing");
+        write(interceptor, "qc_no_routing");
+
+        onReplica(interceptor, select);
+        onReplica(interceptor, select);
+        assertEquals(1, executed.get());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private QueryResultCacheInterceptor interceptor(Duration replicaLag) {
+        return new QueryResultCacheInterceptor(
+                new SimpleMeterRegistry(), new DataBaseOperationProperties.QueryCache(), replicaLag);
+    }
+
+
+
+    private MappedStatement select(String table) {
+        return statement("select." + table, "SELECT label FROM " + table + " WHERE id = 1", SqlCommandType.SELECT);
+    }
+
+
+
+    private MappedStatement statement(String id, String sql, SqlCommandType type) {
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql), type).build();
+    }
+
+
+
+    private List<?> query(QueryResultCacheInterceptor interceptor, MappedStatement ms) throws Throwable {
+        Method method = Executor.class.getMethod(
+                "query", MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class);
+        return (List<?>) interceptor.intercept(
+                new Invocation(executor, method, new Object[]{ms, null, RowBounds.DEFAULT, null}));
+    }
+
+
+
+    /**
+     * 在新线程中以从库路由查询：新线程没有写后粘滞状态，代表其他请求的读。
+     */
+    private void onReplica(QueryResultCacheInterceptor interceptor, MappedStatement ms) {
+        CompletableFuture<List<?>> result = new CompletableFuture<>();
+        new Thread(() -> DataSourceRouting.read(() -> {
+            try {
+                return result.complete(query(interceptor, ms));
+            } catch (Throwable ex) {
+                return result.completeExceptionally(ex);
+            }
+        })).start();
+        result.join();
+    }
+
+
+
+    /**
+     * 执行一条写入并 flush，模拟执行器提交。
+     */
+    private void write(QueryResultCacheInterceptor interceptor, String table) throws Throwable {
+        MappedStatement update = statement(
+                "update." + table, "UPDATE " + table + " SET label = 'x' WHERE id = 1", SqlCommandType.UPDATE);
+        interceptor.intercept(new Invocation(executor,
+                Executor.class.getMethod("update", MappedStatement.class, Object.class), new Object[]{update, null}));
+        interceptor.intercept(new Invocation(executor, Executor.class.getMethod("flushStatements"), new Object[0]));
+    }
+}
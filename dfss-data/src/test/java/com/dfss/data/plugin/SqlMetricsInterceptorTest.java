@@ -0,0 +1,170 @@
+package com.dfss.data.plugin;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.support.User;
+import com.dfss.data.support.UserMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL 指标测试：耗时与行数按实体、操作类型与语句打标签，失败按异常类型计数，慢查询日志每秒限量并在下一条日志中报告丢弃数。
+ */
+class SqlMetricsInterceptorTest {
+
+    private final Configuration configuration = new Configuration();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final DataBaseOperationProperties.Metrics config = new DataBaseOperationProperties.Metrics();
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final Executor executor = (Executor) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{Executor.class}, (proxy, method, args) -> {
+                MappedStatement ms = (MappedStatement) args[0];
+                if (ms.getId().endsWith("fail")) {
+                    throw new SQLException("duplicate key");
+                }
+                return method.getName().equals("query") ? List.of(1, 2, 3) : 2;
+            });
+
+
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+    }
+
+
+
+    @Test
+    void recordsTimerRowsAndErrorsPerStatement() throws Throwable {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        assistant.setCurrentNamespace(UserMapper.class.getName());
+        TableInfoHelper.initTableInfo(assistant, User.class);
+        SqlMetricsInterceptor interceptor = new SqlMetricsInterceptor(registry, config);
+        String select = UserMapper.class.getName() + ".selectList";
+
+        query(interceptor, statement(select, SqlCommandType.SELECT));
+        query(interceptor, statement(select, SqlCommandType.SELECT));
+        update(interceptor, statement("custom.update", SqlCommandType.UPDATE));
+        assertThrows(SQLException.class, () -> update(interceptor, statement("custom.fail", SqlCommandType.INSERT)));
+
+        assertEquals(2, registry.get("dfss.db.statement")
+                .tags("entity", "User", "operation", "select", "statement", select).timer().count());
+        assertEquals(6, registry.get("dfss.db.statement.rows").tag("statement", select).summary().totalAmount());
+        assertEquals(2, registry.get("dfss.db.statement.rows")
+                .tags("entity", "none", "operation", "update").summary().totalAmount());
+        // 失败不计入耗时，按解包后的异常类型计数
+        assertEquals(0, registry.get("dfss.db.statement").tag("statement", "custom.fail").timer().count());
+        assertEquals(1, registry.get("dfss.db.statement.errors")
+                .tags("statement", "custom.fail", "operation", "insert", "exception", "SQLException")
+                .counter().count());
+        assertTrue(appender.list.isEmpty());
+    }
+
+
+
+    @Test
+    void slowQueryLogsAreRateLimited() throws Throwable {
+        config.setSlowQueryThreshold(Duration.ZERO);
+        config.setSlowQueryLogsPerSecond(2);
+        SqlMetricsInterceptor interceptor = new SqlMetricsInterceptor(registry, config);
+        MappedStatement slow = statement("custom.slow", SqlCommandType.SELECT);
+
+        awaitNextSecond();
+        for (int i = 0; i < 5; i++) {
+            query(interceptor, slow);
+        }
+        assertEquals(5, registry.get("dfss.db.statement.slow").tag("statement", "custom.slow").counter().count());
+        assertEquals(2, appender.list.size());
+
+        // 下一秒的第一条日志带上被丢弃的条数
+        awaitNextSecond();
+        query(interceptor, slow);
+        assertEquals(3, appender.list.size());
+        String message = appender.list.get(2).getFormattedMessage();
+        assertTrue(message.contains("此前 3 条慢 SQL 日志被限流"), message);
+        assertTrue(message.contains("SELECT id FROM custom_slow"), message);
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private MappedStatement statement(String id, SqlCommandType type) {
+        String sql = type == SqlCommandType.SELECT
+                ? "SELECT id FROM " + id.replace('.', '_')
+                : "UPDATE " + id.replace('.', '_') + " SET id = 1";
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql), type).build();
+    }
+
+
+
+    private void query(SqlMetricsInterceptor interceptor, MappedStatement ms) throws Throwable {
+        interceptor.intercept(new Invocation(executor,
+                Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class,
+                        ResultHandler.class),
+                new Object[]{ms, null, RowBounds.DEFAULT, null}));
+    }
+
+
+
+    private void update(SqlMetricsInterceptor interceptor, MappedStatement ms) throws Throwable {
+        try {
+            interceptor.intercept(new Invocation(executor,
+                    Executor.class.getMethod("update", MappedStatement.class, Object.class), new Object[]{ms, null}));
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+
+
+    /**
+     * 等到限流窗口（System.nanoTime 的整秒）刚刚切换，之后的几次调用落在同一秒内。
+     */
+    private static void awaitNextSecond() throws InterruptedException {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        while (TimeUnit.NANOSECONDS.toSeconds(System.nanoTime()) == second) {
+            Thread.sleep(1);
+        }
+    }
+}
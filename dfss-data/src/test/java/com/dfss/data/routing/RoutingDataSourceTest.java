@@ -0,0 +1,218 @@
+package com.dfss.data.routing;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 读写分离路由测试：两个 H2 内存库分别模拟主库与从库，各自存放一行标识自己的数据。
+ */
+class RoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+
+
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        DataSourceRouting.setStickyWindow(Duration.ofSeconds(1));
+        DataSourceRouting.reset();
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("DROP TABLE node");
+        new JdbcTemplate(replica).execute("DROP TABLE node");
+    }
+
+
+
+    @Test
+    void readsGoToReplicaAndWritesToPrimary() {
+        RoutingDataSource routing = routing(ReplicaBalance.WEIGHTED, new RoutingDataSource.Replica("r1", replica, 1));
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+
+        assertEquals("primary", node(jdbc));
+        assertEquals("replica", DataSourceRouting.read(() -> node(jdbc)));
+        assertEquals("primary", DataSourceRouting.primary(() -> DataSourceRouting.read(() -> node(jdbc))));
+    }
+
+
+
+    @Test
+    void readsStickToPrimaryAfterWrite() throws InterruptedException {
+        DataSourceRouting.setStickyWindow(Duration.ofMillis(200));
+        RoutingDataSource routing = routing(ReplicaBalance.WEIGHTED, new RoutingDataSource.Replica("r1", replica, 1));
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+
+        DataSourceRouting.write(() -> jdbc.update("UPDATE node SET name = name"));
+        assertEquals("primary", DataSourceRouting.read(() -> node(jdbc)));
+
+        // 粘滞状态随任务带到其他线程
+        CompletableFuture<String> other = new CompletableFuture<>();
+        new Thread(DataSourceRouting.propagate(
+                () -> other.complete(DataSourceRouting.read(() -> node(jdbc))))).start();
+        assertEquals("primary", other.join());
+
+        Thread.sleep(250);
+        assertEquals("replica", DataSourceRouting.read(() -> node(jdbc)));
+    }
+
+
+
+    @Test
+    void writesOnWorkerThreadStickSubmitter() {
+        RoutingDataSource routing = routing(ReplicaBalance.WEIGHTED, new RoutingDataSource.Replica("r1", replica, 1));
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+
+        CompletableFuture<Integer> write = new CompletableFuture<>();
+        new Thread(DataSourceRouting.propagate(() -> write.complete(
+                DataSourceRouting.write(() -> jdbc.update("UPDATE node SET name = name")))))
+                .start();
+        write.join();
+        assertEquals("primary", DataSourceRouting.read(() -> node(jdbc)));
+    }
+
+
+
+    @Test
+    void leastInFlightPrefersIdleReplica() throws SQLException {
+        DataSource second = database("second");
+        try {
+            RoutingDataSource routing = routing(ReplicaBalance.LEAST_IN_FLIGHT,
+                    new RoutingDataSource.Replica("r1", replica, 1),
+                    new RoutingDataSource.Replica("r2", second, 1));
+            JdbcTemplate jdbc = new JdbcTemplate(routing);
+
+            try (Connection held = DataSourceRouting.read(() -> connection(routing))) {
+                // 一个从库被占用一个连接后，后续读请求都应落到另一个空闲从库
+                String expected = "replica".equals(name(held)) ? "second" : "replica";
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(expected, DataSourceRouting.read(() -> node(jdbc)));
+                }
+            }
+        } finally {
+            new JdbcTemplate(second).execute("DROP TABLE node");
+        }
+    }
+
+
+
+    @Test
+    void zeroWeightReplicaReceivesNoReads() {
+        RoutingDataSource routing = routing(ReplicaBalance.WEIGHTED, new RoutingDataSource.Replica("r1", replica, 0));
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+
+        assertEquals("primary", DataSourceRouting.read(() -> node(jdbc)));
+    }
+
+
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() {
+        DataSource broken = new DelegatingDataSource(replica) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("replica down");
+            }
+        };
+        RoutingDataSource routing = routing(ReplicaBalance.WEIGHTED, new RoutingDataSource.Replica("r1", broken, 1));
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+
+        assertEquals("primary", DataSourceRouting.read(() -> node(jdbc)));
+    }
+
+    @Test
+    void closeClosesEveryPool() {
+        ClosingDataSource primaryPool = new ClosingDataSource(primary);
+        ClosingDataSource replicaPool = new ClosingDataSource(replica);
+        RoutingDataSource routing = new RoutingDataSource(primaryPool,
+                List.of(new RoutingDataSource.Replica("r1", replicaPool, 1)), ReplicaBalance.WEIGHTED);
+
+        routing.close();
+
+        assertTrue(primaryPool.closed);
+        assertTrue(replicaPool.closed);
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private RoutingDataSource routing(ReplicaBalance balance, RoutingDataSource.Replica... replicas) {
+        return new RoutingDataSource(primary, List.of(replicas), balance);
+    }
+
+
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(32))");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+
+
+    private static String node(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+
+
+    private static Connection connection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+
+
+    private static final class ClosingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+        private boolean closed;
+
+        ClosingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+
+
+    private static String name(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
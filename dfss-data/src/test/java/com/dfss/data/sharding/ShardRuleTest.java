@@ -0,0 +1,112 @@
+package com.dfss.data.sharding;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.support.Item;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import com.dfss.data.util.DataBaseOperation;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分片规则测试：分片哈希的稳定性与分布、插入前主键生成，以及行实际落在计算出的物理表。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class ShardRuleTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+
+
+    @Test
+    void ruleDescribesPhysicalTables() {
+        ShardRule rule = ShardRule.of(Item.class);
+
+        assertNotNull(rule);
+        assertEquals(4, rule.shards());
+        assertEquals("item", rule.logicalTable());
+        assertEquals("item_3", rule.table(3));
+        assertTrue(rule.isPrimaryKey());
+        assertNull(ShardRule.of(User.class));
+    }
+
+
+
+    @Test
+    void integralKeysHashByValueRegardlessOfType() {
+        ShardRule rule = ShardRule.of(Item.class);
+
+        for (long key = 0; key < 100; key++) {
+            int shard = rule.shardOf(key);
+            assertTrue(shard >= 0 && shard < 4);
+            assertEquals(shard, rule.shardOf((int) key));
+            assertEquals(shard, rule.shardOf(BigInteger.valueOf(key)));
+        }
+        assertEquals(rule.shardOf(-7L), rule.shardOf(-7));
+    }
+
+
+
+    @Test
+    void keysWithZeroLowBitsStillSpreadAcrossShards() {
+        ShardRule rule = ShardRule.of(Item.class);
+        int[] counts = new int[4];
+
+        // 雪花 ID 的低位是序列号，同一毫秒内的首个 ID 低 12 位全为 0；直接取模会全部落到同一张表
+        for (long i = 1; i <= 4000; i++) {
+            counts[rule.shardOf(i << 22)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 800 && count < 1200, "分布不均匀: " + Arrays.toString(counts));
+        }
+    }
+
+
+
+    @Test
+    void nullKeyIsRejected() {
+        DataBaseOperationException ex = assertThrows(DataBaseOperationException.class,
+                () -> ShardRule.of(Item.class).shardOf(null));
+        assertEquals(DataBaseErrorCode.INVALID_ENTITY.getCode(), ex.getErrorCode());
+    }
+
+
+
+    @Test
+    void insertAssignsKeyAndLandsOnComputedShard() {
+        ShardRule rule = ShardRule.of(Item.class);
+        Item item = new Item().setName("shard-insert").setScore(1);
+
+        int shard = rule.shardForInsert(sqlSessionFactory.getConfiguration(), item);
+        assertNotNull(item.getId());
+        assertEquals(rule.shardOf(item.getId()), shard);
+
+        Item inserted = new Item().setName("shard-insert").setScore(2);
+        DataBaseOperation.insert(inserted);
+        int target = rule.shardOf(inserted.getId());
+        for (int i = 0; i < rule.shards(); i++) {
+            Integer rows = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM " + rule.table(i) + " WHERE id = ?", Integer.class, inserted.getId());
+            assertEquals(i == target ? 1 : 0, rows);
+        }
+        assertEquals("shard-insert", DataBaseOperation.getById(Item.class, inserted.getId()).getName());
+    }
+}
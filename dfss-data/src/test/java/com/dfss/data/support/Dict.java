@@ -0,0 +1,22 @@
+package com.dfss.data.support;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.dfss.data.annotation.CacheableEntity;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 启用了主键缓存的测试实体，对应 H2 中的 dict 表。
+ */
+@Data
+@Accessors(chain = true)
+@CacheableEntity
+@TableName("dict")
+public class Dict {
+
+    @TableId(type = IdType.INPUT)
+    private Long id;
+    private String label;
+}
@@ -0,0 +1,13 @@
+package com.dfss.data.support;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface DictMapper extends BaseMapper<Dict> {
+
+    @Update("UPDATE dict SET label = #{label} WHERE id = #{id}")
+    int relabel(@Param("id") Long id, @Param("label") String label);
+}
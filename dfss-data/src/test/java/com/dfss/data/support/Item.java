@@ -0,0 +1,23 @@
+package com.dfss.data.support;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.dfss.data.annotation.ShardedEntity;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 按主键分为 4 张物理表（item_0 ... item_3）的测试实体。
+ */
+@Data
+@Accessors(chain = true)
+@ShardedEntity(tables = 4)
+@TableName("item")
+public class Item {
+
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+    private String name;
+    private Integer score;
+}
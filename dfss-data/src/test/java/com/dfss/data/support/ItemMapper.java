@@ -0,0 +1,8 @@
+package com.dfss.data.support;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ItemMapper extends BaseMapper<Item> {
+}
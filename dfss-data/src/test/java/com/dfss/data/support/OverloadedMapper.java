@@ -0,0 +1,21 @@
+package com.dfss.data.support;
+
+/**
+ * 带重载方法的 Mapper 接口，用于测试 executeCustomQuery 的重载匹配；实现由测试以 JDK 代理提供。
+ */
+public interface OverloadedMapper {
+
+    String find(Object value);
+
+    String find(CharSequence value);
+
+    String find(String value);
+
+    String count(int value);
+
+    String count(long value);
+
+    String pair(String left, Object right);
+
+    String pair(Object left, String right);
+}
@@ -0,0 +1,25 @@
+package com.dfss.data.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * dfss-data 集成测试的启动类：H2 内存库（MySQL 模式），表结构见 {@code schema.sql}。
+ *
+ * <p>DataBaseOperation 是静态门面，所有集成测试共用 {@code application.yml} 中的同一份配置，
+ * 使 Spring 测试上下文只创建一次。</p>
+ */
+@SpringBootApplication
+@MapperScan("com.dfss.data.support")
+@ComponentScan("com.dfss.data")
+public class TestApplication {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,34 @@
+package com.dfss.data.support;
+
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.apache.ibatis.type.EnumOrdinalTypeHandler;
+
+/**
+ * 带 typeHandler 与 NEVER 更新策略字段的测试实体，对应 H2 中的 ticket 表。
+ */
+@Data
+@Accessors(chain = true)
+@TableName(value = "ticket", autoResultMap = true)
+public class Ticket {
+
+    @TableId(type = IdType.INPUT)
+    private Long id;
+    private String title;
+
+    @TableField(typeHandler = EnumOrdinalTypeHandler.class, javaType = true)
+    private Priority priority;
+
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private String createdBy;
+
+    public enum Priority {
+        LOW,
+        HIGH
+    }
+}
@@ -0,0 +1,21 @@
+package com.dfss.data.support;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 测试实体，对应 H2 中的 user 表。
+ */
+@Data
+@Accessors(chain = true)
+@TableName("user")
+public class User {
+
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+    private String name;
+    private String email;
+}
@@ -0,0 +1,13 @@
+package com.dfss.data.support;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface UserMapper extends BaseMapper<User> {
+
+    @Insert("INSERT INTO `user` (id, name) VALUES (#{id}, #{name})")
+    int insertRaw(@Param("id") Long id, @Param("name") String name);
+}
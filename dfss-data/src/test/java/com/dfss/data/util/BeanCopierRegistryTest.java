@@ -0,0 +1,135 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.support.User;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 属性拷贝测试：链式 setter、类型不匹配与基本类型 null 的跳过、拷贝器缓存，以及 JDK 类型访问器与构造器的退化路径。
+ */
+class BeanCopierRegistryTest {
+
+    @Test
+    void copiesIntoFluentSetters() {
+        User user = new User().setId(7L).setName("copier").setEmail("copier@example.com");
+
+        UserView view = BeanCopierRegistry.copy(user, UserView.class);
+
+        assertEquals(7L, view.getId());
+        assertEquals("copier", view.getName());
+        assertEquals("copier@example.com", view.getEmail());
+        assertSame(BeanCopierRegistry.getCopier(User.class, UserView.class),
+                BeanCopierRegistry.getCopier(User.class, UserView.class));
+    }
+
+
+
+    @Test
+    void skipsMismatchedTypesAndNullPrimitives() {
+        Source source = new Source().setName("mismatch").setAge(30).setScore(null).setNumber(5);
+        Target target = new Target().setAge("unchanged").setScore(9);
+
+        BeanCopierRegistry.copyProperties(source, target);
+
+        assertEquals("mismatch", target.getName());
+        // Integer 不能赋给 String，保留原值
+        assertEquals("unchanged", target.getAge());
+        // null 不能写入 int，保留原值
+        assertEquals(9, target.getScore());
+        // Integer 可以赋给 Number
+        assertEquals(5, target.getNumber());
+    }
+
+
+
+    @Test
+    void copyListKeepsNullsAndOrder() {
+        List<UserView> views = BeanCopierRegistry.copyList(
+                Arrays.asList(new User().setName("a"), null, new User().setName("b")), UserView.class);
+
+        assertEquals(3, views.size());
+        assertEquals("a", views.get(0).getName());
+        assertNull(views.get(1));
+        assertEquals("b", views.get(2).getName());
+    }
+
+
+
+    @Test
+    void inaccessibleAccessorFallsBackToMethodHandle() {
+        // java.base 未向应用开放，Date.getTime 无法生成 lambda，退化为 MethodHandle
+        Timestamp timestamp = BeanCopierRegistry.copy(new Date(1234L), Timestamp.class);
+        assertEquals(1234L, timestamp.getTime());
+    }
+
+
+
+    @Test
+    void missingNoArgConstructorFailsOnInstantiation() {
+        DataBaseOperationException ex = assertThrows(DataBaseOperationException.class,
+                () -> BeanCopierRegistry.copy(new User(), NoDefaultConstructor.class));
+
+        assertEquals(DataBaseErrorCode.ENTITY_INSTANTIATION_FAILED.getCode(), ex.getErrorCode());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    @Data
+    @Accessors(chain = true)
+    public static class UserView {
+        private Long id;
+        private String name;
+        private String email;
+    }
+
+
+
+    @Data
+    @Accessors(chain = true)
+    public static class Source {
+        private String name;
+        private Integer age;
+        private Integer score;
+        private Integer number;
+    }
+
+
+
+    @Data
+    @Accessors(chain = true)
+    public static class Target {
+        private String name;
+        private String age;
+        private int score;
+        private Number number;
+    }
+
+
+
+    @Data
+    public static class Timestamp {
+        private long time;
+    }
+
+
+
+    public static class NoDefaultConstructor {
+
+        public NoDefaultConstructor(String name) {
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分页总数统计方式测试：EXACT、SKIP、ESTIMATED（H2 不支持，退化为精确 COUNT）与 CACHED（含自定义更新后失效）。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class CountModeTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ApplicationContext context;
+
+
+
+    @Test
+    void exactCountsAllRows() {
+        insert("count-exact", 5);
+
+        IPage<User> page = DataBaseOperation.pageByWrapper(User.class, byName("count-exact"), 2, 2, CountMode.EXACT);
+
+        assertEquals(5, page.getTotal());
+        assertEquals(2, page.getRecords().size());
+    }
+
+
+
+    @Test
+    void skipReportsLowerBoundAndNextPage() {
+        insert("count-skip", 5);
+
+        IPage<User> first = DataBaseOperation.pageByWrapper(User.class, byName("count-skip"), 1, 2, CountMode.SKIP);
+        assertEquals(2, first.getRecords().size());
+        assertEquals(2, first.getSize());
+        // offset 0 + 本页 2 行 + 还有下一页 1
+        assertEquals(3, first.getTotal());
+        assertTrue(((CountModePage<User>) first).hasNext());
+
+        IPage<User> last = DataBaseOperation.pageByWrapper(User.class, byName("count-skip"), 3, 2, CountMode.SKIP);
+        assertEquals(1, last.getRecords().size());
+        assertEquals(5, last.getTotal());
+        assertFalse(((CountModePage<User>) last).hasNext());
+    }
+
+
+
+    @Test
+    void estimatedFallsBackToExactCountOnUnsupportedDatabase() {
+        insert("count-estimated", 3);
+
+        IPage<User> page = DataBaseOperation.pageByWrapper(
+                User.class, byName("count-estimated"), 1, 2, CountMode.ESTIMATED);
+
+        assertEquals(3, page.getTotal());
+    }
+
+
+
+    @Test
+    void cachedCountIsReusedUntilTableIsWritten() {
+        insert("count-cached", 2);
+        assertEquals(2, cachedTotal());
+
+        // 绕过 DataBaseOperation 的写入不会递增表版本，继续使用缓存的总数
+        jdbc.update("INSERT INTO `user` (id, name) VALUES (?, ?)", System.nanoTime(), "count-cached");
+        assertEquals(2, cachedTotal());
+
+        DataBaseOperation.insert(new User().setName("count-cached"));
+        assertEquals(4, cachedTotal());
+    }
+
+
+
+    @Test
+    void customUpdateInvalidatesCachedCount() {
+        insert("count-custom", 1);
+        assertEquals(1, cachedTotal("count-custom"));
+
+        // executeCustomUpdate 按渲染出的 SQL 解析写入的表并递增其版本
+        assertEquals(Set.of("user"),
+                CustomStatementTables.of(context, "userMapper", "insertRaw", new Object[]{1L, "count-custom"}));
+        DataBaseOperation.executeCustomUpdate("userMapper", "insertRaw", System.nanoTime(), "count-custom");
+        assertEquals(2, cachedTotal("count-custom"));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static long cachedTotal() {
+        return cachedTotal("count-cached");
+    }
+
+
+
+    private static long cachedTotal(String name) {
+        return DataBaseOperation.pageByWrapper(User.class, byName(name), 1, 10, CountMode.CACHED).getTotal();
+    }
+
+
+
+    private static LambdaQueryWrapper<User> byName(String name) {
+        return DataBaseOperation.lambdaQuery(User.class).eq(User::getName, name);
+    }
+
+
+
+    private static void insert(String name, int count) {
+        for (int i = 0; i < count; i++) {
+            DataBaseOperation.insert(new User().setName(name));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 游标流测试：只保留 Iterator 时 GC 不会中途关闭游标、读完与关闭 Stream 时归还连接、关闭后继续读取报错。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class CursorStreamTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+
+
+    @Test
+    void iteratorSurvivesGcUntilExhausted() throws Exception {
+        List<Long> inserted = insert("cursor-gc", 20);
+        int idle = active();
+
+        // 只保留 iterator，Stream 本身立即不可达
+        Iterator<User> iterator = DataBaseOperation.stream(User.class, byName("cursor-gc")).iterator();
+        List<Long> seen = new ArrayList<>();
+        while (iterator.hasNext()) {
+            seen.add(iterator.next().getId());
+            if (seen.size() % 5 == 0) {
+                System.gc();
+                Thread.sleep(20);
+            }
+        }
+
+        assertEquals(inserted.stream().sorted().toList(), seen.stream().sorted().toList());
+        // 读完即归还连接
+        assertEquals(idle, active());
+    }
+
+
+
+    @Test
+    void closingStreamReleasesConnection() throws SQLException {
+        insert("cursor-close", 3);
+        int idle = active();
+
+        Iterator<User> iterator;
+        try (Stream<User> stream = DataBaseOperation.stream(User.class, byName("cursor-close"))) {
+            iterator = stream.iterator();
+            assertTrue(iterator.hasNext());
+            iterator.next();
+            assertEquals(idle + 1, active());
+        }
+
+        assertEquals(idle, active());
+        // 未读完就被关闭，继续读取不能当作读取完毕
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+    }
+
+
+
+    @Test
+    void exhaustedIteratorStaysExhaustedAfterClose() {
+        insert("cursor-exhaust", 2);
+
+        Stream<User> stream = DataBaseOperation.stream(User.class, byName("cursor-exhaust"));
+        Iterator<User> iterator = stream.iterator();
+        iterator.next();
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        stream.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private int active() throws SQLException {
+        return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+    }
+
+
+
+    private static LambdaQueryWrapper<User> byName(String name) {
+        return DataBaseOperation.lambdaQuery(User.class).eq(User::getName, name);
+    }
+
+
+
+    private static List<Long> insert(String name, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User().setName(name);
+            DataBaseOperation.insert(user);
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+}
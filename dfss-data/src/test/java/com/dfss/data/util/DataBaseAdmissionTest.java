@@ -0,0 +1,201 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.config.DataBaseOperationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 准入控制测试：排队超时、截止时间（含按近期平均耗时提前拒绝及其衰减）、重入与类别隔离。
+ */
+class DataBaseAdmissionTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+
+
+    @AfterEach
+    void disable() {
+        DataBaseAdmission.configure(new DataBaseOperationProperties.Admission(), null, null, List.of());
+    }
+
+
+
+    @Test
+    void queueTimeoutRejectsWhenPermitsAreHeld() throws Exception {
+        configure(Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = hold(null, release);
+
+        long start = System.nanoTime();
+        DataBaseOperationException ex = assertThrows(DataBaseOperationException.class,
+                () -> DataBaseAdmission.admit(null, () -> "late"));
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(DataBaseErrorCode.ADMISSION_REJECTED.getCode(), ex.getErrorCode());
+        assertTrue(ex.isExpected());
+        assertTrue(waited >= 90 && waited < 2000, "排队 " + waited + " ms");
+        assertEquals(1, waits("timeout"));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals("ok", DataBaseAdmission.admit(null, () -> "ok"));
+    }
+
+
+
+    @Test
+    void deadlineShortensQueueWait() throws Exception {
+        configure(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = hold(null, release);
+
+        long start = System.nanoTime();
+        assertThrows(DataBaseOperationException.class, () -> DataBaseAdmission.withDeadline(Duration.ofMillis(100),
+                () -> DataBaseAdmission.admit(null, () -> "late")));
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waited < 2000, "排队 " + waited + " ms");
+        assertEquals(1, waits("deadline"));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+
+
+    @Test
+    void deadlineShorterThanAverageExecutionIsRejectedWithoutWaiting() {
+        configure(Duration.ofSeconds(10));
+        DataBaseAdmission.admit(null, () -> sleep(80));
+
+        assertThrows(DataBaseOperationException.class, () -> DataBaseAdmission.withDeadline(Duration.ofMillis(20),
+                () -> DataBaseAdmission.admit(null, () -> "late")));
+        assertThrows(DataBaseOperationException.class, () -> DataBaseAdmission.withDeadline(Duration.ZERO,
+                () -> DataBaseAdmission.admit(null, () -> "late")));
+        assertEquals(2, waits("deadline"));
+        assertEquals("ok", DataBaseAdmission.withDeadline(Duration.ofSeconds(5),
+                () -> DataBaseAdmission.admit(null, () -> "ok")));
+    }
+
+
+
+    @Test
+    void averageDecaysWhenOnlyDeadlineCallsArrive() {
+        configure(Duration.ofSeconds(10));
+        DataBaseAdmission.admit(null, () -> sleep(300));
+        assertThrows(DataBaseOperationException.class, () -> DataBaseAdmission.withDeadline(Duration.ofMillis(100),
+                () -> DataBaseAdmission.admit(null, () -> "late")));
+
+        // 被拒绝的调用不产生样本，两个多半衰期后估算降到截止时间以下
+        sleep(2200);
+        assertEquals("ok", DataBaseAdmission.withDeadline(Duration.ofMillis(100),
+                () -> DataBaseAdmission.admit(null, () -> "ok")));
+    }
+
+
+
+    @Test
+    void nestedDeadlineKeepsTheEarlierOne() {
+        configure(Duration.ofSeconds(10));
+        DataBaseAdmission.admit(null, () -> sleep(80));
+
+        assertThrows(DataBaseOperationException.class, () -> DataBaseAdmission.withDeadline(Duration.ofMillis(20),
+                () -> DataBaseAdmission.withDeadline(Duration.ofSeconds(5),
+                        () -> DataBaseAdmission.admit(null, () -> "late"))));
+    }
+
+
+
+    @Test
+    void reentrantCallDoesNotTakeSecondPermit() {
+        configure(Duration.ofMillis(100));
+
+        assertEquals("inner", DataBaseAdmission.admit(null, () -> DataBaseAdmission.admit(null, () -> "inner")));
+    }
+
+
+
+    @Test
+    void classesHaveIndependentPermits() throws Exception {
+        DataBaseOperationProperties.Admission config = admission(Duration.ofMillis(100));
+        DataBaseOperationProperties.AdmissionClass batch = new DataBaseOperationProperties.AdmissionClass();
+        batch.setMaxConcurrency(1);
+        config.getClasses().put("batch", batch);
+        DataBaseAdmission.configure(config, null, registry, List.of());
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = hold("batch", release);
+
+        assertThrows(DataBaseOperationException.class,
+                () -> DataBaseAdmission.withPriority("batch", () -> DataBaseAdmission.admit(null, () -> "late")));
+        assertEquals("ok", DataBaseAdmission.admit(null, () -> "ok"));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private void configure(Duration queueTimeout) {
+        DataBaseAdmission.configure(admission(queueTimeout), null, registry, List.of());
+    }
+
+
+
+    private static DataBaseOperationProperties.Admission admission(Duration queueTimeout) {
+        DataBaseOperationProperties.Admission config = new DataBaseOperationProperties.Admission();
+        config.setEnabled(true);
+        config.setMaxConcurrency(1);
+        config.setQueueTimeout(queueTimeout);
+        return config;
+    }
+
+
+
+    /**
+     * 在另一个线程中占住 priority 类别的许可，直到 release 打开；返回前确认已经获得许可。
+     */
+    private static CompletableFuture<Void> hold(String priority, CountDownLatch release) throws InterruptedException {
+        CountDownLatch admitted = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> DataBaseAdmission.withPriority(priority,
+                () -> DataBaseAdmission.admit(null, () -> {
+                    admitted.countDown();
+                    try {
+                        return release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                })));
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        return holder;
+    }
+
+
+
+    private long waits(String outcome) {
+        return registry.get("dfss.db.admission.wait").tag("outcome", outcome).timer().count();
+    }
+
+
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return "slept";
+    }
+}
@@ -0,0 +1,145 @@
+package com.dfss.data.util;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.routing.DataSourceRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步执行器测试：MDC、路由与粘滞状态复制到工作线程并经过 TaskDecorator，并发不超过许可数，任务内再次提交时就地执行。
+ */
+class DataBaseExecutorTest {
+
+    @AfterEach
+    void tearDown() {
+        DataBaseExecutor.shutdown();
+    }
+
+
+
+    @Test
+    void propagatesMdcAndRoutingThroughDecorators() {
+        AtomicInteger decorated = new AtomicInteger();
+        TaskDecorator counting = runnable -> {
+            decorated.incrementAndGet();
+            return runnable;
+        };
+        DataBaseExecutor.configure(async(2, true), null, List.of(counting));
+
+        List<Object> seen = onFreshThread(() -> {
+            MDC.put("traceId", "trace-1");
+            try {
+                List<Object> worker = DataSourceRouting.primary(() -> DataBaseExecutor.supply(() -> {
+                    List<Object> values = new ArrayList<>();
+                    values.add(MDC.get("traceId"));
+                    values.add(DataSourceRouting.currentRoute());
+                    values.add(Thread.currentThread());
+                    // 工作线程中的写入同样开启提交线程的粘滞窗口
+                    DataSourceRouting.markWrite();
+                    return values;
+                }).join());
+                worker.add(DataSourceRouting.isSticky());
+                worker.add(Thread.currentThread());
+                return worker;
+            } finally {
+                MDC.clear();
+            }
+        });
+
+        assertEquals("trace-1", seen.get(0));
+        assertEquals(DataSourceRouting.Route.PRIMARY, seen.get(1));
+        assertNotSame(seen.get(4), seen.get(2));
+        assertEquals(true, seen.get(3));
+        assertEquals(1, decorated.get());
+    }
+
+
+
+    @Test
+    void concurrencyIsCappedByPermits() {
+        DataBaseExecutor.configure(async(2, true), null, List.of());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(DataBaseExecutor.supply(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(50);
+                running.decrementAndGet();
+                return 1;
+            }));
+        }
+
+        assertEquals(8, futures.stream().mapToInt(CompletableFuture::join).sum());
+        assertEquals(2, peak.get());
+    }
+
+
+
+    @Test
+    void nestedSupplyRunsInlineOnWorker() {
+        // 只有一个许可，嵌套提交若再去获取许可会永远等待
+        DataBaseExecutor.configure(async(1, false), null, List.of());
+
+        List<Thread> threads = DataBaseExecutor.supply(() -> {
+            CompletableFuture<Thread> nested = DataBaseExecutor.supply(Thread::currentThread);
+            assertTrue(nested.isDone());
+            return List.of(Thread.currentThread(), nested.join());
+        }).join();
+
+        assertSame(threads.get(0), threads.get(1));
+        assertTrue(threads.get(0).getName().startsWith("dfss-db-async-"));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static DataBaseOperationProperties.Async async(int maxConcurrency, boolean virtualThreads) {
+        DataBaseOperationProperties.Async async = new DataBaseOperationProperties.Async();
+        async.setMaxConcurrency(maxConcurrency);
+        async.setVirtualThreads(virtualThreads);
+        return async;
+    }
+
+
+
+    /**
+     * 在新线程中执行：新线程没有其他测试遗留的路由与粘滞状态。
+     */
+    private static <T> T onFreshThread(Supplier<T> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                result.complete(action.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        }).start();
+        return result.join();
+    }
+
+
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
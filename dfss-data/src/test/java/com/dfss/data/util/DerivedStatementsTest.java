@@ -0,0 +1,113 @@
+package com.dfss.data.util;
+
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.Ticket;
+import com.dfss.data.support.TicketMapper;
+import com.dfss.data.support.User;
+import com.dfss.data.support.UserMapper;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * VO 投影测试：只查询“实体列 ∩ VO 可写属性”，需要自定义 TypeHandler 的列或没有公共属性时退回到查询实体 + 属性拷贝。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class DerivedStatementsTest {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private TicketMapper ticketMapper;
+
+
+
+    @Test
+    void projectionSelectsOnlyVoColumns() {
+        DerivedStatements.Projection projection =
+                DerivedStatements.projection(userMapper, User.class, NameView.class);
+
+        assertNotNull(projection);
+        assertEquals(List.of("name"), projection.columns());
+        assertSame(projection, DerivedStatements.projection(userMapper, User.class, NameView.class));
+
+        DataBaseOperation.insert(new User().setName("projection").setEmail("projection@example.com"));
+        List<NameView> views = DataBaseOperation.list(new User().setName("projection"), NameView.class);
+        assertEquals(1, views.size());
+        assertEquals("projection", views.get(0).getName());
+    }
+
+
+
+    @Test
+    void typeHandlerColumnFallsBackToEntityCopy() {
+        assertNull(DerivedStatements.projection(ticketMapper, Ticket.class, PriorityView.class));
+        DerivedStatements.Projection plain =
+                DerivedStatements.projection(ticketMapper, Ticket.class, TitleView.class);
+        assertNotNull(plain);
+        assertEquals(List.of("id", "title", "created_by"), plain.columns());
+
+        ticketMapper.insert(new Ticket().setId(101L).setTitle("projection-ticket")
+                .setPriority(Ticket.Priority.HIGH).setCreatedBy("alice"));
+        Ticket condition = new Ticket().setTitle("projection-ticket");
+
+        // 退回路径：查询实体（经 TypeHandler 转换）后拷贝属性
+        List<PriorityView> priorities = DataBaseOperation.list(condition, PriorityView.class);
+        assertEquals(1, priorities.size());
+        assertEquals(Ticket.Priority.HIGH, priorities.get(0).getPriority());
+
+        List<TitleView> titles = DataBaseOperation.list(condition, TitleView.class);
+        assertEquals(1, titles.size());
+        assertEquals(101L, titles.get(0).getId());
+        assertEquals("alice", titles.get(0).getCreatedBy());
+    }
+
+
+
+    @Test
+    void voWithoutCommonPropertiesIsUnsupported() {
+        assertNull(DerivedStatements.projection(userMapper, User.class, Unrelated.class));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    @Data
+    public static class NameView {
+        private String name;
+    }
+
+
+
+    @Data
+    public static class TitleView {
+        private Long id;
+        private String title;
+        private String createdBy;
+    }
+
+
+
+    @Data
+    public static class PriorityView {
+        private String title;
+        private Ticket.Priority priority;
+    }
+
+
+
+    @Data
+    public static class Unrelated {
+        private String label;
+    }
+}
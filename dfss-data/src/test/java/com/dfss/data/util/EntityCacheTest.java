@@ -0,0 +1,97 @@
+package com.dfss.data.util;
+
+import com.dfss.data.support.Dict;
+import com.dfss.data.support.TestApplication;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * getById 实体缓存测试：命中返回副本、写入（含自定义更新）失效，以及事务中的读取不污染共享缓存。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class EntityCacheTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transaction;
+
+
+
+    @Test
+    void hitReturnsCopyAndWriteInvalidates() {
+        DataBaseOperation.insert(new Dict().setId(1L).setLabel("v1"));
+        Dict first = DataBaseOperation.getById(Dict.class, 1L);
+        long hits = stats().hitCount();
+
+        Dict second = DataBaseOperation.getById(Dict.class, 1);
+        assertEquals(hits + 1, stats().hitCount());
+        assertNotSame(first, second);
+        second.setLabel("mutated");
+        assertEquals("v1", DataBaseOperation.getById(Dict.class, 1L).getLabel());
+
+        // 绕过 DataBaseOperation 的写入只能等 TTL，经由 DataBaseOperation 的写入立即失效
+        jdbc.update("UPDATE dict SET label = 'direct' WHERE id = 1");
+        assertEquals("v1", DataBaseOperation.getById(Dict.class, 1L).getLabel());
+        DataBaseOperation.updateById(new Dict().setId(1L).setLabel("v2"));
+        assertEquals("v2", DataBaseOperation.getById(Dict.class, 1L).getLabel());
+    }
+
+
+
+    @Test
+    void customUpdateInvalidatesCachedEntity() {
+        DataBaseOperation.insert(new Dict().setId(3L).setLabel("before"));
+        assertEquals("before", DataBaseOperation.getById(Dict.class, 3L).getLabel());
+
+        DataBaseOperation.executeCustomUpdate("dictMapper", "relabel", 3L, "after");
+
+        assertEquals("after", DataBaseOperation.getById(Dict.class, 3L).getLabel());
+    }
+
+
+
+    @Test
+    void readInsideTransactionDoesNotPublishUncommittedRow() {
+        DataBaseOperation.insert(new Dict().setId(2L).setLabel("committed"));
+        DataBaseOperation.getById(Dict.class, 2L);
+
+        transaction.executeWithoutResult(status -> {
+            DataBaseOperation.updateById(new Dict().setId(2L).setLabel("uncommitted"));
+            assertEquals("uncommitted", DataBaseOperation.getById(Dict.class, 2L).getLabel());
+            assertEquals(List.of("uncommitted"), labels(DataBaseOperation.getByIds(Dict.class, List.of(2L))));
+            // 其他线程不会从缓存读到本事务未提交的数据
+            String other = CompletableFuture.supplyAsync(() -> DataBaseOperation.getById(Dict.class, 2L).getLabel())
+                    .join();
+            assertEquals("committed", other);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("committed", DataBaseOperation.getById(Dict.class, 2L).getLabel());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static CacheStats stats() {
+        return EntityCacheRegistry.stats(Dict.class);
+    }
+
+
+
+    private static List<String> labels(MultiGetResult<Dict> result) {
+        return result.getRecords().stream().map(Dict::getLabel).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.dfss.data.util;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.support.Dict;
+import com.dfss.data.support.DictMapper;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import com.dfss.data.support.UserMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 批量主键查询测试：1 与 1L 视为同一主键、按 IN 列表上限分块、结果按入参顺序、未查到的主键，以及实体缓存只查询未命中的主键。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class GetByIdsTest {
+
+    @Autowired
+    private DataBaseOperationProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private final int defaultChunkSize = new DataBaseOperationProperties().getInListChunkSize();
+
+
+
+    @AfterEach
+    void restoreChunkSize() {
+        properties.setInListChunkSize(defaultChunkSize);
+    }
+
+
+
+    @Test
+    void dedupesChunksAndKeepsInputOrder() {
+        for (long id = 901; id <= 905; id++) {
+            userMapper.insertRaw(id, "multi-get-" + id);
+        }
+        properties.setInListChunkSize(2);
+        long queries = selectByIdsCount(UserMapper.class);
+
+        List<Serializable> ids = Arrays.asList(905L, 901, 999L, 903L, 901L, 902L, 904L);
+        MultiGetResult<User> result = DataBaseOperation.getByIds(User.class, ids);
+
+        // 6 个不同的主键（901 与 901L 相同），按 2 个一块拆成 3 条查询
+        assertEquals(3, selectByIdsCount(UserMapper.class) - queries);
+        assertEquals(List.of(905L, 901L, 903L, 902L, 904L), result.getRecords().stream().map(User::getId).toList());
+        // recordMap 的 key 是入参中第一次出现的原始主键
+        assertEquals(List.of(905L, 901, 903L, 902L, 904L), List.copyOf(result.getRecordMap().keySet()));
+        assertSame(result.getRecords().get(1), result.getRecordMap().get(901));
+        assertEquals(List.of(999L), result.getMissingIds());
+        assertFalse(result.isComplete());
+    }
+
+
+
+    @Test
+    void cachedEntitiesQueryOnlyMisses() {
+        DataBaseOperation.insert(new Dict().setId(21L).setLabel("cached"));
+        DataBaseOperation.insert(new Dict().setId(22L).setLabel("loaded"));
+        DataBaseOperation.getById(Dict.class, 21L);
+        properties.setInListChunkSize(1);
+        long queries = selectByIdsCount(DictMapper.class);
+
+        MultiGetResult<Dict> result = DataBaseOperation.getByIds(Dict.class, List.of(22L, 21L, 23L));
+
+        // 21 命中缓存，只剩 22、23 两块
+        assertEquals(2, selectByIdsCount(DictMapper.class) - queries);
+        assertEquals(List.of("loaded", "cached"), result.getRecords().stream().map(Dict::getLabel).toList());
+        assertEquals(List.of(23L), result.getMissingIds());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private long selectByIdsCount(Class<?> mapperInterface) {
+        Timer timer = meterRegistry.find("dfss.db.statement")
+                .tag("statement", mapperInterface.getName() + ".selectByIds")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,126 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 游标分页测试：续页 token 的往返、带 OR 条件的 Wrapper 与不支持的 Wrapper 用法。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class KeysetPaginationTest {
+
+    @Test
+    void tokenWalksAllPagesInKeyOrder() {
+        List<Long> inserted = insert("keyset-walk", 7);
+
+        List<Long> seen = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        String token = null;
+        do {
+            KeysetPage<User> page = DataBaseOperation.pageByKeyset(
+                    User.class, byName("keyset-walk"), token, 3);
+            page.getRecords().forEach(user -> seen.add(user.getId()));
+            sizes.add(page.getRecords().size());
+            token = page.getNextToken();
+        } while (token != null);
+
+        assertEquals(List.of(3, 3, 1), sizes);
+        assertEquals(inserted.stream().sorted().toList(), seen);
+    }
+
+
+
+    @Test
+    void orConditionsDoNotBypassSeek() {
+        insert("keyset-or-a", 4);
+        insert("keyset-or-b", 3);
+        LambdaQueryWrapper<User> wrapper = DataBaseOperation.lambdaQuery(User.class)
+                .eq(User::getName, "keyset-or-a")
+                .or()
+                .eq(User::getName, "keyset-or-b");
+        String before = wrapper.getSqlSegment();
+
+        List<Long> seen = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            KeysetPage<User> page = DataBaseOperation.pageByKeyset(User.class, wrapper, token, 2);
+            page.getRecords().forEach(user -> seen.add(user.getId()));
+            token = page.getNextToken();
+            assertTrue(++pages <= 4, "翻页没有结束");
+        } while (token != null);
+
+        assertEquals(7, seen.size());
+        assertEquals(seen.stream().sorted().distinct().toList(), seen);
+        // 调用方的 Wrapper 不会被追加 seek 条件，可以再次使用
+        assertEquals(before, wrapper.getSqlSegment());
+    }
+
+
+
+    @Test
+    void tokenOfAnotherKeyIsRejected() {
+        insert("keyset-key", 3);
+        String byId = DataBaseOperation.pageByKeyset(User.class, byName("keyset-key"), null, 1).getNextToken();
+
+        DataBaseOperationException ex = assertThrows(DataBaseOperationException.class,
+                () -> DataBaseOperation.pageByKeyset(User.class, byName("keyset-key"), User::getEmail, byId, 1));
+        assertEquals(DataBaseErrorCode.INVALID_PAGINATION.getCode(), ex.getErrorCode());
+        assertThrows(DataBaseOperationException.class,
+                () -> DataBaseOperation.pageByKeyset(User.class, byName("keyset-key"), "%%%", 1));
+    }
+
+
+
+    @Test
+    void wrapperWithLastOrOrderByIsRejected() {
+        DataBaseOperationException last = assertThrows(DataBaseOperationException.class,
+                () -> DataBaseOperation.pageByKeyset(User.class, byName("keyset-last").last("LIMIT 1"), null, 1));
+        assertEquals(DataBaseErrorCode.INVALID_PAGINATION.getCode(), last.getErrorCode());
+        assertThrows(DataBaseOperationException.class, () -> DataBaseOperation.pageByKeyset(
+                User.class, byName("keyset-last").orderByDesc(User::getId), null, 1));
+    }
+
+
+
+    @Test
+    void emptyResultHasNoNextToken() {
+        KeysetPage<User> page = DataBaseOperation.pageByKeyset(User.class, byName("keyset-none"), null, 5);
+
+        assertTrue(page.getRecords().isEmpty());
+        assertNull(page.getNextToken());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static LambdaQueryWrapper<User> byName(String name) {
+        return DataBaseOperation.lambdaQuery(User.class).eq(User::getName, name);
+    }
+
+
+
+    private static List<Long> insert(String name, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User().setName(name).setEmail(name + i);
+            DataBaseOperation.insert(user);
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,111 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.support.OverloadedMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 自定义 Mapper 方法的重载匹配测试。Mapper Bean 是 JDK 代理，返回被调用方法的参数类型列表。
+ */
+class MapperInvokerRegistryTest {
+
+    private GenericApplicationContext context;
+
+
+
+    @BeforeEach
+    void setUp() {
+        MapperInvokerRegistry.clear();
+        context = new GenericApplicationContext();
+        context.registerBean("overloadedMapper", OverloadedMapper.class, MapperInvokerRegistryTest::mapper);
+        context.refresh();
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+        MapperInvokerRegistry.clear();
+    }
+
+
+
+    @Test
+    void mostSpecificOverloadIsChosen() throws Throwable {
+        assertEquals("find(String)", invoke("find", "text"));
+        assertEquals("find(CharSequence)", invoke("find", new StringBuilder("text")));
+        assertEquals("find(Object)", invoke("find", 1));
+        // null 可以匹配三个重载，与 javac 一样选择最具体的 String
+        assertEquals("find(String)", invoke("find", (Object) null));
+    }
+
+
+
+    @Test
+    void wrapperArgumentsMatchPrimitiveParameters() throws Throwable {
+        assertEquals("count(int)", invoke("count", 1));
+        assertEquals("count(long)", invoke("count", 1L));
+    }
+
+
+
+    @Test
+    void cachedInvokerIsKeyedByArgumentTypes() throws Throwable {
+        assertEquals("find(String)", invoke("find", "a"));
+        assertEquals("find(Object)", invoke("find", 2));
+        assertEquals("find(String)", invoke("find", "b"));
+    }
+
+
+
+    @Test
+    void ambiguousOrMissingOverloadIsRejected() {
+        DataBaseOperationException ambiguous = assertThrows(DataBaseOperationException.class,
+                () -> invoke("pair", "left", "right"));
+        assertEquals(DataBaseErrorCode.INVALID_ENTITY.getCode(), ambiguous.getErrorCode());
+        assertTrue(ambiguous.getMessage().contains("歧义"));
+
+        // null 不能传给基本类型参数
+        assertThrows(DataBaseOperationException.class, () -> invoke("count", (Object) null));
+        assertThrows(DataBaseOperationException.class, () -> invoke("missing", "x"));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private Object invoke(String method, Object... args) throws Throwable {
+        return MapperInvokerRegistry.invoke(context, "overloadedMapper", method, args);
+    }
+
+
+
+    private static OverloadedMapper mapper() {
+        return (OverloadedMapper) Proxy.newProxyInstance(
+                OverloadedMapper.class.getClassLoader(),
+                new Class<?>[]{OverloadedMapper.class},
+                (proxy, method, args) -> describe(method));
+    }
+
+
+
+    private static String describe(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.dfss.data.util;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.support.Dict;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import com.dfss.data.support.UserMapper;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mapper 索引测试：按实体查找 Mapper，同一实体多个 Mapper 与已注册实体缺少 Mapper 时在容器刷新阶段报错。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class MapperRegistryTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private MapperRegistry registry;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+
+
+    @AfterEach
+    void restore() {
+        registry.setApplicationContext(context);
+        registry.onApplicationEvent(new ContextRefreshedEvent(context));
+    }
+
+
+
+    @Test
+    void resolvesMapperByEntity() {
+        assertSame(userMapper, MapperRegistry.getMapper(User.class));
+
+        DataBaseOperationException ex =
+                assertThrows(DataBaseOperationException.class, () -> MapperRegistry.getMapper(String.class));
+        assertEquals(DataBaseErrorCode.MAPPER_NOT_FOUND.getCode(), ex.getErrorCode());
+    }
+
+
+
+    @Test
+    void duplicateMapperFailsOnRefresh() {
+        GenericApplicationContext duplicated = new GenericApplicationContext();
+        duplicated.registerBean("userMapper", UserMapper.class, () -> userMapper);
+        duplicated.registerBean("anotherUserMapper", UserMapper.class, () -> userMapper);
+        duplicated.refresh();
+
+        DataBaseOperationException ex = refresh(duplicated);
+
+        assertEquals(DataBaseErrorCode.DUPLICATE_MAPPER.getCode(), ex.getErrorCode());
+        assertTrue(ex.getMessage().contains("userMapper, anotherUserMapper"), ex.getMessage());
+        // 失败的刷新不会替换已发布的索引
+        assertSame(userMapper, MapperRegistry.getMapper(User.class));
+    }
+
+
+
+    @Test
+    void registeredEntityWithoutMapperBeanFailsOnRefresh() {
+        // 只有 SqlSessionFactory（其中注册了各实体的 Mapper），没有任何 Mapper Bean
+        GenericApplicationContext missing = new GenericApplicationContext();
+        missing.registerBean(SqlSessionFactory.class, () -> sqlSessionFactory);
+        missing.refresh();
+
+        DataBaseOperationException ex = refresh(missing);
+
+        assertEquals(DataBaseErrorCode.MAPPER_NOT_FOUND.getCode(), ex.getErrorCode());
+        assertTrue(ex.getMessage().contains(Dict.class.getName()), ex.getMessage());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private DataBaseOperationException refresh(GenericApplicationContext target) {
+        try {
+            registry.setApplicationContext(target);
+            return assertThrows(DataBaseOperationException.class,
+                    () -> registry.onApplicationEvent(new ContextRefreshedEvent(target)));
+        } finally {
+            target.close();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dfss.data.sharding.ShardRule;
+import com.dfss.data.support.Item;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 批量插入测试：ASSIGN_ID 回填、分块行数（含分表与 SUCCESS_NO_INFO）以及非事务下失败整批（含各分片）回滚。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class SaveBatchTest {
+
+    @Test
+    void assignsIdsAndReportsRowsPerChunk() {
+        List<User> users = users("save-batch", 5);
+
+        assertEquals(List.of(2, 2, 1), DataBaseOperation.saveBatch(users, 2));
+
+        users.forEach(user -> assertNotNull(user.getId()));
+        assertEquals(5, users.stream().map(User::getId).distinct().count());
+        assertEquals(5, DataBaseOperation.listByWrapper(User.class, byName("save-batch")).size());
+    }
+
+
+
+    @Test
+    void shardedChunksFollowExecutedShardGroups() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            items.add(new Item().setName("save-batch-shard").setScore(i));
+        }
+
+        List<Integer> chunks = DataBaseOperation.saveBatch(items, 2);
+
+        // 每个分片（升序）各自按 2 行分块
+        ShardRule rule = ShardRule.of(Item.class);
+        Map<Integer, Integer> perShard = new TreeMap<>();
+        items.forEach(item -> perShard.merge(rule.shardOfEntity(item), 1, Integer::sum));
+        List<Integer> expected = new ArrayList<>();
+        perShard.values().forEach(rows -> {
+            for (int left = rows; left > 0; left -= 2) {
+                expected.add(Math.min(left, 2));
+            }
+        });
+        assertEquals(expected, chunks);
+    }
+
+
+
+    @Test
+    void successNoInfoCountsAsOneRow() {
+        int[] counts = {Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, 1, Statement.SUCCESS_NO_INFO, 0};
+
+        assertEquals(List.of(2, 2, 0), BatchStatementExecutor.chunkCounts(counts, 2));
+    }
+
+
+
+    @Test
+    void failureOutsideTransactionRollsBackEarlierChunks() {
+        List<User> users = users("save-batch-rollback", 3);
+        users.get(0).setId(System.nanoTime());
+        users.get(2).setId(users.get(0).getId());
+
+        assertThrows(RuntimeException.class, () -> DataBaseOperation.saveBatch(users, 2));
+
+        assertEquals(0, DataBaseOperation.listByWrapper(User.class, byName("save-batch-rollback")).size());
+    }
+
+    @Test
+    void failureInOneShardRollsBackOtherShards() {
+        Item existing = new Item().setName("save-batch-existing");
+        DataBaseOperation.insert(existing);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            items.add(new Item().setName("save-batch-shard-rollback").setScore(i));
+        }
+        // 与已有行主键冲突的实体落在 existing 所在分片，其他分片的分块先于或晚于它执行
+        items.add(new Item().setId(existing.getId()).setName("save-batch-shard-rollback"));
+
+        assertThrows(RuntimeException.class, () -> DataBaseOperation.saveBatch(items, 2));
+
+        assertEquals(0, DataBaseOperation.listByWrapper(Item.class, DataBaseOperation.lambdaQuery(Item.class)
+                .eq(Item::getName, "save-batch-shard-rollback")).size());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static List<User> users(String name, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new User().setName(name));
+        }
+        return users;
+    }
+
+
+
+    private static LambdaQueryWrapper<User> byName(String name) {
+        return DataBaseOperation.lambdaQuery(User.class).eq(User::getName, name);
+    }
+}
@@ -0,0 +1,70 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.dfss.data.support.Item;
+import com.dfss.data.support.TestApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 分表查询归并测试：多路有序归并、LIMIT 截断、相同排序值的稳定顺序，以及跨分片的排序与分页。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class ShardedQueriesTest {
+
+    @Test
+    void mergeInterleavesSortedParts() {
+        List<List<Integer>> parts = List.of(List.of(1, 4, 7), List.of(2, 5), List.of(), List.of(3, 6, 8));
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), ShardedQueries.merge(parts, Comparator.naturalOrder(), 100));
+        assertEquals(List.of(1, 2, 3), ShardedQueries.merge(parts, Comparator.naturalOrder(), 3));
+        // 无排序时按分片顺序拼接
+        assertEquals(List.of(1, 4, 7, 2, 5), ShardedQueries.merge(parts, null, 5));
+    }
+
+
+
+    @Test
+    void mergeBreaksTiesByShardIndex() {
+        List<List<String>> parts = List.of(List.of("a0", "b0"), List.of("a1", "b1"), List.of("a2"));
+        Comparator<String> byLetter = Comparator.comparing(s -> s.charAt(0));
+
+        assertEquals(List.of("a0", "a1", "a2", "b0", "b1"), ShardedQueries.merge(parts, byLetter, 10));
+    }
+
+
+
+    @Test
+    void listAndPageAreOrderedAcrossShards() {
+        for (int score = 1; score <= 20; score++) {
+            DataBaseOperation.insert(new Item().setName("shard-order").setScore(score));
+        }
+
+        List<Integer> scores = DataBaseOperation.listByWrapper(Item.class, byName().orderByDesc(Item::getScore))
+                .stream().map(Item::getScore).toList();
+        List<Integer> expected = new ArrayList<>();
+        for (int score = 20; score >= 1; score--) {
+            expected.add(score);
+        }
+        assertEquals(expected, scores);
+
+        IPage<Item> page = DataBaseOperation.pageByWrapper(Item.class, byName().orderByAsc(Item::getScore), 3, 6);
+        assertEquals(20, page.getTotal());
+        assertEquals(List.of(13, 14, 15, 16, 17, 18), page.getRecords().stream().map(Item::getScore).toList());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static LambdaQueryWrapper<Item> byName() {
+        return DataBaseOperation.lambdaQuery(Item.class).eq(Item::getName, "shard-order");
+    }
+}
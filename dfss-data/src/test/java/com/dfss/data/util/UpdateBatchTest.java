@@ -0,0 +1,142 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.Ticket;
+import com.dfss.data.support.TicketMapper;
+import com.dfss.data.support.User;
+import com.dfss.data.support.UserMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量按主键更新测试：逐行与 CASE WHEN 合并两种方式下命中/未命中的逐行结果、按非空列分组，
+ * 以及 typeHandler、NEVER 更新策略的列不合并。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class UpdateBatchTest {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private TicketMapper ticketMapper;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+
+
+    @Test
+    void rowByRowReportsHitAndMissPerRow() {
+        User a = insert("batch-row-a");
+        User b = insert("batch-row-b");
+
+        int[] counts = BatchStatementExecutor.executeUpdate(userMapper, List.of(
+                new User().setId(a.getId()).setName("batch-row-a2"),
+                new User().setId(-1L).setName("batch-row-missing"),
+                new User().setId(b.getId()).setName("batch-row-b2").setEmail("b@example.com")
+        ), 2, 0);
+
+        assertArrayEquals(new int[]{1, 0, 1}, counts);
+        assertEquals("batch-row-a2", userMapper.selectById(a.getId()).getName());
+        assertEquals("b@example.com", userMapper.selectById(b.getId()).getEmail());
+    }
+
+
+
+    @Test
+    void caseWhenCollapsesGroupsWithSameColumns() {
+        User a = insert("batch-case-a");
+        User b = insert("batch-case-b");
+        User c = insert("batch-case-c");
+
+        int[] counts = BatchStatementExecutor.executeUpdate(userMapper, List.of(
+                // 同为 name 列：a、b 全部命中
+                new User().setId(a.getId()).setName("batch-case-a2"),
+                new User().setId(b.getId()).setName("batch-case-b2"),
+                // name + email：c 命中、-1 未命中，合并后只能知道整组命中了 1 行
+                new User().setId(c.getId()).setName("batch-case-c2").setEmail("c@example.com"),
+                new User().setId(-1L).setName("batch-case-missing").setEmail("x@example.com"),
+                // 只有 email 且全部未命中
+                new User().setId(-2L).setEmail("y@example.com"),
+                new User().setId(-3L).setEmail("z@example.com")
+        ), 10, 10);
+
+        assertArrayEquals(new int[]{1, 1, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, 0, 0}, counts);
+        assertEquals("batch-case-a2", userMapper.selectById(a.getId()).getName());
+        assertEquals("batch-case-b2", userMapper.selectById(b.getId()).getName());
+        assertEquals("c@example.com", userMapper.selectById(c.getId()).getEmail());
+    }
+
+
+
+    @Test
+    void typeHandlerAndNeverColumnsAreNotCollapsed() {
+        ticketMapper.insert(
+                new Ticket().setId(1L).setTitle("t1").setPriority(Ticket.Priority.LOW).setCreatedBy("alice"));
+        ticketMapper.insert(
+                new Ticket().setId(2L).setTitle("t2").setPriority(Ticket.Priority.LOW).setCreatedBy("alice"));
+
+        int[] counts = BatchStatementExecutor.executeUpdate(ticketMapper, List.of(
+                new Ticket().setId(1L).setPriority(Ticket.Priority.HIGH).setCreatedBy("bob"),
+                new Ticket().setId(2L).setPriority(Ticket.Priority.HIGH).setCreatedBy("bob")
+        ), 10, 10);
+
+        assertArrayEquals(new int[]{1, 1}, counts);
+        List<Map<String, Object>> rows = jdbc.queryForList("SELECT priority, created_by FROM ticket ORDER BY id");
+        for (Map<String, Object> row : rows) {
+            assertEquals(Ticket.Priority.HIGH.ordinal(), ((Number) row.get("priority")).intValue());
+            assertEquals("alice", row.get("created_by"));
+        }
+    }
+
+
+
+    @Test
+    void onlyPlainNotNullColumnsCanBeCollapsed() {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(Ticket.class);
+
+        assertTrue(BatchStatementExecutor.caseWhenColumns(tableInfo, columns(tableInfo, "title")));
+        assertFalse(BatchStatementExecutor.caseWhenColumns(tableInfo, columns(tableInfo, "title", "priority")));
+        assertFalse(BatchStatementExecutor.caseWhenColumns(tableInfo, columns(tableInfo, "createdBy")));
+        assertFalse(BatchStatementExecutor.caseWhenColumns(tableInfo, new BitSet()));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private User insert(String name) {
+        User user = new User().setName(name);
+        userMapper.insert(user);
+        return user;
+    }
+
+
+
+    private static BitSet columns(TableInfo tableInfo, String... properties) {
+        BitSet columns = new BitSet();
+        for (String property : properties) {
+            for (int i = 0; i < tableInfo.getFieldList().size(); i++) {
+                if (tableInfo.getFieldList().get(i).getProperty().equals(property)) {
+                    columns.set(i);
+                }
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,151 @@
+package com.dfss.data.util;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * upsertBatch 测试：H2 MERGE 的插入/更新计数、分块、null 列与指定更新列，MySQL ON DUPLICATE KEY 的渲染，
+ * 以及派生语句与 Mapper 自定义语句重名时的处理。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class UpsertBatchTest {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+
+
+    @Test
+    void mergeCountsInsertedAndUpdatedRowsPerChunk() {
+        List<User> existing = insert("upsert-count", 2);
+        List<User> batch = new ArrayList<>();
+        existing.forEach(user -> batch.add(new User().setId(user.getId()).setName("upsert-count-updated")));
+        for (int i = 0; i < 3; i++) {
+            batch.add(new User().setName("upsert-count-new"));
+        }
+
+        UpsertResult result = DataBaseOperation.upsertBatch(batch, 2);
+
+        assertEquals(List.of(new UpsertResult.Chunk(2, 0, 2), new UpsertResult.Chunk(2, 2, 0),
+                new UpsertResult.Chunk(1, 1, 0)), result.getChunks());
+        assertEquals(3, result.getInserted());
+        assertEquals(2, result.getUpdated());
+        batch.forEach(user -> assertNotNull(user.getId()));
+        User updated = DataBaseOperation.getById(User.class, existing.get(0).getId());
+        assertEquals("upsert-count-updated", updated.getName());
+        // null 列不参与更新
+        assertEquals(existing.get(0).getEmail(), updated.getEmail());
+        assertEquals("upsert-count-new", DataBaseOperation.getById(User.class, batch.get(4).getId()).getName());
+    }
+
+
+
+    @Test
+    void onlyListedColumnsAreUpdatedOnConflict() {
+        User existing = insert("upsert-columns", 1).get(0);
+        User fresh = new User().setName("upsert-columns-new").setEmail("new@example.com");
+
+        UpsertResult result = DataBaseOperation.upsertBatch(List.of(
+                new User().setId(existing.getId()).setName("upsert-columns-renamed").setEmail("changed@example.com"),
+                fresh), 10, List.of(User::getName));
+
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        User updated = DataBaseOperation.getById(User.class, existing.getId());
+        assertEquals("upsert-columns-renamed", updated.getName());
+        assertEquals(existing.getEmail(), updated.getEmail());
+        assertEquals("new@example.com", DataBaseOperation.getById(User.class, fresh.getId()).getEmail());
+    }
+
+
+
+    @Test
+    void rendersOnDuplicateKeyUpdateForMysql() {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(User.class);
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        BitSet name = column(tableInfo, "name");
+        List<User> rows = List.of(new User().setId(1L).setName("a"), new User().setId(2L).setName("b"));
+
+        UpsertStatementExecutor.Rendered rendered = UpsertStatementExecutor.render(
+                configuration, UpsertStatementExecutor.Dialect.MYSQL, tableInfo, name, name, rows);
+        assertEquals("INSERT INTO user (id, name) VALUES (?, ?), (?, ?) "
+                + "ON DUPLICATE KEY UPDATE name = VALUES(name)", rendered.sql());
+        assertEquals(List.of(1L, "a", 2L, "b"), rendered.values());
+
+        UpsertStatementExecutor.Rendered keyOnly = UpsertStatementExecutor.render(
+                configuration, UpsertStatementExecutor.Dialect.MYSQL, tableInfo, name, new BitSet(), rows);
+        assertEquals("INSERT INTO user (id, name) VALUES (?, ?), (?, ?) ON DUPLICATE KEY UPDATE id = id",
+                keyOnly.sql());
+
+        UpsertStatementExecutor.Rendered merge = UpsertStatementExecutor.render(
+                configuration, UpsertStatementExecutor.Dialect.H2, tableInfo, name, name, rows.subList(0, 1));
+        assertEquals("MERGE INTO user t USING (VALUES (?, ?)) s (id, name) ON t.id = s.id "
+                + "WHEN MATCHED THEN UPDATE SET name = s.name "
+                + "WHEN NOT MATCHED THEN INSERT (id, name) VALUES (s.id, s.name)", merge.sql());
+    }
+
+
+
+    @Test
+    void foreignStatementWithDerivedNameIsRejected() {
+        Configuration configuration = new Configuration();
+        String id = ForeignMapper.class.getName() + ".upsertBatch_rendered";
+        configuration.addMappedStatement(new MappedStatement.Builder(configuration, id,
+                new StaticSqlSource(configuration, "SELECT 1"), SqlCommandType.INSERT).build());
+
+        assertThrows(DataBaseOperationException.class,
+                () -> UpsertStatementExecutor.statement(ForeignMapper.class, configuration));
+        // 没有同名语句时注册派生语句
+        assertEquals(id, UpsertStatementExecutor.statement(ForeignMapper.class, new Configuration()));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static BitSet column(TableInfo tableInfo, String property) {
+        BitSet columns = new BitSet();
+        for (int i = 0; i < tableInfo.getFieldList().size(); i++) {
+            if (tableInfo.getFieldList().get(i).getProperty().equals(property)) {
+                columns.set(i);
+            }
+        }
+        return columns;
+    }
+
+
+
+    private static List<User> insert(String name, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User().setName(name).setEmail(name + i + "@example.com");
+            DataBaseOperation.insert(user);
+            users.add(user);
+        }
+        return users;
+    }
+
+
+
+    interface ForeignMapper {
+    }
+}
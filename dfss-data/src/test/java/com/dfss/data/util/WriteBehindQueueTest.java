@@ -0,0 +1,207 @@
+package com.dfss.data.util;
+
+import com.dfss.data.config.DataBaseOperationProperties;
+import com.dfss.data.support.Item;
+import com.dfss.data.support.TestApplication;
+import com.dfss.data.support.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 写后缓冲测试：按批量大小与等待时间触发写入、批量失败后逐行重试（含没有事务模板的分表实体）、队列满时同步写入，
+ * 以及关闭后的提交。
+ */
+@SpringBootTest(classes = TestApplication.class)
+class WriteBehindQueueTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private WriteBehindQueue queue;
+
+
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+
+
+    @AfterEach
+    void restore() {
+        queue.shutdown(5, TimeUnit.SECONDS);
+        WriteBehindQueue.configure(new DataBaseOperationProperties.WriteBehind(), transaction);
+    }
+
+
+
+    @Test
+    void fullBatchIsWrittenWithoutWaitingForInterval() throws Exception {
+        queue = configure(3, Duration.ofHours(1), 100);
+
+        List<User> users = users("write-behind-batch", 3);
+        CompletableFuture<Integer> first = WriteBehindQueue.submit(users.get(0));
+        CompletableFuture<Integer> second = WriteBehindQueue.submit(users.get(1));
+        Thread.sleep(200);
+        assertFalse(first.isDone());
+
+        CompletableFuture<Integer> third = WriteBehindQueue.submit(users.get(2));
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+        users.forEach(user -> assertEquals("write-behind-batch", DataBaseOperation.getById(User.class, user.getId())
+                .getName()));
+    }
+
+
+
+    @Test
+    void partialBatchIsWrittenAfterInterval() throws Exception {
+        queue = configure(100, Duration.ofMillis(50), 100);
+
+        User user = users("write-behind-interval", 1).get(0);
+        assertEquals(1, WriteBehindQueue.submit(user).get(5, TimeUnit.SECONDS));
+        assertEquals("write-behind-interval", DataBaseOperation.getById(User.class, user.getId()).getName());
+    }
+
+
+
+    @Test
+    void failedBatchIsRetriedRowByRow() throws Exception {
+        User existing = users("write-behind-retry", 1).get(0);
+        DataBaseOperation.insert(existing);
+        queue = configure(3, Duration.ofHours(1), 100);
+
+        List<User> fresh = users("write-behind-retry", 2);
+        CompletableFuture<Integer> a = WriteBehindQueue.submit(fresh.get(0));
+        CompletableFuture<Integer> duplicate = WriteBehindQueue.submit(
+                new User().setId(existing.getId()).setName("write-behind-duplicate"));
+        CompletableFuture<Integer> b = WriteBehindQueue.submit(fresh.get(1));
+
+        assertEquals(1, a.get(5, TimeUnit.SECONDS));
+        assertEquals(1, b.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+        fresh.forEach(user -> assertEquals("write-behind-retry",
+                DataBaseOperation.getById(User.class, user.getId()).getName()));
+        assertEquals("write-behind-retry", DataBaseOperation.getById(User.class, existing.getId()).getName());
+    }
+
+
+
+    @Test
+    void shardedBatchWithoutTransactionTemplateIsRetriedWithoutDuplicates() throws Exception {
+        Item existing = new Item().setName("write-behind-shard-existing");
+        DataBaseOperation.insert(existing);
+        queue = configure(7, Duration.ofHours(1), 100, null);
+
+        // 6 行分散到各分片，与已有行主键冲突的一行让整批失败
+        List<CompletableFuture<Integer>> fresh = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Item item = new Item().setName("write-behind-shard").setScore(i);
+            items.add(item);
+            fresh.add(WriteBehindQueue.submit(item));
+        }
+        CompletableFuture<Integer> duplicate = WriteBehindQueue.submit(
+                new Item().setId(existing.getId()).setName("write-behind-shard"));
+
+        for (CompletableFuture<Integer> future : fresh) {
+            assertEquals(1, future.get(5, TimeUnit.SECONDS));
+        }
+        assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(6, DataBaseOperation.listByWrapper(Item.class, DataBaseOperation.lambdaQuery(Item.class)
+                .eq(Item::getName, "write-behind-shard")).size());
+    }
+
+
+
+    @Test
+    void fullQueueFallsBackToSynchronousInsert() throws Exception {
+        queue = configure(100, Duration.ofHours(1), 1);
+
+        List<User> users = users("write-behind-full", 2);
+        CompletableFuture<Integer> queued = WriteBehindQueue.submit(users.get(0));
+        CompletableFuture<Integer> overflow = WriteBehindQueue.submit(users.get(1));
+
+        assertFalse(queued.isDone());
+        assertTrue(overflow.isDone());
+        assertEquals(1, overflow.get());
+        assertTrue(queue.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(1, queued.get());
+    }
+
+
+
+    @Test
+    void shutdownDrainsQueueAndLaterSubmitsInsertSynchronously() throws Exception {
+        queue = configure(100, Duration.ofHours(1), 100);
+
+        List<User> users = users("write-behind-shutdown", 3);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        users.forEach(user -> futures.add(WriteBehindQueue.submit(user)));
+        assertTrue(queue.shutdown(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Integer> future : futures) {
+            assertEquals(1, future.getNow(0));
+        }
+
+        // 关闭后不会再创建一个没有人写完的新队列
+        User late = users("write-behind-shutdown", 1).get(0);
+        CompletableFuture<Integer> future = WriteBehindQueue.submit(late);
+        assertTrue(future.isDone());
+        assertEquals(1, future.get());
+        assertEquals("write-behind-shutdown", DataBaseOperation.getById(User.class, late.getId()).getName());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private WriteBehindQueue configure(int batchSize, Duration flushInterval, int queueCapacity) {
+        return configure(batchSize, flushInterval, queueCapacity, transaction);
+    }
+
+
+
+    private static WriteBehindQueue configure(
+            int batchSize,
+            Duration flushInterval,
+            int queueCapacity,
+            TransactionTemplate transaction
+    ) {
+        DataBaseOperationProperties.WriteBehind config = new DataBaseOperationProperties.WriteBehind();
+        config.setBatchSize(batchSize);
+        config.setFlushInterval(flushInterval);
+        config.setQueueCapacity(queueCapacity);
+        config.setOfferTimeout(Duration.ofMillis(10));
+        return WriteBehindQueue.configure(config, transaction);
+    }
+
+
+
+    private static List<User> users(String name, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new User().setId(System.nanoTime()).setName(name));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS `user` (id BIGINT PRIMARY KEY, name VARCHAR(64), email VARCHAR(128));
+CREATE TABLE IF NOT EXISTS dict (id BIGINT PRIMARY KEY, label VARCHAR(64));
+CREATE TABLE IF NOT EXISTS item_0 (id BIGINT PRIMARY KEY, name VARCHAR(64), score INT);
+CREATE TABLE IF NOT EXISTS item_1 (id BIGINT PRIMARY KEY, name VARCHAR(64), score INT);
+CREATE TABLE IF NOT EXISTS item_2 (id BIGINT PRIMARY KEY, name VARCHAR(64), score INT);
+CREATE TABLE IF NOT EXISTS item_3 (id BIGINT PRIMARY KEY, name VARCHAR(64), score INT);
+CREATE TABLE IF NOT EXISTS ticket (id BIGINT PRIMARY KEY, title VARCHAR(64), priority INT, created_by VARCHAR(64));
@@ -0,0 +1,33 @@
+package com.dfss.springboot.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>声明 GET 接口的返回内容只取决于请求参数与所列表的数据，可以按表版本生成 ETag。</p>
+ *
+ * <p>请求携带的 {@code If-None-Match} / {@code If-Modified-Since} 与当前版本一致时，在进入 Controller 之前直接返回
+ * 304，不执行查询也不序列化。返回内容还取决于登录用户以外的其他因素（如请求头、时间）的接口不要使用。</p>
+ *
+ * <pre>
+ * &#64;ConditionalGet({"user", "dept"})
+ * &#64;GetMapping("/users")
+ * public IPage&lt;UserVO&gt; page(...) { ... }
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    /**
+     * 接口读取的表名
+     */
+    String[] value();
+}
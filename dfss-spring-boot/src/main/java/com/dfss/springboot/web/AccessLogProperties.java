@@ -0,0 +1,68 @@
+package com.dfss.springboot.web;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>访问日志配置，统一使用 {@code dfss.web.access-log} 前缀。</p>
+ *
+ * <pre>
+ * dfss:
+ *   web:
+ *     access-log:
+ *       enabled: true
+ *       sample-rate: 0.01
+ *       slow-threshold: 1s
+ *       error-status: 500
+ *       buffer-size: 8192
+ *       percentiles: [0.5, 0.99]
+ * </pre>
+ *
+ * <p>访问日志输出到名为 {@code dfss.access} 的 Logger，可以在日志配置中单独指定 Appender。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Data
+@ConfigurationProperties(prefix = "dfss.web.access-log")
+public class AccessLogProperties {
+
+    /**
+     * 总开关，关闭后拦截器与字节计数过滤器都直接放行，不记录日志和指标。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 普通请求的日志采样率（0 ~ 1）；慢请求与错误请求不受采样影响，总是记录。
+     */
+    private double sampleRate = 0.01;
+
+    /**
+     * 慢请求阈值，耗时达到该值的请求总是记录。
+     */
+    private Duration slowThreshold = Duration.ofSeconds(1);
+
+    /**
+     * 响应状态码不小于该值的请求总是记录；未处理异常结束的请求同样总是记录。
+     */
+    private int errorStatus = 500;
+
+    /**
+     * 异步日志缓冲区容量，写满后新记录直接丢弃并计数，不阻塞请求线程。
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * 按路由模板统计的耗时分位数（{@code dfss.http.route}），不受采样影响。
+     */
+    private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.99));
+
+    /**
+     * 是否额外发布直方图桶，供 Prometheus 等后端跨实例聚合分位数。
+     */
+    private boolean percentileHistogram = false;
+}
@@ -0,0 +1,33 @@
+package com.dfss.springboot.web;
+
+/**
+ * 一次请求的访问日志记录，由请求线程在 afterCompletion 中生成，交给 {@link AccessLogWriter} 异步格式化输出。
+ *
+ * @param timestamp     请求结束时间（epoch 毫秒）
+ * @param method        HTTP 方法
+ * @param route         匹配到的路由模板，如 {@code /users/{id}}；未匹配到 Handler 时为 UNMATCHED
+ * @param uri           实际请求路径（不含查询参数，避免记录敏感参数）
+ * @param status        响应状态码
+ * @param durationNanos preHandle 到 afterCompletion 的耗时
+ * @param bytesIn       请求体字节数，未知时为 -1
+ * @param bytesOut      响应体字节数，未知时为 -1
+ * @param client        客户端地址
+ * @param error         未处理或被异常处理器处理的异常类型，没有时为 null
+ * @param reason        记录原因：error、slow 或 sample
+ * @author shushun
+ * @since 2025-06-02
+ */
+record AccessLogRecord(
+        long timestamp,
+        String method,
+        String route,
+        String uri,
+        int status,
+        long durationNanos,
+        long bytesIn,
+        long bytesOut,
+        String client,
+        String error,
+        String reason
+) {
+}
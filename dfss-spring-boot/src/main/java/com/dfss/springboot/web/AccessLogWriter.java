@@ -0,0 +1,134 @@
+package com.dfss.springboot.web;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>访问日志的异步输出：请求线程只把 {@link AccessLogRecord} 放入有界环形缓冲区，格式化与 Appender I/O
+ * 都在单独的守护线程中完成。</p>
+ *
+ * <p>缓冲区写满时新记录直接丢弃（不阻塞请求线程，也不退化为同步写），丢弃数量在下一条日志之前以 WARN 汇总。
+ * 关闭时输出缓冲区中剩余的全部记录。</p>
+ *
+ * <p>每条记录输出为一行 {@code key=value}，便于日志平台直接按字段解析：</p>
+ * <pre>
+ * ts=2025-06-02T08:00:00.123Z method=GET route=/users/{id} uri=/users/1 status=200 duration_ms=3.214
+ * bytes_in=-1 bytes_out=187 client=10.0.0.8 reason=sample error=-
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j(topic = "dfss.access")
+final class AccessLogWriter implements AutoCloseable {
+
+    // 每次从缓冲区批量取出的最大条数
+    private static final int DRAIN_BATCH = 256;
+
+    private final BlockingQueue<AccessLogRecord> buffer;
+    private final Thread drainer;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+
+
+    AccessLogWriter(int capacity) {
+        this.buffer = new ArrayBlockingQueue<>(Math.max(capacity, 16));
+        this.drainer = new Thread(this::drain, "dfss-access-log");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+
+
+    /**
+     * 提交一条记录，缓冲区已满时丢弃并计数。
+     */
+    void offer(AccessLogRecord record) {
+        if (!running || !buffer.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+
+
+    /**
+     * 停止接收新记录，等待后台线程输出缓冲区中的剩余记录。
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        reportDropped();
+    }
+
+
+
+    private void drain() {
+        List<AccessLogRecord> batch = new ArrayList<>(DRAIN_BATCH);
+        StringBuilder line = new StringBuilder(256);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AccessLogRecord first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, DRAIN_BATCH - 1);
+                reportDropped();
+                for (AccessLogRecord record : batch) {
+                    write(line, record);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                // Appender 异常不能让后台线程退出，否则之后的记录会全部堆积在缓冲区
+                log.warn("输出访问日志失败: {}", ex.toString());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+
+
+    private void write(StringBuilder line, AccessLogRecord record) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        line.setLength(0);
+        line.append("ts=").append(Instant.ofEpochMilli(record.timestamp()))
+                .append(" method=").append(record.method())
+                .append(" route=").append(record.route())
+                .append(" uri=").append(record.uri())
+                .append(" status=").append(record.status())
+                .append(" duration_ms=").append(String.format("%.3f", record.durationNanos() / 1_000_000.0))
+                .append(" bytes_in=").append(record.bytesIn())
+                .append(" bytes_out=").append(record.bytesOut())
+                .append(" client=").append(record.client())
+                .append(" reason=").append(record.reason())
+                .append(" error=").append(record.error() == null ? "-" : record.error());
+        log.info(line.toString());
+    }
+
+
+
+    private void reportDropped() {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("访问日志缓冲区已满，丢弃 {} 条记录", lost);
+        }
+    }
+}
@@ -1,24 +1,70 @@
 package com.dfss.springboot.web;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 
 /**
- * 全局请求日志拦截器：在请求进入 Controller 前后打印日志。
+ * <p>全局访问日志拦截器：preHandle 记录开始时间，afterCompletion 计算耗时、状态码、路由模板与请求/响应字节数。</p>
+ *
+ * <ul>
+ *   <li>每个请求都记录到按 (method, route, status) 划分的 {@code dfss.http.route} 耗时指标，发布
+ *   {@code dfss.web.access-log.percentiles} 分位数；路由取匹配到的模板（如 {@code /users/{id}}），
+ *   不会因路径参数产生大量时间序列。</li>
+ *   <li>访问日志按 {@code sample-rate} 采样，慢请求（{@code slow-threshold}）、错误状态码（{@code error-status}）
+ *   与异常结束的请求总是记录。</li>
+ *   <li>请求线程只生成一条记录放入 {@link AccessLogWriter} 的有界缓冲区，格式化与输出都在后台线程完成。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
  */
 @Component
-@Slf4j
-public class ApiLoggingInterceptor implements HandlerInterceptor {
+public class ApiLoggingInterceptor implements HandlerInterceptor, DisposableBean {
+
+    private static final String START = ApiLoggingInterceptor.class.getName() + ".start";
+
+    private static final String UNMATCHED = "UNMATCHED";
+
+    private final AccessLogProperties properties;
+    private final MeterRegistry registry;
+    private final AccessLogWriter writer;
+    private final long slowNanos;
+
+    // "method route status" -> 耗时指标
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+
+
+    public ApiLoggingInterceptor(AccessLogProperties properties, ObjectProvider<MeterRegistry> registry) {
+        this.properties = properties;
+        this.registry = registry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.writer = new AccessLogWriter(properties.getBufferSize());
+        this.slowNanos = properties.getSlowThreshold().toNanos();
+    }
+
+
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        log.info(">> [请求开始] {}-{}", method, path);
+        // 异步请求在结果返回后会再次分派并调用 preHandle，保留第一次的开始时间
+        if (properties.isEnabled() && request.getAttribute(START) == null) {
+            request.setAttribute(START, System.nanoTime());
+        }
         return true;
     }
 
@@ -30,7 +76,74 @@ public class ApiLoggingInterceptor implements HandlerInterceptor {
             HttpServletResponse response,
             Object handler,
             Exception ex) {
+        if (!(request.getAttribute(START) instanceof Long start)) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        String method = request.getMethod();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED;
         int status = response.getStatus();
-        log.info("<< [请求结束] status={}, URI={}", status, request.getRequestURI());
+        // 未处理的异常由容器在之后转换为 500，此时响应状态码还没有变化
+        if (ex != null && status < 400) {
+            status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        }
+        timer(method, route, status).record(duration, TimeUnit.NANOSECONDS);
+
+        Object handled = request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        Throwable error = ex != null ? ex : handled instanceof Throwable throwable ? throwable : null;
+        String reason;
+        if (error != null || status >= properties.getErrorStatus()) {
+            reason = "error";
+        } else if (duration >= slowNanos) {
+            reason = "slow";
+        } else if (ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+            reason = "sample";
+        } else {
+            return;
+        }
+        long bytesOut = ResponseSizeFilter.bytesWritten(request);
+        if (bytesOut < 0) {
+            String contentLength = response.getHeader("Content-Length");
+            bytesOut = contentLength != null ? Long.parseLong(contentLength) : -1;
+        }
+        writer.offer(new AccessLogRecord(
+                System.currentTimeMillis(),
+                method,
+                route,
+                request.getRequestURI(),
+                status,
+                duration,
+                request.getContentLengthLong(),
+                bytesOut,
+                request.getRemoteAddr(),
+                error != null ? error.getClass().getName() : null,
+                reason
+        ));
+    }
+
+
+
+    @Override
+    public void destroy() {
+        writer.close();
+    }
+
+
+
+    private Timer timer(String method, String route, int status) {
+        String key = method + ' ' + route + ' ' + status;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> Timer.builder("dfss.http.route")
+                    .description("按路由模板统计的请求耗时")
+                    .tag("method", method)
+                    .tag("route", route)
+                    .tag("status", Integer.toString(status))
+                    .publishPercentiles(properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray())
+                    .publishPercentileHistogram(properties.isPercentileHistogram())
+                    .register(registry));
+        }
+        return timer;
     }
 }
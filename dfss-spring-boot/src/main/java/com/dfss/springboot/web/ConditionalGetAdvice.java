@@ -0,0 +1,54 @@
+package com.dfss.springboot.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * <p>与 {@link GlobalResponseHandler} 并列的响应体增强：{@link ConditionalGetInterceptor} 计算过校验值且响应为 2xx 时，
+ * 在写出响应体之前设置 ETag / Last-Modified。</p>
+ *
+ * <p>ETag 在响应体写出前设置，{@code ShallowEtagHeaderFilter} 检测到已有 ETag 后不再缓冲与计算 MD5。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@ControllerAdvice
+public class ConditionalGetAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse) {
+            HttpServletRequest httpRequest = servletRequest.getServletRequest();
+            HttpServletResponse httpResponse = servletResponse.getServletResponse();
+            ConditionalGetInterceptor.Validator validator = ConditionalGetInterceptor.validator(httpRequest);
+            int status = httpResponse.getStatus();
+            if (validator != null && status >= 200 && status < 300) {
+                validator.writeTo(httpResponse);
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,167 @@
+package com.dfss.springboot.web;
+
+import com.dfss.common.version.TableVersionSource;
+import com.dfss.springboot.annotation.ConditionalGet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>按表版本处理条件 GET：标注了 {@link ConditionalGet} 的接口，在进入 Controller 之前根据
+ * {@link TableVersionSource} 计算 ETag（以及可选的 Last-Modified），与请求的 {@code If-None-Match} /
+ * {@code If-Modified-Since} 一致时直接返回 304，不执行查询也不序列化。</p>
+ *
+ * <p>ETag 是各表版本标记与请求 URI、查询参数、Accept、登录用户的 MD5，同一份数据的不同页、不同格式不会互相命中。
+ * 未命中时只把校验值记录在请求属性中，由 {@link ConditionalGetAdvice} 在响应成功时写出响应头，避免错误响应
+ * 也带上 ETag 被客户端缓存。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final String VALIDATOR = ConditionalGetInterceptor.class.getName() + ".validator";
+
+    private final EtagProperties properties;
+    private final ObjectProvider<TableVersionSource> sources;
+
+    // Controller 方法 -> 注解（方法上优先，其次类上）
+    private final Map<Method, Optional<ConditionalGet>> annotations = new ConcurrentHashMap<>();
+
+
+
+    public ConditionalGetInterceptor(EtagProperties properties, ObjectProvider<TableVersionSource> sources) {
+        this.properties = properties;
+        this.sources = sources;
+    }
+
+
+
+    /**
+     * 一次请求的校验值。
+     *
+     * @param etag         带引号的强 ETag
+     * @param lastModified 最后修改时间（epoch 毫秒），未知为 -1
+     */
+    record Validator(String etag, long lastModified) {
+
+        void writeTo(HttpServletResponse response) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (lastModified >= 0) {
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+        }
+    }
+
+
+
+    /**
+     * 当前请求在 preHandle 中计算出的校验值，接口未启用条件 GET 时为 null。
+     */
+    static Validator validator(HttpServletRequest request) {
+        return request.getAttribute(VALIDATOR) instanceof Validator validator ? validator : null;
+    }
+
+
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        ConditionalGet conditional = annotations.computeIfAbsent(handlerMethod.getMethod(), m -> Optional
+                .ofNullable(AnnotatedElementUtils.findMergedAnnotation(m, ConditionalGet.class))
+                .or(() -> Optional.ofNullable(
+                        AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), ConditionalGet.class))))
+                .orElse(null);
+        // 有多个来源且未标注 @Primary 时抛出异常，而不是静默关闭条件 GET
+        TableVersionSource source = conditional == null ? null : sources.getIfAvailable();
+        if (source == null) {
+            return true;
+        }
+        Validator validator = compute(conditional.value(), source, request);
+        if (validator == null) {
+            return true;
+        }
+        request.setAttribute(VALIDATOR, validator);
+        if (notModified(request, validator)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            validator.writeTo(response);
+            return false;
+        }
+        return true;
+    }
+
+
+
+    private static Validator compute(String[] tables, TableVersionSource source, HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(128);
+        long lastModified = 0;
+        for (String table : tables) {
+            String version = source.version(table);
+            if (version == null) {
+                return null;
+            }
+            key.append(table).append('=').append(version).append(';');
+            long modified = source.lastModified(table);
+            lastModified = modified < 0 || lastModified < 0 ? -1 : Math.max(lastModified, modified);
+        }
+        key.append(request.getRequestURI())
+                .append('?').append(request.getQueryString())
+                .append('|').append(request.getHeader(HttpHeaders.ACCEPT))
+                .append('|').append(request.getRemoteUser());
+        String etag = '"' + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+        return new Validator(etag, tables.length == 0 ? -1 : lastModified);
+    }
+
+
+
+    /**
+     * 按 RFC 9110 判断：存在 If-None-Match 时只比较 ETag（弱比较），否则比较 If-Modified-Since（秒级精度）。
+     */
+    private static boolean notModified(HttpServletRequest request, Validator validator) {
+        Enumeration<String> ifNoneMatch = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.hasMoreElements()) {
+            while (ifNoneMatch.hasMoreElements()) {
+                for (String tag : ifNoneMatch.nextElement().split(",")) {
+                    tag = tag.trim();
+                    if (tag.startsWith("W/")) {
+                        tag = tag.substring(2);
+                    }
+                    if ("*".equals(tag) || validator.etag().equals(tag)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        if (validator.lastModified() < 0) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && validator.lastModified() / 1000 * 1000 <= ifModifiedSince;
+    }
+}
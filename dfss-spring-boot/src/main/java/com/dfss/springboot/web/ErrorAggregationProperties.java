@@ -0,0 +1,59 @@
+package com.dfss.springboot.web;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * <p>异常聚合配置，统一使用 {@code dfss.web.errors} 前缀。</p>
+ *
+ * <pre>
+ * dfss:
+ *   web:
+ *     errors:
+ *       traces-per-window: 5
+ *       window: 1m
+ *       fingerprint-frames: 5
+ *       max-fingerprints: 1000
+ *       top: 20
+ *       busy-retry-after: 1s
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Data
+@ConfigurationProperties(prefix = "dfss.web.errors")
+public class ErrorAggregationProperties {
+
+    /**
+     * 每个指纹在一个窗口内最多输出的完整堆栈条数，超出部分只计数，在下一个窗口开始时汇总。
+     */
+    private int tracesPerWindow = 5;
+
+    /**
+     * 日志限流窗口。
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * 参与指纹计算的栈帧数（取根因异常的栈顶）。
+     */
+    private int fingerprintFrames = 5;
+
+    /**
+     * 最多保留的指纹数，超出后新的指纹统一计入 OTHER，防止异常类型失控时无限增长。
+     */
+    private int maxFingerprints = 1000;
+
+    /**
+     * {@code /actuator/errors} 返回的指纹数。
+     */
+    private int top = 20;
+
+    /**
+     * 数据库准入控制拒绝（ADMISSION_REJECTED）时返回 503 的 {@code Retry-After}，按秒向上取整。
+     */
+    private Duration busyRetryAfter = Duration.ofSeconds(1);
+}
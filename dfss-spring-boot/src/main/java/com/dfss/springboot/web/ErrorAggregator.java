@@ -0,0 +1,236 @@
+package com.dfss.springboot.web;
+
+import com.dfss.common.exceptions.DataBaseOperationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>异常聚合：按“异常类型 + 根因类型 + 根因栈顶若干帧”计算指纹，同一指纹的异常只计数，
+ * 每个窗口只输出前 {@code traces-per-window} 条完整堆栈。</p>
+ *
+ * <p>替代逐条 {@code printStackTrace()}：故障期间同一个错误往往每秒出现成千上万次，逐条打印完整堆栈会在
+ * stderr/Appender 的锁上排队，把一次局部故障放大成全局延迟。这里的热路径只有一次 Map 查找与
+ * {@link LongAdder} 累加，被限流的堆栈在下一个窗口开始时以一行汇总。</p>
+ * <p>{@link DataBaseOperationException} 的错误码参与指纹计算；预期内错误码的异常没有堆栈，指纹只由类型与错误码决定。
+ * 聚合结果通过 {@link ErrorsEndpoint}（{@code /actuator/errors}）查看。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+@Component
+public class ErrorAggregator {
+
+    private static final String OVERFLOW = "OTHER";
+
+    private final ErrorAggregationProperties properties;
+    private final long windowNanos;
+
+    // 指纹原文 -> 统计
+    private final Map<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+
+
+    public ErrorAggregator(ErrorAggregationProperties properties) {
+        this.properties = properties;
+        this.windowNanos = properties.getWindow().toNanos();
+    }
+
+
+
+    /**
+     * 记录一次需要排查的异常（通常是 500），按限流规则输出 ERROR 日志与堆栈。
+     *
+     * @return 指纹 id，可以回显给调用方用于检索日志
+     */
+    public String record(Throwable ex, String context) {
+        Fingerprint fingerprint = fingerprint(ex);
+        fingerprint.hit(ex);
+        long suppressed = fingerprint.rollWindow(System.nanoTime(), windowNanos);
+        if (suppressed > 0) {
+            log.error("[{}] {} 上一窗口内另有 {} 次未输出堆栈", fingerprint.id, fingerprint.type, suppressed);
+        }
+        if (fingerprint.tryLog(properties.getTracesPerWindow())) {
+            log.error("[{}] {} (累计 {} 次)", fingerprint.id, context, fingerprint.count.sum(), ex);
+        }
+        return fingerprint.id;
+    }
+
+
+
+    /**
+     * 只计数、不输出日志，用于参数错误等预期内的异常。
+     */
+    public String count(Throwable ex) {
+        Fingerprint fingerprint = fingerprint(ex);
+        fingerprint.hit(ex);
+        return fingerprint.id;
+    }
+
+
+
+    /**
+     * 按累计次数倒序返回前 limit 个指纹。
+     */
+    public List<ErrorSummary> top(int limit) {
+        return fingerprints.values().stream()
+                .map(Fingerprint::summary)
+                .sorted(Comparator.comparingLong(ErrorSummary::count).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+
+
+    /**
+     * 清空全部统计。
+     */
+    public void reset() {
+        fingerprints.clear();
+    }
+
+
+
+    /**
+     * 单个指纹的统计快照。
+     *
+     * @param id        指纹 id（指纹原文的 64 位哈希）
+     * @param type      异常类型（DataBaseOperationException 带错误码）
+     * @param rootCause 根因异常类型
+     * @param frames    参与指纹计算的栈帧
+     * @param count     累计次数
+     * @param message   最近一次的异常消息
+     * @param firstSeen 首次出现时间
+     * @param lastSeen  最近出现时间
+     */
+    public record ErrorSummary(
+            String id,
+            String type,
+            String rootCause,
+            List<String> frames,
+            long count,
+            String message,
+            Instant firstSeen,
+            Instant lastSeen
+    ) {
+    }
+
+    //==================== 指纹 ====================
+
+
+
+    private Fingerprint fingerprint(Throwable ex) {
+        Throwable root = ex;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String type = ex instanceof DataBaseOperationException dbEx
+                ? ex.getClass().getName() + "[" + dbEx.getErrorCode() + "]"
+                : ex.getClass().getName();
+        StackTraceElement[] trace = root.getStackTrace();
+        if (trace.length == 0) {
+            trace = ex.getStackTrace();
+        }
+        String[] frames = new String[Math.min(trace.length, properties.getFingerprintFrames())];
+        StringBuilder key = new StringBuilder(256).append(type).append('|').append(root.getClass().getName());
+        for (int i = 0; i < frames.length; i++) {
+            // 保留行号：同一方法内不同位置的失败应区分开
+            frames[i] = trace[i].getClassName() + '.' + trace[i].getMethodName() + ':' + trace[i].getLineNumber();
+            key.append('|').append(frames[i]);
+        }
+        String text = key.toString();
+        Fingerprint fingerprint = fingerprints.get(text);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        if (fingerprints.size() >= properties.getMaxFingerprints()) {
+            return fingerprints.computeIfAbsent(OVERFLOW,
+                    k -> new Fingerprint(OVERFLOW, OVERFLOW, OVERFLOW, List.of()));
+        }
+        String rootType = root.getClass().getName();
+        return fingerprints.computeIfAbsent(text,
+                k -> new Fingerprint(id(k), type, rootType, Arrays.asList(frames)));
+    }
+
+
+
+    private static String id(String text) {
+        // FNV-1a 64 位
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return String.format("%016x", hash);
+    }
+
+
+
+    /**
+     * 单个指纹的计数器与日志限流状态，全部为无锁原子变量。
+     */
+    private static final class Fingerprint {
+
+        private final String id;
+        private final String type;
+        private final String rootCause;
+        private final List<String> frames;
+        private final LongAdder count = new LongAdder();
+        private final long firstSeen = System.currentTimeMillis();
+        private volatile long lastSeen;
+        private volatile String message;
+
+        // 当前窗口的开始时间、已输出条数、被限流条数
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicInteger logged = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        Fingerprint(String id, String type, String rootCause, List<String> frames) {
+            this.id = id;
+            this.type = type;
+            this.rootCause = rootCause;
+            this.frames = frames;
+        }
+
+        void hit(Throwable ex) {
+            count.increment();
+            lastSeen = System.currentTimeMillis();
+            message = ex.getMessage();
+        }
+
+        /**
+         * 窗口到期时切换到新窗口，返回上一窗口被限流的条数（只有切换成功的线程拿到非 0 值）。
+         */
+        long rollWindow(long now, long windowNanos) {
+            long start = windowStart.get();
+            if (now - start < windowNanos || !windowStart.compareAndSet(start, now)) {
+                return 0;
+            }
+            logged.set(0);
+            return suppressed.getAndSet(0);
+        }
+
+        boolean tryLog(int limit) {
+            if (logged.get() < limit && logged.incrementAndGet() <= limit) {
+                return true;
+            }
+            suppressed.incrementAndGet();
+            return false;
+        }
+
+        ErrorSummary summary() {
+            return new ErrorSummary(id, type, rootCause, frames, count.sum(), message,
+                    Instant.ofEpochMilli(firstSeen), Instant.ofEpochMilli(lastSeen));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dfss.springboot.web;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * <p>{@code /actuator/errors}：按累计次数倒序查看异常指纹，需要在
+ * {@code management.endpoints.web.exposure.include} 中加入 errors。</p>
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/errors}：查看前 {@code dfss.web.errors.top} 个指纹；</li>
+ *   <li>{@code DELETE /actuator/errors}：清空统计（例如故障恢复后重新观察）。</li>
+ * </ul>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Component
+@Endpoint(id = "errors")
+public class ErrorsEndpoint {
+
+    private final ErrorAggregator aggregator;
+    private final ErrorAggregationProperties properties;
+
+
+
+    public ErrorsEndpoint(ErrorAggregator aggregator, ErrorAggregationProperties properties) {
+        this.aggregator = aggregator;
+        this.properties = properties;
+    }
+
+
+
+    @ReadOperation
+    public List<ErrorAggregator.ErrorSummary> errors() {
+        return aggregator.top(properties.getTop());
+    }
+
+
+
+    @DeleteOperation
+    public void reset() {
+        aggregator.reset();
+    }
+}
@@ -0,0 +1,44 @@
+package com.dfss.springboot.web;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>ETag / 条件 GET 配置，统一使用 {@code dfss.web.etag} 前缀。</p>
+ *
+ * <pre>
+ * dfss:
+ *   web:
+ *     etag:
+ *       enabled: true
+ *       shallow: true
+ *       shallow-url-patterns: ["/api/dicts/*"]
+ * </pre>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Data
+@ConfigurationProperties(prefix = "dfss.web.etag")
+public class EtagProperties {
+
+    /**
+     * 是否为 {@link com.dfss.springboot.annotation.ConditionalGet} 接口生成表版本 ETag 并提前返回 304。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否对其余 GET 响应按响应体 MD5 生成强 ETag（{@code ShallowEtagHeaderFilter}）。
+     * 只节省传输，响应仍会完整查询与序列化，并且需要在内存中缓冲整个响应体；流式响应不受影响。
+     * 默认关闭，开启时建议用 {@link #shallowUrlPatterns} 限定在响应体较小的接口上。
+     */
+    private boolean shallow = false;
+
+    /**
+     * 响应体 ETag 过滤器的 URL 匹配规则（Servlet 过滤器语法）。
+     */
+    private List<String> shallowUrlPatterns = new ArrayList<>(List.of("/*"));
+}
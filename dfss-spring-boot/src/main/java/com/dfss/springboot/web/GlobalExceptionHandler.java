@@ -1,8 +1,11 @@
 package com.dfss.springboot.web;
 
+import com.dfss.common.code.DataBaseErrorCode;
 import com.dfss.common.exceptions.DataBaseOperationException;
 import com.dfss.springboot.api.ApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -15,25 +18,52 @@ import org.springframework.web.servlet.NoHandlerFoundException;
 
 /**
  * 全局异常处理器：将抛出的异常统一封装为 ApiResponse。
+ * 异常交给 {@link ErrorAggregator} 按指纹计数，500 错误按指纹限流输出堆栈。
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    /** 处理自定义的 DataBaseOperationException */
+    private final ErrorAggregator errorAggregator;
+    private final String busyRetryAfter;
+
+    public GlobalExceptionHandler(ErrorAggregator errorAggregator, ErrorAggregationProperties properties) {
+        this.errorAggregator = errorAggregator;
+        long millis = properties.getBusyRetryAfter().toMillis();
+        this.busyRetryAfter = String.valueOf(Math.max(1, (millis + 999) / 1000));
+    }
+
+    /**
+     * 处理自定义的 DataBaseOperationException：预期内的错误码（参数错误等）只计数并返回 400，
+     * 其余错误码（SQL 执行失败、方言不支持等）按 500 记录日志与堆栈。
+     * 准入控制拒绝是数据库过载而非请求有误，返回 503 并带上 {@code Retry-After}，客户端与网关可以退避后重试。
+     */
     @ExceptionHandler(DataBaseOperationException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiResponse<Void> handleDbOpException(DataBaseOperationException ex) {
+    public ApiResponse<Void> handleDbOpException(
+            HttpServletRequest req,
+            HttpServletResponse resp,
+            DataBaseOperationException ex) {
         // ex.getErrorCode() 对应 DataBaseErrorCode 的 code
         String msg = "[" + ex.getErrorCode() + "] " + ex.getMessage();
+        if (!ex.isExpected()) {
+            errorAggregator.record(ex, req.getMethod() + " " + req.getRequestURI());
+            resp.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return ApiResponse.fail(500, msg);
+        }
+        errorAggregator.count(ex);
+        if (DataBaseErrorCode.ADMISSION_REJECTED.getCode().equals(ex.getErrorCode())) {
+            resp.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            resp.setHeader(HttpHeaders.RETRY_AFTER, busyRetryAfter);
+            return ApiResponse.fail(503, msg);
+        }
+        resp.setStatus(HttpStatus.BAD_REQUEST.value());
         return ApiResponse.fail(400, msg);
     }
 
     /** 处理所有未捕获的 RuntimeException */
     @ExceptionHandler(RuntimeException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ApiResponse<Void> handleRuntimeException(RuntimeException ex) {
-        // 可以打印日志：日志框架自行决定
-        ex.printStackTrace();
+    public ApiResponse<Void> handleRuntimeException(HttpServletRequest req, RuntimeException ex) {
+        errorAggregator.record(ex, req.getMethod() + " " + req.getRequestURI());
         return ApiResponse.fail(500, "服务内部错误: " + ex.getMessage());
     }
 
@@ -0,0 +1,174 @@
+package com.dfss.springboot.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * <p>统计响应体字节数，供 {@link ApiLoggingInterceptor} 在 afterCompletion 中读取。</p>
+ *
+ * <p>Jackson、String 等消息转换器都直接写 OutputStream，大多数响应没有 Content-Length 头，只能在输出流上计数。
+ * 过滤器只包装输出流与 Writer 并累加长度，不缓存响应内容；放在过滤器链的最内层，计数的是 Controller 实际写出的
+ * 字节，不受外层过滤器改写或延迟输出的影响。通过 Writer 写出的内容按字符数计。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ResponseSizeFilter extends OncePerRequestFilter {
+
+    private static final String ATTRIBUTE = ResponseSizeFilter.class.getName() + ".response";
+
+    private final AccessLogProperties properties;
+
+
+
+    public ResponseSizeFilter(AccessLogProperties properties) {
+        this.properties = properties;
+    }
+
+
+
+    /**
+     * 当前请求已写出的响应体字节数，请求未经过本过滤器时为 -1。
+     */
+    static long bytesWritten(HttpServletRequest request) {
+        Object response = request.getAttribute(ATTRIBUTE);
+        return response instanceof CountingResponse counting ? counting.count : -1;
+    }
+
+
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CountingResponse counting = new CountingResponse(response);
+        request.setAttribute(ATTRIBUTE, counting);
+        chain.doFilter(request, counting);
+    }
+
+
+
+    /**
+     * 对输出流与 Writer 计数的响应包装。
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        // 只由处理请求的线程写入，afterCompletion 在同一线程读取
+        private long count;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new CountingWriter(super.getWriter()));
+            }
+            return writer;
+        }
+
+        private final class CountingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            CountingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                count++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                count += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                delegate.setWriteListener(listener);
+            }
+        }
+
+        private final class CountingWriter extends Writer {
+
+            private final Writer delegate;
+
+            CountingWriter(Writer delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(char[] buf, int off, int len) throws IOException {
+                delegate.write(buf, off, len);
+                count += len;
+            }
+
+            @Override
+            public void write(String str, int off, int len) throws IOException {
+                delegate.write(str, off, len);
+                count += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.dfss.springboot.web;
+
+import com.dfss.springboot.api.ApiResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <p>Controller 返回 {@link Stream} 或 {@link Iterator} 时逐条序列化写出，内存占用与结果集大小无关。</p>
+ *
+ * <p>返回值通常来自数据库游标（如 {@code DataBaseOperation.stream}），两种输出格式：</p>
+ * <ul>
+ *   <li>默认：与 {@link GlobalResponseHandler} 相同的信封，先写出 {@code {"code":200,"message":"success","data":[}，
+ *   再逐条写出元素，最后补齐 {@code ]}}；</li>
+ *   <li>请求 {@code Accept} 包含 {@code application/x-ndjson} 时输出 NDJSON，每行一个元素，不带信封，
+ *   客户端可以边读边处理。</li>
+ * </ul>
+ * <p>元素直接序列化到响应输出流，Jackson 与容器的缓冲区写满即以 chunked 方式发送，另外每 {@value #FLUSH_EVERY}
+ * 个元素主动 flush 一次。写出结束或失败后都会关闭 Stream（归还游标连接）；响应尚未提交时失败会清空缓冲区，
+ * 交给全局异常处理器返回错误信封，已提交后只能中断连接，客户端会收到不完整的 JSON。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Slf4j
+public class StreamingReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    // 每写出多少个元素主动 flush 一次
+    private static final int FLUSH_EVERY = 256;
+
+    private final ObjectMapper objectMapper;
+
+    // 逐条写出时不能每个元素都 flush 到底层输出流
+    private final ObjectWriter elementWriter;
+
+
+
+    public StreamingReturnValueHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.elementWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        Class<?> type = returnType.getParameterType();
+        return Stream.class.isAssignableFrom(type) || Iterator.class.isAssignableFrom(type);
+    }
+
+
+
+    @Override
+    public void handleReturnValue(
+            Object returnValue,
+            MethodParameter returnType,
+            ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest) throws Exception {
+        mavContainer.setRequestHandled(true);
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        // 响应体 ETag 需要缓冲整个响应，流式输出时跳过
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        Iterator<?> iterator;
+        AutoCloseable resource;
+        if (returnValue instanceof Stream<?> stream) {
+            iterator = stream.iterator();
+            resource = stream;
+        } else if (returnValue instanceof Iterator<?> it) {
+            iterator = it;
+            resource = it instanceof AutoCloseable closeable ? closeable : null;
+        } else {
+            iterator = List.of().iterator();
+            resource = null;
+        }
+        try (resource) {
+            write(iterator, ndjson(request), response);
+        }
+    }
+
+
+
+    private void write(Iterator<?> iterator, boolean ndjson, HttpServletResponse response) throws IOException {
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(response.getOutputStream(), JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // NDJSON 的行分隔符自行写出，不使用 Jackson 默认的空格分隔
+        generator.setRootValueSeparator(null);
+        try {
+            if (!ndjson) {
+                ApiResponse<Void> envelope = ApiResponse.ok();
+                generator.writeStartObject();
+                generator.writeNumberField("code", envelope.getCode());
+                generator.writeStringField("message", envelope.getMessage());
+                generator.writeArrayFieldStart("data");
+            }
+            int count = 0;
+            while (iterator.hasNext()) {
+                elementWriter.writeValue(generator, iterator.next());
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.flush();
+        } catch (IOException | RuntimeException ex) {
+            if (!response.isCommitted()) {
+                // 丢弃已缓冲的半截 JSON，交给异常处理器重新写出错误响应；Jackson 自身的缓冲区不再 flush
+                response.resetBuffer();
+            } else {
+                log.warn("流式响应在写出过程中失败，响应已提交，连接将被中断: {}", ex.toString());
+            }
+            throw ex;
+        }
+    }
+
+
+
+    private static boolean ndjson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+        } catch (InvalidMediaTypeException ex) {
+            return false;
+        }
+    }
+}
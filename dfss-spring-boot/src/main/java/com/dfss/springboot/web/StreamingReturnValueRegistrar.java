@@ -0,0 +1,48 @@
+package com.dfss.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>把 {@link StreamingReturnValueHandler} 放到返回值处理器列表的最前面。</p>
+ *
+ * <p>{@code WebMvcConfigurer#addReturnValueHandlers} 注册的处理器排在内置处理器之后，而 {@code @RestController}
+ * 的返回值会先被 {@code RequestResponseBodyMethodProcessor} 接管并交给 Jackson 整体序列化，无法逐条写出，
+ * 因此需要在 {@link RequestMappingHandlerAdapter} 初始化完成后重新设置列表。</p>
+ *
+ * @author shushun
+ * @since 2025-06-02
+ */
+@Component
+public class StreamingReturnValueRegistrar implements SmartInitializingSingleton {
+
+    private final RequestMappingHandlerAdapter adapter;
+    private final ObjectMapper objectMapper;
+
+
+
+    public StreamingReturnValueRegistrar(RequestMappingHandlerAdapter adapter, ObjectMapper objectMapper) {
+        this.adapter = adapter;
+        this.objectMapper = objectMapper;
+    }
+
+
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<HandlerMethodReturnValueHandler> current = adapter.getReturnValueHandlers();
+        if (current == null || current.stream().anyMatch(StreamingReturnValueHandler.class::isInstance)) {
+            return;
+        }
+        List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(current.size() + 1);
+        handlers.add(new StreamingReturnValueHandler(objectMapper));
+        handlers.addAll(current);
+        adapter.setReturnValueHandlers(handlers);
+    }
+}
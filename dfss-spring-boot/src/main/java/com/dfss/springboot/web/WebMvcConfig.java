@@ -1,7 +1,13 @@
 package com.dfss.springboot.web;
 
 import jakarta.annotation.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -9,11 +15,15 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * Web MVC 配置：注册自定义拦截器
  */
 @Configuration
+@EnableConfigurationProperties({AccessLogProperties.class, EtagProperties.class, ErrorAggregationProperties.class})
 public class WebMvcConfig implements WebMvcConfigurer {
 
     @Resource
     private ApiLoggingInterceptor apiLoggingInterceptor;
 
+    @Resource
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+
 
 
     @Override
@@ -22,5 +32,26 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .addInterceptor(apiLoggingInterceptor)
                 .addPathPatterns("/**")     // 拦截所有路径
                 .excludePathPatterns("/error"); // 排除 Spring Boot 默认的 /error 断点
+        // 排在访问日志之后，提前返回的 304 仍会记录访问日志
+        registry
+                .addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/**")
+                .excludePathPatterns("/error");
+    }
+
+
+
+    /**
+     * 按响应体 MD5 生成强 ETag（需 {@code dfss.web.etag.shallow=true} 开启），放在 {@link ResponseSizeFilter} 外层，
+     * 字节计数仍是 Controller 实际写出的内容。
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "dfss.web.etag", name = "shallow", havingValue = "true")
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter(EtagProperties properties) {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.setUrlPatterns(properties.getShallowUrlPatterns());
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 100);
+        return registration;
     }
 }
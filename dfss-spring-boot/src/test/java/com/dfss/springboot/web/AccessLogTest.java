@@ -0,0 +1,219 @@
+package com.dfss.springboot.web;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 访问日志测试：慢请求、错误与异常总是记录而其余按比例采样，响应体字节数按输出流与 Writer 计数，缓冲区写满时丢弃并汇总报告。
+ */
+class AccessLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("dfss.access");
+    private final CapturingAppender appender = new CapturingAppender();
+    private final AccessLogProperties properties = new AccessLogProperties();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private ApiLoggingInterceptor interceptor;
+    private MockMvc mvc;
+
+
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+        properties.setSampleRate(0);
+        properties.setSlowThreshold(Duration.ofMillis(50));
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("registry", registry);
+        interceptor = new ApiLoggingInterceptor(properties, beans.getBeanProvider(MeterRegistry.class));
+        mvc = MockMvcBuilders.standaloneSetup(new AccessController())
+                .addFilters(new ResponseSizeFilter(properties))
+                .addInterceptors(interceptor)
+                .build();
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        interceptor.destroy();
+        logger.detachAppender(appender);
+    }
+
+
+
+    @Test
+    void slowAndFailedRequestsBypassSampling() throws Exception {
+        mvc.perform(get("/users/1"));
+        mvc.perform(get("/slow"));
+        mvc.perform(get("/unavailable"));
+        assertThrows(ServletException.class, () -> mvc.perform(get("/fail")));
+        properties.setSampleRate(1);
+        mvc.perform(get("/users/2"));
+        interceptor.destroy();
+
+        List<String> lines = appender.lines(Level.INFO);
+        assertEquals(4, lines.size(), lines.toString());
+        assertTrue(lines.get(0).contains("route=/slow uri=/slow status=200"), lines.get(0));
+        assertTrue(lines.get(0).contains("reason=slow"), lines.get(0));
+        assertTrue(lines.get(1).contains("status=503"), lines.get(1));
+        assertTrue(lines.get(1).contains("reason=error error=-"), lines.get(1));
+        assertTrue(lines.get(2).contains("status=500"), lines.get(2));
+        assertTrue(lines.get(2).contains("error=java.lang.IllegalStateException"), lines.get(2));
+        assertTrue(lines.get(3).contains("route=/users/{id} uri=/users/2"), lines.get(3));
+        assertTrue(lines.get(3).contains("reason=sample"), lines.get(3));
+        // 耗时指标不受采样影响，按路由模板聚合
+        assertEquals(2, registry.get("dfss.http.route").tags("route", "/users/{id}", "status", "200").timer().count());
+    }
+
+
+
+    @Test
+    void countsBytesWrittenThroughStreamAndWriter() throws Exception {
+        properties.setSampleRate(1);
+        mvc.perform(get("/users/12"));
+        mvc.perform(get("/writer"));
+        interceptor.destroy();
+
+        List<String> lines = appender.lines(Level.INFO);
+        assertEquals(2, lines.size(), lines.toString());
+        // "user-12" 经消息转换器写入输出流
+        assertTrue(lines.get(0).contains("bytes_out=7 "), lines.get(0));
+        // Writer 按字符数计
+        assertTrue(lines.get(1).contains("bytes_out=5 "), lines.get(1));
+    }
+
+
+
+    @Test
+    void fullBufferDropsAndReportsCount() throws Exception {
+        AccessLogWriter writer = new AccessLogWriter(16);
+        appender.block();
+        writer.offer(record("/first"));
+        // 后台线程取走第一条后卡在输出上，缓冲区只能再容纳 16 条
+        assertTrue(appender.blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 20; i++) {
+            writer.offer(record("/queued-" + i));
+        }
+        appender.release();
+        writer.close();
+        writer.offer(record("/after-close"));
+        writer.close();
+
+        assertEquals(17, appender.lines(Level.INFO).size());
+        assertEquals(List.of("访问日志缓冲区已满，丢弃 4 条记录", "访问日志缓冲区已满，丢弃 1 条记录"),
+                appender.lines(Level.WARN));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static AccessLogRecord record(String uri) {
+        return new AccessLogRecord(System.currentTimeMillis(), "GET", uri, uri, 200, 1_000_000L, -1, 0,
+                "127.0.0.1", null, "sample");
+    }
+
+
+
+    /**
+     * 收集格式化后的日志；block 之后第一条日志会卡住输出线程，直到 release。
+     */
+    static class CapturingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean blocking;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            events.add(event);
+            if (blocking) {
+                blocking = false;
+                blocked.countDown();
+                try {
+                    released.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void block() {
+            blocking = true;
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        List<String> lines(Level level) {
+            return events.stream()
+                    .filter(event -> event.getLevel() == level)
+                    .map(ILoggingEvent::getFormattedMessage)
+                    .toList();
+        }
+    }
+
+
+
+    @RestController
+    static class AccessController {
+
+        @GetMapping("/users/{id}")
+        String user(@PathVariable("id") String id) {
+            return "user-" + id;
+        }
+
+        @GetMapping("/slow")
+        String slow() throws InterruptedException {
+            Thread.sleep(80);
+            return "slow";
+        }
+
+        @GetMapping("/unavailable")
+        ResponseEntity<Void> unavailable() {
+            return ResponseEntity.status(503).build();
+        }
+
+        @GetMapping("/fail")
+        String fail() {
+            throw new IllegalStateException("boom");
+        }
+
+        @GetMapping("/writer")
+        void writer(HttpServletResponse response) throws IOException {
+            response.getWriter().write("hello");
+        }
+    }
+}
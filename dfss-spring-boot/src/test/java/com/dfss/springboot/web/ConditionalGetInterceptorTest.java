@@ -0,0 +1,180 @@
+package com.dfss.springboot.web;
+
+import com.dfss.common.version.TableVersionSource;
+import com.dfss.springboot.annotation.ConditionalGet;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 条件 GET 测试：If-None-Match / If-Modified-Since 命中时不进入 Controller 直接返回 304，表版本变化后重新返回 200，
+ * 以及存在多个表版本来源时的选择。
+ */
+class ConditionalGetInterceptorTest {
+
+    private final Map<String, String> versions = new HashMap<>();
+    private final AtomicInteger invocations = new AtomicInteger();
+    private DefaultListableBeanFactory beans;
+    private MockMvc mvc;
+
+
+
+    @BeforeEach
+    void setUp() {
+        versions.put("user", "1");
+        beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("versions", (TableVersionSource) versions::get);
+        mvc = MockMvcBuilders.standaloneSetup(new UserController())
+                .setControllerAdvice(new ConditionalGetAdvice())
+                .addInterceptors(new ConditionalGetInterceptor(
+                        new EtagProperties(), beans.getBeanProvider(TableVersionSource.class)))
+                .build();
+    }
+
+
+
+    @Test
+    void matchingEtagReturns304WithoutInvokingController() throws Exception {
+        String etag = get200("/users", null);
+        assertEquals(1, invocations.get());
+
+        MvcResult cached = mvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertEquals(304, cached.getResponse().getStatus());
+        assertEquals(etag, cached.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals("", cached.getResponse().getContentAsString());
+        assertEquals(1, invocations.get());
+
+        // 弱比较与多值列表
+        assertEquals(304, status("/users", "\"other\", W/" + etag));
+        assertEquals(1, invocations.get());
+    }
+
+
+
+    @Test
+    void versionChangeOrDifferentQueryMisses() throws Exception {
+        String etag = get200("/users", null);
+
+        assertNotEquals(etag, get200("/users?page=2", etag));
+        versions.put("user", "2");
+        String changed = get200("/users", etag);
+        assertNotEquals(etag, changed);
+        assertEquals(304, status("/users", changed));
+    }
+
+
+
+    @Test
+    void unknownVersionOrPlainEndpointHasNoEtag() throws Exception {
+        versions.remove("user");
+        assertNull(mvc.perform(get("/users")).andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        assertNull(mvc.perform(get("/plain")).andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+
+
+    @Test
+    void ifModifiedSinceIsComparedAtSecondPrecision() throws Exception {
+        beans.destroySingleton("versions");
+        beans.registerSingleton("versions", new TableVersionSource() {
+            @Override
+            public String version(String table) {
+                return "1";
+            }
+
+            @Override
+            public long lastModified(String table) {
+                return 1_700_000_000_500L;
+            }
+        });
+
+        MvcResult first = mvc.perform(get("/users")).andReturn();
+        long lastModified = first.getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED);
+        assertEquals(1_700_000_000_000L, lastModified);
+
+        assertEquals(304, mvc.perform(get("/users").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andReturn().getResponse().getStatus());
+        assertEquals(200, mvc.perform(get("/users").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified - 1000))
+                .andReturn().getResponse().getStatus());
+    }
+
+
+
+    @Test
+    void multipleSourcesRequirePrimary() throws Exception {
+        beans.registerBeanDefinition("other", new RootBeanDefinition(TableVersionSource.class, () -> table -> "x"));
+        assertThrows(ServletException.class, () -> mvc.perform(get("/users")));
+
+        RootBeanDefinition primary = new RootBeanDefinition(TableVersionSource.class, () -> table -> "x");
+        primary.setPrimary(true);
+        beans.removeBeanDefinition("other");
+        beans.registerBeanDefinition("other", primary);
+        String etag = get200("/users", null);
+        versions.put("user", "2");
+        assertEquals(304, status("/users", etag));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private String get200(String uri, String ifNoneMatch) throws Exception {
+        MvcResult result = mvc.perform(request(uri, ifNoneMatch)).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+
+
+    private int status(String uri, String ifNoneMatch) throws Exception {
+        return mvc.perform(request(uri, ifNoneMatch)).andReturn().getResponse().getStatus();
+    }
+
+
+
+    private static MockHttpServletRequestBuilder request(String uri, String ifNoneMatch) {
+        return ifNoneMatch == null ? get(uri) : get(uri).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+
+
+
+    @RestController
+    class UserController {
+
+        @ConditionalGet("user")
+        @GetMapping("/users")
+        String users() {
+            invocations.incrementAndGet();
+            return "users";
+        }
+
+
+
+        @GetMapping("/plain")
+        String plain() {
+            return "plain";
+        }
+    }
+}
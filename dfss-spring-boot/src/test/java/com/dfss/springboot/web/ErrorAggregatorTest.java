@@ -0,0 +1,136 @@
+package com.dfss.springboot.web;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异常聚合测试：指纹归并、每个窗口的堆栈限流与下一窗口的汇总、指纹数上限。
+ */
+class ErrorAggregatorTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ErrorAggregator.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final ErrorAggregationProperties properties = new ErrorAggregationProperties();
+
+
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        logger.addAppender(appender);
+        properties.setFingerprintFrames(1);
+    }
+
+
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+    }
+
+
+
+    @Test
+    void sameSiteSharesFingerprint() {
+        ErrorAggregator aggregator = new ErrorAggregator(properties);
+
+        String first = aggregator.record(failure("a"), "GET /a");
+        String second = aggregator.record(failure("b"), "GET /b");
+        String other = aggregator.record(new IllegalStateException("c"), "GET /c");
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        List<ErrorAggregator.ErrorSummary> top = aggregator.top(10);
+        assertEquals(2, top.size());
+        assertEquals(first, top.get(0).id());
+        assertEquals(2, top.get(0).count());
+        assertEquals("b", top.get(0).message());
+        assertEquals(IllegalArgumentException.class.getName(), top.get(0).rootCause());
+    }
+
+
+
+    @Test
+    void tracesAreLimitedPerWindowAndSuppressedCountIsReported() throws InterruptedException {
+        properties.setTracesPerWindow(2);
+        properties.setWindow(Duration.ofMillis(200));
+        ErrorAggregator aggregator = new ErrorAggregator(properties);
+
+        for (int i = 0; i < 5; i++) {
+            aggregator.record(failure("burst"), "GET /burst");
+        }
+        assertEquals(2, appender.list.size());
+        appender.list.forEach(event -> assertNotNull(event.getThrowableProxy()));
+
+        Thread.sleep(250);
+        aggregator.record(failure("next"), "GET /burst");
+        assertEquals(4, appender.list.size());
+        ILoggingEvent summary = appender.list.get(2);
+        assertEquals(Level.ERROR, summary.getLevel());
+        assertNull(summary.getThrowableProxy());
+        assertTrue(summary.getFormattedMessage().contains("另有 3 次"), summary.getFormattedMessage());
+        assertNotNull(appender.list.get(3).getThrowableProxy());
+    }
+
+
+
+    @Test
+    void countNeverLogs() {
+        ErrorAggregator aggregator = new ErrorAggregator(properties);
+
+        DataBaseOperationException expected = new DataBaseOperationException(DataBaseErrorCode.INVALID_PAGINATION);
+        String id = aggregator.count(expected);
+        aggregator.count(new DataBaseOperationException(DataBaseErrorCode.INVALID_PAGINATION, "another"));
+
+        assertTrue(appender.list.isEmpty());
+        ErrorAggregator.ErrorSummary summary = aggregator.top(1).get(0);
+        assertEquals(id, summary.id());
+        assertEquals(2, summary.count());
+        assertTrue(summary.type().endsWith("[" + DataBaseErrorCode.INVALID_PAGINATION.getCode() + "]"));
+    }
+
+
+
+    @Test
+    void fingerprintsBeyondLimitGoToOther() {
+        properties.setMaxFingerprints(1);
+        ErrorAggregator aggregator = new ErrorAggregator(properties);
+
+        aggregator.count(failure("a"));
+        aggregator.count(new IllegalStateException("b"));
+        aggregator.count(new UnsupportedOperationException("c"));
+
+        List<ErrorAggregator.ErrorSummary> top = aggregator.top(10);
+        assertEquals(2, top.size());
+        assertEquals("OTHER", top.get(0).id());
+        assertEquals(2, top.get(0).count());
+
+        aggregator.reset();
+        assertTrue(aggregator.top(10).isEmpty());
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    private static RuntimeException failure(String message) {
+        return new RuntimeException(message, new IllegalArgumentException("root cause"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.dfss.springboot.web;
+
+import com.dfss.common.code.DataBaseErrorCode;
+import com.dfss.common.exceptions.DataBaseOperationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 全局异常处理测试：DataBaseOperationException 按错误码映射 HTTP 状态，准入拒绝返回 503 与 Retry-After。
+ */
+class GlobalExceptionHandlerTest {
+
+    private final ErrorAggregationProperties properties = new ErrorAggregationProperties();
+    private MockMvc mvc;
+
+
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(new FailingController())
+                .setControllerAdvice(new GlobalExceptionHandler(new ErrorAggregator(properties), properties))
+                .build();
+    }
+
+
+
+    @Test
+    void expectedCodeIsClientError() throws Exception {
+        MvcResult result = mvc.perform(get("/fail/INVALID_PAGINATION")).andReturn();
+
+        assertEquals(400, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString().contains("DB_OP_006"));
+    }
+
+
+
+    @Test
+    void unexpectedCodeIsServerError() throws Exception {
+        assertEquals(500, mvc.perform(get("/fail/SQL_EXECUTION_FAILED")).andReturn().getResponse().getStatus());
+        assertEquals(500, mvc.perform(get("/fail/UNSUPPORTED_DIALECT")).andReturn().getResponse().getStatus());
+    }
+
+
+
+    @Test
+    void admissionRejectionIsRetryableUnavailable() throws Exception {
+        properties.setBusyRetryAfter(Duration.ofMillis(1500));
+        setUp();
+
+        MvcResult result = mvc.perform(get("/fail/ADMISSION_REJECTED")).andReturn();
+
+        assertEquals(503, result.getResponse().getStatus());
+        assertEquals("2", result.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    @RestController
+    static class FailingController {
+
+        @GetMapping("/fail/{code}")
+        String fail(@PathVariable("code") DataBaseErrorCode code) {
+            throw new DataBaseOperationException(code);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.dfss.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 流式返回值测试：经 {@link StreamingReturnValueRegistrar} 注册后 {@code @RestController} 返回的 Stream 按信封或 NDJSON
+ * 逐条写出，写出结束与中途失败都会关闭 Stream，失败时由全局异常处理器返回错误信封。
+ */
+class StreamingReturnValueHandlerTest {
+
+    private static final AtomicInteger CLOSED = new AtomicInteger();
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mvc;
+
+
+
+    @BeforeEach
+    void setUp() {
+        CLOSED.set(0);
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(StreamingConfig.class);
+        context.refresh();
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+
+
+    @Test
+    void defaultOutputIsEnvelope() throws Exception {
+        MvcResult result = mvc.perform(get("/rows")).andReturn();
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        assertEquals("{\"code\":200,\"message\":\"success\",\"data\":[{\"id\":1},{\"id\":2},{\"id\":3}]}",
+                result.getResponse().getContentAsString());
+        assertEquals(1, CLOSED.get());
+    }
+
+
+
+    @Test
+    void ndjsonWritesOneElementPerLine() throws Exception {
+        MvcResult result = mvc.perform(get("/rows").header(HttpHeaders.ACCEPT, "application/x-ndjson")).andReturn();
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentType().startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+        assertEquals("{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n", result.getResponse().getContentAsString());
+        assertEquals(1, CLOSED.get());
+    }
+
+
+
+    @Test
+    void failureClosesStreamAndDiscardsPartialBody() throws Exception {
+        MvcResult result = mvc.perform(get("/broken")).andReturn();
+
+        assertEquals(1, CLOSED.get());
+        assertEquals(500, result.getResponse().getStatus());
+        String body = result.getResponse().getContentAsString();
+        // 已缓冲的半截信封被丢弃，只剩异常处理器写出的错误信封
+        assertFalse(body.contains("\"data\":["), body);
+        assertTrue(body.startsWith("{\"code\":500"), body);
+    }
+
+    //==================== 辅助方法 ====================
+
+
+
+    @Configuration
+    @EnableWebMvc
+    @Import(StreamingReturnValueRegistrar.class)
+    static class StreamingConfig {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+
+
+        @Bean
+        RowController rowController() {
+            return new RowController();
+        }
+
+
+
+        @Bean
+        GlobalExceptionHandler globalExceptionHandler() {
+            ErrorAggregationProperties properties = new ErrorAggregationProperties();
+            return new GlobalExceptionHandler(new ErrorAggregator(properties), properties);
+        }
+    }
+
+
+
+    @RestController
+    static class RowController {
+
+        @GetMapping("/rows")
+        Stream<Map<String, Integer>> rows() {
+            return Stream.of(1, 2, 3).map(id -> Map.of("id", id)).onClose(CLOSED::incrementAndGet);
+        }
+
+
+
+        @GetMapping("/broken")
+        Stream<Map<String, Integer>> broken() {
+            return Stream.of(1, 2, 3).map(id -> {
+                if (id == 3) {
+                    throw new IllegalStateException("cursor lost");
+                }
+                return Map.of("id", id);
+            }).onClose(CLOSED::incrementAndGet);
+        }
+    }
+}